@@ -0,0 +1,29 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.limiter.ConcurrencyLimiters;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * This Configuration puts the adaptive concurrency limits in front of the controllers, unless
+ * "quora.concurrency-limit.enabled" is switched off. It registers its interceptor ahead of the others but the rate
+ * limits, so that a rejected request costs as little as possible and is not counted as a served one.
+ */
+@Configuration
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@ConditionalOnProperty(prefix = "quora.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private ConcurrencyLimiters concurrencyLimiters;
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new ConcurrencyLimitInterceptor(concurrencyLimiters));
+    }
+}
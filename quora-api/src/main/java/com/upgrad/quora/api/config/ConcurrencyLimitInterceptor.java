@@ -0,0 +1,66 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import com.upgrad.quora.service.limiter.AdaptiveConcurrencyLimiter;
+import com.upgrad.quora.service.limiter.ConcurrencyLimiters;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * This interceptor admits a request to the application's controllers only while its route's
+ * {@link AdaptiveConcurrencyLimiter} has room, and rejects it with GEN-002 otherwise, which is returned as 503 Service
+ * Unavailable before any work is done. Requests that end in a server error shrink the limit. A request handled
+ * asynchronously holds its permit until its async dispatch completes.
+ */
+public class ConcurrencyLimitInterceptor implements HandlerInterceptor {
+
+    private static final String CONTROLLER_PACKAGE = "com.upgrad.quora.api.controller.";
+
+    private static final String LISTENER_ATTRIBUTE = ConcurrencyLimitInterceptor.class.getName() + ".listener";
+
+    private final ConcurrencyLimiters concurrencyLimiters;
+
+    public ConcurrencyLimitInterceptor(final ConcurrencyLimiters concurrencyLimiters) {
+        this.concurrencyLimiters = concurrencyLimiters;
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        if (!(handler instanceof HandlerMethod)
+                || !((HandlerMethod) handler).getBeanType().getName().startsWith(CONTROLLER_PACKAGE)) {
+            return true;
+        }
+        //The async dispatch of a request goes through the interceptors again, holding on to the permit of the first
+        if (request.getAttribute(LISTENER_ATTRIBUTE) != null) {
+            return true;
+        }
+        final String route = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        final AdaptiveConcurrencyLimiter.Listener listener = concurrencyLimiters.forRoute(route).tryAcquire();
+        if (listener == null) {
+            throw new UnexpectedException(GenericErrorCode.GEN_002);
+        }
+        request.setAttribute(LISTENER_ATTRIBUTE, listener);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response,
+                                final Object handler, final Exception ex) {
+        final AdaptiveConcurrencyLimiter.Listener listener =
+                (AdaptiveConcurrencyLimiter.Listener) request.getAttribute(LISTENER_ATTRIBUTE);
+        if (listener == null) {
+            return;
+        }
+        request.removeAttribute(LISTENER_ATTRIBUTE);
+        if (ex != null || response.getStatus() >= HttpServletResponse.SC_INTERNAL_SERVER_ERROR) {
+            listener.onDropped();
+        } else {
+            listener.onSuccess();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.upgrad.quora.api.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * This Configuration registers the binary Jackson encodings that clients can ask for through the Accept header,
+ * next to the default JSON one.
+ */
+@Configuration
+public class ContentNegotiationConfiguration {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+
+    public static final String APPLICATION_CBOR_VALUE = "application/cbor";
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter() {
+        final MappingJackson2SmileHttpMessageConverter converter = new MappingJackson2SmileHttpMessageConverter();
+        //The Jackson converters default to UTF-8, which would label a binary body with a charset
+        converter.setDefaultCharset(null);
+        return converter;
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter() {
+        final MappingJackson2CborHttpMessageConverter converter = new MappingJackson2CborHttpMessageConverter();
+        converter.setDefaultCharset(null);
+        return converter;
+    }
+}
@@ -0,0 +1,47 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.metrics.LatencyTracker;
+import com.upgrad.quora.service.metrics.RouteLatencyStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.AbstractHealthIndicator;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reports the routes whose p99 latency over the SLO window exceeds their threshold as details of an UP status. Only
+ * with "quora.latency.slo.readiness" switched on does a breach report the instance OUT_OF_SERVICE, so that it stops
+ * getting traffic until it recovers. It is off by default: the aggregate health is what load balancers probe, and a
+ * breach caused by a shared dependency would take every instance out at once.
+ */
+@Component
+@ConditionalOnProperty(prefix = "quora.latency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LatencySloHealthIndicator extends AbstractHealthIndicator {
+
+    @Autowired
+    private LatencyTracker latencyTracker;
+
+    @Override
+    protected void doHealthCheck(final Health.Builder builder) {
+        final List<RouteLatencyStatistics> breaches = latencyTracker.getSloBreaches();
+        final Map<String, Object> breachedRoutes = new LinkedHashMap<>();
+        for (RouteLatencyStatistics breach : breaches) {
+            final Map<String, Object> details = new LinkedHashMap<>();
+            details.put("sloP99Ms", breach.getSloP99Millis());
+            breach.getWindows().stream()
+                    .filter(window -> window.getMinutes() == latencyTracker.getSloWindowMinutes())
+                    .forEach(window -> details.put("p99Ms", window.getP99Millis()));
+            breachedRoutes.put(breach.getRoute(), details);
+        }
+        if (breaches.isEmpty() || !latencyTracker.isSloReadiness()) {
+            builder.up();
+        } else {
+            builder.outOfService();
+        }
+        builder.withDetail("windowMinutes", latencyTracker.getSloWindowMinutes()).withDetail("breaches", breachedRoutes);
+    }
+}
@@ -0,0 +1,25 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.metrics.LatencyTracker;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * This Configuration times every request to the controllers into the {@link LatencyTracker}, unless
+ * "quora.latency.enabled" is switched off.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "quora.latency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LatencyTrackingConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private LatencyTracker latencyTracker;
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new RouteLatencyInterceptor(latencyTracker));
+    }
+}
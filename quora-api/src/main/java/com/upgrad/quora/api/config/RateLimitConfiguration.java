@@ -0,0 +1,29 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.limiter.TokenBucketRateLimiter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * This Configuration puts the per client rate limits in front of the controllers, unless "quora.rate-limit.enabled"
+ * is switched off. It registers its interceptor first of all, so that a client over its limit neither takes a permit
+ * of the concurrency limits nor reaches the database.
+ */
+@Configuration
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(prefix = "quora.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private TokenBucketRateLimiter rateLimiter;
+
+    @Override
+    public void addInterceptors(final InterceptorRegistry registry) {
+        registry.addInterceptor(new RateLimitInterceptor(rateLimiter));
+    }
+}
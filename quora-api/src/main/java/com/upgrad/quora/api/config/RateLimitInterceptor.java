@@ -0,0 +1,115 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.exception.RateLimitExceededException;
+import com.upgrad.quora.service.limiter.TokenBucketRateLimiter;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This interceptor admits a request to the application's controllers only while its client has tokens left in the
+ * {@link TokenBucketRateLimiter} for the route, and rejects it with RATE-001 otherwise, which is returned as 429 Too
+ * Many Requests. The check runs before the controller, so a rejected request never looks up its access token in the
+ * database.
+ * <p>
+ * Every request takes a token from the bucket of its address. A request that passes also takes one from the bucket of
+ * its credential: the username of a signin, or the authorization header of any other route. Signup carries no
+ * credential. The address bucket comes first, so made-up tokens or usernames cannot create buckets faster than
+ * the address is allowed to send requests. A password guess is counted against its username, whatever the address.
+ * Credentials are only kept as hashes.
+ * <p>
+ * The address is the one the servlet container resolved for the request. With "server.use-forward-headers" on, a
+ * request relayed by one of "server.tomcat.internal-proxies" carries the address of its client from X-Forwarded-For,
+ * so that the clients behind a load balancer do not share the bucket of the load balancer. The header is ignored when
+ * it comes from any other peer, so a client cannot pick its own address.
+ */
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private static final String CONTROLLER_PACKAGE = "com.upgrad.quora.api.controller.";
+
+    private static final String SIGNIN_ROUTE = "POST /user/signin";
+
+    private static final String SIGNUP_ROUTE = "POST /user/signup";
+
+    private static final String BASIC_PREFIX = "Basic ";
+
+    private final TokenBucketRateLimiter rateLimiter;
+
+    public RateLimitInterceptor(final TokenBucketRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler)
+            throws RateLimitExceededException {
+        //The async dispatch of a request goes through the interceptors again, but was admitted with the first
+        if (request.getDispatcherType() == DispatcherType.ASYNC || !(handler instanceof HandlerMethod)
+                || !((HandlerMethod) handler).getBeanType().getName().startsWith(CONTROLLER_PACKAGE)) {
+            return true;
+        }
+        final String route = request.getMethod() + " " + request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        long waitNanos = rateLimiter.tryAcquire(route, "address " + request.getRemoteAddr());
+        if (waitNanos == 0) {
+            final String credential = credential(route, request.getHeader("authorization"));
+            if (credential != null) {
+                waitNanos = rateLimiter.tryAcquire(route, credential);
+            }
+        }
+        if (waitNanos > 0) {
+            final long retryAfterSeconds = (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+            throw new RateLimitExceededException("RATE-001", "Too many requests, please try again later", retryAfterSeconds);
+        }
+        return true;
+    }
+
+    /**
+     * This method builds the key of the credential a request is limited by besides its address.
+     *
+     * @param route         The HTTP method and the path pattern of the route
+     * @param authorization The authorization header of the request, may be null
+     * @return String The hashed username of a signin or the hashed authorization header, null if there is none
+     */
+    private static String credential(final String route, final String authorization) {
+        if (authorization == null || SIGNUP_ROUTE.equals(route)) {
+            return null;
+        }
+        if (SIGNIN_ROUTE.equals(route)) {
+            final String userName = basicUserName(authorization);
+            return userName == null ? null : "user " + hash(userName);
+        }
+        return "token " + hash(authorization);
+    }
+
+    private static String basicUserName(final String authorization) {
+        if (!authorization.startsWith(BASIC_PREFIX)) {
+            return null;
+        }
+        try {
+            final String decoded = new String(Base64.getDecoder().decode(authorization.substring(BASIC_PREFIX.length())),
+                    StandardCharsets.UTF_8);
+            final int colon = decoded.indexOf(':');
+            return colon < 0 ? null : decoded.substring(0, colon);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String hash(final String credential) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(credential.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            //Every Java platform implements SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
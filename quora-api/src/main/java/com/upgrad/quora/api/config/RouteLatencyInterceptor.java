@@ -0,0 +1,47 @@
+package com.upgrad.quora.api.config;
+
+import com.upgrad.quora.service.metrics.LatencyTracker;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * This interceptor records the latency of every request to the application's controllers in the
+ * {@link LatencyTracker}, by the HTTP method and the path pattern of its route. A request handled asynchronously is
+ * timed from its first dispatch until its async dispatch completes.
+ */
+public class RouteLatencyInterceptor implements HandlerInterceptor {
+
+    private static final String CONTROLLER_PACKAGE = "com.upgrad.quora.api.controller.";
+
+    private static final String START_ATTRIBUTE = RouteLatencyInterceptor.class.getName() + ".start";
+
+    private final LatencyTracker latencyTracker;
+
+    public RouteLatencyInterceptor(final LatencyTracker latencyTracker) {
+        this.latencyTracker = latencyTracker;
+    }
+
+    @Override
+    public boolean preHandle(final HttpServletRequest request, final HttpServletResponse response, final Object handler) {
+        //The async dispatch of a request goes through the interceptors again, but the request started with the first
+        if (handler instanceof HandlerMethod && request.getAttribute(START_ATTRIBUTE) == null
+                && ((HandlerMethod) handler).getBeanType().getName().startsWith(CONTROLLER_PACKAGE)) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(final HttpServletRequest request, final HttpServletResponse response,
+                                final Object handler, final Exception ex) {
+        final Object start = request.getAttribute(START_ATTRIBUTE);
+        final Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        if (start != null && pattern != null) {
+            latencyTracker.record(request.getMethod() + " " + pattern, System.nanoTime() - (Long) start);
+        }
+    }
+}
@@ -1,13 +1,22 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.upgrad.quora.api.config.ContentNegotiationConfiguration;
 import com.upgrad.quora.api.model.*;
+import com.upgrad.quora.service.bulkhead.Bulkheads;
+import com.upgrad.quora.service.bulkhead.Workload;
 import com.upgrad.quora.service.business.AnswerBusinessService;
+import com.upgrad.quora.service.common.AnswerSummary;
+import com.upgrad.quora.service.common.TaggedContent;
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.exception.InvalidSearchQueryException;
+import com.upgrad.quora.service.search.SearchHit;
+import com.upgrad.quora.service.search.SearchPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -17,6 +26,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/")
@@ -25,6 +35,9 @@ public class AnswerController {
     @Autowired
     private AnswerBusinessService answerBusinessService;
 
+    @Autowired
+    private Bulkheads bulkheads;
+
     /**
      * This method creates answer for a particular question in system.
      *
@@ -35,16 +48,17 @@ public class AnswerController {
      * @throws InvalidQuestionException     This exception is thrown when the question doesn't exists for which the answer is being created
      */
     @RequestMapping(method = RequestMethod.POST, path = "question/{questionId}/answer/create", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<AnswerResponse> createAnswer(final AnswerRequest answerRequest, @RequestHeader("authorization") String accessToken, @PathVariable("questionId") String questionID)
+    public CompletableFuture<ResponseEntity<AnswerResponse>> createAnswer(final AnswerRequest answerRequest, @RequestHeader("authorization") String accessToken, @PathVariable("questionId") String questionID)
             throws InvalidQuestionException, AuthorizationFailedException {
-
-        AnswerEntity answerEntity = new AnswerEntity();
-        answerEntity.setUuid(UUID.randomUUID().toString());
-        answerEntity.setAnswer(answerRequest.getAnswer());
-        answerEntity.setCreatedDate(ZonedDateTime.now());
-        AnswerEntity createdAnswer = answerBusinessService.createAnswer(answerEntity, questionID, accessToken);
-        final AnswerResponse answerResponse = new AnswerResponse().id(createdAnswer.getUuid()).status("ANSWER CREATED");
-        return new ResponseEntity<>(answerResponse, HttpStatus.CREATED);
+        return bulkheads.submit(Workload.WRITE, () -> {
+            AnswerEntity answerEntity = new AnswerEntity();
+            answerEntity.setUuid(UUID.randomUUID().toString());
+            answerEntity.setAnswer(answerRequest.getAnswer());
+            answerEntity.setCreatedDate(ZonedDateTime.now());
+            AnswerEntity createdAnswer = answerBusinessService.createAnswer(answerEntity, questionID, accessToken);
+            final AnswerResponse answerResponse = new AnswerResponse().id(createdAnswer.getUuid()).status("ANSWER CREATED");
+            return new ResponseEntity<>(answerResponse, HttpStatus.CREATED);
+        });
     }
 
     /**
@@ -58,13 +72,14 @@ public class AnswerController {
      * @throws AnswerNotFoundException      This exception is thrown if the answer is not found in database for the entered answerUuid
      */
     @RequestMapping(method = RequestMethod.PUT, path = "/answer/edit/{answerId}", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<AnswerEditResponse> editAnswerContent(final AnswerEditRequest answerEditRequest, @RequestHeader("authorization") String accessToken, @PathVariable("answerId") String answerId)
+    public CompletableFuture<ResponseEntity<AnswerEditResponse>> editAnswerContent(final AnswerEditRequest answerEditRequest, @RequestHeader("authorization") String accessToken, @PathVariable("answerId") String answerId)
             throws AnswerNotFoundException, AuthorizationFailedException {
-
-        String editedContent = answerEditRequest.getContent();
-        AnswerEntity editedAnswer = answerBusinessService.editAnswer(editedContent, accessToken, answerId);
-        final AnswerEditResponse answerResponse = new AnswerEditResponse().id(editedAnswer.getUuid()).status("ANSWER EDITED");
-        return new ResponseEntity<>(answerResponse, HttpStatus.CREATED);
+        return bulkheads.submit(Workload.WRITE, () -> {
+            String editedContent = answerEditRequest.getContent();
+            AnswerEntity editedAnswer = answerBusinessService.editAnswer(editedContent, accessToken, answerId);
+            final AnswerEditResponse answerResponse = new AnswerEditResponse().id(editedAnswer.getUuid()).status("ANSWER EDITED");
+            return new ResponseEntity<>(answerResponse, HttpStatus.CREATED);
+        });
     }
 
     /**
@@ -77,10 +92,12 @@ public class AnswerController {
      * @throws AnswerNotFoundException      This exception is thrown if the answer is not found in database for the entered answerUuid
      */
     @RequestMapping(method = RequestMethod.DELETE, path = "/answer/delete/{answerId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<AnswerDeleteResponse> deleteAnswer(@PathVariable("answerId") final String answerUuid, @RequestHeader("authorization") final String accessToken) throws AuthorizationFailedException, AnswerNotFoundException {
-        answerBusinessService.deleteAnswer(answerUuid, accessToken);
-        final AnswerDeleteResponse answerDeleteResponse = new AnswerDeleteResponse().id(answerUuid).status("ANSWER DELETED");
-        return new ResponseEntity<>(answerDeleteResponse, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<AnswerDeleteResponse>> deleteAnswer(@PathVariable("answerId") final String answerUuid, @RequestHeader("authorization") final String accessToken) throws AuthorizationFailedException, AnswerNotFoundException {
+        return bulkheads.submit(Workload.WRITE, () -> {
+            answerBusinessService.deleteAnswer(answerUuid, accessToken);
+            final AnswerDeleteResponse answerDeleteResponse = new AnswerDeleteResponse().id(answerUuid).status("ANSWER DELETED");
+            return new ResponseEntity<>(answerDeleteResponse, HttpStatus.OK);
+        });
     }
 
     /**
@@ -88,21 +105,64 @@ public class AnswerController {
      *
      * @param questionId  The questionUuid of the question for which the answers are to be fetched
      * @param accessToken The JWT access token of the user passed in the request header.
+     * @param ifNoneMatch The ETag of the list the client already holds, if any.
      * @return ResponseEntity
      * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
      * @throws InvalidQuestionException     This exception is thrown if the question is not found in database for the entered questionId
      */
-    @RequestMapping(method = RequestMethod.GET, path = "answer/all/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<AnswerDetailsResponse>> getAllAnswersToQuestion(@PathVariable("questionId") String questionId, @RequestHeader("authorization") final String accessToken) throws AuthorizationFailedException, InvalidQuestionException {
-        List<AnswerEntity> answerResponses = answerBusinessService.getAllAnswersToQuestion(questionId, accessToken);
-        List<AnswerDetailsResponse> answerDetailsResponses = new ArrayList<>();
-        for (AnswerEntity answerEntity : answerResponses) {
-            AnswerDetailsResponse answerDetailsResponse = new AnswerDetailsResponse();
-            answerDetailsResponse.setId(answerEntity.getUuid());
-            answerDetailsResponse.setQuestionContent(answerEntity.getQuestion().getContent());
-            answerDetailsResponse.setAnswerContent(answerEntity.getAnswer());
-            answerDetailsResponses.add(answerDetailsResponse);
-        }
-        return new ResponseEntity<>(answerDetailsResponses, HttpStatus.OK);
+    @RequestMapping(method = RequestMethod.GET, path = "answer/all/{questionId}", produces = {MediaType.APPLICATION_JSON_UTF8_VALUE,
+            ContentNegotiationConfiguration.APPLICATION_SMILE_VALUE, ContentNegotiationConfiguration.APPLICATION_CBOR_VALUE})
+    public CompletableFuture<ResponseEntity<List<AnswerDetailsResponse>>> getAllAnswersToQuestion(@PathVariable("questionId") String questionId, @RequestHeader("authorization") final String accessToken,
+                                                                               @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) throws AuthorizationFailedException, InvalidQuestionException {
+        return bulkheads.submit(Workload.READ, () -> {
+            final TaggedContent<List<AnswerSummary>> answerResponses = answerBusinessService.getAllAnswersToQuestion(questionId, accessToken, ETags.heldBy(ifNoneMatch));
+            final HttpHeaders headers = ETags.cacheHeaders(answerResponses.getTag());
+            if (!answerResponses.isModified()) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
+
+            List<AnswerDetailsResponse> answerDetailsResponses = new ArrayList<>();
+            for (AnswerSummary answer : answerResponses.getContent()) {
+                AnswerDetailsResponse answerDetailsResponse = new AnswerDetailsResponse();
+                answerDetailsResponse.setId(answer.getUuid());
+                answerDetailsResponse.setQuestionContent(answer.getQuestionContent());
+                answerDetailsResponse.setAnswerContent(answer.getAnswer());
+                answerDetailsResponses.add(answerDetailsResponse);
+            }
+            return new ResponseEntity<>(answerDetailsResponses, headers, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * This method searches all the answers, most relevant first.
+     *
+     * @param query       The words to search for
+     * @param cursor      The nextCursor of the previous page, absent for the first page
+     * @param limit       The number of answers per page
+     * @param accessToken The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
+     * @throws InvalidSearchQueryException  This exception is thrown if the query is blank or the cursor is malformed.
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "answer/search", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<AnswerSearchResponse>> searchAnswers(@RequestParam("query") final String query,
+                                                              @RequestParam(value = "cursor", required = false) final String cursor,
+                                                              @RequestParam(value = "limit", required = false) final Integer limit,
+                                                              @RequestHeader("authorization") final String accessToken)
+            throws AuthorizationFailedException, InvalidSearchQueryException {
+        return bulkheads.submit(Workload.READ, () -> {
+            final SearchPage<AnswerEntity> searchPage = answerBusinessService.searchAnswers(accessToken, query, cursor, limit);
+            List<AnswerDetailsResponse> answerDetailsResponses = new ArrayList<>();
+            for (SearchHit<AnswerEntity> searchHit : searchPage.getHits()) {
+                AnswerDetailsResponse answerDetailsResponse = new AnswerDetailsResponse();
+                answerDetailsResponse.setId(searchHit.getEntity().getUuid());
+                answerDetailsResponse.setQuestionContent(searchHit.getEntity().getQuestion().getContent());
+                answerDetailsResponse.setAnswerContent(searchHit.getEntity().getAnswer());
+                answerDetailsResponses.add(answerDetailsResponse);
+            }
+            final AnswerSearchResponse answerSearchResponse = new AnswerSearchResponse()
+                    .answers(answerDetailsResponses).nextCursor(searchPage.getNextCursor());
+            return new ResponseEntity<>(answerSearchResponse, HttpStatus.OK);
+        });
     }
 }
@@ -1,16 +1,24 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.model.UserAutocompleteResponse;
 import com.upgrad.quora.api.model.UserDetailsResponse;
 import com.upgrad.quora.service.business.CommonBusinessService;
+import com.upgrad.quora.service.common.TaggedContent;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.InvalidSearchQueryException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.search.Completion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @RestController
 @RequestMapping("/")
 public class CommonController {
@@ -23,14 +31,23 @@ public class CommonController {
      *
      * @param userId      The userId of the User to be fetched from database.
      * @param accessToken The JWT access token of the user passed in the request header.
+     * @param ifNoneMatch The ETag of the user details the client already holds, if any.
      * @return ResponseEntity
      * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
      * @throws UserNotFoundException        This exception is thrown if the user is not present in the database for the requested userUuid
      */
     @RequestMapping(method = RequestMethod.GET, path = "/userprofile/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<UserDetailsResponse> userProfile(@RequestHeader("authorization") final String accessToken, @PathVariable("userId") final String userId) throws AuthorizationFailedException, UserNotFoundException {
+    public ResponseEntity<UserDetailsResponse> userProfile(@RequestHeader("authorization") final String accessToken, @PathVariable("userId") final String userId,
+                                                           @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) throws AuthorizationFailedException, UserNotFoundException {
+
+        final TaggedContent<UserEntity> userProfile = commonBusinessService.userProfile(accessToken, userId, ETags.heldBy(ifNoneMatch));
+        final HttpHeaders headers = ETags.cacheHeaders(userProfile.getTag());
+        if (!userProfile.isModified()) {
+            return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+        }
+
+        UserEntity userEntity = userProfile.getContent();
 
-        UserEntity userEntity = commonBusinessService.userProfile(accessToken, userId);
         UserDetailsResponse userDetailsResponse = new UserDetailsResponse().userName(userEntity.getUserName())
                 .firstName(userEntity.getFirstName())
                 .lastName(userEntity.getLastName())
@@ -40,6 +57,30 @@ public class CommonController {
                 .dob(userEntity.getDob())
                 .emailAddress(userEntity.getEmail());
 
-        return new ResponseEntity<>(userDetailsResponse, HttpStatus.OK);
+        return new ResponseEntity<>(userDetailsResponse, headers, HttpStatus.OK);
+    }
+
+    /**
+     * This method completes the start of a username.
+     *
+     * @param accessToken The JWT access token of the user passed in the request header.
+     * @param prefix      The text typed so far
+     * @param limit       The maximum number of completions
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
+     * @throws InvalidSearchQueryException  This exception is thrown if the prefix is blank.
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "/user/autocomplete", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public ResponseEntity<List<UserAutocompleteResponse>> autocompleteUsers(@RequestHeader("authorization") final String accessToken,
+                                                                            @RequestParam("prefix") final String prefix,
+                                                                            @RequestParam(value = "limit", required = false) final Integer limit)
+            throws AuthorizationFailedException, InvalidSearchQueryException {
+
+        final List<Completion> completions = commonBusinessService.autocompleteUsers(accessToken, prefix, limit);
+        List<UserAutocompleteResponse> userAutocompleteResponses = new ArrayList<>();
+        for (Completion completion : completions) {
+            userAutocompleteResponses.add(new UserAutocompleteResponse().id(completion.getUuid()).userName(completion.getText()));
+        }
+        return new ResponseEntity<>(userAutocompleteResponses, HttpStatus.OK);
     }
 }
@@ -0,0 +1,71 @@
+package com.upgrad.quora.api.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+
+import java.util.function.Predicate;
+
+/**
+ * Helpers for the conditional GET support of the polling endpoints. The responses carry a strong ETag built from a
+ * content tag and are cacheable by the client only, which has to revalidate before reusing them.
+ */
+final class ETags {
+
+    private static final String CACHE_CONTROL = CacheControl.noCache().cachePrivate().getHeaderValue();
+
+    private ETags() {
+    }
+
+    /**
+     * This method builds the response headers for the given content tag.
+     *
+     * @param contentTag The tag of the content returned to the client
+     * @return HttpHeaders The ETag and Cache-Control headers
+     */
+    static HttpHeaders cacheHeaders(final String contentTag) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.setETag(eTag(contentTag));
+        headers.setCacheControl(CACHE_CONTROL);
+        return headers;
+    }
+
+    /**
+     * This method tells the business services which content the client already holds, so that they only load the
+     * content when it has changed.
+     *
+     * @param ifNoneMatch The If-None-Match header of the request, may be null
+     * @return Predicate<String> Matches the content tags the If-None-Match header stands for
+     */
+    static Predicate<String> heldBy(final String ifNoneMatch) {
+        return contentTag -> notModified(ifNoneMatch, eTag(contentTag));
+    }
+
+    private static String eTag(final String contentTag) {
+        return "\"" + contentTag + "\"";
+    }
+
+    /**
+     * This method checks whether the If-None-Match header of the request matches the given ETag, in which case the
+     * client already holds the current content.
+     *
+     * @param ifNoneMatch The If-None-Match header of the request, may be null
+     * @param eTag        The ETag of the current content
+     * @return boolean true if a 304 Not Modified can be returned
+     */
+    static boolean notModified(final String ifNoneMatch, final String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            //If-None-Match uses the weak comparison, so a weak validator of the same value matches as well
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(eTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,12 +1,22 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.config.ContentNegotiationConfiguration;
 import com.upgrad.quora.api.model.*;
+import com.upgrad.quora.service.bulkhead.Bulkheads;
+import com.upgrad.quora.service.bulkhead.Workload;
 import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.common.QuestionSummary;
+import com.upgrad.quora.service.common.TaggedContent;
 import com.upgrad.quora.service.entity.QuestionEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.exception.InvalidSearchQueryException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.search.Completion;
+import com.upgrad.quora.service.search.SearchHit;
+import com.upgrad.quora.service.search.SearchPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -16,6 +26,7 @@ import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/")
@@ -24,6 +35,9 @@ public class QuestionController {
     @Autowired
     QuestionBusinessService questionBusinessService;
 
+    @Autowired
+    private Bulkheads bulkheads;
+
     /**
      * This method creates the new question in system.
      *
@@ -33,37 +47,46 @@ public class QuestionController {
      * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
      */
     @RequestMapping(method = RequestMethod.POST, path = "question/create", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<QuestionResponse> createQuestion(
+    public CompletableFuture<ResponseEntity<QuestionResponse>> createQuestion(
             final QuestionRequest questionRequest,
             @RequestHeader("authorization") String authorization) throws AuthorizationFailedException {
-
-        QuestionEntity questionEntity = new QuestionEntity();
-        questionEntity.setUuid(UUID.randomUUID().toString());
-        questionEntity.setContent(questionRequest.getContent());
-        questionEntity.setCreatedDate(ZonedDateTime.now());
-        QuestionEntity createdQuestion = questionBusinessService.createQuestion(questionEntity, authorization);
-        final QuestionResponse questionResponse = new QuestionResponse().id(createdQuestion.getUuid()).status("QUESTION CREATED");
-        return new ResponseEntity<>(questionResponse, HttpStatus.CREATED);
+        return bulkheads.submit(Workload.WRITE, () -> {
+            QuestionEntity questionEntity = new QuestionEntity();
+            questionEntity.setUuid(UUID.randomUUID().toString());
+            questionEntity.setContent(questionRequest.getContent());
+            questionEntity.setCreatedDate(ZonedDateTime.now());
+            QuestionEntity createdQuestion = questionBusinessService.createQuestion(questionEntity, authorization);
+            final QuestionResponse questionResponse = new QuestionResponse().id(createdQuestion.getUuid()).status("QUESTION CREATED");
+            return new ResponseEntity<>(questionResponse, HttpStatus.CREATED);
+        });
     }
 
     /**
      * This method gets all the questions posted by any user
      *
      * @param authorization The JWT access token of the user passed in the request header.
+     * @param ifNoneMatch   The ETag of the list the client already holds, if any.
      * @return ResponseEntity
      * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
      */
-    @RequestMapping(method = RequestMethod.GET, path = "question/all", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestions(
-            @RequestHeader("authorization") String authorization) throws AuthorizationFailedException {
+    @RequestMapping(method = RequestMethod.GET, path = "question/all", produces = {MediaType.APPLICATION_JSON_UTF8_VALUE,
+            ContentNegotiationConfiguration.APPLICATION_SMILE_VALUE, ContentNegotiationConfiguration.APPLICATION_CBOR_VALUE})
+    public CompletableFuture<ResponseEntity<List<QuestionDetailsResponse>>> getAllQuestions(
+            @RequestHeader("authorization") String authorization,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) final String ifNoneMatch) throws AuthorizationFailedException {
+        return bulkheads.submit(Workload.READ, () -> {
+            final TaggedContent<List<QuestionSummary>> questionList = questionBusinessService.getAllQuestions(authorization, ETags.heldBy(ifNoneMatch));
+            final HttpHeaders headers = ETags.cacheHeaders(questionList.getTag());
+            if (!questionList.isModified()) {
+                return new ResponseEntity<>(headers, HttpStatus.NOT_MODIFIED);
+            }
 
-        final List<QuestionEntity> questionList = questionBusinessService.getAllQuestions(authorization);
-        List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>();
-        for (QuestionEntity questionEntity : questionList) {
-            questionDetailsResponseList.add(
-                    new QuestionDetailsResponse().id(questionEntity.getUuid()).content(questionEntity.getContent()));
-        }
-        return new ResponseEntity<>(questionDetailsResponseList, HttpStatus.OK);
+            List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>();
+            for (QuestionSummary question : questionList.getContent()) {
+                questionDetailsResponseList.add(new QuestionDetailsResponse().id(question.getUuid()).content(question.getContent()));
+            }
+            return new ResponseEntity<>(questionDetailsResponseList, headers, HttpStatus.OK);
+        });
     }
 
     /**
@@ -74,18 +97,75 @@ public class QuestionController {
      * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
      */
     @RequestMapping(method = RequestMethod.GET, path = "question/all/{userId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestionsByUser(
+    public CompletableFuture<ResponseEntity<List<QuestionDetailsResponse>>> getAllQuestionsByUser(
             @PathVariable("userId") final String userUuid,
             @RequestHeader("authorization") final String authorization)
             throws AuthorizationFailedException, UserNotFoundException {
+        return bulkheads.submit(Workload.READ, () -> {
+            final List<QuestionSummary> questionList = questionBusinessService.getAllQuestionsByUser(authorization, userUuid);
+            List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>();
+            for (QuestionSummary question : questionList) {
+                questionDetailsResponseList.add(new QuestionDetailsResponse().id(question.getUuid()).content(question.getContent()));
+            }
+            return new ResponseEntity<>(questionDetailsResponseList, HttpStatus.OK);
+        });
+    }
 
-        final List<QuestionEntity> questionList = questionBusinessService.getAllQuestionsByUser(authorization, userUuid);
-        List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>();
-        for (QuestionEntity questionEntity : questionList) {
-            questionDetailsResponseList.add(
-                    new QuestionDetailsResponse().id(questionEntity.getUuid()).content(questionEntity.getContent()));
-        }
-        return new ResponseEntity<>(questionDetailsResponseList, HttpStatus.OK);
+    /**
+     * This method searches the content of all the questions, most relevant first.
+     *
+     * @param query         The words to search for
+     * @param cursor        The nextCursor of the previous page, absent for the first page
+     * @param limit         The number of questions per page
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
+     * @throws InvalidSearchQueryException  This exception is thrown if the query is blank or the cursor is malformed.
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "question/search", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<QuestionSearchResponse>> searchQuestions(
+            @RequestParam("query") final String query,
+            @RequestParam(value = "cursor", required = false) final String cursor,
+            @RequestParam(value = "limit", required = false) final Integer limit,
+            @RequestHeader("authorization") final String authorization)
+            throws AuthorizationFailedException, InvalidSearchQueryException {
+        return bulkheads.submit(Workload.READ, () -> {
+            final SearchPage<QuestionEntity> searchPage = questionBusinessService.searchQuestions(authorization, query, cursor, limit);
+            List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>();
+            for (SearchHit<QuestionEntity> searchHit : searchPage.getHits()) {
+                questionDetailsResponseList.add(
+                        new QuestionDetailsResponse().id(searchHit.getEntity().getUuid()).content(searchHit.getEntity().getContent()));
+            }
+            final QuestionSearchResponse questionSearchResponse = new QuestionSearchResponse()
+                    .questions(questionDetailsResponseList).nextCursor(searchPage.getNextCursor());
+            return new ResponseEntity<>(questionSearchResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * This method completes the start of a question text with the newest questions starting that way.
+     *
+     * @param prefix        The text typed so far
+     * @param limit         The maximum number of completions
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
+     * @throws InvalidSearchQueryException  This exception is thrown if the prefix is blank.
+     */
+    @RequestMapping(method = RequestMethod.GET, path = "question/autocomplete", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<List<QuestionDetailsResponse>>> autocompleteQuestions(
+            @RequestParam("prefix") final String prefix,
+            @RequestParam(value = "limit", required = false) final Integer limit,
+            @RequestHeader("authorization") final String authorization)
+            throws AuthorizationFailedException, InvalidSearchQueryException {
+        return bulkheads.submit(Workload.READ, () -> {
+            final List<Completion> completions = questionBusinessService.autocompleteQuestions(authorization, prefix, limit);
+            List<QuestionDetailsResponse> questionDetailsResponseList = new ArrayList<>();
+            for (Completion completion : completions) {
+                questionDetailsResponseList.add(new QuestionDetailsResponse().id(completion.getUuid()).content(completion.getText()));
+            }
+            return new ResponseEntity<>(questionDetailsResponseList, HttpStatus.OK);
+        });
     }
 
     /**
@@ -100,17 +180,19 @@ public class QuestionController {
      */
     @RequestMapping(method = RequestMethod.PUT, path = "question/edit/{questionId}",
             consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<QuestionEditResponse> editQuestionContent(
+    public CompletableFuture<ResponseEntity<QuestionEditResponse>> editQuestionContent(
             @PathVariable("questionId") final String questionUuid,
             final QuestionEditRequest questionEditRequest,
             @RequestHeader("authorization") final String authorization)
             throws AuthorizationFailedException, InvalidQuestionException {
-        QuestionEntity questionEntity = new QuestionEntity();
-        questionEntity.setUuid(questionUuid);
-        questionEntity.setContent(questionEditRequest.getContent());
-        questionBusinessService.editQuestion(questionEntity, authorization);
-        final QuestionEditResponse questionEditResponse = new QuestionEditResponse().id(questionUuid).status("QUESTION EDITED");
-        return new ResponseEntity<>(questionEditResponse, HttpStatus.OK);
+        return bulkheads.submit(Workload.WRITE, () -> {
+            QuestionEntity questionEntity = new QuestionEntity();
+            questionEntity.setUuid(questionUuid);
+            questionEntity.setContent(questionEditRequest.getContent());
+            questionBusinessService.editQuestion(questionEntity, authorization);
+            final QuestionEditResponse questionEditResponse = new QuestionEditResponse().id(questionUuid).status("QUESTION EDITED");
+            return new ResponseEntity<>(questionEditResponse, HttpStatus.OK);
+        });
     }
 
     /**
@@ -123,9 +205,11 @@ public class QuestionController {
      * @throws InvalidQuestionException     This exception is thrown if the question doesn't exist in the database
      */
     @RequestMapping(method = RequestMethod.DELETE, path = "question/delete/{questionId}", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<QuestionDeleteResponse> deleteQuestion(@PathVariable("questionId") final String questionUuid, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, InvalidQuestionException {
-        questionBusinessService.deleteQuestion(questionUuid, authorization);
-        final QuestionDeleteResponse questionDeleteResponse = new QuestionDeleteResponse().id(questionUuid).status("QUESTION DELETED");
-        return new ResponseEntity<>(questionDeleteResponse, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<QuestionDeleteResponse>> deleteQuestion(@PathVariable("questionId") final String questionUuid, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, InvalidQuestionException {
+        return bulkheads.submit(Workload.WRITE, () -> {
+            questionBusinessService.deleteQuestion(questionUuid, authorization);
+            final QuestionDeleteResponse questionDeleteResponse = new QuestionDeleteResponse().id(questionUuid).status("QUESTION DELETED");
+            return new ResponseEntity<>(questionDeleteResponse, HttpStatus.OK);
+        });
     }
 }
\ No newline at end of file
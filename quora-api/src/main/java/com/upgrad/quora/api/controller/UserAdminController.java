@@ -1,15 +1,48 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.api.model.LatencyStatisticsResponse;
+import com.upgrad.quora.api.model.LatencyWindowDetails;
+import com.upgrad.quora.api.model.QueryStatisticsDetails;
+import com.upgrad.quora.api.model.QueryStatisticsResponse;
+import com.upgrad.quora.api.model.RecordingResponse;
+import com.upgrad.quora.api.model.RouteLatencyDetails;
+import com.upgrad.quora.api.model.SlowQueryDetails;
+import com.upgrad.quora.api.model.SlowQueryListResponse;
+import com.upgrad.quora.api.model.StatisticsResetResponse;
 import com.upgrad.quora.api.model.UserDeleteResponse;
+import com.upgrad.quora.service.bulkhead.Bulkheads;
+import com.upgrad.quora.service.bulkhead.Workload;
+import com.upgrad.quora.service.business.FlightRecordingBusinessService;
+import com.upgrad.quora.service.business.LatencyStatisticsBusinessService;
+import com.upgrad.quora.service.business.QueryStatisticsBusinessService;
 import com.upgrad.quora.service.business.UserAdminBusinessService;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.FlightRecordingException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.metrics.FlightRecording;
+import com.upgrad.quora.service.metrics.LatencyWindow;
+import com.upgrad.quora.service.metrics.NamedQueryStatistics;
+import com.upgrad.quora.service.metrics.RouteLatencyStatistics;
+import com.upgrad.quora.service.metrics.SlowQuery;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 @RestController
 @RequestMapping("/")
 public class UserAdminController {
@@ -17,6 +50,18 @@ public class UserAdminController {
     @Autowired
     private UserAdminBusinessService userAdminBusinessService;
 
+    @Autowired
+    private QueryStatisticsBusinessService queryStatisticsBusinessService;
+
+    @Autowired
+    private FlightRecordingBusinessService flightRecordingBusinessService;
+
+    @Autowired
+    private LatencyStatisticsBusinessService latencyStatisticsBusinessService;
+
+    @Autowired
+    private Bulkheads bulkheads;
+
     /**
      * This method deletes user in system by admin.
      *
@@ -27,9 +72,184 @@ public class UserAdminController {
      * @throws UserNotFoundException
      */
     @RequestMapping(value = "/admin/user/{userId}", method = RequestMethod.DELETE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<UserDeleteResponse> deleteUser(@PathVariable("userId") final String userUuid, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, UserNotFoundException {
-        userAdminBusinessService.deleteUser(userUuid, authorization);
-        UserDeleteResponse userDeleteResponse = new UserDeleteResponse().id(userUuid).status("USER SUCCESSFULLY DELETED");
-        return new ResponseEntity<>(userDeleteResponse, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<UserDeleteResponse>> deleteUser(@PathVariable("userId") final String userUuid, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, UserNotFoundException {
+        return bulkheads.submit(Workload.ADMIN, () -> {
+            userAdminBusinessService.deleteUser(userUuid, authorization);
+            UserDeleteResponse userDeleteResponse = new UserDeleteResponse().id(userUuid).status("USER SUCCESSFULLY DELETED");
+            return new ResponseEntity<>(userDeleteResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * This method returns the statistics of every query executed since the statistics were last reset, the queries
+     * taking the most database time first.
+     *
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     */
+    @RequestMapping(value = "/admin/statistics/queries", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<QueryStatisticsResponse>> getQueryStatistics(@RequestHeader("authorization") final String authorization) throws AuthorizationFailedException {
+        return bulkheads.submit(Workload.ADMIN, () -> {
+            final List<NamedQueryStatistics> queries = queryStatisticsBusinessService.getQueryStatistics(authorization);
+            final List<QueryStatisticsDetails> queryStatisticsDetails = new ArrayList<>();
+            for (NamedQueryStatistics query : queries) {
+                queryStatisticsDetails.add(new QueryStatisticsDetails().name(query.getName()).query(query.getQuery())
+                        .executionCount(query.getExecutionCount()).rowCount(query.getRowCount())
+                        .maxTimeMs(query.getMaxTimeMillis()).meanTimeMs(query.getMeanTimeMillis())
+                        .totalTimeMs(query.getTotalTimeMillis()));
+            }
+            final QueryStatisticsResponse queryStatisticsResponse = new QueryStatisticsResponse()
+                    .enabled(queryStatisticsBusinessService.isQueryStatisticsEnabled())
+                    .since(queryStatisticsBusinessService.getQueryStatisticsStartTime().toString())
+                    .queries(queryStatisticsDetails);
+            return new ResponseEntity<>(queryStatisticsResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * This method returns the most recent statements that took longer than the slow query threshold.
+     *
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     */
+    @RequestMapping(value = "/admin/statistics/slow-queries", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<SlowQueryListResponse>> getSlowQueries(@RequestHeader("authorization") final String authorization) throws AuthorizationFailedException {
+        return bulkheads.submit(Workload.ADMIN, () -> {
+            final List<SlowQuery> slowQueries = queryStatisticsBusinessService.getSlowQueries(authorization);
+            final List<SlowQueryDetails> slowQueryDetails = new ArrayList<>();
+            for (SlowQuery slowQuery : slowQueries) {
+                slowQueryDetails.add(new SlowQueryDetails().sql(slowQuery.getSql())
+                        .parameterTypes(new ArrayList<>(slowQuery.getParameterTypes()))
+                        .elapsedMs(slowQuery.getElapsedNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1))
+                        .executedAt(slowQuery.getExecutedAt().toString())
+                        .origin(new ArrayList<>(slowQuery.getOrigin())));
+            }
+            final SlowQueryListResponse slowQueryListResponse = new SlowQueryListResponse()
+                    .enabled(queryStatisticsBusinessService.isSlowQueryLogEnabled())
+                    .thresholdMs(queryStatisticsBusinessService.getSlowQueryThresholdMillis())
+                    .slowQueries(slowQueryDetails);
+            return new ResponseEntity<>(slowQueryListResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * This method returns the p50, p99, p999 and maximum latency of every route over the 1, 5 and 15 minute windows.
+     *
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     */
+    @RequestMapping(value = "/admin/statistics/latency", method = RequestMethod.GET, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<LatencyStatisticsResponse>> getLatencyStatistics(@RequestHeader("authorization") final String authorization) throws AuthorizationFailedException {
+        return bulkheads.submit(Workload.ADMIN, () -> {
+            final List<RouteLatencyStatistics> routes = latencyStatisticsBusinessService.getLatencyStatistics(authorization);
+            final List<RouteLatencyDetails> routeLatencyDetails = new ArrayList<>();
+            for (RouteLatencyStatistics route : routes) {
+                final List<LatencyWindowDetails> windowDetails = new ArrayList<>();
+                for (LatencyWindow window : route.getWindows()) {
+                    windowDetails.add(new LatencyWindowDetails().minutes(window.getMinutes()).count(window.getCount())
+                            .p50Ms(window.getP50Millis()).p99Ms(window.getP99Millis()).p999Ms(window.getP999Millis())
+                            .maxMs(window.getMaxMillis()));
+                }
+                routeLatencyDetails.add(new RouteLatencyDetails().route(route.getRoute()).sloP99Ms(route.getSloP99Millis())
+                        .sloBreached(route.isSloBreached()).windows(windowDetails));
+            }
+            final LatencyStatisticsResponse latencyStatisticsResponse = new LatencyStatisticsResponse()
+                    .enabled(latencyStatisticsBusinessService.isLatencyTrackingEnabled())
+                    .sloWindowMinutes(latencyStatisticsBusinessService.getSloWindowMinutes())
+                    .routes(routeLatencyDetails);
+            return new ResponseEntity<>(latencyStatisticsResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * This method resets the query statistics and empties the slow query log.
+     *
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     */
+    @RequestMapping(value = "/admin/statistics", method = RequestMethod.DELETE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<StatisticsResetResponse>> resetStatistics(@RequestHeader("authorization") final String authorization) throws AuthorizationFailedException {
+        return bulkheads.submit(Workload.ADMIN, () -> {
+            queryStatisticsBusinessService.resetStatistics(authorization);
+            final StatisticsResetResponse statisticsResetResponse = new StatisticsResetResponse().status("STATISTICS RESET");
+            return new ResponseEntity<>(statisticsResetResponse, HttpStatus.OK);
+        });
+    }
+
+    /**
+     * This method starts a flight recording of the application.
+     *
+     * @param settings      The JFR settings to record with, or null for the configured ones
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     * @throws FlightRecordingException     This exception is thrown if a recording is already running or can not be started.
+     */
+    @RequestMapping(value = "/admin/recording", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<RecordingResponse>> startRecording(@RequestParam(value = "settings", required = false) final String settings, @RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, FlightRecordingException {
+        return bulkheads.submit(Workload.ADMIN, () -> {
+            final FlightRecording recording = flightRecordingBusinessService.startRecording(authorization, settings);
+            return new ResponseEntity<>(recordingResponse(recording, "RECORDING STARTED"), HttpStatus.CREATED);
+        });
+    }
+
+    /**
+     * This method stops the running flight recording.
+     *
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     * @throws FlightRecordingException     This exception is thrown if no recording is running.
+     */
+    @RequestMapping(value = "/admin/recording", method = RequestMethod.DELETE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
+    public CompletableFuture<ResponseEntity<RecordingResponse>> stopRecording(@RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, FlightRecordingException {
+        return bulkheads.submit(Workload.ADMIN, () -> {
+            final FlightRecording recording = flightRecordingBusinessService.stopRecording(authorization);
+            return new ResponseEntity<>(recordingResponse(recording, "RECORDING STOPPED"), HttpStatus.OK);
+        });
+    }
+
+    /**
+     * This method downloads the events of the running or the last stopped flight recording as a JFR file.
+     *
+     * @param authorization The JWT access token of the user passed in the request header.
+     * @return ResponseEntity
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     * @throws FlightRecordingException     This exception is thrown if no recording has been started.
+     * @throws IOException                  This exception is thrown if the dumped recording can not be read.
+     */
+    //No produces restriction, so that a rejected request still gets its ErrorResponse as JSON; the dump sets its own type
+    @RequestMapping(value = "/admin/recording/dump", method = RequestMethod.GET)
+    public CompletableFuture<ResponseEntity<Resource>> dumpRecording(@RequestHeader("authorization") final String authorization) throws AuthorizationFailedException, FlightRecordingException, IOException {
+        return bulkheads.submit(Workload.ADMIN, () -> {
+            final Path dump = flightRecordingBusinessService.dumpRecording(authorization);
+            final long size;
+            final InputStream content;
+            try {
+                size = Files.size(dump);
+                //The dump is deleted once it has been streamed to the client
+                content = Files.newInputStream(dump, StandardOpenOption.DELETE_ON_CLOSE);
+            } catch (IOException e) {
+                Files.deleteIfExists(dump);
+                throw e;
+            }
+            final HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+            headers.setContentLength(size);
+            headers.set(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + dump.getFileName() + "\"");
+            return new ResponseEntity<>(new InputStreamResource(content), headers, HttpStatus.OK);
+        });
+    }
+
+    private static RecordingResponse recordingResponse(final FlightRecording recording, final String status) {
+        return new RecordingResponse().name(recording.getName()).settings(recording.getSettings())
+                .running(recording.isRunning())
+                .startTime(recording.getStartTime() == null ? null : recording.getStartTime().toString())
+                .stopTime(recording.getStopTime() == null ? null : recording.getStopTime().toString())
+                .status(status);
     }
 }
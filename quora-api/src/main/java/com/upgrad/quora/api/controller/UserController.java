@@ -4,6 +4,8 @@ import com.upgrad.quora.api.model.SigninResponse;
 import com.upgrad.quora.api.model.SignoutResponse;
 import com.upgrad.quora.api.model.SignupUserRequest;
 import com.upgrad.quora.api.model.SignupUserResponse;
+import com.upgrad.quora.service.bulkhead.Bulkheads;
+import com.upgrad.quora.service.bulkhead.Workload;
 import com.upgrad.quora.service.business.UserBusinessService;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
@@ -23,6 +25,7 @@ import org.springframework.web.bind.annotation.RestController;
 
 import java.util.Base64;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/")
@@ -31,6 +34,9 @@ public class UserController {
     @Autowired
     private UserBusinessService userBusinessService;
 
+    @Autowired
+    private Bulkheads bulkheads;
+
     /**
      * This method exposes endpoint to register a new user in the Quora Application
      *
@@ -39,29 +45,30 @@ public class UserController {
      * @throws SignUpRestrictedException This exception is thrown if either given username or email address already exists in the application
      */
     @RequestMapping(method = RequestMethod.POST, path = "user/signup", consumes = MediaType.APPLICATION_JSON_UTF8_VALUE, produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<SignupUserResponse> signup(final SignupUserRequest signupUserRequest) throws SignUpRestrictedException {
-
-        //Transform the signupUserRequest to UserEntity object
-        final UserEntity userEntity = new UserEntity();
-
-        userEntity.setUuid(UUID.randomUUID().toString());
-        userEntity.setFirstName(signupUserRequest.getFirstName());
-        userEntity.setLastName(signupUserRequest.getLastName());
-        userEntity.setUserName(signupUserRequest.getUserName());
-        userEntity.setEmail(signupUserRequest.getEmailAddress());
-        userEntity.setPassword(signupUserRequest.getPassword());
-        userEntity.setCountry(signupUserRequest.getCountry());
-        userEntity.setAboutMe(signupUserRequest.getAboutMe());
-        userEntity.setDob(signupUserRequest.getDob());
-        userEntity.setRole("nonadmin");
-        userEntity.setContactNumber(signupUserRequest.getContactNumber());
-
-        //Invoke business service class to sign up the user
-        final UserEntity createdUserEntity = userBusinessService.signup(userEntity);
-        SignupUserResponse signupUserResponse = new SignupUserResponse()
-                .id(createdUserEntity.getUuid()).status("USER SUCCESSFULLY REGISTERED");
-
-        return new ResponseEntity<>(signupUserResponse, HttpStatus.CREATED);
+    public CompletableFuture<ResponseEntity<SignupUserResponse>> signup(final SignupUserRequest signupUserRequest) throws SignUpRestrictedException {
+        return bulkheads.submit(Workload.AUTHENTICATION, () -> {
+            //Transform the signupUserRequest to UserEntity object
+            final UserEntity userEntity = new UserEntity();
+
+            userEntity.setUuid(UUID.randomUUID().toString());
+            userEntity.setFirstName(signupUserRequest.getFirstName());
+            userEntity.setLastName(signupUserRequest.getLastName());
+            userEntity.setUserName(signupUserRequest.getUserName());
+            userEntity.setEmail(signupUserRequest.getEmailAddress());
+            userEntity.setPassword(signupUserRequest.getPassword());
+            userEntity.setCountry(signupUserRequest.getCountry());
+            userEntity.setAboutMe(signupUserRequest.getAboutMe());
+            userEntity.setDob(signupUserRequest.getDob());
+            userEntity.setRole("nonadmin");
+            userEntity.setContactNumber(signupUserRequest.getContactNumber());
+
+            //Invoke business service class to sign up the user
+            final UserEntity createdUserEntity = userBusinessService.signup(userEntity);
+            SignupUserResponse signupUserResponse = new SignupUserResponse()
+                    .id(createdUserEntity.getUuid()).status("USER SUCCESSFULLY REGISTERED");
+
+            return new ResponseEntity<>(signupUserResponse, HttpStatus.CREATED);
+        });
     }
 
     /**
@@ -72,21 +79,22 @@ public class UserController {
      * @throws UserNotFoundException AuthenticationFailedException This exception is thrown if either given username or email address already exists in the application
      */
     @RequestMapping(method = RequestMethod.POST, path = "user/signin", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<SigninResponse> signin(@RequestHeader("authorization") final String authorization) throws AuthenticationFailedException, UserNotFoundException {
-
-        //Decoding the authorization header to split username and password
-        byte[] decode = Base64.getDecoder().decode(authorization.split("Basic ")[1]);
-        String decodedText = new String(decode);
-        String[] decodedArray = decodedText.split(":");
-
-        UserAuthTokenEntity userAuthToken = userBusinessService.authenticate(decodedArray[0], decodedArray[1]);
-        UserEntity user = userAuthToken.getUser();
-
-        SigninResponse signinResponse = new SigninResponse().id(user.getUuid()).message("SIGNED IN SUCCESSFULLY");
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("access-token", userAuthToken.getAccessToken());
-        return new ResponseEntity<>(signinResponse, headers, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<SigninResponse>> signin(@RequestHeader("authorization") final String authorization) throws AuthenticationFailedException, UserNotFoundException {
+        return bulkheads.submit(Workload.AUTHENTICATION, () -> {
+            //Decoding the authorization header to split username and password
+            byte[] decode = Base64.getDecoder().decode(authorization.split("Basic ")[1]);
+            String decodedText = new String(decode);
+            String[] decodedArray = decodedText.split(":");
+
+            UserAuthTokenEntity userAuthToken = userBusinessService.authenticate(decodedArray[0], decodedArray[1]);
+            UserEntity user = userAuthToken.getUser();
+
+            SigninResponse signinResponse = new SigninResponse().id(user.getUuid()).message("SIGNED IN SUCCESSFULLY");
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.add("access-token", userAuthToken.getAccessToken());
+            return new ResponseEntity<>(signinResponse, headers, HttpStatus.OK);
+        });
     }
 
     /**
@@ -97,14 +105,15 @@ public class UserController {
      * @throws SignOutRestrictedException This exception is thrown if either given username or email address already exists in the application
      */
     @RequestMapping(method = RequestMethod.POST, path = "user/signout", produces = MediaType.APPLICATION_JSON_UTF8_VALUE)
-    public ResponseEntity<SignoutResponse> signout(@RequestHeader("authorization") final String authorization) throws SignOutRestrictedException {
-
-        UserAuthTokenEntity userAuthTokenEntity = userBusinessService.signout(authorization);
-        final String userUUID = userAuthTokenEntity.getUser().getUuid();
-        SignoutResponse signoutResponse = new SignoutResponse().id(userUUID).message("SIGNED OUT SUCCESSFULLY");
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.add("user-uuid", userUUID);
-        return new ResponseEntity<>(signoutResponse, headers, HttpStatus.OK);
+    public CompletableFuture<ResponseEntity<SignoutResponse>> signout(@RequestHeader("authorization") final String authorization) throws SignOutRestrictedException {
+        return bulkheads.submit(Workload.AUTHENTICATION, () -> {
+            UserAuthTokenEntity userAuthTokenEntity = userBusinessService.signout(authorization);
+            final String userUUID = userAuthTokenEntity.getUser().getUuid();
+            SignoutResponse signoutResponse = new SignoutResponse().id(userUUID).message("SIGNED OUT SUCCESSFULLY");
+
+            HttpHeaders headers = new HttpHeaders();
+            headers.add("user-uuid", userUUID);
+            return new ResponseEntity<>(signoutResponse, headers, HttpStatus.OK);
+        });
     }
 }
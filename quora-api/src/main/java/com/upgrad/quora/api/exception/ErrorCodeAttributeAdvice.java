@@ -0,0 +1,36 @@
+package com.upgrad.quora.api.exception;
+
+import com.upgrad.quora.api.filter.AccessLogFilter;
+import com.upgrad.quora.api.model.ErrorResponse;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * This advice keeps the code of every ErrorResponse written by the RestExceptionHandler in a request attribute, so
+ * that the access log can tell why a request failed.
+ */
+@ControllerAdvice
+public class ErrorCodeAttributeAdvice implements ResponseBodyAdvice<Object> {
+
+    @Override
+    public boolean supports(final MethodParameter returnType, final Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(final Object body, final MethodParameter returnType, final MediaType selectedContentType,
+                                  final Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  final ServerHttpRequest request, final ServerHttpResponse response) {
+        if (body instanceof ErrorResponse && request instanceof ServletServerHttpRequest) {
+            ((ServletServerHttpRequest) request).getServletRequest()
+                    .setAttribute(AccessLogFilter.ERROR_CODE_ATTRIBUTE, ((ErrorResponse) body).getCode());
+        }
+        return body;
+    }
+}
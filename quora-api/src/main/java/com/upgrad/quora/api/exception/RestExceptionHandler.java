@@ -1,7 +1,10 @@
 package com.upgrad.quora.api.exception;
 
 import com.upgrad.quora.api.model.ErrorResponse;
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
 import com.upgrad.quora.service.exception.*;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -103,4 +106,65 @@ public class RestExceptionHandler {
                 new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.NOT_FOUND);
     }
 
+    /**
+     * This method handles all the InvalidSearchQueryException throw by the Rest Controller
+     *
+     * @param exc     InvalidSearchQueryException
+     * @param request Webrequest
+     * @return ResponseEntity
+     */
+    @ExceptionHandler(InvalidSearchQueryException.class)
+    public ResponseEntity<ErrorResponse> invalidSearchQueryException(InvalidSearchQueryException exc, WebRequest request) {
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * This method handles all the FlightRecordingException throw by the Rest Controller
+     *
+     * @param exc     FlightRecordingException
+     * @param request Webrequest
+     * @return ResponseEntity
+     */
+    @ExceptionHandler(FlightRecordingException.class)
+    public ResponseEntity<ErrorResponse> flightRecordingException(FlightRecordingException exc, WebRequest request) {
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), HttpStatus.CONFLICT);
+    }
+
+    /**
+     * This method handles all the RateLimitExceededException throw by the Rest Controller, with a Retry-After header
+     * telling the client when its next request is admitted.
+     *
+     * @param exc     RateLimitExceededException
+     * @param request Webrequest
+     * @return ResponseEntity
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> rateLimitExceededException(RateLimitExceededException exc, WebRequest request) {
+        final HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, Long.toString(exc.getRetryAfterSeconds()));
+        return new ResponseEntity<ErrorResponse>(
+                new ErrorResponse().code(exc.getCode()).message(exc.getErrorMessage()), headers, HttpStatus.TOO_MANY_REQUESTS);
+    }
+
+    /**
+     * This method handles all the UnexpectedException throw by the Rest Controller. An overloaded service answers
+     * 503 Service Unavailable with a Retry-After header, everything else is an internal server error.
+     *
+     * @param exc     UnexpectedException
+     * @param request Webrequest
+     * @return ResponseEntity
+     */
+    @ExceptionHandler(UnexpectedException.class)
+    public ResponseEntity<ErrorResponse> unexpectedException(UnexpectedException exc, WebRequest request) {
+        final ErrorResponse errorResponse = new ErrorResponse().code(exc.getErrorCode().getCode()).message(exc.getMessage());
+        if (exc.getErrorCode() == GenericErrorCode.GEN_002) {
+            final HttpHeaders headers = new HttpHeaders();
+            headers.set(HttpHeaders.RETRY_AFTER, "1");
+            return new ResponseEntity<ErrorResponse>(errorResponse, headers, HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return new ResponseEntity<ErrorResponse>(errorResponse, HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,231 @@
+package com.upgrad.quora.api.filter;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import com.upgrad.quora.service.datasource.StatementStatistics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This filter writes one JSON line per request to the "quora.access" logger, with the route, the status, the error
+ * code of the response, the latency, the number of SQL statements and the bytes written. Every failed request is
+ * logged, the successful ones are sampled at "quora.access-log.success-sample-rate", which is logged along so that
+ * counts can be scaled back up. The logger writes through a ring buffer appender, see logback-spring.xml, so the
+ * request thread never waits for the disk.
+ */
+@Component
+@ConditionalOnProperty(prefix = "quora.access-log", name = "enabled", havingValue = "true")
+public class AccessLogFilter extends OncePerRequestFilter {
+
+    /**
+     * The request attribute the error code of an ErrorResponse is kept in, set by the ErrorCodeAttributeAdvice.
+     */
+    public static final String ERROR_CODE_ATTRIBUTE = AccessLogFilter.class.getName() + ".errorCode";
+
+    private static final Logger ACCESS_LOG = LoggerFactory.getLogger("quora.access");
+
+    private static final String ENTRY_ATTRIBUTE = AccessLogFilter.class.getName() + ".entry";
+
+    private final double successSampleRate;
+
+    public AccessLogFilter(@Value("${quora.access-log.success-sample-rate:1.0}") final double successSampleRate) {
+        this.successSampleRate = successSampleRate;
+    }
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        if (!ACCESS_LOG.isInfoEnabled()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        //A request handled asynchronously is logged once its async dispatch completes, so the state of the initial
+        //dispatch is kept in the request; the async dispatch writes through the wrapper of the initial one
+        AccessLogEntry entry = (AccessLogEntry) request.getAttribute(ENTRY_ATTRIBUTE);
+        final HttpServletResponse responseToUse;
+        if (entry == null) {
+            entry = new AccessLogEntry(StatementStatistics.start(), new CountingResponseWrapper(response));
+            request.setAttribute(ENTRY_ATTRIBUTE, entry);
+            responseToUse = entry.responseWrapper;
+        } else {
+            StatementStatistics.resume(entry.statistics);
+            responseToUse = response;
+        }
+        Exception failure = null;
+        try {
+            filterChain.doFilter(request, responseToUse);
+            entry.responseWrapper.flushWriter();
+        } catch (IOException | ServletException | RuntimeException e) {
+            failure = e;
+            throw e;
+        } finally {
+            StatementStatistics.stop();
+            if (failure != null || !isAsyncStarted(request)) {
+                request.removeAttribute(ENTRY_ATTRIBUTE);
+                log(request, response, entry, failure);
+            }
+        }
+    }
+
+    private void log(final HttpServletRequest request, final HttpServletResponse response, final AccessLogEntry entry,
+                     final Exception failure) {
+        final long elapsed = System.nanoTime() - entry.start;
+        //An exception that escapes the filters is turned into a 500 by the container
+        final int status = failure == null ? response.getStatus() : HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        final Object errorCode = request.getAttribute(ERROR_CODE_ATTRIBUTE);
+        final boolean error = failure != null || errorCode != null || status >= 400;
+        if (error || successSampleRate >= 1 || ThreadLocalRandom.current().nextDouble() < successSampleRate) {
+            ACCESS_LOG.info(format(request, status, errorCode, failure, elapsed, entry.statistics.getCount(),
+                    entry.responseWrapper.getByteCount(), error ? 1 : successSampleRate));
+        }
+    }
+
+    private static String format(final HttpServletRequest request, final int status, final Object errorCode,
+                                 final Exception failure, final long elapsedNanos, final int sqlCount,
+                                 final long bytes, final double sampleRate) {
+        final StringBuilder line = new StringBuilder(256);
+        line.append('{');
+        appendString(line, "time", Instant.now().toString()).append(',');
+        appendString(line, "method", request.getMethod()).append(',');
+        appendString(line, "route", request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE)).append(',');
+        appendString(line, "path", request.getRequestURI()).append(',');
+        line.append("\"status\":").append(status).append(',');
+        appendString(line, "errorCode", errorCode != null ? errorCode : failure != null ? failure.getClass().getSimpleName() : null).append(',');
+        line.append("\"latencyMs\":").append(String.format(Locale.ROOT, "%.3f",
+                elapsedNanos / (double) TimeUnit.MILLISECONDS.toNanos(1))).append(',');
+        line.append("\"sqlCount\":").append(sqlCount).append(',');
+        line.append("\"bytes\":").append(bytes).append(',');
+        line.append("\"sampleRate\":").append(sampleRate);
+        return line.append('}').toString();
+    }
+
+    private static StringBuilder appendString(final StringBuilder line, final String name, final Object value) {
+        line.append('"').append(name).append("\":");
+        if (value == null) {
+            return line.append("null");
+        }
+        return line.append('"').append(JsonStringEncoder.getInstance().quoteAsString(value.toString())).append('"');
+    }
+
+    /**
+     * What is measured of a request until it is logged.
+     */
+    private static class AccessLogEntry {
+
+        private final long start = System.nanoTime();
+
+        private final StatementStatistics statistics;
+
+        private final CountingResponseWrapper responseWrapper;
+
+        AccessLogEntry(final StatementStatistics statistics, final CountingResponseWrapper responseWrapper) {
+            this.statistics = statistics;
+            this.responseWrapper = responseWrapper;
+        }
+    }
+
+    /**
+     * Counts the bytes of the response body, whether it is written through the output stream or the writer.
+     */
+    private static class CountingResponseWrapper extends HttpServletResponseWrapper {
+
+        private ServletOutputStream outputStream;
+
+        private PrintWriter writer;
+
+        private long byteCount;
+
+        CountingResponseWrapper(final HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                final ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(final int b) throws IOException {
+                        delegate.write(b);
+                        byteCount++;
+                    }
+
+                    @Override
+                    public void write(final byte[] b, final int off, final int len) throws IOException {
+                        delegate.write(b, off, len);
+                        byteCount += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(final WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            flushWriter();
+            super.flushBuffer();
+        }
+
+        void flushWriter() {
+            if (writer != null) {
+                writer.flush();
+            }
+        }
+
+        long getByteCount() {
+            return byteCount;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.upgrad.quora.api.filter;
+
+import com.upgrad.quora.service.datasource.DataSourceRoutingContext;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * This filter binds the caller's authorization header to the request thread, so that the routing DataSource can keep
+ * serving a caller from the primary database right after that caller's own writes.
+ */
+@Component
+public class DataSourceRoutingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        DataSourceRoutingContext.setCallerKey(request.getHeader("authorization"));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRoutingContext.clear();
+        }
+    }
+}
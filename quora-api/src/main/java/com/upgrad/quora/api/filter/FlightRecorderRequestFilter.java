@@ -0,0 +1,50 @@
+package com.upgrad.quora.api.filter;
+
+import com.upgrad.quora.service.metrics.FlightRecorderEvents;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * This filter records every request as a JFR event with its method, path and response status. The authentication,
+ * password hash and DAO query events of the request are recorded within its duration, on the request thread or the
+ * bulkhead thread the request is executed on, which is how a slow request in a recording is broken down into its
+ * phases. A request handled asynchronously ends with its async dispatch, so the filter takes part in that dispatch.
+ */
+@Component
+public class FlightRecorderRequestFilter extends OncePerRequestFilter {
+
+    private static final String EVENT_ATTRIBUTE = FlightRecorderRequestFilter.class.getName() + ".event";
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        FlightRecorderEvents.Phase event = (FlightRecorderEvents.Phase) request.getAttribute(EVENT_ATTRIBUTE);
+        if (event == null) {
+            event = FlightRecorderEvents.request(request.getMethod(), request.getRequestURI());
+            request.setAttribute(EVENT_ATTRIBUTE, event);
+        }
+        String outcome = null;
+        try {
+            filterChain.doFilter(request, response);
+        } catch (IOException | ServletException | RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            if (outcome != null || !isAsyncStarted(request)) {
+                request.removeAttribute(EVENT_ATTRIBUTE);
+                event.end(outcome == null ? Integer.toString(response.getStatus()) : outcome);
+            }
+        }
+    }
+}
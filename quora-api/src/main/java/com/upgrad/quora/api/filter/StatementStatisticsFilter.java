@@ -0,0 +1,68 @@
+package com.upgrad.quora.api.filter;
+
+import com.upgrad.quora.service.datasource.StatementStatistics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.WebUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * This filter counts the SQL statements every request executes and reports them in the X-SQL-Count and
+ * X-SQL-Time-Ms response headers, so that tests and developers notice when an endpoint starts issuing more queries.
+ * The response body is buffered until the request completes, because the headers are only known then. A request
+ * handled asynchronously completes in its async dispatch, so the filter takes part in that dispatch as well.
+ */
+@Component
+@ConditionalOnProperty(prefix = "quora.sql-statistics", name = "enabled", havingValue = "true")
+public class StatementStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String COUNT_HEADER = "X-SQL-Count";
+
+    public static final String TIME_HEADER = "X-SQL-Time-Ms";
+
+    private static final String STATISTICS_ATTRIBUTE = StatementStatisticsFilter.class.getName() + ".statistics";
+
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(final HttpServletRequest request, final HttpServletResponse response,
+                                    final FilterChain filterChain) throws ServletException, IOException {
+        //The async dispatch writes through the wrapper of the initial dispatch, and counts on in its statistics
+        final HttpServletResponse responseToUse = isAsyncDispatch(request) ? response : new ContentCachingResponseWrapper(response);
+        StatementStatistics statistics = (StatementStatistics) request.getAttribute(STATISTICS_ATTRIBUTE);
+        if (statistics == null) {
+            statistics = StatementStatistics.start();
+            request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+        } else {
+            StatementStatistics.resume(statistics);
+        }
+        try {
+            filterChain.doFilter(request, responseToUse);
+        } finally {
+            StatementStatistics.stop();
+        }
+        if (isAsyncStarted(request)) {
+            return;
+        }
+        responseToUse.setHeader(COUNT_HEADER, Integer.toString(statistics.getCount()));
+        responseToUse.setHeader(TIME_HEADER, String.format(Locale.ROOT, "%.3f",
+                statistics.getNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1)));
+        final ContentCachingResponseWrapper responseWrapper =
+                WebUtils.getNativeResponse(responseToUse, ContentCachingResponseWrapper.class);
+        if (responseWrapper != null) {
+            responseWrapper.copyBodyToResponse();
+        }
+    }
+}
@@ -26,7 +26,7 @@ public class AdminControllerTest {
     //This test case passes when you try to delete the user but the JWT token entered does not exist in the database.
     @Test
     public void deleteWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/admin/user/database_uuid4").header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/admin/user/database_uuid4").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -34,7 +34,7 @@ public class AdminControllerTest {
     //This test case passes when you try to delete the user but the role of the user corresponding to the JWT token entered is nonadmin.
     @Test
     public void deleteWithnonadminAsRole() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/admin/user/database_uuid4").header("authorization", "database_accesstoken1"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/admin/user/database_uuid4").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
     }
@@ -43,10 +43,102 @@ public class AdminControllerTest {
     //This test case passes when you try to delete the user which does not exist in the database.
     @Test
     public void deleteNonExistingUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/admin/user/non_existing_user_uuid").header("authorization", "database_accesstoken"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/admin/user/non_existing_user_uuid").header("authorization", "database_accesstoken"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
 
+    //This test case passes when you try to get the query statistics but the role of the user corresponding to the JWT token entered is nonadmin.
+    @Test
+    public void getQueryStatisticsWithnonadminAsRole() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/admin/statistics/queries").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when an admin gets the query statistics while they are not collected.
+    @Test
+    public void getQueryStatisticsWhileDisabled() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/admin/statistics/queries").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("enabled").value(false));
+    }
+
+    //This test case passes when you try to get the slow queries but the JWT token entered does not exist in the database.
+    @Test
+    public void getSlowQueriesWithNonExistingAccessToken() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/admin/statistics/slow-queries").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when you try to get the latency statistics but the role of the user corresponding to the JWT token entered is nonadmin.
+    @Test
+    public void getLatencyStatisticsWithnonadminAsRole() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/admin/statistics/latency").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when an admin gets the latency of a route that has just been requested.
+    @Test
+    public void getLatencyStatisticsAfterRequest() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk());
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/admin/statistics/latency").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("enabled").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("$.routes[?(@.route == 'GET /question/all')].windows[0].minutes").value(1));
+    }
 
+    //This test case passes when you try to reset the statistics but the role of the user corresponding to the JWT token entered is nonadmin.
+    @Test
+    public void resetStatisticsWithnonadminAsRole() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/admin/statistics").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when you try to start a flight recording but the role of the user corresponding to the JWT token entered is nonadmin.
+    @Test
+    public void startRecordingWithnonadminAsRole() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/admin/recording").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
+    }
+
+    //This test case passes when you try to dump the flight recording but the JWT token entered does not exist in the database.
+    @Test
+    public void dumpRecordingWithNonExistingAccessToken() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/admin/recording/dump").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when an admin tries to start a flight recording with settings that do not exist.
+    @Test
+    public void startRecordingWithUnknownSettings() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/admin/recording?settings=non_existing_settings").header("authorization", "database_accesstoken"))
+                .andExpect(status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("JFR-004"));
+    }
+
+    //This test case passes when an admin starts a flight recording, dumps it, stops it and can not stop it again.
+    @Test
+    public void startDumpAndStopRecording() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/admin/recording").header("authorization", "database_accesstoken"))
+                .andExpect(status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("running").value(true))
+                .andExpect(MockMvcResultMatchers.jsonPath("status").value("RECORDING STARTED"));
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/admin/recording/dump").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.content().contentType("application/octet-stream"));
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/admin/recording").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("running").value(false))
+                .andExpect(MockMvcResultMatchers.jsonPath("status").value("RECORDING STOPPED"));
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/admin/recording").header("authorization", "database_accesstoken"))
+                .andExpect(status().isConflict())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("JFR-003"));
+    }
 }
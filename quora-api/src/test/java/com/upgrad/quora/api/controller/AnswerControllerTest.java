@@ -9,13 +9,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "quora.sql-statistics.enabled=true")
 @AutoConfigureMockMvc
 
 public class AnswerControllerTest {
@@ -27,7 +29,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to create the answer but the JWT token entered does not exist in the database.
     @Test
     public void createAnswerWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/question/database_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/question/database_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -35,7 +37,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to create the answer but the user corresponding to the JWT token entered is signed out of the application.
     @Test
     public void createAnswerWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/question/database_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/question/database_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
@@ -43,7 +45,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to create the answer for the question which does not exist in the database.
     @Test
     public void createAnswerForNonExistingQuestion() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/question/non_existing_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/question/non_existing_question_uuid/answer/create?answer=my_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
     }
@@ -51,7 +53,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to edit the answer but the JWT token entered does not exist in the database.
     @Test
     public void editAnswerWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -59,7 +61,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to edit the answer and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
     public void editAnswerWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
@@ -67,7 +69,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to edit the answer which does not exist in the database.
     @Test
     public void editNonExistingAnswer() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/answer/edit/non_existing_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.put("/answer/edit/non_existing_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ANS-001"));
     }
@@ -75,7 +77,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to edit the answer and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in but the corresponding user is not the owner of the answer.
     @Test
     public void editAnswerWithoutOwnership() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.put("/answer/edit/database_answer_uuid?content=edited_answer").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
     }
@@ -83,7 +85,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to delete the answer but the JWT token entered does not exist in the database.
     @Test
     public void deleteAnswerWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -91,7 +93,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to delete the answer and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
     public void deleteAnswerWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
@@ -99,7 +101,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to delete the answer which does not exist in the database.
     @Test
     public void deleteNonExistingAnswer() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/non_existing_answer_uuid").header("authorization", "database_accesstoken1"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/answer/delete/non_existing_answer_uuid").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ANS-001"));
     }
@@ -107,15 +109,46 @@ public class AnswerControllerTest {
     //This test case passes when you try to delete the answer and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in but the corresponding user is not the owner of the answer or he is not the admin.
     @Test
     public void deleteAnswerWithoutOwnership() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "database_accesstoken2"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/answer/delete/database_answer_uuid").header("authorization", "database_accesstoken2"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
     }
 
+    //This test case passes when you try to get all the answers posted for a specific question again with the ETag of the previous response and no answer changed in between.
+    @Test
+    public void getAllAnswersToQuestionNotModified() throws Exception {
+        MvcResult result = AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn();
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken").header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", result.getResponse().getHeader("ETag")));
+    }
+
+    //This test case passes when getting all the answers to a question loads the token, the version of the answer list and the answers with their questions and users in one statement each.
+    @Test
+    public void getAllAnswersToQuestionStatementCount() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.exactly(3));
+    }
+
+    //This test case passes when answering a request for an unchanged list of answers only loads the token and the version of the list.
+    @Test
+    public void getAllAnswersToQuestionNotModifiedStatementCount() throws Exception {
+        MvcResult result = AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andReturn();
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken").header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(StatementBudget.exactly(2));
+    }
+
     //This test case passes when you try to get all the answers posted for a specific question but the JWT token entered does not exist in the database.
     @Test
     public void getAllAnswersToQuestionWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -123,7 +156,7 @@ public class AnswerControllerTest {
     //This test case passes when you try to get all the answers posted for a specific question and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
     public void getAllAnswersToQuestionWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/all/database_question_uuid").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
@@ -131,10 +164,26 @@ public class AnswerControllerTest {
     //This test case passes when you try to get all the answers posted for a specific question which does not exist in the database.
     @Test
     public void getAllAnswersToNonExistingQuestion() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/answer/all/non_existing_question_uuid").header("authorization", "database_accesstoken"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/all/non_existing_question_uuid").header("authorization", "database_accesstoken"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
     }
 
+    //This test case passes when you try to search the answers and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
+    @Test
+    public void searchAnswers() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/search?query=answer&limit=5").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("answers").isArray());
+    }
+
+    //This test case passes when you try to search the answers but the JWT token entered does not exist in the database.
+    @Test
+    public void searchAnswersWithNonExistingAccessToken() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/answer/search?query=answer").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
 
 }
@@ -0,0 +1,34 @@
+package com.upgrad.quora.api.controller;
+
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+/**
+ * Performs requests to controllers that execute them in the bulkheads. MockMvc returns once such a request has started
+ * asynchronously, so the response only exists after the async dispatch, which this helper performs as the container
+ * would.
+ */
+final class AsyncDispatch {
+
+    private AsyncDispatch() {
+    }
+
+    /**
+     * @param mvc            The MockMvc to perform the request with
+     * @param requestBuilder The request
+     * @return ResultActions The result of the async dispatch, or of the request itself if it completed synchronously
+     * @throws Exception If the request or its async dispatch fails
+     */
+    static ResultActions perform(final MockMvc mvc, final RequestBuilder requestBuilder) throws Exception {
+        final ResultActions resultActions = mvc.perform(requestBuilder);
+        final MvcResult mvcResult = resultActions.andReturn();
+        if (!mvcResult.getRequest().isAsyncStarted()) {
+            return resultActions;
+        }
+        //Waits for the bulkhead to complete the request before dispatching
+        return mvc.perform(MockMvcRequestBuilders.asyncDispatch(mvcResult));
+    }
+}
@@ -1,16 +1,23 @@
 package com.upgrad.quora.api.controller;
 
 
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.Assert;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -28,6 +35,18 @@ public class CommonControllerTest {
                 .andExpect(status().isOk());
     }
 
+    //This test case passes when you try to get the details of the existing user again with the ETag of the previous response and the user did not change in between.
+    @Test
+    public void detailsNotModified() throws Exception {
+        MvcResult result = mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn();
+        mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "database_accesstoken").header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", result.getResponse().getHeader("ETag")));
+    }
+
     //This test case passes when you try to get the details of the existing user but the JWT token entered does not exist in the database.
     @Test
     public void detailsUsingNonExistingAccessToken() throws Exception {
@@ -43,4 +62,33 @@ public class CommonControllerTest {
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
+
+    //This test case passes when you try to complete the start of a username with a blank prefix.
+    @Test
+    public void autocompleteUsersWithBlankPrefix() throws Exception {
+        mvc.perform(MockMvcRequestBuilders.get("/user/autocomplete?prefix= ").header("authorization", "database_accesstoken"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("SRCH-001"));
+    }
+
+    //This test case passes when a request that fails with an error code is written to the access log with its route, status and error code.
+    @Test
+    public void detailsWithNonExistingAccessTokenIsAccessLogged() throws Exception {
+        final Logger accessLog = (Logger) LoggerFactory.getLogger("quora.access");
+        final ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.start();
+        accessLog.addAppender(appender);
+        try {
+            mvc.perform(MockMvcRequestBuilders.get("/userprofile/database_uuid1").header("authorization", "non_existing_access_token"))
+                    .andExpect(status().isForbidden());
+        } finally {
+            accessLog.detachAppender(appender);
+        }
+        Assert.assertEquals(1, appender.list.size());
+        final String line = appender.list.get(0).getFormattedMessage();
+        Assert.assertTrue(line, line.contains("\"route\":\"/userprofile/{userId}\""));
+        Assert.assertTrue(line, line.contains("\"status\":403"));
+        Assert.assertTrue(line, line.contains("\"errorCode\":\"ATHR-001\""));
+        Assert.assertTrue(line, line.contains("\"sqlCount\":1"));
+    }
 }
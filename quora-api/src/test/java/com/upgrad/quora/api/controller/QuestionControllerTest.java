@@ -1,32 +1,42 @@
 package com.upgrad.quora.api.controller;
 
 
+import com.upgrad.quora.api.config.ContentNegotiationConfiguration;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
-@SpringBootTest
+@SpringBootTest(properties = "quora.sql-statistics.enabled=true")
 @AutoConfigureMockMvc
 public class QuestionControllerTest {
 
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
 
     //This test case passes when you try to create the question but the JWT token entered does not exist in the database.
     @Test
     public void createQuestionWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -34,7 +44,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to create the question but the user corresponding to the JWT token entered is signed out of the application.
     @Test
     public void createQuestionWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/question/create?content=my_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
@@ -42,30 +52,169 @@ public class QuestionControllerTest {
     //This test case passes when you try to get the detail of all the questions and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
     @Test
     public void getAllQuestions() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isOk());
     }
 
+    //This test case passes when you try to get the detail of all the questions again with the ETag of the previous response and no question changed in between.
+    @Test
+    public void getAllQuestionsNotModified() throws Exception {
+        MvcResult result = AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, private"))
+                .andReturn();
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", result.getResponse().getHeader("ETag")));
+    }
+
+    //This test case passes when you try to get the detail of all the questions in the Smile binary encoding and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
+    @Test
+    public void getAllQuestionsAsSmile() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").accept(ContentNegotiationConfiguration.APPLICATION_SMILE_VALUE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(ContentNegotiationConfiguration.APPLICATION_SMILE_VALUE));
+    }
+
+    //This test case passes when another writer changes a question behind the application's back and the next request with the ETag of the previous response gets the list again under a new ETag.
+    @Test
+    public void getAllQuestionsAfterExternalWrite() throws Exception {
+        MvcResult result = AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        jdbcTemplate.update("update question set content = content where uuid = 'database_question_uuid'");
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", not(result.getResponse().getHeader("ETag"))));
+    }
+
+    //This test case passes when another writer edits a question of a user behind the application's back and the next request for the questions of that user returns the edited content instead of the cached list.
+    @Test
+    public void getAllQuestionsByUserAfterExternalWrite() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("database_question_content")));
+        jdbcTemplate.update("update question set content = 'externally_edited_content' where uuid = 'database_question_uuid'");
+        try {
+            AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1"))
+                    .andExpect(status().isOk())
+                    .andExpect(content().string(containsString("externally_edited_content")));
+        } finally {
+            jdbcTemplate.update("update question set content = 'database_question_content' where uuid = 'database_question_uuid'");
+        }
+    }
+
+    //This test case passes when getting all the questions loads the token, the version of the list and the questions with their users in one statement each, and only the token and the version once the list is cached.
+    @Test
+    public void getAllQuestionsStatementCount() throws Exception {
+        //Other tests may have cached the list already
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(3));
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.exactly(2));
+    }
+
+    //This test case passes when getting the questions of a user loads the token, the user and the version of the list in one statement each, and the questions only if the list is not cached.
+    @Test
+    public void getAllQuestionsByUserStatementCount() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.atMost(4));
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(StatementBudget.exactly(3));
+    }
+
+    //This test case passes when answering a request for an unchanged list of questions only loads the token and the version of the list.
+    @Test
+    public void getAllQuestionsNotModifiedStatementCount() throws Exception {
+        MvcResult result = AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken1").header("If-None-Match", result.getResponse().getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(StatementBudget.exactly(2));
+    }
+
     //This test case passes when you try to get the detail of all the questions but the JWT token entered does not exist in the database.
     @Test
     public void getAllQuestionsWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
 
+    //This test case passes when a rejected request is timed under the code of the exception and the timers are exported in the Prometheus format.
+    @Test
+    public void getAllQuestionsTimedInPrometheusScrape() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden());
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("quora_service_method_seconds_bucket{class=\"CommonBusinessService\",method=\"getAuthenticatedUser\",outcome=\"ATHR-001\"")));
+    }
+
     //This test case passes when you try to get the detail of all the questions and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
     public void getAllQuestionsWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
 
+    //This test case passes when you try to search the questions and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in.
+    @Test
+    public void searchQuestions() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/search?query=database").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("questions[0].id").value("database_question_uuid"));
+    }
+
+    //This test case passes when you try to search the questions with an empty query.
+    @Test
+    public void searchQuestionsWithEmptyQuery() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/search?query= ").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("SRCH-001"));
+    }
+
+    //This test case passes when you try to search the questions with a cursor that was not returned by a previous search.
+    @Test
+    public void searchQuestionsWithInvalidCursor() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/search?query=database&cursor=not_a_cursor").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("SRCH-002"));
+    }
+
+    //This test case passes when you try to complete the start of a question text.
+    @Test
+    public void autocompleteQuestions() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/autocomplete?prefix=database").header("authorization", "database_accesstoken1"))
+                .andExpect(status().isOk());
+    }
+
+    //This test case passes when you try to complete the start of a question text but the JWT token entered does not exist in the database.
+    @Test
+    public void autocompleteQuestionsWithNonExistingAccessToken() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/autocomplete?prefix=database").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
+    //This test case passes when you try to search the questions but the JWT token entered does not exist in the database.
+    @Test
+    public void searchQuestionsWithNonExistingAccessToken() throws Exception {
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/search?query=database").header("authorization", "non_existing_access_token"))
+                .andExpect(status().isForbidden())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
+    }
+
     //This test case passes when you try to edit the question but the JWT token entered does not exist in the database.
     @Test
     public void editQuestionWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -73,7 +222,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to edit the question and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
     public void editQuestionWithWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
@@ -81,7 +230,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to edit the question and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in but the corresponding user is not the owner of the question.
     @Test
     public void editQuestionWithoutOwnership() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.put("/question/edit/database_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
     }
@@ -89,7 +238,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to edit the question which does not exist in the database.
     @Test
     public void editNonExistingQuestion() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.put("/question/edit/non_exisitng_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.put("/question/edit/non_exisitng_question_uuid?content=edited_question").contentType(MediaType.APPLICATION_JSON_UTF8_VALUE).header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
     }
@@ -97,7 +246,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to delete the question but the JWT token entered does not exist in the database.
     @Test
     public void deleteQuestionWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -105,7 +254,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to delete the question and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
     public void deleteQuestionWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
@@ -113,7 +262,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to delete the question and the JWT token entered exists in the database and the user corresponding to that JWT token is signed in but the corresponding user is not the owner of the question or he is not the admin.
     @Test
     public void deleteQuestionWithoutOwnership() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "database_accesstoken2"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/question/delete/database_question_uuid").header("authorization", "database_accesstoken2"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-003"));
     }
@@ -122,7 +271,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to delete the question which does not exist in the database.
     @Test
     public void deleteNoneExistingQuestion() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.delete("/question/delete/non_existing_question_uuid").header("authorization", "database_accesstoken1"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.delete("/question/delete/non_existing_question_uuid").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("QUES-001"));
     }
@@ -130,7 +279,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to get all the questions posted by a specific user but the JWT token entered does not exist in the database.
     @Test
     public void getAllQuestionsByUserWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-001"));
     }
@@ -138,7 +287,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to get all the questions posted by a specific user and the JWT token entered exists in the database but the user corresponding to that JWT token is signed out.
     @Test
     public void getAllQuestionsByUserWithSignedOutUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken3"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all/database_uuid1").header("authorization", "database_accesstoken3"))
                 .andExpect(status().isForbidden())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("ATHR-002"));
     }
@@ -146,7 +295,7 @@ public class QuestionControllerTest {
     //This test case passes when you try to get all the questions posted by a specific user which does not exist in the database.
     @Test
     public void getAllQuestionsForNonExistingUser() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.get("/question/all/non_existing_user_uuid").header("authorization", "database_accesstoken1"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.get("/question/all/non_existing_user_uuid").header("authorization", "database_accesstoken1"))
                 .andExpect(status().isNotFound())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("USR-001"));
     }
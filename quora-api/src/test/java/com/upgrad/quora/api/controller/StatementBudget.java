@@ -0,0 +1,46 @@
+package com.upgrad.quora.api.controller;
+
+import com.upgrad.quora.api.filter.StatementStatisticsFilter;
+import org.springframework.test.web.servlet.ResultMatcher;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Matchers for the number of SQL statements a request executed, as reported by the StatementStatisticsFilter. Test
+ * classes using them have to enable it with "quora.sql-statistics.enabled=true".
+ */
+final class StatementBudget {
+
+    private StatementBudget() {
+    }
+
+    /**
+     * @param statements The number of statements the request has to execute
+     * @return ResultMatcher Fails if the request executed any other number of statements
+     */
+    static ResultMatcher exactly(final int statements) {
+        return result -> {
+            final int count = count(result.getResponse().getHeader(StatementStatisticsFilter.COUNT_HEADER));
+            assertTrue("Expected " + statements + " SQL statements but the request executed " + count,
+                    count == statements);
+        };
+    }
+
+    /**
+     * @param statements The number of statements the request may execute at most
+     * @return ResultMatcher Fails if the request executed more statements
+     */
+    static ResultMatcher atMost(final int statements) {
+        return result -> {
+            final int count = count(result.getResponse().getHeader(StatementStatisticsFilter.COUNT_HEADER));
+            assertTrue("Expected at most " + statements + " SQL statements but the request executed " + count,
+                    count <= statements);
+        };
+    }
+
+    private static int count(final String header) {
+        assertNotNull("No " + StatementStatisticsFilter.COUNT_HEADER + " header, is quora.sql-statistics.enabled set?", header);
+        return Integer.parseInt(header);
+    }
+}
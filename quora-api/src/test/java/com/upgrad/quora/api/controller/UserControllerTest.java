@@ -1,16 +1,22 @@
 package com.upgrad.quora.api.controller;
 
+import com.upgrad.quora.service.cache.RegisteredUserFilter;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.util.Base64;
+
+import static org.junit.Assert.assertFalse;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @RunWith(SpringRunner.class)
@@ -21,10 +27,16 @@ public class UserControllerTest {
     @Autowired
     private MockMvc mvc;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private RegisteredUserFilter registeredUserFilter;
+
     //This test case passes when you signup with a username that already exists in the database.
     @Test
     public void signupWithRepeatedUserName() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=database_username&emailAddress=a&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=database_username&emailAddress=a&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isConflict())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("SGR-001"));
     }
@@ -32,17 +44,86 @@ public class UserControllerTest {
     //This test case passes when you signup with an email that already exists in the database.
     @Test
     public void signupWithRepeatedEmail() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=non_existing_username&emailAddress=database_email&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=non_existing_username&emailAddress=database_email&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
                 .andExpect(status().isConflict())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("SGR-002"));
     }
 
+    //This test case passes when you signup with a username that was written straight to the database after the signup filters were loaded, so that only the unique constraint catches it.
+    @Test
+    public void signupWithRepeatedUserNameUnknownToFilter() throws Exception {
+        insertUser("unfiltered_username", "unfiltered_email");
+        try {
+            assertFalse(registeredUserFilter.mightHaveUserName("unfiltered_username"));
+            AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=unfiltered_username&emailAddress=non_existing_email&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isConflict())
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").value("SGR-001"));
+        } finally {
+            jdbcTemplate.update("delete from users where username = 'unfiltered_username'");
+        }
+    }
+
+    //This test case passes when you signup with an email that was written straight to the database after the signup filters were loaded, so that only the unique constraint catches it.
+    @Test
+    public void signupWithRepeatedEmailUnknownToFilter() throws Exception {
+        insertUser("unfiltered_username", "unfiltered_email");
+        try {
+            assertFalse(registeredUserFilter.mightHaveEmail("unfiltered_email"));
+            AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signup?firstName=a&lastName=a&userName=non_existing_username&emailAddress=unfiltered_email&password=a&country=a&aboutMe=a&dob=a&contactNumber=a").contentType(MediaType.APPLICATION_JSON_UTF8))
+                    .andExpect(status().isConflict())
+                    .andExpect(MockMvcResultMatchers.jsonPath("code").value("SGR-002"));
+        } finally {
+            jdbcTemplate.update("delete from users where username = 'unfiltered_username'");
+        }
+    }
 
     //This test case passes when you try to signout but the JWT token entered does not exist in the database.
     @Test
     public void signoutWithNonExistingAccessToken() throws Exception {
-        mvc.perform(MockMvcRequestBuilders.post("/user/signout").header("authorization", "non_existing_access_token"))
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signout").header("authorization", "non_existing_access_token"))
                 .andExpect(status().isUnauthorized())
                 .andExpect(MockMvcResultMatchers.jsonPath("code").value("SGR-001"));
     }
+
+    //This test case passes when you sign in more often than the rate limit of the signin route allows.
+    @Test
+    public void signinOverRateLimit() throws Exception {
+        final String authorization = "Basic " + Base64.getEncoder().encodeToString("rate_limited_username:password".getBytes());
+        for (int i = 0; i < 10; i++) {
+            AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signin").header("authorization", authorization));
+        }
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signin").header("authorization", authorization))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists("Retry-After"))
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("RATE-001"));
+    }
+
+    //This test case passes when guessing the password of one username from many addresses is limited like signing in from one address.
+    @Test
+    public void signinOverRateLimitFromManyAddresses() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            final String address = "192.0.2." + i;
+            AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signin").header("authorization", basic("guessed_username", "password" + i))
+                    .with(request -> {
+                        request.setRemoteAddr(address);
+                        return request;
+                    }));
+        }
+        AsyncDispatch.perform(mvc, MockMvcRequestBuilders.post("/user/signin").header("authorization", basic("guessed_username", "password"))
+                .with(request -> {
+                    request.setRemoteAddr("192.0.2.100");
+                    return request;
+                }))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.jsonPath("code").value("RATE-001"));
+    }
+
+    private static String basic(final String userName, final String password) {
+        return "Basic " + Base64.getEncoder().encodeToString((userName + ":" + password).getBytes());
+    }
+
+    private void insertUser(final String userName, final String email) {
+        jdbcTemplate.update("insert into users(uuid, firstname, lastname, username, email, password, salt, role)"
+                + " values ('unfiltered_uuid', 'a', 'a', ?, ?, 'a', 'a', 'nonadmin')", userName, email);
+    }
 }
@@ -0,0 +1,44 @@
+package com.upgrad.quora.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks like org.openjdk.jmh.Main, with the same command line, but writes the results as JSON to
+ * jmh-result.json unless -rf or -rff say otherwise. Results of two versions can then be compared with any JMH result
+ * viewer, for example: java -jar quora-bench/target/benchmarks.jar -rff before.json
+ */
+public class Benchmarks {
+
+    private static final String RESULT_FILE = "jmh-result.json";
+
+    public static void main(final String[] args) throws Exception {
+        final CommandLineOptions commandLineOptions;
+        try {
+            commandLineOptions = new CommandLineOptions(args);
+        } catch (CommandLineOptionException e) {
+            System.err.println("Error parsing command line: " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        //Listing and help options do not run anything, JMH's own main handles them
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList() || commandLineOptions.shouldListWithParams()
+                || commandLineOptions.shouldListProfilers() || commandLineOptions.shouldListResultFormats()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        final OptionsBuilder options = new OptionsBuilder();
+        options.parent(commandLineOptions);
+        if (!commandLineOptions.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLineOptions.getResult().hasValue()) {
+            options.result(RESULT_FILE);
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,80 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.search.Completion;
+import com.upgrad.quora.service.search.CompletionTrie;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Completion latency of the autocomplete trie for prefixes of one to five characters, the lengths a user types before
+ * picking a suggestion. Short prefixes match most of the texts, so they show that a completion does not depend on the
+ * number of matches.
+ * <p>
+ * Run with: java -Xmx4g -jar quora-bench/target/benchmarks.jar CompletionTrieBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class CompletionTrieBenchmark {
+
+    private static final int TOP_K = 10;
+
+    @Param({"1000000"})
+    public int texts;
+
+    @Param({"1", "3", "5"})
+    public int prefixLength;
+
+    private CompletionTrie trie;
+
+    private String[] prefixes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        final Random random = new Random(42);
+        final String[] sample = new String[1024];
+        trie = new CompletionTrie(TOP_K);
+        trie.rebuild(sink -> {
+            for (int i = 0; i < texts; i++) {
+                final String text = Payloads.sentence(random, 4 + random.nextInt(12));
+                if (i < sample.length) {
+                    sample[i] = text;
+                }
+                sink.accept(new Completion(new UUID(random.nextLong(), random.nextLong()).toString(), text, i));
+            }
+        });
+        prefixes = new String[sample.length];
+        for (int i = 0; i < sample.length; i++) {
+            prefixes[i] = sample[i].substring(0, Math.min(prefixLength, sample[i].length()));
+        }
+    }
+
+    @Benchmark
+    public List<Completion> complete(final QueryState state) {
+        return trie.complete(prefixes[state.random.nextInt(prefixes.length)], TOP_K);
+    }
+
+    @State(Scope.Thread)
+    public static class QueryState {
+
+        private final Random random = new Random(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,127 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.api.controller.AnswerController;
+import com.upgrad.quora.api.controller.QuestionController;
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import com.upgrad.quora.service.bulkhead.BulkheadProperties;
+import com.upgrad.quora.service.bulkhead.Bulkheads;
+import com.upgrad.quora.service.business.AnswerBusinessService;
+import com.upgrad.quora.service.business.QuestionBusinessService;
+import com.upgrad.quora.service.common.AnswerSummary;
+import com.upgrad.quora.service.common.QuestionSummary;
+import com.upgrad.quora.service.common.TaggedContent;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * The work the question/all and answer/all controllers do on top of the business services: building the cache headers
+ * and mapping every entity to its response model. The business services are replaced by stubs returning the same
+ * entities every time, so neither the database nor Spring take part. The controllers hand the work to the read
+ * bulkhead as they do in the application, so the time includes that handoff.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ControllerMappingBenchmark {
+
+    private static final String ACCESS_TOKEN = "access_token";
+
+    private static final String QUESTION_UUID = "question_uuid";
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private QuestionController questionController;
+
+    private AnswerController answerController;
+
+    private Bulkheads bulkheads;
+
+    @Setup
+    public void setUp() {
+        bulkheads = new Bulkheads(new BulkheadProperties(), new SimpleMeterRegistry(), false, 0);
+        questionController = new QuestionController();
+        inject(questionController, "questionBusinessService", new StubQuestionBusinessService(Entities.questions(size)));
+        inject(questionController, "bulkheads", bulkheads);
+        answerController = new AnswerController();
+        inject(answerController, "answerBusinessService", new StubAnswerBusinessService(Entities.answers(size)));
+        inject(answerController, "bulkheads", bulkheads);
+    }
+
+    @TearDown
+    public void tearDown() {
+        bulkheads.close();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<QuestionDetailsResponse>> getAllQuestions() throws Exception {
+        return questionController.getAllQuestions(ACCESS_TOKEN, null).join();
+    }
+
+    @Benchmark
+    public ResponseEntity<List<AnswerDetailsResponse>> getAllAnswersToQuestion() throws Exception {
+        return answerController.getAllAnswersToQuestion(QUESTION_UUID, ACCESS_TOKEN, null).join();
+    }
+
+    private static void inject(final Object target, final String fieldName, final Object value) {
+        final Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+
+    private static class StubQuestionBusinessService extends QuestionBusinessService {
+
+        private final List<QuestionSummary> questions;
+
+        StubQuestionBusinessService(final List<QuestionEntity> questions) {
+            this.questions = QuestionSummary.of(questions);
+        }
+
+        @Override
+        public TaggedContent<List<QuestionSummary>> getAllQuestions(final String authToken,
+                                                                    final Predicate<String> heldByClient) {
+            return TaggedContent.of("1", questions);
+        }
+    }
+
+    private static class StubAnswerBusinessService extends AnswerBusinessService {
+
+        private final List<AnswerSummary> answers;
+
+        StubAnswerBusinessService(final List<AnswerEntity> answers) {
+            super(0, new SimpleMeterRegistry());
+            this.answers = AnswerSummary.of(answers);
+        }
+
+        @Override
+        public TaggedContent<List<AnswerSummary>> getAllAnswersToQuestion(final String questionId,
+                                                                          final String accessToken,
+                                                                          final Predicate<String> heldByClient) {
+            return TaggedContent.of("1", answers);
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.business.JwtTokenProvider;
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cryptography on the signup and signin paths: hashing a new password with a fresh salt, hashing a password with
+ * a stored salt to check it, and signing the access token a signin returns.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptographyBenchmark {
+
+    private static final String PASSWORD = "correct horse battery staple";
+
+    private PasswordCryptographyProvider passwordCryptographyProvider;
+
+    private String salt;
+
+    private JwtTokenProvider jwtTokenProvider;
+
+    private String userUuid;
+
+    private ZonedDateTime issuedAt;
+
+    private ZonedDateTime expiresAt;
+
+    @Setup
+    public void setUp() {
+        passwordCryptographyProvider = new PasswordCryptographyProvider();
+        salt = passwordCryptographyProvider.encrypt(PASSWORD)[0];
+        jwtTokenProvider = new JwtTokenProvider(passwordCryptographyProvider.encrypt(PASSWORD)[1]);
+        userUuid = "a5bd3b1c-6bf0-4c4f-9d4d-6b7a4ad0f3a1";
+        issuedAt = ZonedDateTime.now();
+        expiresAt = issuedAt.plusHours(8);
+    }
+
+    @Benchmark
+    public String[] encryptNewPassword() {
+        return passwordCryptographyProvider.encrypt(PASSWORD);
+    }
+
+    @Benchmark
+    public String encryptWithStoredSalt() {
+        return PasswordCryptographyProvider.encrypt(PASSWORD, salt);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtTokenProvider.generateToken(userUuid, issuedAt, expiresAt);
+    }
+}
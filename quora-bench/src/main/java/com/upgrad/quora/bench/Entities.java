@@ -0,0 +1,98 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Builds detached entities shaped like the ones the DAOs return, with every eagerly fetched association set. The
+ * content is generated from a fixed seed, so every run works on the same values.
+ */
+final class Entities {
+
+    private static final ZonedDateTime CREATED = ZonedDateTime.of(2018, 6, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private Entities() {
+    }
+
+    static UserEntity user(final Random random, final long id) {
+        final UserEntity user = new UserEntity();
+        user.setId(id);
+        user.setUuid(uuid(random));
+        user.setFirstName("first" + id);
+        user.setLastName("last" + id);
+        user.setUserName("user" + id);
+        user.setEmail("user" + id + "@quora.io");
+        user.setPassword(Long.toHexString(random.nextLong()) + Long.toHexString(random.nextLong()));
+        user.setSalt(Long.toHexString(random.nextLong()));
+        user.setCountry("India");
+        user.setAboutMe(Payloads.sentence(random, 8));
+        user.setDob("01-01-1990");
+        user.setRole("nonadmin");
+        user.setContactNumber("9000000000");
+        return user;
+    }
+
+    static QuestionEntity question(final Random random, final long id, final UserEntity user) {
+        final QuestionEntity question = new QuestionEntity();
+        question.setId(id);
+        question.setUuid(uuid(random));
+        question.setContent(Payloads.sentence(random, 12));
+        question.setCreatedDate(CREATED.plusMinutes(id));
+        question.setUser(user);
+        return question;
+    }
+
+    static AnswerEntity answer(final Random random, final long id, final QuestionEntity question, final UserEntity user) {
+        final AnswerEntity answer = new AnswerEntity();
+        answer.setId(id);
+        answer.setUuid(uuid(random));
+        answer.setAnswer(Payloads.sentence(random, 30));
+        answer.setCreatedDate(question.getCreatedDate().plusMinutes(id));
+        answer.setQuestion(question);
+        answer.setUser(user);
+        return answer;
+    }
+
+    static List<QuestionEntity> questions(final int size) {
+        final Random random = new Random(size);
+        final List<UserEntity> users = users(random, size);
+        final List<QuestionEntity> questions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            questions.add(question(random, i + 1, users.get(random.nextInt(users.size()))));
+        }
+        return questions;
+    }
+
+    static List<AnswerEntity> answers(final int size) {
+        final Random random = new Random(size);
+        final List<UserEntity> users = users(random, size);
+        final QuestionEntity question = question(random, 1, users.get(0));
+        final List<AnswerEntity> answers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            answers.add(answer(random, i + 1, question, users.get(random.nextInt(users.size()))));
+        }
+        return answers;
+    }
+
+    //About one author for every ten posts, so authors repeat like they do in a listing
+    private static List<UserEntity> users(final Random random, final int posts) {
+        final int size = Math.max(1, posts / 10);
+        final List<UserEntity> users = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            users.add(user(random, i + 1));
+        }
+        return users;
+    }
+
+    private static String uuid(final Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
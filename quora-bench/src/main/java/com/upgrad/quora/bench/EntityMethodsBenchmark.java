@@ -0,0 +1,83 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The reflection based equals, hashCode and toString of the entities. An answer walks its question and both users, so
+ * it shows what following the eager associations costs. The equals benchmarks compare equal copies, the worst case,
+ * since every field has to be compared.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EntityMethodsBenchmark {
+
+    private UserEntity user;
+
+    private UserEntity userCopy;
+
+    private AnswerEntity answer;
+
+    private AnswerEntity answerCopy;
+
+    @Setup
+    public void setUp() {
+        user = Entities.user(new Random(1), 1);
+        userCopy = Entities.user(new Random(1), 1);
+        answer = answer(new Random(2));
+        answerCopy = answer(new Random(2));
+    }
+
+    @Benchmark
+    public boolean userEquals() {
+        return user.equals(userCopy);
+    }
+
+    @Benchmark
+    public int userHashCode() {
+        return user.hashCode();
+    }
+
+    @Benchmark
+    public String userToString() {
+        return user.toString();
+    }
+
+    @Benchmark
+    public boolean answerEquals() {
+        return answer.equals(answerCopy);
+    }
+
+    @Benchmark
+    public int answerHashCode() {
+        return answer.hashCode();
+    }
+
+    @Benchmark
+    public String answerToString() {
+        return answer.toString();
+    }
+
+    private static AnswerEntity answer(final Random random) {
+        final QuestionEntity question = Entities.question(random, 1, Entities.user(random, 1));
+        return Entities.answer(random, 1, question, Entities.user(random, 2));
+    }
+}
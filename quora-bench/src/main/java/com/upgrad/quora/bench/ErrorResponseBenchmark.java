@@ -0,0 +1,70 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.api.exception.RestExceptionHandler;
+import com.upgrad.quora.api.model.ErrorResponse;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of a rejected request after the business service gave up: creating the exception, which captures the stack
+ * trace, turning it into an ErrorResponse in RestExceptionHandler and serializing that to JSON.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ErrorResponseBenchmark {
+
+    private RestExceptionHandler restExceptionHandler;
+
+    private AuthorizationFailedException exception;
+
+    private ErrorResponse errorResponse;
+
+    @Setup
+    public void setUp() {
+        restExceptionHandler = new RestExceptionHandler();
+        exception = newException();
+        errorResponse = restExceptionHandler.authorizationFailedException(exception, null).getBody();
+    }
+
+    @Benchmark
+    public AuthorizationFailedException createException() {
+        return newException();
+    }
+
+    @Benchmark
+    public ResponseEntity<ErrorResponse> handleException() {
+        return restExceptionHandler.authorizationFailedException(exception, null);
+    }
+
+    @Benchmark
+    public byte[] serializeErrorResponse() throws IOException {
+        return PayloadFormat.JSON.getObjectMapper().writeValueAsBytes(errorResponse);
+    }
+
+    @Benchmark
+    public byte[] rejectRequest() throws IOException {
+        return PayloadFormat.JSON.getObjectMapper().writeValueAsBytes(
+                restExceptionHandler.authorizationFailedException(newException(), null).getBody());
+    }
+
+    private static AuthorizationFailedException newException() {
+        return new AuthorizationFailedException("ATHR-001", "User has not signed in");
+    }
+}
@@ -0,0 +1,177 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.service.search.IndexHit;
+import com.upgrad.quora.service.search.InvertedIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Query latency of the in-memory search index over a synthetic corpus whose word frequencies follow Zipf's law, the
+ * way words of real questions do. Queries pick words from the head, the middle and the tail of the vocabulary, since
+ * the length of the postings they go through differs by orders of magnitude.
+ * <p>
+ * Run with: java -Xmx4g -jar quora-bench/target/benchmarks.jar InvertedIndexBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class InvertedIndexBenchmark {
+
+    private static final int VOCABULARY_SIZE = 50_000;
+
+    private static final int TOP_K = 20;
+
+    @Param({"1000000"})
+    public int documents;
+
+    private InvertedIndex index;
+
+    private String[] vocabulary;
+
+    private ZipfSampler sampler;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        vocabulary = new String[VOCABULARY_SIZE];
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            vocabulary[rank] = "w" + Integer.toString(rank, 36);
+        }
+        sampler = new ZipfSampler(VOCABULARY_SIZE, 1.0);
+        final Random random = new Random(42);
+        index = new InvertedIndex(1024);
+        index.rebuild(sink -> {
+            for (long id = 1; id <= documents; id++) {
+                sink.add(id, text(random, 5 + random.nextInt(20)));
+            }
+        });
+    }
+
+    @Benchmark
+    public List<IndexHit> commonTerm(final QueryState state) {
+        return index.search(vocabulary[state.random.nextInt(10)], TOP_K, null);
+    }
+
+    @Benchmark
+    public List<IndexHit> mediumTerm(final QueryState state) {
+        return index.search(vocabulary[100 + state.random.nextInt(900)], TOP_K, null);
+    }
+
+    @Benchmark
+    public List<IndexHit> rareTerm(final QueryState state) {
+        return index.search(vocabulary[10_000 + state.random.nextInt(40_000)], TOP_K, null);
+    }
+
+    @Benchmark
+    public List<IndexHit> threeTermQuery(final QueryState state) {
+        return index.search(text(state.random, 3), TOP_K, null);
+    }
+
+    @Benchmark
+    public List<IndexHit> secondPage(final QueryState state) {
+        final String query = text(state.random, 2);
+        final List<IndexHit> firstPage = index.search(query, TOP_K, null);
+        return firstPage.size() < TOP_K ? firstPage : index.search(query, TOP_K, firstPage.get(TOP_K - 1));
+    }
+
+    /**
+     * Searches from four threads while another thread keeps indexing edited documents, to show that publishing changes
+     * does not stall readers.
+     */
+    @Benchmark
+    @Threads(4)
+    public List<IndexHit> threeTermQueryUnderWrites(final QueryState state, final WriterState writer) {
+        return index.search(text(state.random, 3), TOP_K, null);
+    }
+
+    private String text(final Random random, final int words) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            text.append(vocabulary[sampler.sample(random)]).append(' ');
+        }
+        return text.toString();
+    }
+
+    @State(Scope.Thread)
+    public static class QueryState {
+
+        private final Random random = new Random(Thread.currentThread().getId());
+    }
+
+    /**
+     * Edits random documents from a background thread, about a thousand per second, while the iteration runs.
+     */
+    @State(Scope.Benchmark)
+    public static class WriterState {
+
+        private Thread writer;
+
+        private volatile boolean running;
+
+        @Setup(Level.Iteration)
+        public void start(final InvertedIndexBenchmark benchmark) {
+            running = true;
+            writer = new Thread(() -> {
+                final Random random = new Random(7);
+                while (running) {
+                    benchmark.index.index(1 + random.nextInt(benchmark.documents), benchmark.text(random, 12));
+                    LockSupport.parkNanos(1_000_000);
+                }
+            }, "index-writer");
+            writer.setDaemon(true);
+            writer.start();
+        }
+
+        @TearDown(Level.Iteration)
+        public void stop() throws InterruptedException {
+            running = false;
+            writer.join();
+        }
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^exponent, by binary search over the
+     * cumulative distribution.
+     */
+    static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        ZipfSampler(final int n, final double exponent) {
+            cumulative = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, exponent);
+                cumulative[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cumulative[rank] /= sum;
+            }
+        }
+
+        int sample(final Random random) {
+            final int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
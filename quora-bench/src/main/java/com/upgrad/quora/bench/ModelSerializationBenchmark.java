@@ -0,0 +1,61 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.api.model.QuestionResponse;
+import com.upgrad.quora.api.model.SigninResponse;
+import com.upgrad.quora.api.model.UserDetailsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON serialization of the generated single-object response models. The list payloads of question/all and answer/all
+ * are covered, in every encoding, by {@link PayloadFormatBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ModelSerializationBenchmark {
+
+    private SigninResponse signinResponse;
+
+    private QuestionResponse questionResponse;
+
+    private UserDetailsResponse userDetailsResponse;
+
+    @Setup
+    public void setUp() {
+        signinResponse = new SigninResponse().id("a5bd3b1c-6bf0-4c4f-9d4d-6b7a4ad0f3a1").message("SIGNED IN SUCCESSFULLY");
+        questionResponse = new QuestionResponse().id("2a1f0e4b-2b0c-4f63-a1b0-8ad1c9b1f1d2").status("QUESTION CREATED");
+        userDetailsResponse = new UserDetailsResponse().firstName("first").lastName("last").userName("user1")
+                .emailAddress("user1@quora.io").country("India").aboutMe("I like answering questions about databases")
+                .dob("01-01-1990").contactNumber("9000000000");
+    }
+
+    @Benchmark
+    public byte[] signinResponse() throws IOException {
+        return PayloadFormat.JSON.getObjectMapper().writeValueAsBytes(signinResponse);
+    }
+
+    @Benchmark
+    public byte[] questionResponse() throws IOException {
+        return PayloadFormat.JSON.getObjectMapper().writeValueAsBytes(questionResponse);
+    }
+
+    @Benchmark
+    public byte[] userDetailsResponse() throws IOException {
+        return PayloadFormat.JSON.getObjectMapper().writeValueAsBytes(userDetailsResponse);
+    }
+}
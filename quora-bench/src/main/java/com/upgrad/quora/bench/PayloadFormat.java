@@ -0,0 +1,26 @@
+package com.upgrad.quora.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+/**
+ * The encodings the API negotiates for its list endpoints, with the object mappers the message converters use.
+ */
+enum PayloadFormat {
+
+    JSON(Jackson2ObjectMapperBuilder.json().build()),
+
+    SMILE(Jackson2ObjectMapperBuilder.smile().build()),
+
+    CBOR(Jackson2ObjectMapperBuilder.cbor().build());
+
+    private final ObjectMapper objectMapper;
+
+    PayloadFormat(final ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+}
@@ -0,0 +1,96 @@
+package com.upgrad.quora.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compares the serialization cost of the question/all and answer/all payloads in the encodings the API can negotiate:
+ * JSON, gzip-compressed JSON, Smile and CBOR. {@link PayloadSizes} prints the matching payload sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PayloadFormatBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    private List<QuestionDetailsResponse> questions;
+
+    private List<AnswerDetailsResponse> answers;
+
+    @Setup
+    public void setUp() {
+        questions = Payloads.questions(size);
+        answers = Payloads.answers(size);
+    }
+
+    @Benchmark
+    public byte[] questionsJson() throws IOException {
+        return PayloadFormat.JSON.getObjectMapper().writeValueAsBytes(questions);
+    }
+
+    @Benchmark
+    public byte[] questionsGzipJson() throws IOException {
+        return gzip(PayloadFormat.JSON.getObjectMapper(), questions);
+    }
+
+    @Benchmark
+    public byte[] questionsSmile() throws IOException {
+        return PayloadFormat.SMILE.getObjectMapper().writeValueAsBytes(questions);
+    }
+
+    @Benchmark
+    public byte[] questionsCbor() throws IOException {
+        return PayloadFormat.CBOR.getObjectMapper().writeValueAsBytes(questions);
+    }
+
+    @Benchmark
+    public byte[] answersJson() throws IOException {
+        return PayloadFormat.JSON.getObjectMapper().writeValueAsBytes(answers);
+    }
+
+    @Benchmark
+    public byte[] answersGzipJson() throws IOException {
+        return gzip(PayloadFormat.JSON.getObjectMapper(), answers);
+    }
+
+    @Benchmark
+    public byte[] answersSmile() throws IOException {
+        return PayloadFormat.SMILE.getObjectMapper().writeValueAsBytes(answers);
+    }
+
+    @Benchmark
+    public byte[] answersCbor() throws IOException {
+        return PayloadFormat.CBOR.getObjectMapper().writeValueAsBytes(answers);
+    }
+
+    static byte[] gzip(final ObjectMapper objectMapper, final Object value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            objectMapper.writeValue(gzip, value);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,29 @@
+package com.upgrad.quora.bench;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Prints the size in bytes of the question/all and answer/all payloads in every negotiable encoding, to go with the
+ * timings of {@link PayloadFormatBenchmark}.
+ * <p>
+ * Run with: java -cp quora-bench/target/benchmarks.jar com.upgrad.quora.bench.PayloadSizes
+ */
+public class PayloadSizes {
+
+    public static void main(String[] args) throws IOException {
+        System.out.printf("%-10s %6s %10s %10s %10s %10s%n", "payload", "items", "json", "gzip-json", "smile", "cbor");
+        for (int size : new int[]{10, 100, 1000}) {
+            print("questions", size, Payloads.questions(size));
+            print("answers", size, Payloads.answers(size));
+        }
+    }
+
+    private static void print(final String payload, final int size, final List<?> items) throws IOException {
+        System.out.printf("%-10s %6d %10d %10d %10d %10d%n", payload, size,
+                PayloadFormat.JSON.getObjectMapper().writeValueAsBytes(items).length,
+                PayloadFormatBenchmark.gzip(PayloadFormat.JSON.getObjectMapper(), items).length,
+                PayloadFormat.SMILE.getObjectMapper().writeValueAsBytes(items).length,
+                PayloadFormat.CBOR.getObjectMapper().writeValueAsBytes(items).length);
+    }
+}
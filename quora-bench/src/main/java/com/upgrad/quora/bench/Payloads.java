@@ -0,0 +1,56 @@
+package com.upgrad.quora.bench;
+
+import com.upgrad.quora.api.model.AnswerDetailsResponse;
+import com.upgrad.quora.api.model.QuestionDetailsResponse;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Builds response payloads shaped like the ones of question/all and answer/all. The content is generated from a fixed
+ * seed, so every run serializes the same bytes.
+ */
+final class Payloads {
+
+    private static final String[] WORDS = {"how", "what", "why", "does", "java", "spring", "database", "index",
+            "query", "latency", "cache", "thread", "memory", "request", "the", "a", "to", "in", "is", "of"};
+
+    private Payloads() {
+    }
+
+    static List<QuestionDetailsResponse> questions(final int size) {
+        final Random random = new Random(size);
+        final List<QuestionDetailsResponse> questions = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            questions.add(new QuestionDetailsResponse().id(uuid(random)).content(sentence(random, 12)));
+        }
+        return questions;
+    }
+
+    static List<AnswerDetailsResponse> answers(final int size) {
+        final Random random = new Random(size);
+        final String questionContent = sentence(random, 12);
+        final List<AnswerDetailsResponse> answers = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            answers.add(new AnswerDetailsResponse().id(uuid(random)).questionContent(questionContent).answerContent(sentence(random, 30)));
+        }
+        return answers;
+    }
+
+    static String sentence(final Random random, final int words) {
+        final StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sentence.toString();
+    }
+
+    private static String uuid(final Random random) {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
@@ -0,0 +1,138 @@
+package com.upgrad.quora.db;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Imports users from a CSV or NDJSON file straight into the USERS table, for onboarding a whole community at once
+ * instead of one signup request per user.
+ * <p>
+ * The file is read in batches. While the passwords of one batch are hashed in parallel on a fork/join pool, the
+ * previous batch is streamed to the database with COPY, so the import runs as fast as the slower of the two. Users
+ * whose username or email is taken are skipped, invalid ones are reported with their line and skipped as well.
+ * <p>
+ * A running application does not see the imported users in its in-memory signup filters and autocomplete until it
+ * restarts; signup still rejects their usernames and emails through the unique constraints.
+ * <p>
+ * Usage: BulkUserImport --url jdbc:postgresql://host:port/db --user name --password secret
+ * [--format csv|ndjson|auto] [--batch-size 10000] [--threads 0] file
+ */
+public class BulkUserImport {
+
+    private final Path file;
+
+    private final String format;
+
+    private final String url;
+
+    private final String user;
+
+    private final String password;
+
+    private final int batchSize;
+
+    private final int threads;
+
+    private final PasswordCryptographyProvider passwordCryptographyProvider = new PasswordCryptographyProvider();
+
+    private long rejected;
+
+    public BulkUserImport(final Path file, final String format, final String url, final String user,
+                          final String password, final int batchSize, final int threads) {
+        this.file = file;
+        this.format = format;
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.batchSize = batchSize;
+        this.threads = threads;
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final CommandLine commandLine = new CommandLine(args, "BulkUserImport --url jdbc:postgresql://host:port/db "
+                + "--user name --password secret [--format csv|ndjson|auto] [--batch-size 10000] [--threads 0] file");
+        if (commandLine.getArguments().size() != 1) {
+            throw commandLine.usageError("Expected one file to import");
+        }
+        final int batchSize = commandLine.getInt("batch-size", 10000);
+        if (batchSize <= 0) {
+            throw commandLine.usageError("--batch-size must be positive");
+        }
+        final int threads = commandLine.getInt("threads", 0);
+        new BulkUserImport(Paths.get(commandLine.getArguments().get(0)), commandLine.getString("format", "auto"),
+                commandLine.getRequired("url"), commandLine.getString("user", null),
+                commandLine.getString("password", null), batchSize,
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors()).run();
+    }
+
+    /**
+     * This method imports the whole file and prints the progress after every batch.
+     *
+     * @throws Exception If the file cannot be read or the database rejects a batch; the batches before are kept
+     */
+    public void run() throws Exception {
+        final ForkJoinPool pool = new ForkJoinPool(threads);
+        final long start = System.nanoTime();
+        long read = 0;
+        long inserted = 0;
+        try (UserRecordReader reader = UserRecordReader.open(file, format);
+             Connection connection = DriverManager.getConnection(url, user, password)) {
+            final UserCopier copier = new UserCopier(connection);
+            List<UserRecord> batch = readBatch(reader);
+            Future<List<UserRecord>> hashing = encrypt(pool, batch);
+            while (!batch.isEmpty()) {
+                final List<UserRecord> hashed = hashing.get();
+                //Hash the next batch while this one is copied
+                batch = readBatch(reader);
+                hashing = encrypt(pool, batch);
+                inserted += copier.copy(hashed);
+                read += hashed.size();
+                report("Imported", read, inserted, start);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        report("Finished:", read, inserted, start);
+    }
+
+    private List<UserRecord> readBatch(final UserRecordReader reader) throws Exception {
+        final List<UserRecord> batch = new ArrayList<>(batchSize);
+        while (batch.size() < batchSize) {
+            final UserRecord record = reader.next();
+            if (record == null) {
+                break;
+            }
+            final String problem = record.getProblem();
+            if (problem != null) {
+                rejected++;
+                System.err.println("Skipping line " + record.getLine() + ": " + problem);
+                continue;
+            }
+            batch.add(record);
+        }
+        return batch;
+    }
+
+    //PBKDF2 dominates the cost of an import, so the records are hashed on all the threads of the pool
+    private Future<List<UserRecord>> encrypt(final ForkJoinPool pool, final List<UserRecord> batch) {
+        return pool.submit(() -> {
+            batch.parallelStream().forEach(record -> record.encrypt(passwordCryptographyProvider));
+            return batch;
+        });
+    }
+
+    private void report(final String prefix, final long read, final long inserted, final long start) {
+        final double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        System.out.println(String.format(Locale.ROOT, "%s %d users, %d already registered, %d invalid, %.1f s, %.0f rows/s",
+                prefix, inserted, read - inserted, rejected, seconds, read / seconds));
+    }
+}
@@ -0,0 +1,86 @@
+package com.upgrad.quora.db;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The arguments of a command of this module: options written as --name value, and everything else positional.
+ */
+public class CommandLine {
+
+    private final Map<String, String> options = new HashMap<>();
+
+    private final List<String> arguments = new ArrayList<>();
+
+    private final String usage;
+
+    /**
+     * @param args  The arguments given to the command
+     * @param usage The usage text shown when the arguments are wrong
+     */
+    public CommandLine(final String[] args, final String usage) {
+        this.usage = usage;
+        for (int i = 0; i < args.length; i++) {
+            if (!args[i].startsWith("--")) {
+                arguments.add(args[i]);
+            } else if (i + 1 == args.length) {
+                throw usageError("Missing value of " + args[i]);
+            } else {
+                options.put(args[i].substring(2), args[++i]);
+            }
+        }
+    }
+
+    public String getString(final String name, final String defaultValue) {
+        return options.getOrDefault(name, defaultValue);
+    }
+
+    public String getRequired(final String name) {
+        final String value = options.get(name);
+        if (value == null) {
+            throw usageError("Missing --" + name);
+        }
+        return value;
+    }
+
+    public int getInt(final String name, final int defaultValue) {
+        return (int) getLong(name, defaultValue);
+    }
+
+    public long getLong(final String name, final long defaultValue) {
+        final String value = options.get(name);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw usageError("--" + name + " must be a number, not " + value);
+        }
+    }
+
+    public double getDouble(final String name, final double defaultValue) {
+        final String value = options.get(name);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw usageError("--" + name + " must be a number, not " + value);
+        }
+    }
+
+    /**
+     * @return List<String> The positional arguments, in order
+     */
+    public List<String> getArguments() {
+        return arguments;
+    }
+
+    /**
+     * This method builds the exception to throw for wrong arguments.
+     *
+     * @param problem What is wrong with the arguments
+     * @return IllegalArgumentException The exception telling the problem and the usage
+     */
+    public IllegalArgumentException usageError(final String problem) {
+        return new IllegalArgumentException(problem + System.lineSeparator() + "Usage: " + usage);
+    }
+}
@@ -0,0 +1,73 @@
+package com.upgrad.quora.db;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Streams rows into a table with COPY ... FROM STDIN in CSV format. Rows are sent as they are written, so tables of
+ * any size can be loaded without holding them in memory. Closing the writer ends the COPY.
+ */
+public class CopyWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer writer;
+
+    private long rows;
+
+    /**
+     * @param connection The connection to copy over
+     * @param table      The table to copy into
+     * @param columns    The columns to copy, in the order of the values of every row
+     * @throws SQLException If the database does not accept the COPY
+     */
+    public CopyWriter(final Connection connection, final String table, final String columns) throws SQLException {
+        final PGCopyOutputStream stream = new PGCopyOutputStream(connection.unwrap(PGConnection.class),
+                "COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)", BUFFER_SIZE);
+        this.writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    /**
+     * This method writes one row. In CSV format an unquoted empty value is NULL, so null values are written that way
+     * and all others are quoted.
+     *
+     * @param values The values of the row, converted with toString
+     * @throws IOException If the row cannot be sent
+     */
+    public void row(final Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            final Object value = values[i];
+            if (value != null) {
+                writer.write('"');
+                writer.write(value.toString().replace("\"", "\"\""));
+                writer.write('"');
+            }
+        }
+        writer.write('\n');
+        rows++;
+    }
+
+    /**
+     * @return long The number of rows written so far
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
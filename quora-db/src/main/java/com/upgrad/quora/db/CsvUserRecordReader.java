@@ -0,0 +1,120 @@
+package com.upgrad.quora.db;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads users from RFC 4180 CSV. The first row names the fields; quoted values may contain commas, line breaks and
+ * doubled quotes. A row with more or fewer values than the header is returned as a malformed record, while a quoted
+ * value left open at the end of the file fails the import.
+ */
+public class CsvUserRecordReader implements UserRecordReader {
+
+    private final Reader reader;
+
+    private final List<String> header;
+
+    private long line = 1;
+
+    private int pushedBack = -2;
+
+    public CsvUserRecordReader(final Reader reader) throws IOException {
+        this.reader = reader;
+        this.header = readRow();
+        if (header == null) {
+            throw new IOException("The CSV file is empty, expected a header row");
+        }
+    }
+
+    @Override
+    public UserRecord next() throws IOException {
+        List<String> row;
+        long start;
+        do {
+            start = line;
+            row = readRow();
+            if (row == null) {
+                return null;
+            }
+            //Blank lines are skipped
+        } while (row.size() == 1 && row.get(0).isEmpty());
+        final UserRecord record = new UserRecord(start);
+        if (row.size() != header.size()) {
+            //The row has been read to its end, so the rows after it can still be imported
+            record.setMalformation("the line has " + row.size() + " values, the header has " + header.size());
+            return record;
+        }
+        for (int i = 0; i < row.size(); i++) {
+            record.set(header.get(i), row.get(i));
+        }
+        return record;
+    }
+
+    private List<String> readRow() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        final List<String> row = new ArrayList<>();
+        final StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new IOException("Line " + line + " ends inside a quoted value");
+                }
+                if (c == '"') {
+                    final int following = read();
+                    if (following == '"') {
+                        value.append('"');
+                    } else {
+                        quoted = false;
+                        c = following;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    value.append((char) c);
+                }
+            } else if (c == '"' && value.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                row.add(value.toString());
+                value.setLength(0);
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r') {
+                    final int following = read();
+                    if (following != '\n') {
+                        pushedBack = following;
+                    }
+                }
+                if (c != -1) {
+                    line++;
+                }
+                row.add(value.toString());
+                return row;
+            } else {
+                value.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        if (pushedBack != -2) {
+            final int c = pushedBack;
+            pushedBack = -2;
+            return c;
+        }
+        return reader.read();
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
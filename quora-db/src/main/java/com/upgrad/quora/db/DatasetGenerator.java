@@ -0,0 +1,280 @@
+package com.upgrad.quora.db;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * Fills the database with a synthetic community of the size of a production one, for load tests and benchmarks.
+ * It appends users with their login history, questions and answers to what the database already holds, streaming
+ * every table with COPY.
+ * <p>
+ * The data is skewed the way real communities are: the authors of questions and answers are drawn from a Zipf
+ * distribution over the users, so a few heavy posters write most of the content, and the answers are spread over the
+ * questions by another Zipf distribution, so a few questions collect most of the answers. Question ids follow their
+ * dates, every answer is dated after its question, and the words of the texts follow Zipf's law too. The same seed
+ * always generates the same data.
+ * <p>
+ * Every generated user is named gen_user&lt;id&gt; and signs in with the same password, so load tests can sign them
+ * in. Run it against an otherwise idle database, since it picks the ids of the new rows itself.
+ * <p>
+ * Usage: DatasetGenerator --url jdbc:postgresql://host:port/db --user name --password secret [--users 10000]
+ * [--questions 50000] [--answers 200000] [--sessions-per-user 3] [--poster-skew 1.0] [--answer-skew 1.0]
+ * [--days 365] [--seed 42] [--user-password password]
+ */
+public class DatasetGenerator {
+
+    private static final String USAGE = "DatasetGenerator --url jdbc:postgresql://host:port/db --user name "
+            + "--password secret [--users 10000] [--questions 50000] [--answers 200000] [--sessions-per-user 3] "
+            + "[--poster-skew 1.0] [--answer-skew 1.0] [--days 365] [--seed 42] [--user-password password]";
+
+    private static final String[] COMMON_WORDS = {"how", "what", "why", "when", "which", "best", "way", "use", "does",
+            "work", "java", "spring", "database", "index", "query", "performance", "cache", "memory", "thread", "lock",
+            "transaction", "latency", "throughput", "server", "client", "request", "response", "service", "api",
+            "test", "build", "deploy", "cloud", "network", "security", "password", "token", "user", "question",
+            "answer", "search", "data", "model", "learn", "career", "interview", "job", "startup", "market", "money",
+            "health", "food", "travel", "city", "country", "history", "science", "physics", "math", "language",
+            "book", "movie", "music", "game", "sport", "team", "school", "college", "exam", "engineer", "design",
+            "product", "manager", "salary", "habit", "time", "life", "friend", "family", "idea", "problem",
+            "solution", "difference", "between", "better", "worst", "fastest", "simple", "explain", "example",
+            "start", "stop", "change", "improve", "avoid", "choose", "compare", "write", "read", "scale"};
+
+    private static final int VOCABULARY_SIZE = 20000;
+
+    private static final int PROGRESS_ROWS = 1_000_000;
+
+    private static final long SESSION_SECONDS = 8 * 3600;
+
+    private final CommandLine options;
+
+    private final Random random;
+
+    private final String[] vocabulary = new String[VOCABULARY_SIZE];
+
+    private final ZipfDistribution words = new ZipfDistribution(VOCABULARY_SIZE, 1.0);
+
+    private final long users;
+
+    private final long questions;
+
+    private final long answers;
+
+    private final long windowEnd = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+
+    private final long windowStart;
+
+    private long firstUserId;
+
+    private long firstQuestionId;
+
+    public DatasetGenerator(final CommandLine options) {
+        this.options = options;
+        this.random = new Random(options.getLong("seed", 42));
+        this.users = options.getLong("users", 10000);
+        this.questions = options.getLong("questions", 50000);
+        this.answers = options.getLong("answers", 200000);
+        this.windowStart = windowEnd - options.getLong("days", 365) * 24 * 3600;
+        //The ids of users and questions are INTEGER columns
+        if (users < 1 || users > Integer.MAX_VALUE || questions < 0 || questions > Integer.MAX_VALUE || answers < 0
+                || windowStart >= windowEnd || (answers > 0 && questions == 0)) {
+            throw options.usageError("There must be at least one user, a question for the answers and a day");
+        }
+        for (int rank = 0; rank < VOCABULARY_SIZE; rank++) {
+            vocabulary[rank] = rank < COMMON_WORDS.length ? COMMON_WORDS[rank] : "term" + Integer.toString(rank, 36);
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        new DatasetGenerator(new CommandLine(args, USAGE)).run();
+    }
+
+    /**
+     * This method generates the whole dataset, committing every table on its own, and prints the rate of every one.
+     *
+     * @throws Exception If the database rejects a table; the tables before are kept
+     */
+    public void run() throws Exception {
+        try (Connection connection = DriverManager.getConnection(options.getRequired("url"),
+                options.getString("user", null), options.getString("password", null))) {
+            firstUserId = maxId(connection, "users") + 1;
+            firstQuestionId = maxId(connection, "question") + 1;
+            copyUsers(connection);
+            copyUserAuth(connection);
+            copyQuestions(connection);
+            copyAnswers(connection);
+            try (Statement statement = connection.createStatement()) {
+                //The ids were picked here, so the sequences have to be moved past them for the application
+                statement.execute("SELECT setval(pg_get_serial_sequence('users', 'id'), (SELECT max(id) FROM users))");
+                statement.execute("SELECT setval(pg_get_serial_sequence('question', 'id'), "
+                        + "(SELECT coalesce(max(id), 1) FROM question))");
+                statement.execute("ANALYZE users, user_auth, question, answer");
+            }
+        }
+    }
+
+    private void copyUsers(final Connection connection) throws SQLException, IOException {
+        //Hashing millions of passwords would take hours, so all the users share one salt and hash
+        final String[] encryptedText = new PasswordCryptographyProvider().encrypt(options.getString("user-password", "password"));
+        final long start = System.nanoTime();
+        final long rows;
+        try (CopyWriter writer = new CopyWriter(connection, "users", "id, " + UserCopier.COLUMNS)) {
+            for (long id = firstUserId; id < firstUserId + users; id++) {
+                final String userName = "gen_user" + id;
+                writer.row(id, uuid(), "Generated", "User " + id, userName, userName + "@example.com",
+                        encryptedText[1], encryptedText[0], "country" + random.nextInt(50), null, null, "nonadmin",
+                        null);
+                progress("users", writer, start);
+            }
+            rows = writer.getRows();
+        }
+        report("users", rows, start);
+    }
+
+    private void copyUserAuth(final Connection connection) throws SQLException, IOException {
+        final double meanSessions = options.getDouble("sessions-per-user", 3);
+        final long start = System.nanoTime();
+        final long rows;
+        try (CopyWriter writer = new CopyWriter(connection, "user_auth",
+                "uuid, user_id, access_token, expires_at, login_at, logout_at")) {
+            for (long id = firstUserId; id < firstUserId + users; id++) {
+                //Geometric number of sessions, most users sign in a few times and some very often
+                final int sessions = (int) Math.floor(Math.log(1 - random.nextDouble()) / Math.log(meanSessions / (meanSessions + 1)));
+                final long[] logins = new long[sessions];
+                for (int i = 0; i < sessions; i++) {
+                    logins[i] = time(windowStart, windowEnd);
+                }
+                Arrays.sort(logins);
+                for (long login : logins) {
+                    //Most users sign out, the others leave their token to expire
+                    final Object logout = random.nextDouble() < 0.6
+                            ? timestamp(Math.min(windowEnd, login + 300 + random.nextInt((int) SESSION_SECONDS - 300))) : null;
+                    writer.row(uuid(), id, "generated." + uuid(), timestamp(login + SESSION_SECONDS), timestamp(login), logout);
+                    progress("user_auth", writer, start);
+                }
+            }
+            rows = writer.getRows();
+        }
+        report("user_auth", rows, start);
+    }
+
+    private void copyQuestions(final Connection connection) throws SQLException, IOException {
+        final ZipfDistribution posters = new ZipfDistribution(users, options.getDouble("poster-skew", 1.0));
+        final long stride = stride(users);
+        final long start = System.nanoTime();
+        final long rows;
+        try (CopyWriter writer = new CopyWriter(connection, "question", "id, uuid, content, date, user_id")) {
+            for (long i = 0; i < questions; i++) {
+                writer.row(firstQuestionId + i, uuid(), text(4 + random.nextInt(16), 500, "?"),
+                        timestamp(questionTime(i)), firstUserId + scatter(posters.sample(random), stride, users));
+                progress("question", writer, start);
+            }
+            rows = writer.getRows();
+        }
+        report("question", rows, start);
+    }
+
+    private void copyAnswers(final Connection connection) throws SQLException, IOException {
+        final ZipfDistribution posters = new ZipfDistribution(users, options.getDouble("poster-skew", 1.0));
+        final ZipfDistribution popularity = new ZipfDistribution(Math.max(questions, 1), options.getDouble("answer-skew", 1.0));
+        final long userStride = stride(users);
+        final long questionStride = stride(questions);
+        final long start = System.nanoTime();
+        final long rows;
+        try (CopyWriter writer = new CopyWriter(connection, "answer", "uuid, ans, date, user_id, question_id")) {
+            for (long i = 0; i < answers; i++) {
+                final long question = scatter(popularity.sample(random), questionStride, questions);
+                writer.row(uuid(), text(3 + random.nextInt(30), 255, "."), timestamp(time(questionTime(question), windowEnd)),
+                        firstUserId + scatter(posters.sample(random), userStride, users), firstQuestionId + question);
+                progress("answer", writer, start);
+            }
+            rows = writer.getRows();
+        }
+        report("answer", rows, start);
+    }
+
+    //Questions are dated in the order of their ids, a little apart from an even spread
+    private long questionTime(final long index) {
+        final long span = windowEnd - windowStart;
+        final long jitter = Math.max(1, span / Math.max(questions, 1));
+        return Math.min(windowEnd, windowStart + (long) ((double) index / Math.max(questions, 1) * span)
+                + Math.floorMod(index * 0x9E3779B97F4A7C15L, jitter));
+    }
+
+    //Maps the rank drawn from a Zipf distribution to a row, so that the popular rows are spread over all the ids.
+    //n and the stride stay below 2^31, so the product fits in a long.
+    private static long scatter(final long rank, final long stride, final long n) {
+        return (rank - 1) * stride % n;
+    }
+
+    //A step coprime with n, so that scattering the ranks 1 to n is a permutation of 0 to n - 1
+    private static long stride(final long n) {
+        long stride = Math.max(1, (long) (n * 0.618033988749895)) | 1;
+        while (gcd(stride, Math.max(n, 1)) != 1) {
+            stride += 2;
+        }
+        return stride;
+    }
+
+    private static long gcd(final long a, final long b) {
+        return b == 0 ? a : gcd(b, a % b);
+    }
+
+    private String text(final int wordCount, final int maxLength, final String end) {
+        final StringBuilder text = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            final String word = vocabulary[(int) words.sample(random) - 1];
+            if (text.length() + word.length() + 1 + end.length() > maxLength) {
+                break;
+            }
+            if (i == 0) {
+                text.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                text.append(' ').append(word);
+            }
+        }
+        return text.append(end).toString();
+    }
+
+    private long time(final long from, final long to) {
+        return from + (long) (random.nextDouble() * Math.max(1, to - from));
+    }
+
+    private static String timestamp(final long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC).toString();
+    }
+
+    private String uuid() {
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
+    private static long maxId(final Connection connection, final String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT coalesce(max(id), 0) FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void progress(final String table, final CopyWriter writer, final long start) {
+        if (writer.getRows() % PROGRESS_ROWS == 0) {
+            report(table, writer.getRows(), start);
+        }
+    }
+
+    private static void report(final String table, final long rows, final long start) {
+        final double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        System.out.println(String.format(Locale.ROOT, "%-10s %,d rows, %.1f s, %,.0f rows/s", table, rows, seconds,
+                rows / seconds));
+    }
+}
@@ -0,0 +1,62 @@
+package com.upgrad.quora.db;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Reads users from newline delimited JSON, one object per line. A line that is not a JSON object is returned as a
+ * malformed record.
+ */
+public class NdjsonUserRecordReader implements UserRecordReader {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final BufferedReader reader;
+
+    private long line;
+
+    public NdjsonUserRecordReader(final Reader reader) {
+        this.reader = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+    }
+
+    @Override
+    public UserRecord next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            line++;
+            if (text == null) {
+                return null;
+            }
+        } while (text.trim().isEmpty());
+        final UserRecord record = new UserRecord(line);
+        final JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(text);
+        } catch (JsonProcessingException e) {
+            record.setMalformation("the line is not valid JSON: " + e.getOriginalMessage());
+            return record;
+        }
+        if (node == null || !node.isObject()) {
+            record.setMalformation("the line is not a JSON object");
+            return record;
+        }
+        for (Iterator<Map.Entry<String, JsonNode>> fields = node.fields(); fields.hasNext(); ) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            record.set(field.getKey(), field.getValue().isNull() ? null : field.getValue().asText());
+        }
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
@@ -0,0 +1,62 @@
+package com.upgrad.quora.db;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Writes batches of users to the USERS table with COPY. Each batch is copied into a temporary staging table and
+ * moved to USERS in one statement that skips users whose username or email is already taken, so that a duplicate
+ * does not abort the whole batch. Every batch is committed on its own.
+ */
+public class UserCopier {
+
+    static final String COLUMNS = "uuid, firstName, lastName, userName, email, password, salt, country, aboutMe, dob, "
+            + "role, contactNumber";
+
+    private static final String CREATE_STAGING = "CREATE TEMPORARY TABLE user_import ON COMMIT DELETE ROWS AS "
+            + "SELECT " + COLUMNS + " FROM users WITH NO DATA";
+
+    private static final String MOVE_STAGING = "INSERT INTO users (" + COLUMNS + ") SELECT " + COLUMNS
+            + " FROM user_import ON CONFLICT DO NOTHING";
+
+    private final Connection connection;
+
+    public UserCopier(final Connection connection) throws SQLException {
+        this.connection = connection;
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+        connection.commit();
+    }
+
+    /**
+     * This method writes the given users and commits them.
+     *
+     * @param users The users with their passwords hashed
+     * @return int The number of users inserted, the others were already registered
+     * @throws SQLException If the database rejects the batch
+     * @throws IOException  If the batch cannot be streamed to the database
+     */
+    public int copy(final List<UserRecord> users) throws SQLException, IOException {
+        try {
+            try (CopyWriter writer = new CopyWriter(connection, "user_import", COLUMNS)) {
+                for (UserRecord user : users) {
+                    writer.row((Object[]) user.toColumns());
+                }
+            }
+            final int inserted;
+            try (Statement statement = connection.createStatement()) {
+                inserted = statement.executeUpdate(MOVE_STAGING);
+            }
+            connection.commit();
+            return inserted;
+        } catch (SQLException | IOException e) {
+            connection.rollback();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.upgrad.quora.db;
+
+import com.upgrad.quora.service.business.PasswordCryptographyProvider;
+
+import java.util.UUID;
+
+/**
+ * One user read from an import file. The fields are named like the ones of the signup request, so an export of
+ * signup requests can be imported as it is.
+ */
+public class UserRecord {
+
+    private final long line;
+
+    private String firstName;
+
+    private String lastName;
+
+    private String userName;
+
+    private String email;
+
+    private String password;
+
+    private String salt;
+
+    private String country;
+
+    private String aboutMe;
+
+    private String dob;
+
+    private String role;
+
+    private String contactNumber;
+
+    private String uuid;
+
+    //Set when the line could not be read into fields at all
+    private String malformation;
+
+    public UserRecord(final long line) {
+        this.line = line;
+    }
+
+    /**
+     * This method marks the record as one whose line could not be read into fields, so that it is reported and
+     * skipped like an invalid user instead of ending the import.
+     *
+     * @param malformation What is wrong with the line
+     */
+    public void setMalformation(final String malformation) {
+        this.malformation = malformation;
+    }
+
+    /**
+     * This method sets the field of the given name, ignoring fields the USERS table has no column for.
+     *
+     * @param name  The name of the field, in any case
+     * @param value The value of the field, null or empty if missing
+     */
+    public void set(final String name, final String value) {
+        final String trimmed = value == null || value.trim().isEmpty() ? null : value.trim();
+        switch (name.trim().toLowerCase()) {
+            case "firstname":
+                firstName = trimmed;
+                break;
+            case "lastname":
+                lastName = trimmed;
+                break;
+            case "username":
+                userName = trimmed;
+                break;
+            case "email":
+            case "emailaddress":
+                email = trimmed;
+                break;
+            case "password":
+                //Passwords are taken as they are, surrounding spaces included
+                password = value == null || value.isEmpty() ? null : value;
+                break;
+            case "country":
+                country = trimmed;
+                break;
+            case "aboutme":
+                aboutMe = trimmed;
+                break;
+            case "dob":
+                dob = trimmed;
+                break;
+            case "role":
+                role = trimmed;
+                break;
+            case "contactnumber":
+                contactNumber = trimmed;
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * This method checks the record against the columns of the USERS table, so that one bad user does not make the
+     * database reject the whole batch it is copied with.
+     *
+     * @return String What is wrong with the record, null if it can be imported
+     */
+    public String getProblem() {
+        if (malformation != null) {
+            return malformation;
+        }
+        if (password == null) {
+            return "password is missing";
+        }
+        final String[][] fields = {{"firstName", firstName}, {"lastName", lastName}, {"userName", userName},
+                {"emailAddress", email}, {"country", country}, {"aboutMe", aboutMe}, {"dob", dob}, {"role", role},
+                {"contactNumber", contactNumber}};
+        final int[] maxLengths = {30, 30, 30, 50, 30, 50, 30, 30, 30};
+        for (int i = 0; i < fields.length; i++) {
+            final String value = fields[i][1];
+            //Only the names and the email are required
+            if (value == null && i < 4) {
+                return fields[i][0] + " is missing";
+            }
+            if (value != null && value.length() > maxLengths[i]) {
+                return fields[i][0] + " is longer than " + maxLengths[i] + " characters";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method replaces the plain password by its salted hash and gives the user its uuid, the way signup does.
+     *
+     * @param passwordCryptographyProvider The provider hashing the password
+     */
+    public void encrypt(final PasswordCryptographyProvider passwordCryptographyProvider) {
+        final String[] encryptedText = passwordCryptographyProvider.encrypt(password);
+        salt = encryptedText[0];
+        password = encryptedText[1];
+        uuid = UUID.randomUUID().toString();
+        if (role == null) {
+            role = "nonadmin";
+        }
+    }
+
+    /**
+     * This method returns the values in the order of {@link UserCopier#COLUMNS}.
+     *
+     * @return String[] The column values, null where the record has none
+     */
+    String[] toColumns() {
+        return new String[]{uuid, firstName, lastName, userName, email, password, salt, country, aboutMe, dob, role,
+                contactNumber};
+    }
+
+    public long getLine() {
+        return line;
+    }
+}
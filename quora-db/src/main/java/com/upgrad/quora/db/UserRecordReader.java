@@ -0,0 +1,49 @@
+package com.upgrad.quora.db;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Reads the users of an import file one at a time, so that files of any size can be imported.
+ */
+public interface UserRecordReader extends Closeable {
+
+    /**
+     * This method reads the next user.
+     *
+     * @return UserRecord The next user, possibly one whose line is malformed, see {@link UserRecord#getProblem()}, null
+     * at the end of the file
+     * @throws IOException If the file cannot be read, or is malformed in a way the users after it cannot be read past
+     */
+    UserRecord next() throws IOException;
+
+    /**
+     * This method opens a reader for the given file.
+     *
+     * @param file   The file to read
+     * @param format csv, ndjson or auto to pick one by the extension of the file
+     * @return UserRecordReader The reader of the file
+     * @throws IOException If the file cannot be opened
+     */
+    static UserRecordReader open(final Path file, final String format) throws IOException {
+        String chosen = format.toLowerCase();
+        if ("auto".equals(chosen)) {
+            final String name = file.getFileName().toString().toLowerCase();
+            chosen = name.endsWith(".ndjson") || name.endsWith(".jsonl") || name.endsWith(".json") ? "ndjson" : "csv";
+        }
+        final Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        switch (chosen) {
+            case "csv":
+                return new CsvUserRecordReader(reader);
+            case "ndjson":
+                return new NdjsonUserRecordReader(reader);
+            default:
+                reader.close();
+                throw new IllegalArgumentException("Unknown import format " + format + ", expected csv, ndjson or auto");
+        }
+    }
+}
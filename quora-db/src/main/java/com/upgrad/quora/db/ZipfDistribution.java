@@ -0,0 +1,76 @@
+package com.upgrad.quora.db;
+
+import java.util.Random;
+
+/**
+ * Ranks 1 to n drawn with probability proportional to 1 / rank^exponent, by rejection-inversion sampling (Hörmann
+ * and Derflinger, 1996). Unlike a table of cumulative probabilities it takes constant memory and time per draw, so
+ * it can skew over tens of millions of users. An exponent of 0 draws uniformly.
+ */
+public class ZipfDistribution {
+
+    private final long n;
+
+    private final double exponent;
+
+    private final double hIntegralX1;
+
+    private final double hIntegralN;
+
+    private final double s;
+
+    public ZipfDistribution(final long n, final double exponent) {
+        if (n < 1 || exponent < 0) {
+            throw new IllegalArgumentException("Invalid zipf distribution over " + n + " ranks with exponent " + exponent);
+        }
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+    }
+
+    /**
+     * This method draws a rank.
+     *
+     * @param random The source of randomness
+     * @return long A rank from 1 (the most likely) to n
+     */
+    public long sample(final Random random) {
+        if (exponent == 0) {
+            return 1 + (long) (random.nextDouble() * n);
+        }
+        while (true) {
+            final double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            final double x = hIntegralInverse(u);
+            final long k = Math.max(1, Math.min(n, (long) (x + 0.5)));
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k)) {
+                return k;
+            }
+        }
+    }
+
+    private double hIntegral(final double x) {
+        final double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double h(final double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegralInverse(final double x) {
+        final double t = Math.max(-1, x * (1 - exponent));
+        return Math.exp(helper1(t) * x);
+    }
+
+    //log1p(x) / x, continued to 1 at 0
+    private static double helper1(final double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1 / 3.0 - 0.25 * x));
+    }
+
+    //expm1(x) / x, continued to 1 at 0
+    private static double helper2(final double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x / 3.0 * (1 + 0.25 * x));
+    }
+}
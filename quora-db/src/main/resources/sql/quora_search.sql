@@ -0,0 +1,21 @@
+--Full-text search on QUESTION.content and ANSWER.ans, applied after quora.sql
+
+--content_tsv holds the english lexemes of the question content and is kept in sync by the trigger below
+ALTER TABLE QUESTION ADD COLUMN IF NOT EXISTS content_tsv TSVECTOR;
+UPDATE QUESTION SET content_tsv = to_tsvector('pg_catalog.english', content);
+
+DROP TRIGGER IF EXISTS question_content_tsv_update ON QUESTION;
+CREATE TRIGGER question_content_tsv_update BEFORE INSERT OR UPDATE OF content ON QUESTION FOR EACH ROW EXECUTE PROCEDURE tsvector_update_trigger(content_tsv, 'pg_catalog.english', content);
+
+--GIN index serving the content_tsv @@ tsquery match of question/search
+CREATE INDEX IF NOT EXISTS question_content_tsv_idx ON QUESTION USING GIN (content_tsv);
+
+--ans_tsv holds the english lexemes of the answer and is kept in sync the same way
+ALTER TABLE ANSWER ADD COLUMN IF NOT EXISTS ans_tsv TSVECTOR;
+UPDATE ANSWER SET ans_tsv = to_tsvector('pg_catalog.english', ans);
+
+DROP TRIGGER IF EXISTS answer_ans_tsv_update ON ANSWER;
+CREATE TRIGGER answer_ans_tsv_update BEFORE INSERT OR UPDATE OF ans ON ANSWER FOR EACH ROW EXECUTE PROCEDURE tsvector_update_trigger(ans_tsv, 'pg_catalog.english', ans);
+
+--GIN index serving the ans_tsv @@ tsquery match of answer/search
+CREATE INDEX IF NOT EXISTS answer_ans_tsv_idx ON ANSWER USING GIN (ans_tsv);
@@ -0,0 +1,62 @@
+--Versions of the content the polling endpoints tag with an ETag, applied after quora.sql (PostgreSQL 10 or later).
+--Every key is bumped by the triggers below, in the transaction that changes its content, so a version only grows, is
+--shared by every instance of the application and counts writes made straight in the database as well. The keys are
+--'questions' for the list of all the questions, 'questions:user:<user uuid>' for the questions of a user,
+--'answers:<question uuid>' for the answers to a question and 'user:<user uuid>' for the details of a user.
+DROP TABLE IF EXISTS CONTENT_VERSION CASCADE;
+CREATE TABLE IF NOT EXISTS CONTENT_VERSION(key VARCHAR(250) NOT NULL, version BIGINT NOT NULL, PRIMARY KEY(key));
+
+--The versions are looked up through the uuids the requests carry
+CREATE INDEX IF NOT EXISTS question_uuid_idx ON QUESTION (uuid);
+CREATE INDEX IF NOT EXISTS users_uuid_idx ON USERS (uuid);
+
+--Keys are bumped in sorted order, so that concurrent writers lock their rows in the same order
+CREATE OR REPLACE FUNCTION bump_content_versions(keys TEXT[]) RETURNS VOID AS '
+    INSERT INTO CONTENT_VERSION(key, version) SELECT DISTINCT k, 1 FROM unnest(keys) k ORDER BY k
+    ON CONFLICT (key) DO UPDATE SET version = CONTENT_VERSION.version + 1
+' LANGUAGE SQL;
+
+--The triggers run once per statement and see the rows it changed in the transition table "changed", so a bulk insert
+--or COPY bumps each key once. The answers to a question repeat its content, so editing a question bumps them too
+CREATE OR REPLACE FUNCTION question_content_versions() RETURNS TRIGGER AS '
+BEGIN
+    PERFORM bump_content_versions(array(
+        SELECT ''questions'' WHERE EXISTS (SELECT 1 FROM changed)
+        UNION SELECT ''questions:user:'' || u.uuid FROM (SELECT DISTINCT user_id FROM changed) c JOIN USERS u ON u.id = c.user_id
+        UNION SELECT ''answers:'' || c.uuid FROM changed c WHERE TG_OP = ''UPDATE''));
+    RETURN NULL;
+END
+' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS question_content_versions_insert ON QUESTION;
+CREATE TRIGGER question_content_versions_insert AFTER INSERT ON QUESTION REFERENCING NEW TABLE AS changed FOR EACH STATEMENT EXECUTE PROCEDURE question_content_versions();
+DROP TRIGGER IF EXISTS question_content_versions_update ON QUESTION;
+CREATE TRIGGER question_content_versions_update AFTER UPDATE ON QUESTION REFERENCING NEW TABLE AS changed FOR EACH STATEMENT EXECUTE PROCEDURE question_content_versions();
+DROP TRIGGER IF EXISTS question_content_versions_delete ON QUESTION;
+CREATE TRIGGER question_content_versions_delete AFTER DELETE ON QUESTION REFERENCING OLD TABLE AS changed FOR EACH STATEMENT EXECUTE PROCEDURE question_content_versions();
+
+CREATE OR REPLACE FUNCTION answer_content_versions() RETURNS TRIGGER AS '
+BEGIN
+    PERFORM bump_content_versions(array(
+        SELECT ''answers:'' || q.uuid FROM (SELECT DISTINCT question_id FROM changed) c JOIN QUESTION q ON q.id = c.question_id));
+    RETURN NULL;
+END
+' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS answer_content_versions_insert ON ANSWER;
+CREATE TRIGGER answer_content_versions_insert AFTER INSERT ON ANSWER REFERENCING NEW TABLE AS changed FOR EACH STATEMENT EXECUTE PROCEDURE answer_content_versions();
+DROP TRIGGER IF EXISTS answer_content_versions_update ON ANSWER;
+CREATE TRIGGER answer_content_versions_update AFTER UPDATE ON ANSWER REFERENCING NEW TABLE AS changed FOR EACH STATEMENT EXECUTE PROCEDURE answer_content_versions();
+DROP TRIGGER IF EXISTS answer_content_versions_delete ON ANSWER;
+CREATE TRIGGER answer_content_versions_delete AFTER DELETE ON ANSWER REFERENCING OLD TABLE AS changed FOR EACH STATEMENT EXECUTE PROCEDURE answer_content_versions();
+
+--A new user has no details cached anywhere yet, and a deleted one is not found any more, so only updates bump
+CREATE OR REPLACE FUNCTION user_content_versions() RETURNS TRIGGER AS '
+BEGIN
+    PERFORM bump_content_versions(array(SELECT ''user:'' || c.uuid FROM changed c));
+    RETURN NULL;
+END
+' LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS user_content_versions_update ON USERS;
+CREATE TRIGGER user_content_versions_update AFTER UPDATE ON USERS REFERENCING NEW TABLE AS changed FOR EACH STATEMENT EXECUTE PROCEDURE user_content_versions();
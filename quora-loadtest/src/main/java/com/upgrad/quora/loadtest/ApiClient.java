@@ -0,0 +1,139 @@
+package com.upgrad.quora.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Calls the endpoints of the API over HTTP the way a client would. Connections are kept alive and reused, so every
+ * response body is read to the end.
+ */
+public class ApiClient {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final String baseUrl;
+
+    public ApiClient(final String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * This method signs the given user in.
+     *
+     * @param userName The username
+     * @param password The password
+     * @return Response The response, whose token is the access token of the session
+     * @throws IOException If the request cannot be sent
+     */
+    public Response signin(final String userName, final String password) throws IOException {
+        final String credentials = Base64.getEncoder().encodeToString((userName + ":" + password).getBytes(StandardCharsets.UTF_8));
+        final HttpURLConnection connection = open("POST", "/user/signin", "Basic " + credentials);
+        final Response response = execute(connection);
+        return new Response(response.status, connection.getHeaderField("access-token"));
+    }
+
+    public Response getAllQuestions(final String accessToken) throws IOException {
+        return execute(open("GET", "/question/all", accessToken));
+    }
+
+    public Response getAllAnswersToQuestion(final String accessToken, final String questionUuid) throws IOException {
+        return execute(open("GET", "/answer/all/" + questionUuid, accessToken));
+    }
+
+    /**
+     * This method creates a question.
+     *
+     * @param accessToken The access token of the session
+     * @param content     The content of the question
+     * @return Response The response, whose id is the uuid of the created question
+     * @throws IOException If the request cannot be sent
+     */
+    public Response createQuestion(final String accessToken, final String content) throws IOException {
+        final HttpURLConnection connection = open("POST", "/question/create?content="
+                + URLEncoder.encode(content, "UTF-8"), accessToken);
+        connection.setRequestProperty("Content-Type", "application/json;charset=UTF-8");
+        final Response response = execute(connection);
+        if (response.status != HttpURLConnection.HTTP_CREATED) {
+            return response;
+        }
+        final JsonNode body = OBJECT_MAPPER.readTree(response.body);
+        return new Response(response.status, body.path("id").asText(null));
+    }
+
+    public Response deleteQuestion(final String accessToken, final String questionUuid) throws IOException {
+        return execute(open("DELETE", "/question/delete/" + questionUuid, accessToken));
+    }
+
+    private HttpURLConnection open(final String method, final String path, final String authorization) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod(method);
+        connection.setRequestProperty("authorization", authorization);
+        connection.setRequestProperty("Accept", "application/json");
+        connection.setConnectTimeout(10_000);
+        connection.setReadTimeout(60_000);
+        return connection;
+    }
+
+    private static Response execute(final HttpURLConnection connection) throws IOException {
+        final int status = connection.getResponseCode();
+        final InputStream stream = status < 400 ? connection.getInputStream() : connection.getErrorStream();
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        if (stream != null) {
+            try (InputStream in = stream) {
+                final byte[] buffer = new byte[8192];
+                for (int read = in.read(buffer); read != -1; read = in.read(buffer)) {
+                    body.write(buffer, 0, read);
+                }
+            }
+        }
+        return new Response(status, body.toByteArray());
+    }
+
+    /**
+     * The status of a response, with its body or the value the caller needs from it.
+     */
+    public static final class Response {
+
+        private final int status;
+
+        private final byte[] body;
+
+        private final String value;
+
+        private Response(final int status, final byte[] body) {
+            this.status = status;
+            this.body = body;
+            this.value = null;
+        }
+
+        private Response(final int status, final String value) {
+            this.status = status;
+            this.body = null;
+            this.value = value;
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public boolean isSuccessful() {
+            return status >= 200 && status < 300;
+        }
+
+        /**
+         * @return String The access token of a signin, the uuid of a created question, else null
+         */
+        public String getValue() {
+            return value;
+        }
+    }
+}
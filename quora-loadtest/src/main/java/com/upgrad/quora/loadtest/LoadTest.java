@@ -0,0 +1,179 @@
+package com.upgrad.quora.loadtest;
+
+import com.upgrad.quora.db.CommandLine;
+import com.upgrad.quora.db.DatasetGenerator;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Runs a load test of the whole application: it optionally seeds the local database with the dataset generator,
+ * starts QuoraApiApplication in a JVM of its own on a free port, drives it over HTTP with an open-model workload and
+ * writes a report of the throughput and latency percentiles of every operation.
+ * <p>
+ * The server JVM is the one running the load test unless --java names another java executable, and is started with
+ * the options given in --jvm-args, such as --jvm-args "-Xms2g -Xmx2g". Its version and options are printed at the top
+ * of the report, and its output is written to server.log next to the report.
+ * <p>
+ * Options are written as --name value. Arguments written as --name=value go to the application unchanged, for
+ * example --quora.search.in-memory.enabled=true to compare two configurations. With --compare name=a,b the test is run
+ * once per value of the application property, each against a freshly started application, and the reports are
+ * written side by side, for example --compare quora.search.in-memory.enabled=false,true.
+ * <p>
+ * For results that can be compared between commits, run on an otherwise idle machine with the same options, seed
+ * and dataset, and keep the rate below the saturation point unless saturation is what is measured.
+ */
+public class LoadTest {
+
+    private static final String USAGE = "LoadTest [--url jdbc:postgresql://localhost:5432/quora] [--user postgres] "
+            + "[--password password] [--generate-users 0] [--user-password password] [--rate 100] [--duration 60] "
+            + "[--warmup 15] [--threads 64] [--sessions 100] [--question-skew 1.0] [--seed 42] "
+            + "[--mix signin=5,question/all=40,answer/all=40,question/create=10,question/delete=5] "
+            + "[--report target/loadtest] [--compare property=value,value] [--java path/to/java] [--jvm-args \"-Xmx2g\"] "
+            + "[--spring.property=value ...]";
+
+    private static final int SAMPLE_SIZE = 10000;
+
+    public static void main(final String[] args) throws Exception {
+        final List<String> options = new ArrayList<>();
+        final List<String> applicationArgs = new ArrayList<>();
+        for (String arg : args) {
+            (arg.startsWith("--") && arg.contains("=") ? applicationArgs : options).add(arg);
+        }
+        final CommandLine commandLine = new CommandLine(options.toArray(new String[0]), USAGE);
+        final String url = commandLine.getString("url", "jdbc:postgresql://localhost:5432/quora");
+        final String user = commandLine.getString("user", "postgres");
+        final String password = commandLine.getString("password", "password");
+        final String userPassword = commandLine.getString("user-password", "password");
+        final long seed = commandLine.getLong("seed", 42);
+        final double rate = commandLine.getDouble("rate", 100);
+        final long duration = commandLine.getLong("duration", 60);
+        final long warmup = commandLine.getLong("warmup", 15);
+        final int threads = commandLine.getInt("threads", 64);
+        final Mix mix = new Mix(commandLine.getString("mix",
+                "signin=5,question/all=40,answer/all=40,question/create=10,question/delete=5"));
+
+        final long generateUsers = commandLine.getLong("generate-users", 0);
+        if (generateUsers > 0) {
+            new DatasetGenerator(new CommandLine(new String[]{"--url", url, "--user", user, "--password", password,
+                    "--users", Long.toString(generateUsers), "--questions", Long.toString(5 * generateUsers),
+                    "--answers", Long.toString(20 * generateUsers), "--seed", Long.toString(seed),
+                    "--user-password", userPassword}, USAGE)).run();
+        }
+
+        final List<String> userNames = sample(url, user, password,
+                "SELECT userName FROM users WHERE userName LIKE 'gen\\_user%' ORDER BY id LIMIT ?");
+        final List<String> questionUuids = sample(url, user, password, "SELECT uuid FROM question ORDER BY id LIMIT ?");
+        if (userNames.isEmpty() || questionUuids.isEmpty()) {
+            throw commandLine.usageError("The database has no generated users or no questions, seed it with --generate-users");
+        }
+
+        final String compare = commandLine.getString("compare", null);
+        final Path reportDirectory = Paths.get(commandLine.getString("report", "target/loadtest"));
+        if (compare == null) {
+            final Report report = run(applicationArgs, url, user, password, userNames, userPassword, questionUuids,
+                    commandLine, mix, seed, rate, duration, warmup, threads, reportDirectory);
+            report.write(reportDirectory);
+            report.print(System.out);
+            return;
+        }
+
+        final int separator = compare.indexOf('=');
+        if (separator <= 0) {
+            throw commandLine.usageError("--compare needs a property and its values, such as quora.search.in-memory.enabled=false,true");
+        }
+        final String property = compare.substring(0, separator);
+        final List<String> values = Arrays.asList(compare.substring(separator + 1).split(","));
+        final List<Report> reports = new ArrayList<>();
+        for (String value : values) {
+            final List<String> variantArgs = new ArrayList<>(applicationArgs);
+            variantArgs.add("--" + property + "=" + value);
+            final Path variantDirectory = reportDirectory.resolve(property + "-" + value);
+            final Report report = run(variantArgs, url, user, password, userNames, userPassword, questionUuids,
+                    commandLine, mix, seed, rate, duration, warmup, threads, variantDirectory);
+            report.write(variantDirectory);
+            reports.add(report);
+        }
+        for (Report report : reports) {
+            report.print(System.out);
+            System.out.println();
+        }
+        Report.printComparison(System.out, property, values, reports);
+    }
+
+    private static Report run(final List<String> applicationArgs, final String url, final String user,
+                              final String password, final List<String> userNames, final String userPassword,
+                              final List<String> questionUuids, final CommandLine commandLine, final Mix mix,
+                              final long seed, final double rate, final long duration, final long warmup,
+                              final int threads, final Path reportDirectory) throws Exception {
+        final String applicationSettings = String.join(" ", applicationArgs);
+        final List<String> args = new ArrayList<>(applicationArgs);
+        //Keep-alive connections are only pooled up to this number per host
+        System.setProperty("http.maxConnections", Integer.toString(threads));
+        args.add("--spring.datasource.url=" + url);
+        args.add("--spring.datasource.username=" + user);
+        args.add("--spring.datasource.password=" + password);
+        //Every simulated client connects from the loopback address, which would share a single rate limit
+        if (applicationArgs.stream().noneMatch(arg -> arg.startsWith("--quora.rate-limit.enabled="))) {
+            args.add("--quora.rate-limit.enabled=false");
+        }
+        final String jvmArgs = commandLine.getString("jvm-args", "").trim();
+        try (ServerProcess server = ServerProcess.start(commandLine.getString("java", ServerProcess.currentJava()),
+                jvmArgs.isEmpty() ? Collections.emptyList() : Arrays.asList(jvmArgs.split("\\s+")), args,
+                contextPath(applicationArgs), reportDirectory.resolve("server.log"))) {
+            final ApiClient client = new ApiClient(server.getBaseUrl());
+            final Workload workload = new Workload(client, mix, userNames, userPassword, questionUuids,
+                    commandLine.getDouble("question-skew", 1.0), commandLine.getInt("sessions", 100));
+
+            final Random random = new Random(seed);
+            workload.signIn(random);
+            if (warmup > 0) {
+                workload.run(random, rate, warmup, threads, false);
+            }
+            workload.run(random, rate, duration, threads, true);
+
+            final String settings = String.format(Locale.ROOT, "rate %.1f/s, duration %d s, warmup %d s, threads %d, "
+                            + "seed %d, users %d, questions %d, mix %s, application %s, server %s", rate, duration,
+                    warmup, threads, seed, userNames.size(), questionUuids.size(), mix, applicationSettings,
+                    server.getDescription());
+            return new Report(settings, duration, workload);
+        }
+    }
+
+    //The context path given to the application, else the one of its application.yaml
+    private static String contextPath(final List<String> applicationArgs) {
+        String contextPath = "/api";
+        for (String arg : applicationArgs) {
+            if (arg.startsWith("--server.servlet.contextPath=") || arg.startsWith("--server.servlet.context-path=")) {
+                contextPath = arg.substring(arg.indexOf('=') + 1);
+            }
+        }
+        return contextPath;
+    }
+
+    private static List<String> sample(final String url, final String user, final String password, final String sql)
+            throws SQLException {
+        final List<String> values = new ArrayList<>();
+        try (Connection connection = DriverManager.getConnection(url, user, password);
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, SAMPLE_SIZE);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    values.add(resultSet.getString(1));
+                }
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,73 @@
+package com.upgrad.quora.loadtest;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * The share of every operation in the requests of a load test, written like
+ * signin=5,question/all=40,answer/all=40,question/create=10,question/delete=5.
+ */
+public class Mix {
+
+    private final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+
+    private final Operation[] operations;
+
+    private final int[] cumulative;
+
+    public Mix(final String spec) {
+        for (String entry : spec.split(",")) {
+            final String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid mix entry " + entry + ", expected operation=weight");
+            }
+            final int weight = Integer.parseInt(parts[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Negative weight in mix entry " + entry);
+            }
+            weights.put(Operation.of(parts[0].trim()), weight);
+        }
+        operations = weights.keySet().toArray(new Operation[0]);
+        cumulative = new int[operations.length];
+        int sum = 0;
+        for (int i = 0; i < operations.length; i++) {
+            sum += weights.get(operations[i]);
+            cumulative[i] = sum;
+        }
+        if (sum == 0) {
+            throw new IllegalArgumentException("The mix " + spec + " has no operation with a weight");
+        }
+    }
+
+    /**
+     * This method draws the operation of the next request.
+     *
+     * @param random The source of randomness
+     * @return Operation An operation, with the probability of its share
+     */
+    public Operation next(final Random random) {
+        final int pick = random.nextInt(cumulative[cumulative.length - 1]);
+        for (int i = 0; ; i++) {
+            if (pick < cumulative[i]) {
+                return operations[i];
+            }
+        }
+    }
+
+    /**
+     * @return Map<Operation, Integer> The weight of every operation of the mix, in the order of Operation
+     */
+    public Map<Operation, Integer> getWeights() {
+        return weights;
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder text = new StringBuilder();
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            text.append(text.length() == 0 ? "" : ",").append(entry.getKey().getKey()).append('=').append(entry.getValue());
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,42 @@
+package com.upgrad.quora.loadtest;
+
+/**
+ * The endpoints a load test drives, named like their paths.
+ */
+public enum Operation {
+
+    SIGNIN("signin"),
+
+    QUESTION_ALL("question/all"),
+
+    ANSWER_ALL("answer/all"),
+
+    QUESTION_CREATE("question/create"),
+
+    QUESTION_DELETE("question/delete");
+
+    private final String key;
+
+    Operation(final String key) {
+        this.key = key;
+    }
+
+    /**
+     * This method finds the operation of the given name.
+     *
+     * @param key The name of the operation, like question/all
+     * @return Operation The operation of that name
+     */
+    public static Operation of(final String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation " + key);
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,134 @@
+package com.upgrad.quora.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Writes the results of a load test as plain text: a summary table with the throughput and latency percentiles of
+ * every operation, and the full HdrHistogram percentile distribution of each in its own .hgrm file. Nothing in them
+ * depends on when or where the test ran, so the reports of two commits can be compared with diff.
+ */
+public class Report {
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final String settings;
+
+    private final long seconds;
+
+    private final Workload workload;
+
+    /**
+     * @param settings The settings of the test, printed at the top of the report
+     * @param seconds  The measured duration of the test
+     * @param workload The workload holding the results
+     */
+    public Report(final String settings, final long seconds, final Workload workload) {
+        this.settings = settings;
+        this.seconds = seconds;
+        this.workload = workload;
+    }
+
+    /**
+     * This method writes report.txt and one .hgrm file per operation into the given directory.
+     *
+     * @param directory The directory to write to, created if missing
+     * @throws IOException If a file cannot be written
+     */
+    public void write(final Path directory) throws IOException {
+        Files.createDirectories(directory);
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve("report.txt")), false, "UTF-8")) {
+            print(out);
+        }
+        for (Map.Entry<Operation, Histogram> entry : workload.getLatencies().entrySet()) {
+            final Histogram histogram = entry.getValue();
+            if (histogram.getTotalCount() == 0) {
+                continue;
+            }
+            final String name = entry.getKey().getKey().replace('/', '-') + ".hgrm";
+            try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name)), false, "UTF-8")) {
+                histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    /**
+     * This method prints the summary table.
+     *
+     * @param out The stream to print to
+     */
+    public void print(final PrintStream out) {
+        out.println("# " + settings);
+        out.println("# latencies in ms from the scheduled start of each request");
+        out.println(String.format(Locale.ROOT, "%-16s %9s %7s %7s %9s %9s %9s %9s %9s %9s",
+                "operation", "requests", "errors", "skipped", "req/s", "p50", "p90", "p99", "p99.9", "max"));
+        final Histogram total = new Histogram(3);
+        long totalErrors = 0;
+        long totalSkipped = 0;
+        for (Operation operation : Operation.values()) {
+            final Histogram histogram = workload.getLatencies().get(operation);
+            final long errors = workload.getErrors().get(operation).get();
+            final long skipped = workload.getSkipped().get(operation).get();
+            if (histogram.getTotalCount() == 0 && skipped == 0) {
+                continue;
+            }
+            total.add(histogram);
+            totalErrors += errors;
+            totalSkipped += skipped;
+            printRow(out, operation.getKey(), histogram, errors, skipped);
+        }
+        printRow(out, "total", total, totalErrors, totalSkipped);
+    }
+
+    /**
+     * This method prints the throughput, the median and the p99 latency of every operation for each of the given
+     * reports side by side, one column group per value of the compared property.
+     *
+     * @param out      The stream to print to
+     * @param property The application property the runs differ in
+     * @param values   The value of the property in each run
+     * @param reports  The report of each run, in the order of the values
+     */
+    public static void printComparison(final PrintStream out, final String property, final List<String> values,
+                                       final List<Report> reports) {
+        out.println("# " + property + ": " + String.join(" vs ", values));
+        out.println("# latencies in ms from the scheduled start of each request");
+        final StringBuilder header = new StringBuilder(String.format(Locale.ROOT, "%-16s", "operation"));
+        for (String value : values) {
+            header.append(String.format(Locale.ROOT, " | %-9.9s %9s %9s %9s", value, "req/s", "p50", "p99"));
+        }
+        out.println(header);
+        for (Operation operation : Operation.values()) {
+            final StringBuilder row = new StringBuilder(String.format(Locale.ROOT, "%-16s", operation.getKey()));
+            boolean recorded = false;
+            for (Report report : reports) {
+                final Histogram histogram = report.workload.getLatencies().get(operation);
+                recorded |= histogram.getTotalCount() > 0;
+                row.append(String.format(Locale.ROOT, " | %-9s %9.1f %9.2f %9.2f", "",
+                        (double) histogram.getTotalCount() / report.seconds, millis(histogram, 50), millis(histogram, 99)));
+            }
+            if (recorded) {
+                out.println(row);
+            }
+        }
+    }
+
+    private void printRow(final PrintStream out, final String name, final Histogram histogram, final long errors,
+                          final long skipped) {
+        out.println(String.format(Locale.ROOT, "%-16s %9d %7d %7d %9.1f %9.2f %9.2f %9.2f %9.2f %9.2f", name,
+                histogram.getTotalCount(), errors, skipped, (double) histogram.getTotalCount() / seconds,
+                millis(histogram, 50), millis(histogram, 90), millis(histogram, 99), millis(histogram, 99.9),
+                histogram.getMaxValue() / MICROS_PER_MILLI));
+    }
+
+    private static double millis(final Histogram histogram, final double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+}
@@ -0,0 +1,174 @@
+package com.upgrad.quora.loadtest;
+
+import com.upgrad.quora.api.QuoraApiApplication;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * QuoraApiApplication running in a JVM of its own, so that the load generator does not compete with it for heap,
+ * garbage collection pauses and JIT threads. The server is started with the same classpath as the load test, on a
+ * free port, and its output is written to server.log in the report directory.
+ * <p>
+ * Spring 5.0 defines its CGLIB proxies through a reflective call to ClassLoader.defineClass, which Java 16 and later
+ * refuse unless java.lang is opened. The option is passed through JDK_JAVA_OPTIONS, which only the launchers of
+ * Java 9 and later read, so the same command also starts a Java 8 server.
+ */
+public class ServerProcess implements AutoCloseable {
+
+    private static final String OPEN_JAVA_LANG = "--add-opens java.base/java.lang=ALL-UNNAMED";
+
+    private static final long STARTUP_TIMEOUT_SECONDS = 180;
+
+    private final Process process;
+
+    private final String baseUrl;
+
+    private final String description;
+
+    /**
+     * This method starts the server and waits until its health endpoint answers.
+     *
+     * @param java            The java executable to run the server with
+     * @param jvmArgs         The options of the server JVM, such as -Xmx2g
+     * @param applicationArgs The arguments of the application, written as --name=value
+     * @param contextPath     The context path the application serves the API under
+     * @param log             The file the output of the server is written to
+     * @return ServerProcess The started server
+     * @throws IOException          If the server cannot be started or does not become healthy in time
+     * @throws InterruptedException If interrupted while waiting for the server
+     */
+    public static ServerProcess start(final String java, final List<String> jvmArgs, final List<String> applicationArgs,
+                                      final String contextPath, final Path log) throws IOException, InterruptedException {
+        final int port = freePort();
+        final List<String> command = new ArrayList<>();
+        command.add(java);
+        command.addAll(jvmArgs);
+        final String classPath = System.getProperty("java.class.path");
+        if (LoadTest.class.getClassLoader() != ClassLoader.getSystemClassLoader()) {
+            //Started with java -jar quora-loadtest.jar, whose dependencies are nested jars only the Boot launcher reads
+            command.addAll(Arrays.asList("-cp", classPath, "-Dloader.main=" + QuoraApiApplication.class.getName(),
+                    "org.springframework.boot.loader.PropertiesLauncher"));
+        } else {
+            command.addAll(Arrays.asList("-cp", classPath, QuoraApiApplication.class.getName()));
+        }
+        command.addAll(applicationArgs);
+        command.add("--server.port=" + port);
+
+        Files.createDirectories(log.toAbsolutePath().getParent());
+        final ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true)
+                .redirectOutput(log.toFile());
+        builder.environment().put("JDK_JAVA_OPTIONS", OPEN_JAVA_LANG);
+        final String description = javaVersion(java) + (jvmArgs.isEmpty() ? "" : " " + String.join(" ", jvmArgs));
+        final ServerProcess server = new ServerProcess(builder.start(), "http://localhost:" + port + contextPath,
+                description);
+        try {
+            server.awaitHealthy(log);
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            server.close();
+            throw e;
+        }
+        return server;
+    }
+
+    private ServerProcess(final Process process, final String baseUrl, final String description) {
+        this.process = process;
+        this.baseUrl = baseUrl;
+        this.description = description;
+    }
+
+    /**
+     * @return String The URL the API is served under, such as http://localhost:41234/api
+     */
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * @return String The version of the server JVM and the options it was started with
+     */
+    public String getDescription() {
+        return description;
+    }
+
+    /**
+     * This method stops the server, forcibly if it does not shut down within half a minute.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        process.destroy();
+        if (!process.waitFor(30, TimeUnit.SECONDS)) {
+            process.destroyForcibly().waitFor();
+        }
+    }
+
+    private void awaitHealthy(final Path log) throws IOException, InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(STARTUP_TIMEOUT_SECONDS);
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IOException("The server exited with status " + process.exitValue() + " while starting, see " + log);
+            }
+            if (isHealthy()) {
+                return;
+            }
+            Thread.sleep(500);
+        }
+        throw new IOException("The server did not become healthy within " + STARTUP_TIMEOUT_SECONDS + " s, see " + log);
+    }
+
+    private boolean isHealthy() {
+        try {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/actuator/health").openConnection();
+            connection.setConnectTimeout(1000);
+            connection.setReadTimeout(5000);
+            try {
+                return connection.getResponseCode() == HttpURLConnection.HTTP_OK;
+            } finally {
+                connection.disconnect();
+            }
+        } catch (IOException e) {
+            //Not listening yet
+            return false;
+        }
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String javaVersion(final String java) throws IOException, InterruptedException {
+        final Process version = new ProcessBuilder(java, "-version").redirectErrorStream(true).start();
+        final String firstLine;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(version.getInputStream(), StandardCharsets.UTF_8))) {
+            firstLine = reader.readLine();
+            while (reader.readLine() != null) {
+                //Drained so that the process can exit
+            }
+        }
+        version.waitFor();
+        return firstLine == null ? java : firstLine;
+    }
+
+    /**
+     * @return String The java executable of the running JVM
+     */
+    public static String currentJava() {
+        return Paths.get(System.getProperty("java.home"), "bin", "java" + (File.separatorChar == '\\' ? ".exe" : ""))
+                .toString();
+    }
+}
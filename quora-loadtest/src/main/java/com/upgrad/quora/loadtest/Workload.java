@@ -0,0 +1,200 @@
+package com.upgrad.quora.loadtest;
+
+import com.upgrad.quora.db.ZipfDistribution;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Sends requests at a fixed mean rate with exponentially distributed gaps, whatever the responses take (an open
+ * model, like independent users arriving). A request that cannot start on time because all workers are busy waits in
+ * a queue, and its latency counts from the time it was scheduled for, so a slow server cannot hide its queueing by
+ * slowing the load down (coordinated omission).
+ * <p>
+ * The operations and their arguments are drawn from one seeded random source in the dispatching thread, so the same
+ * seed sends the same sequence of requests.
+ */
+public class Workload {
+
+    private static final long HIGHEST_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+
+    private final ApiClient client;
+
+    private final Mix mix;
+
+    private final List<String> userNames;
+
+    private final String password;
+
+    private final List<String> questionUuids;
+
+    private final ZipfDistribution questionPopularity;
+
+    private final AtomicReferenceArray<String> sessions;
+
+    //Questions created during the run, deleted again by question/delete with the token that created them
+    private final ConcurrentLinkedQueue<String[]> createdQuestions = new ConcurrentLinkedQueue<>();
+
+    private final Map<Operation, Histogram> latencies = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, AtomicLong> errors = new EnumMap<>(Operation.class);
+
+    private final Map<Operation, AtomicLong> skipped = new EnumMap<>(Operation.class);
+
+    private volatile boolean recording;
+
+    public Workload(final ApiClient client, final Mix mix, final List<String> userNames, final String password,
+                    final List<String> questionUuids, final double questionSkew, final int sessionCount) {
+        this.client = client;
+        this.mix = mix;
+        this.userNames = userNames;
+        this.password = password;
+        this.questionUuids = questionUuids;
+        this.questionPopularity = new ZipfDistribution(Math.max(1, questionUuids.size()), questionSkew);
+        this.sessions = new AtomicReferenceArray<>(sessionCount);
+        for (Operation operation : Operation.values()) {
+            latencies.put(operation, new ConcurrentHistogram(HIGHEST_LATENCY_MICROS, 3));
+            errors.put(operation, new AtomicLong());
+            skipped.put(operation, new AtomicLong());
+        }
+    }
+
+    /**
+     * This method signs in the sessions the requests are sent with. It is not measured.
+     *
+     * @param random The source of randomness picking the users
+     * @throws IOException If a user cannot be signed in
+     */
+    public void signIn(final Random random) throws IOException {
+        for (int i = 0; i < sessions.length(); i++) {
+            final String userName = userNames.get(random.nextInt(userNames.size()));
+            final ApiClient.Response response = client.signin(userName, password);
+            if (!response.isSuccessful()) {
+                throw new IOException("Cannot sign in " + userName + ", status " + response.getStatus());
+            }
+            sessions.set(i, response.getValue());
+        }
+    }
+
+    /**
+     * This method sends requests for the given time and waits for all of them to complete.
+     *
+     * @param random   The source of randomness of the requests
+     * @param rate     The mean number of requests per second
+     * @param seconds  How long to send requests
+     * @param threads  The number of requests that can be in flight at once
+     * @param recorded Whether the latencies are recorded, false for a warmup
+     * @throws InterruptedException If interrupted while waiting for the requests
+     */
+    public void run(final Random random, final double rate, final long seconds, final int threads, final boolean recorded)
+            throws InterruptedException {
+        recording = recorded;
+        final ExecutorService workers = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        final double meanGapNanos = 1e9 / rate;
+        final long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        long intended = System.nanoTime();
+        while (true) {
+            intended += (long) (-Math.log(1 - random.nextDouble()) * meanGapNanos);
+            if (intended >= end) {
+                break;
+            }
+            final Operation operation = mix.next(random);
+            final long argument = random.nextLong();
+            for (long wait = intended - System.nanoTime(); wait > 0; wait = intended - System.nanoTime()) {
+                LockSupport.parkNanos(wait);
+            }
+            final long scheduled = intended;
+            workers.execute(() -> execute(operation, argument, scheduled));
+        }
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.MINUTES);
+    }
+
+    private void execute(final Operation operation, final long argument, final long scheduled) {
+        final Random random = new Random(argument);
+        final int session = random.nextInt(sessions.length());
+        final String token = sessions.get(session);
+        boolean successful;
+        try {
+            switch (operation) {
+                case SIGNIN:
+                    final ApiClient.Response signin = client.signin(userNames.get(random.nextInt(userNames.size())), password);
+                    successful = signin.isSuccessful();
+                    if (successful) {
+                        sessions.set(session, signin.getValue());
+                    }
+                    break;
+                case QUESTION_ALL:
+                    successful = client.getAllQuestions(token).isSuccessful();
+                    break;
+                case ANSWER_ALL:
+                    final String questionUuid = questionUuids.get((int) questionPopularity.sample(random) - 1);
+                    successful = client.getAllAnswersToQuestion(token, questionUuid).isSuccessful();
+                    break;
+                case QUESTION_CREATE:
+                    final ApiClient.Response created = client.createQuestion(token, "Load test question " + argument + "?");
+                    successful = created.isSuccessful();
+                    if (successful) {
+                        createdQuestions.add(new String[]{token, created.getValue()});
+                    }
+                    break;
+                case QUESTION_DELETE:
+                    final String[] question = createdQuestions.poll();
+                    if (question == null) {
+                        //Nothing created yet to delete
+                        count(skipped, operation);
+                        return;
+                    }
+                    successful = client.deleteQuestion(question[0], question[1]).isSuccessful();
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + operation);
+            }
+        } catch (IOException | RuntimeException e) {
+            successful = false;
+        }
+        if (!recording) {
+            return;
+        }
+        latencies.get(operation).recordValue(Math.min(HIGHEST_LATENCY_MICROS,
+                TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - scheduled)));
+        if (!successful) {
+            count(errors, operation);
+        }
+    }
+
+    private void count(final Map<Operation, AtomicLong> counters, final Operation operation) {
+        if (recording) {
+            counters.get(operation).incrementAndGet();
+        }
+    }
+
+    /**
+     * @return Map<Operation, Histogram> The recorded latencies of every operation, in microseconds
+     */
+    public Map<Operation, Histogram> getLatencies() {
+        return latencies;
+    }
+
+    public Map<Operation, AtomicLong> getErrors() {
+        return errors;
+    }
+
+    public Map<Operation, AtomicLong> getSkipped() {
+        return skipped;
+    }
+}
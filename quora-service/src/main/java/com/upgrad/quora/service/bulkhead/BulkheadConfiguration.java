@@ -0,0 +1,71 @@
+package com.upgrad.quora.service.bulkhead;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.sql.Driver;
+
+/**
+ * Creates the {@link Bulkheads} the controllers execute their requests in, on virtual threads if
+ * "quora.virtual-threads.enabled" is set, the JVM has them and the JDBC driver does not pin them.
+ * <p>
+ * Tomcat keeps its platform worker threads: Tomcat 8.5 holds a monitor on the socket while it processes a request,
+ * so a virtual thread serving it would pin its carrier for the whole request.
+ */
+@Configuration
+@EnableConfigurationProperties(BulkheadProperties.class)
+public class BulkheadConfiguration {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BulkheadConfiguration.class);
+
+    //The PostgreSQL driver executes its queries holding a monitor before this release, which pins the virtual thread
+    private static final int POSTGRESQL_DRIVER_MINOR_VERSION_WITHOUT_PINNING = 6;
+
+    @Value("${quora.virtual-threads.enabled:false}")
+    private boolean virtualThreads;
+
+    @Value("${spring.datasource.driverClassName:}")
+    private String driverClassName;
+
+    //Requests still queued after the asynchronous request timeout of Spring MVC have been answered 503 already
+    @Value("${spring.mvc.async.request-timeout:0}")
+    private long requestTimeoutMillis;
+
+    @Bean(destroyMethod = "close")
+    public Bulkheads bulkheads(final BulkheadProperties bulkheadProperties, final MeterRegistry meterRegistry) {
+        return new Bulkheads(bulkheadProperties, meterRegistry, virtualThreads && supportsVirtualThreads(),
+                requestTimeoutMillis);
+    }
+
+    private boolean supportsVirtualThreads() {
+        if (!VirtualThreads.isAvailable()) {
+            LOGGER.warn("quora.virtual-threads.enabled is set, but virtual threads need Java 21 or later and this is "
+                    + "Java {}, the bulkheads run on platform threads", System.getProperty("java.specification.version"));
+            return false;
+        }
+        if (driverClassName.startsWith("org.postgresql.")) {
+            final Driver driver;
+            try {
+                driver = (Driver) Class.forName(driverClassName).newInstance();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                LOGGER.warn("quora.virtual-threads.enabled is set, but the version of the JDBC driver could not be "
+                        + "checked, the bulkheads run on platform threads", e);
+                return false;
+            }
+            if (driver.getMajorVersion() < 42 || driver.getMajorVersion() == 42
+                    && driver.getMinorVersion() < POSTGRESQL_DRIVER_MINOR_VERSION_WITHOUT_PINNING) {
+                LOGGER.warn("quora.virtual-threads.enabled is set, but the PostgreSQL driver {}.{} pins virtual threads "
+                                + "to their carriers while it waits for the database, the bulkheads run on platform "
+                                + "threads; use 42.{} or later for virtual threads", driver.getMajorVersion(),
+                        driver.getMinorVersion(), POSTGRESQL_DRIVER_MINOR_VERSION_WITHOUT_PINNING);
+                return false;
+            }
+        }
+        return true;
+    }
+}
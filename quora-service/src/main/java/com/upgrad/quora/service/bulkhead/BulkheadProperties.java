@@ -0,0 +1,114 @@
+package com.upgrad.quora.service.bulkhead;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings of the pools the requests are executed in by {@link Workload}, bound from the "quora.bulkhead" properties.
+ */
+@ConfigurationProperties(prefix = "quora.bulkhead")
+public class BulkheadProperties {
+
+    //The password hash keeps a thread busy on the CPU, so more threads than processors only add queueing
+    private Pool authentication = new Pool(Runtime.getRuntime().availableProcessors(), 64);
+
+    private Pool read = new Pool(16, 256);
+
+    private Pool write = new Pool(8, 128);
+
+    private Pool admin = new Pool(2, 8);
+
+    //How long the pools are given to finish the requests in progress on shutdown
+    private long shutdownTimeoutSeconds = 10;
+
+    public Pool getAuthentication() {
+        return authentication;
+    }
+
+    public void setAuthentication(Pool authentication) {
+        this.authentication = authentication;
+    }
+
+    public Pool getRead() {
+        return read;
+    }
+
+    public void setRead(Pool read) {
+        this.read = read;
+    }
+
+    public Pool getWrite() {
+        return write;
+    }
+
+    public void setWrite(Pool write) {
+        this.write = write;
+    }
+
+    public Pool getAdmin() {
+        return admin;
+    }
+
+    public void setAdmin(Pool admin) {
+        this.admin = admin;
+    }
+
+    public long getShutdownTimeoutSeconds() {
+        return shutdownTimeoutSeconds;
+    }
+
+    public void setShutdownTimeoutSeconds(long shutdownTimeoutSeconds) {
+        this.shutdownTimeoutSeconds = shutdownTimeoutSeconds;
+    }
+
+    /**
+     * @param workload A class of work
+     * @return Pool The settings of the pool the workload is executed in
+     */
+    Pool getPool(final Workload workload) {
+        switch (workload) {
+            case AUTHENTICATION:
+                return authentication;
+            case READ:
+                return read;
+            case WRITE:
+                return write;
+            default:
+                return admin;
+        }
+    }
+
+    /**
+     * The size of one pool.
+     */
+    public static class Pool {
+
+        private int threads;
+
+        //The number of requests that wait for a thread before further ones are rejected
+        private int queueCapacity;
+
+        public Pool() {
+        }
+
+        Pool(final int threads, final int queueCapacity) {
+            this.threads = threads;
+            this.queueCapacity = queueCapacity;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+}
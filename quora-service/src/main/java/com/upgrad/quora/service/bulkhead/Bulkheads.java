@@ -0,0 +1,186 @@
+package com.upgrad.quora.service.bulkhead;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import com.upgrad.quora.service.datasource.DataSourceRoutingContext;
+import com.upgrad.quora.service.datasource.StatementStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The bounded pools the requests to the API are executed in, one per {@link Workload}. A pool has a fixed number of
+ * threads and a bounded queue; a request that finds the queue full is rejected with GEN-002 right away, which is
+ * returned as 503 Service Unavailable, rather than waiting behind work of the same class. The pools are exported
+ * with the "executor" meters named after the workload, such as "bulkhead-read", along with the "quora.bulkhead.wait"
+ * timer of the time spent in the queue and the "quora.bulkhead.rejected" counter.
+ * <p>
+ * A request that waited in the queue for longer than the request timeout has already been answered 503 by the time a
+ * thread takes it, so it is dropped instead of being executed for nobody; such requests are counted by the
+ * "quora.bulkhead.expired" counter. The same goes for a request whose future has been completed or cancelled while it
+ * waited. A request that has started is left to finish, since interrupting it could break the connection it is using.
+ * <p>
+ * With virtual threads the pools keep their bounds, but their threads are virtual ones, which release their carrier
+ * thread while they wait for the database. The pools can then be sized by the connections they may use rather than by
+ * what platform threads cost.
+ * <p>
+ * The caller key of the replica routing and the statement statistics of the request are carried over from the
+ * submitting thread to the pool thread, so that both see the request as if it were executed on the request thread.
+ */
+public class Bulkheads implements AutoCloseable {
+
+    private final Map<Workload, Bulkhead> bulkheads = new EnumMap<>(Workload.class);
+
+    private final long shutdownTimeoutSeconds;
+
+    /**
+     * @param properties           The sizes of the pools
+     * @param meterRegistry        The registry the meters of the pools are registered with
+     * @param virtualThreads       Whether the pools run on virtual threads, see {@link VirtualThreads}
+     * @param requestTimeoutMillis How long a request may wait in a queue before it is dropped, 0 for no limit
+     */
+    public Bulkheads(final BulkheadProperties properties, final MeterRegistry meterRegistry, final boolean virtualThreads,
+                     final long requestTimeoutMillis) {
+        final long requestTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(requestTimeoutMillis);
+        for (Workload workload : Workload.values()) {
+            final String prefix = "bulkhead-" + workload.getName() + "-";
+            final ThreadFactory threadFactory = virtualThreads ? VirtualThreads.factory(prefix) : platformThreads(prefix);
+            bulkheads.put(workload, new Bulkhead(workload, properties.getPool(workload), threadFactory, meterRegistry,
+                    requestTimeoutNanos));
+        }
+        this.shutdownTimeoutSeconds = properties.getShutdownTimeoutSeconds();
+    }
+
+    /**
+     * This method executes the given task in the pool of the given workload.
+     *
+     * @param workload The class of work the task belongs to
+     * @param task     The work to do
+     * @param <T>      The type of the result of the task
+     * @return CompletableFuture<T> Completed with the result of the task, or exceptionally with whatever it threw, or
+     * with GEN-002 if the task waited in the queue past the request timeout
+     * @throws UnexpectedException GEN-002 if the queue of the pool is full
+     */
+    public <T> CompletableFuture<T> submit(final Workload workload, final Callable<T> task) {
+        return bulkheads.get(workload).submit(task);
+    }
+
+    /**
+     * This method stops the pools from taking new work and waits for the work in progress to finish.
+     */
+    @Override
+    public void close() {
+        for (Bulkhead bulkhead : bulkheads.values()) {
+            bulkhead.executor.shutdown();
+        }
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownTimeoutSeconds);
+        try {
+            for (Bulkhead bulkhead : bulkheads.values()) {
+                if (!bulkhead.executor.awaitTermination(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+                    bulkhead.executor.shutdownNow();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory platformThreads(final String prefix) {
+        final AtomicInteger threadNumber = new AtomicInteger();
+        return runnable -> {
+            final Thread thread = new Thread(runnable, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * The pool of one workload.
+     */
+    private static class Bulkhead {
+
+        private final ThreadPoolExecutor executor;
+
+        private final Timer wait;
+
+        private final Counter rejected;
+
+        private final Counter expired;
+
+        private final long requestTimeoutNanos;
+
+        Bulkhead(final Workload workload, final BulkheadProperties.Pool pool, final ThreadFactory threadFactory,
+                 final MeterRegistry meterRegistry, final long requestTimeoutNanos) {
+            this.executor = new ThreadPoolExecutor(pool.getThreads(), pool.getThreads(), 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(pool.getQueueCapacity()), threadFactory);
+            new ExecutorServiceMetrics(executor, "bulkhead-" + workload.getName(), Tags.empty()).bindTo(meterRegistry);
+            this.wait = Timer.builder("quora.bulkhead.wait")
+                    .description("Time requests waited in the queue of their pool")
+                    .tag("workload", workload.getName())
+                    .register(meterRegistry);
+            this.rejected = Counter.builder("quora.bulkhead.rejected")
+                    .description("Number of requests rejected because the queue of their pool was full")
+                    .tag("workload", workload.getName())
+                    .register(meterRegistry);
+            this.expired = Counter.builder("quora.bulkhead.expired")
+                    .description("Number of requests dropped because they waited in the queue past the request timeout")
+                    .tag("workload", workload.getName())
+                    .register(meterRegistry);
+            this.requestTimeoutNanos = requestTimeoutNanos;
+        }
+
+        <T> CompletableFuture<T> submit(final Callable<T> task) {
+            final String callerKey = DataSourceRoutingContext.getCallerKey();
+            final StatementStatistics statistics = StatementStatistics.current();
+            final long submitted = System.nanoTime();
+            final CompletableFuture<T> future = new CompletableFuture<>();
+            try {
+                executor.execute(() -> {
+                    final long waited = System.nanoTime() - submitted;
+                    wait.record(waited, TimeUnit.NANOSECONDS);
+                    if (future.isDone()) {
+                        return;
+                    }
+                    if (requestTimeoutNanos > 0 && waited >= requestTimeoutNanos) {
+                        //The request has been answered 503 already, the future is completed for whoever still holds it
+                        expired.increment();
+                        future.completeExceptionally(new UnexpectedException(GenericErrorCode.GEN_002));
+                        return;
+                    }
+                    DataSourceRoutingContext.setCallerKey(callerKey);
+                    if (statistics != null) {
+                        StatementStatistics.resume(statistics);
+                    }
+                    try {
+                        future.complete(task.call());
+                    } catch (Throwable e) {
+                        //Completed with the exception itself, so that the exception handlers of the API see it unwrapped
+                        future.completeExceptionally(e);
+                    } finally {
+                        if (statistics != null) {
+                            StatementStatistics.stop();
+                        }
+                        DataSourceRoutingContext.clear();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                throw new UnexpectedException(GenericErrorCode.GEN_002, e);
+            }
+            return future;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.upgrad.quora.service.bulkhead;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Creates virtual threads where the JVM has them, which is Java 21 and later. The application is built for older
+ * releases, so the API is reached through reflection; {@link #isAvailable()} tells whether it was found.
+ */
+public final class VirtualThreads {
+
+    //Thread.ofVirtual(), Thread.Builder.name(String, long) and Thread.Builder.factory(), or null if the JVM has no
+    //virtual threads
+    private static final Method OF_VIRTUAL;
+
+    private static final Method NAME;
+
+    private static final Method FACTORY;
+
+    static {
+        Method ofVirtual = null;
+        Method name = null;
+        Method factory = null;
+        try {
+            final Class<?> builder = Class.forName("java.lang.Thread$Builder");
+            ofVirtual = Thread.class.getMethod("ofVirtual");
+            name = builder.getMethod("name", String.class, long.class);
+            factory = builder.getMethod("factory");
+        } catch (ReflectiveOperationException e) {
+            ofVirtual = null;
+        }
+        OF_VIRTUAL = ofVirtual;
+        NAME = name;
+        FACTORY = factory;
+    }
+
+    private VirtualThreads() {
+    }
+
+    /**
+     * @return boolean Whether the JVM has virtual threads
+     */
+    public static boolean isAvailable() {
+        return OF_VIRTUAL != null;
+    }
+
+    /**
+     * This method creates a factory of virtual threads.
+     *
+     * @param prefix The prefix of the names of the threads, which are numbered from 1
+     * @return ThreadFactory The factory
+     * @throws IllegalStateException If the JVM has no virtual threads
+     */
+    public static ThreadFactory factory(final String prefix) {
+        if (!isAvailable()) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, this is Java "
+                    + System.getProperty("java.specification.version"));
+        }
+        try {
+            final Object builder = NAME.invoke(OF_VIRTUAL.invoke(null), prefix, 1L);
+            return (ThreadFactory) FACTORY.invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads could not be created", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.upgrad.quora.service.bulkhead;
+
+/**
+ * The classes of work the requests to the API are dispatched by, each executed in its own bounded pool so that a
+ * flood of one class cannot take the threads the others need.
+ */
+public enum Workload {
+
+    /**
+     * Signing up, in and out, dominated by the CPU bound password hash.
+     */
+    AUTHENTICATION("authentication"),
+
+    /**
+     * Listing, searching and completing questions and answers, dominated by database reads.
+     */
+    READ("read"),
+
+    /**
+     * Creating, editing and deleting questions and answers.
+     */
+    WRITE("write"),
+
+    /**
+     * The rare admin operations, such as deleting a user with everything they posted.
+     */
+    ADMIN("admin");
+
+    private final String name;
+
+    Workload(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return String The name the pool of the workload is tagged with in the metrics, such as "read"
+     */
+    public String getName() {
+        return name;
+    }
+}
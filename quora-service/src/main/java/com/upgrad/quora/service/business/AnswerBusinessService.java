@@ -1,8 +1,12 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.common.AnswerSummary;
+import com.upgrad.quora.service.common.SingleFlight;
+import com.upgrad.quora.service.common.TaggedContent;
 import com.upgrad.quora.service.dao.AnswerDao;
 import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.dao.UserAuthDao;
+import com.upgrad.quora.service.datasource.ReadYourWritesTracker;
 import com.upgrad.quora.service.entity.AnswerEntity;
 import com.upgrad.quora.service.entity.QuestionEntity;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
@@ -10,12 +14,21 @@ import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AnswerNotFoundException;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.exception.InvalidSearchQueryException;
+import com.upgrad.quora.service.search.InMemorySearchIndex;
+import com.upgrad.quora.service.search.SearchCursor;
+import com.upgrad.quora.service.search.SearchPage;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 
 @Service
 public class AnswerBusinessService {
@@ -32,6 +45,19 @@ public class AnswerBusinessService {
     @Autowired
     private CommonBusinessService commonBusinessService;
 
+    @Autowired
+    private InMemorySearchIndex inMemorySearchIndex;
+
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    private final SingleFlight<String, List<AnswerSummary>> answersToQuestionFlight;
+
+    public AnswerBusinessService(@Value("${quora.single-flight.max-wait-ms:2000}") final long singleFlightMaxWaitMillis,
+                                 final MeterRegistry meterRegistry) {
+        this.answersToQuestionFlight = new SingleFlight<>("answers-to-question", singleFlightMaxWaitMillis, meterRegistry);
+    }
+
     /**
      * This method creates the answer entity in the system.
      *
@@ -54,7 +80,9 @@ public class AnswerBusinessService {
         }
         answerEntity.setUser(userEntity);
         answerEntity.setQuestion(question);
-        return answerDao.createAnswer(answerEntity);
+        final AnswerEntity createdAnswer = answerDao.createAnswer(answerEntity);
+        inMemorySearchIndex.indexAnswer(createdAnswer);
+        return createdAnswer;
     }
 
     /**
@@ -81,6 +109,7 @@ public class AnswerBusinessService {
 
         if (answerOwner.getUuid().equals(user.getUuid())) {
             answerEntity.setAnswer(editedContent);
+            inMemorySearchIndex.indexAnswer(answerEntity);
             return answerDao.editAnswerByUuid(answerEntity);
         }
         throw new AuthorizationFailedException("ATHR-003", "Only the question owner or admin can delete the question");
@@ -109,21 +138,67 @@ public class AnswerBusinessService {
 
         if (answerOwner.getUuid().equals(user.getUuid()) || user.getRole().equals("admin")) {
             answerDao.deleteAnswer(answerEntity);
+            inMemorySearchIndex.remove(Collections.emptyList(), Collections.singletonList(answerEntity.getId()));
         } else {
             throw new AuthorizationFailedException("ATHR-003", "Only the question owner or admin can delete the question");
         }
     }
 
     /**
-     * This method fetches all the answer entity for a given question in the system.
+     * This method searches all the answers, most relevant first, one page at a time. Searches are served by the
+     * in-memory index when it is enabled and loaded, else by the database.
      *
-     * @param questionId  The questionUuid entered by the user
      * @param accessToken The JWT access token of the user
-     * @return AnswerEntity The list of AnswerEntity for a given question from the database.
+     * @param query       The words to search for
+     * @param cursor      The cursor returned with the previous page, or null for the first page
+     * @param limit       The number of hits per page, or null for the default page size
+     * @return SearchPage<AnswerEntity> The matching answers and the cursor of the next page
+     * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
+     * @throws InvalidSearchQueryException  This exception is thrown if the query is blank, the cursor is malformed or
+     *                                      the query matches too much to be ranked within the statement timeout.
+     */
+    //Rolled back on a timed out search, which Hibernate has marked rollback-only
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true, rollbackFor = InvalidSearchQueryException.class)
+    public SearchPage<AnswerEntity> searchAnswers(final String accessToken, final String query, final String cursor, final Integer limit)
+            throws AuthorizationFailedException, InvalidSearchQueryException {
+        //Get the user entity from the given authToken.
+        final String signoutExceptionMessage = "User is signed out.Sign in first to search answers";
+        commonBusinessService.getAuthenticatedUser(accessToken, signoutExceptionMessage);
+
+        if (query == null || query.trim().isEmpty()) {
+            throw new InvalidSearchQueryException("SRCH-001", "Search query cannot be empty");
+        }
+        final SearchCursor after = commonBusinessService.getSearchCursor(cursor);
+        final int pageSize = SearchPage.size(limit);
+
+        //One extra hit tells whether another page follows
+        if (inMemorySearchIndex.isReady()) {
+            return SearchPage.fromIndex(inMemorySearchIndex.searchAnswers(query, pageSize + 1, after), pageSize,
+                    answerDao::getAnswersByIds, AnswerEntity::getId);
+        }
+        try {
+            return SearchPage.of(answerDao.searchAnswers(query, after, pageSize + 1), pageSize, AnswerEntity::getId);
+        } catch (QueryTimeoutException e) {
+            throw new InvalidSearchQueryException("SRCH-003", "Search query matches too many answers, add words to narrow it down");
+        }
+    }
+
+    /**
+     * This method fetches all the answer entity for a given question in the system, unless the client already holds
+     * the current list.
+     *
+     * @param questionId   The questionUuid entered by the user
+     * @param accessToken  The JWT access token of the user
+     * @param heldByClient Tells whether the client already holds the content of the given tag
+     * @return TaggedContent<List<AnswerSummary>> The tag of the current list, with the answers to the question if the
+     * client does not hold it yet
      * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
      * @throws InvalidQuestionException     This exception is thrown if the question is not found in database for the entered answerUuid
      */
-    public List<AnswerEntity> getAllAnswersToQuestion(String questionId, String accessToken) throws AuthorizationFailedException, InvalidQuestionException {
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public TaggedContent<List<AnswerSummary>> getAllAnswersToQuestion(final String questionId, final String accessToken,
+                                                                      final Predicate<String> heldByClient)
+            throws AuthorizationFailedException, InvalidQuestionException {
         UserAuthTokenEntity userAuthTokenEntity = userAuthDao.getUserAuthByToken(accessToken);
         if (userAuthTokenEntity == null) {
             throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
@@ -133,11 +208,23 @@ public class AnswerBusinessService {
             throw new AuthorizationFailedException("ATHR-002", "User is signed out.Sign in first to post a question");
         }
 
-        QuestionEntity questionEntity = questionDao.getQuestionByUuid(questionId);
-        if (questionEntity == null) {
+        //The version is read before the list, so it never stands for newer content than the body carries
+        final Long version = answerDao.getAnswersToQuestionVersion(questionId);
+        if (version == null) {
             throw new InvalidQuestionException(
                     "QUES-001", "The question with entered uuid whose details are to be seen does not exist");
         }
-        return answerDao.getAllAnswersToQuestion(questionId);
+        final String tag = String.valueOf(version);
+        if (heldByClient.test(tag)) {
+            return TaggedContent.notModified(tag);
+        }
+
+        //A caller that must read its own recent writes gets them from the primary, never from another caller's query
+        if (readYourWritesTracker.isCurrentCallerPinned()) {
+            return TaggedContent.of(tag, AnswerSummary.of(answerDao.getAllAnswersToQuestion(questionId)));
+        }
+        //Every other caller asking for the same version of the list at the same time shares a single query
+        return TaggedContent.of(tag, answersToQuestionFlight.execute(questionId + '@' + tag,
+                () -> AnswerSummary.of(answerDao.getAllAnswersToQuestion(questionId))));
     }
 }
@@ -1,15 +1,25 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.common.TaggedContent;
 import com.upgrad.quora.service.dao.UserAuthDao;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.InvalidSearchQueryException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.metrics.FlightRecorderEvents;
+import com.upgrad.quora.service.search.AutocompleteIndex;
+import com.upgrad.quora.service.search.Completion;
+import com.upgrad.quora.service.search.SearchCursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.function.Predicate;
 
 @Service
 public class CommonBusinessService {
@@ -20,27 +30,44 @@ public class CommonBusinessService {
     @Autowired
     private UserAuthDao userAuthDao;
 
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
     /**
-     * This method fetches user details from the system.
+     * This method fetches user details from the system, unless the client already holds the current details.
      *
-     * @param userId      The userId of the User to be fetched from database.
-     * @param accessToken The JWT access token of the user passed in the request header.
-     * @return UserEntity The user object with all the details
+     * @param userId       The userId of the User to be fetched from database.
+     * @param accessToken  The JWT access token of the user passed in the request header.
+     * @param heldByClient Tells whether the client already holds the content of the given tag
+     * @return TaggedContent<UserEntity> The tag of the current details, with the user object with all the details if
+     * the client does not hold it yet
      * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
      * @throws UserNotFoundException        This exception is thrown if the user is not present in the database for the requested userUuid
      */
-    public UserEntity userProfile(String accessToken, String userId) throws AuthorizationFailedException, UserNotFoundException {
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public TaggedContent<UserEntity> userProfile(final String accessToken, final String userId, final Predicate<String> heldByClient)
+            throws AuthorizationFailedException, UserNotFoundException {
 
         final String signoutExceptionMessage = "User is signed out.Sign in first to get user details";
         UserEntity authenticatedUser = getAuthenticatedUser(accessToken, signoutExceptionMessage);
 
+        //The version is read before the user, so it never stands for newer content than the body carries
+        final Long version = userDao.getUserVersion(userId);
+        if (version == null) {
+            throw new UserNotFoundException("USR-001", "User with entered uuid does not exist");
+        }
+        final String tag = String.valueOf(version);
+        if (heldByClient.test(tag)) {
+            return TaggedContent.notModified(tag);
+        }
+
         //fetch user profile based on given user id.
         UserEntity fetchedUserProfile = userDao.getUserByUuid(userId);
 
         if (fetchedUserProfile == null) {
             throw new UserNotFoundException("USR-001", "User with entered uuid does not exist");
         }
-        return fetchedUserProfile;
+        return TaggedContent.of(tag, fetchedUserProfile);
     }
 
     /**
@@ -52,19 +79,69 @@ public class CommonBusinessService {
      * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
      */
     public UserEntity getAuthenticatedUser(final String authToken, final String signoutExceptionMessage) throws AuthorizationFailedException {
-        UserAuthTokenEntity userAuthTokenEntity = userAuthDao.getUserAuthByToken(authToken);
-        //Check if the userAuthToken is not present in the database
-        if (userAuthTokenEntity == null) {
-            throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
-        }
+        final FlightRecorderEvents.Phase event = FlightRecorderEvents.authentication();
+        String outcome = "success";
+        try {
+            UserAuthTokenEntity userAuthTokenEntity = userAuthDao.getUserAuthByToken(authToken);
+            //Check if the userAuthToken is not present in the database
+            if (userAuthTokenEntity == null) {
+                throw new AuthorizationFailedException("ATHR-001", "User has not signed in");
+            }
+
+            //User is signed out if either JWT token is expired or user has logged out
+            final ZonedDateTime now = ZonedDateTime.now();
+            if (userAuthTokenEntity.getExpiresAt().isBefore(now) || userAuthTokenEntity.getLogoutAt() != null) {
+                throw new AuthorizationFailedException("ATHR-002", signoutExceptionMessage);
+            }
 
-        //User is signed out if either JWT token is expired or user has logged out
-        final ZonedDateTime now = ZonedDateTime.now();
-        if (userAuthTokenEntity.getExpiresAt().isBefore(now) || userAuthTokenEntity.getLogoutAt() != null) {
-            throw new AuthorizationFailedException("ATHR-002", signoutExceptionMessage);
+            return userAuthTokenEntity.getUser();
+        } catch (AuthorizationFailedException e) {
+            outcome = e.getCode();
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            event.end(outcome);
         }
+    }
 
-        return userAuthTokenEntity.getUser();
+    /**
+     * This method decodes the cursor a client sent back to fetch the next page of a search.
+     *
+     * @param cursor The cursor returned with the previous page, null or empty for the first page
+     * @return SearchCursor The decoded cursor, or null for the first page
+     * @throws InvalidSearchQueryException This exception is thrown if the cursor was not returned by a search
+     */
+    public SearchCursor getSearchCursor(final String cursor) throws InvalidSearchQueryException {
+        if (cursor == null || cursor.isEmpty()) {
+            return null;
+        }
+        try {
+            return SearchCursor.decode(cursor);
+        } catch (IllegalArgumentException iae) {
+            throw new InvalidSearchQueryException("SRCH-002", "Search cursor is not valid");
+        }
     }
 
+    /**
+     * This method completes the start of a username. Completions are served from memory.
+     *
+     * @param accessToken The JWT access token of the user passed in the request header.
+     * @param prefix      The text typed so far
+     * @param limit       The maximum number of completions, or null for the default
+     * @return List<Completion> The uuids and usernames of the matching users
+     * @throws AuthorizationFailedException This exception is thrown, if the user is not signed in or it has signed out
+     * @throws InvalidSearchQueryException  This exception is thrown if the prefix is blank.
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Completion> autocompleteUsers(final String accessToken, final String prefix, final Integer limit)
+            throws AuthorizationFailedException, InvalidSearchQueryException {
+        getAuthenticatedUser(accessToken, "User is signed out.Sign in first to search users");
+
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new InvalidSearchQueryException("SRCH-001", "Search query cannot be empty");
+        }
+        return autocompleteIndex.completeUsers(prefix, autocompleteIndex.size(limit));
+    }
 }
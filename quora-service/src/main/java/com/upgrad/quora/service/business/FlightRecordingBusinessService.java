@@ -0,0 +1,87 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.exception.FlightRecordingException;
+import com.upgrad.quora.service.metrics.FlightRecording;
+import com.upgrad.quora.service.metrics.FlightRecordings;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.file.Path;
+
+/**
+ * Lets admins start, stop and dump the flight recording of the application, to correlate an always-on, low-overhead
+ * profile with individual slow requests.
+ */
+@Service
+public class FlightRecordingBusinessService {
+
+    @Autowired
+    private CommonBusinessService commonBusinessService;
+
+    @Autowired
+    private FlightRecordings flightRecordings;
+
+    /**
+     * This method starts a new flight recording.
+     *
+     * @param authToken The JWT access token of the admin
+     * @param settings  The name of the JFR settings to record with, or null for the configured ones
+     * @return FlightRecording The recording that was started
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     * @throws FlightRecordingException     This exception is thrown if the JVM does not support flight recordings, a
+     *                                      recording is already running or there are no settings of the given name
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public FlightRecording startRecording(final String authToken, final String settings)
+            throws AuthorizationFailedException, FlightRecordingException {
+        checkAdmin(authToken);
+
+        return flightRecordings.start(settings);
+    }
+
+    /**
+     * This method stops the running flight recording.
+     *
+     * @param authToken The JWT access token of the admin
+     * @return FlightRecording The recording that was stopped
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     * @throws FlightRecordingException     This exception is thrown if the JVM does not support flight recordings or no
+     *                                      recording is running
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public FlightRecording stopRecording(final String authToken)
+            throws AuthorizationFailedException, FlightRecordingException {
+        checkAdmin(authToken);
+
+        return flightRecordings.stop();
+    }
+
+    /**
+     * This method dumps the events of the running or the last stopped flight recording.
+     *
+     * @param authToken The JWT access token of the admin
+     * @return Path A temporary file in the JFR format, which the caller has to delete
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     * @throws FlightRecordingException     This exception is thrown if the JVM does not support flight recordings or no
+     *                                      recording has been started
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public Path dumpRecording(final String authToken) throws AuthorizationFailedException, FlightRecordingException {
+        checkAdmin(authToken);
+
+        return flightRecordings.dump();
+    }
+
+    private void checkAdmin(final String authToken) throws AuthorizationFailedException {
+        final String signoutExceptionMessage = "User is signed out";
+        UserEntity userEntity = commonBusinessService.getAuthenticatedUser(authToken, signoutExceptionMessage);
+        //Check if the user who is logged in is not an admin
+        if (!userEntity.getRole().equals("admin")) {
+            throw new AuthorizationFailedException("ATHR-003", "Unauthorized Access, Entered user is not an admin");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.metrics.LatencyTracker;
+import com.upgrad.quora.service.metrics.RouteLatencyStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gives admins the latency percentiles of every route over the sliding windows of the {@link LatencyTracker}, which
+ * tracks them unless "quora.latency.enabled" is switched off.
+ */
+@Service
+public class LatencyStatisticsBusinessService {
+
+    @Autowired
+    private CommonBusinessService commonBusinessService;
+
+    @Autowired(required = false)
+    private LatencyTracker latencyTracker;
+
+    /**
+     * This method returns the latency of every route that has been requested.
+     *
+     * @param authToken The JWT access token of the admin
+     * @return List<RouteLatencyStatistics> The latency of every route, by route
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<RouteLatencyStatistics> getLatencyStatistics(final String authToken) throws AuthorizationFailedException {
+        final String signoutExceptionMessage = "User is signed out";
+        UserEntity userEntity = commonBusinessService.getAuthenticatedUser(authToken, signoutExceptionMessage);
+        //Check if the user who is logged in is not an admin
+        if (!userEntity.getRole().equals("admin")) {
+            throw new AuthorizationFailedException("ATHR-003", "Unauthorized Access, Entered user is not an admin");
+        }
+
+        return latencyTracker == null ? Collections.emptyList() : latencyTracker.getStatistics();
+    }
+
+    public boolean isLatencyTrackingEnabled() {
+        return latencyTracker != null;
+    }
+
+    /**
+     * @return int The window the latency objectives are checked over, in minutes
+     */
+    public int getSloWindowMinutes() {
+        return latencyTracker == null ? 0 : latencyTracker.getSloWindowMinutes();
+    }
+}
@@ -10,6 +10,8 @@ import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 
+import com.upgrad.quora.service.metrics.FlightRecorderEvents;
+
 import org.springframework.stereotype.Component;
 
 
@@ -65,6 +67,8 @@ public class PasswordCryptographyProvider {
      * @return byte array of hashed password.
      */
     private static byte[] hashPassword(final char[] password, final byte[] salt) {
+        final FlightRecorderEvents.Phase event = FlightRecorderEvents.passwordHash(SECRET_KEY_ALGORITHM, HASHING_ITERATIONS);
+        String outcome = "success";
         try {
             SecretKeyFactory skf = SecretKeyFactory.getInstance(SECRET_KEY_ALGORITHM);
             PBEKeySpec spec = new PBEKeySpec(password, salt, HASHING_ITERATIONS, HASHING_KEY_LENGTH);
@@ -72,7 +76,10 @@ public class PasswordCryptographyProvider {
             byte[] res = key.getEncoded();
             return res;
         } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            outcome = e.getClass().getSimpleName();
             throw new RuntimeException(e);
+        } finally {
+            event.end(outcome);
         }
     }
 
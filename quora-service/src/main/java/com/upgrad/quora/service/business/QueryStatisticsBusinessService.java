@@ -0,0 +1,167 @@
+package com.upgrad.quora.service.business;
+
+import com.upgrad.quora.service.entity.UserEntity;
+import com.upgrad.quora.service.exception.AuthorizationFailedException;
+import com.upgrad.quora.service.metrics.NamedQueryStatistics;
+import com.upgrad.quora.service.metrics.SlowQuery;
+import com.upgrad.quora.service.metrics.SlowQueryLog;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.NamedNativeQueries;
+import javax.persistence.NamedNativeQuery;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.metamodel.EntityType;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Gives admins the Hibernate query statistics and the slow query log, which are collected when
+ * "quora.query-statistics.enabled" is set.
+ */
+@Service
+public class QueryStatisticsBusinessService {
+
+    @Autowired
+    private CommonBusinessService commonBusinessService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    //The names of the named queries by their normalized query, built on first use
+    private volatile Map<String, String> queryNames;
+
+    /**
+     * This method returns the statistics of every query executed since the statistics were last reset.
+     *
+     * @param authToken The JWT access token of the admin
+     * @return List<NamedQueryStatistics> The statistics of every query, the most total time first
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<NamedQueryStatistics> getQueryStatistics(final String authToken) throws AuthorizationFailedException {
+        checkAdmin(authToken);
+
+        final Statistics statistics = getStatistics();
+        final Map<String, String> names = getQueryNames();
+        final List<NamedQueryStatistics> queries = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            final QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            queries.add(new NamedQueryStatistics(names.get(normalize(query)), query, queryStatistics.getExecutionCount(),
+                    queryStatistics.getExecutionRowCount(), queryStatistics.getExecutionMaxTime(),
+                    queryStatistics.getExecutionAvgTime()));
+        }
+        queries.sort(Comparator.comparingLong(NamedQueryStatistics::getTotalTimeMillis).reversed());
+        return queries;
+    }
+
+    /**
+     * This method returns the slow queries the slow query log still holds.
+     *
+     * @param authToken The JWT access token of the admin
+     * @return List<SlowQuery> The slow queries, most recent first
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<SlowQuery> getSlowQueries(final String authToken) throws AuthorizationFailedException {
+        checkAdmin(authToken);
+
+        return slowQueryLog.getSlowQueries();
+    }
+
+    /**
+     * This method resets the query statistics and empties the slow query log.
+     *
+     * @param authToken The JWT access token of the admin
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in, is signed out or is not an admin.
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public void resetStatistics(final String authToken) throws AuthorizationFailedException {
+        checkAdmin(authToken);
+
+        getStatistics().clear();
+        slowQueryLog.clear();
+    }
+
+    /**
+     * @return boolean Whether Hibernate collects query statistics
+     */
+    public boolean isQueryStatisticsEnabled() {
+        return getStatistics().isStatisticsEnabled();
+    }
+
+    /**
+     * @return ZonedDateTime The time the query statistics were last reset
+     */
+    public ZonedDateTime getQueryStatisticsStartTime() {
+        return ZonedDateTime.ofInstant(Instant.ofEpochMilli(getStatistics().getStartTime()), ZoneId.systemDefault());
+    }
+
+    public boolean isSlowQueryLogEnabled() {
+        return slowQueryLog.isEnabled();
+    }
+
+    public long getSlowQueryThresholdMillis() {
+        return slowQueryLog.getThresholdMillis();
+    }
+
+    private void checkAdmin(final String authToken) throws AuthorizationFailedException {
+        final String signoutExceptionMessage = "User is signed out";
+        UserEntity userEntity = commonBusinessService.getAuthenticatedUser(authToken, signoutExceptionMessage);
+        //Check if the user who is logged in is not an admin
+        if (!userEntity.getRole().equals("admin")) {
+            throw new AuthorizationFailedException("ATHR-003", "Unauthorized Access, Entered user is not an admin");
+        }
+    }
+
+    private Statistics getStatistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    private Map<String, String> getQueryNames() {
+        Map<String, String> names = queryNames;
+        if (names == null) {
+            names = new HashMap<>();
+            for (EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+                final Class<?> entityClass = entityType.getJavaType();
+                final NamedQueries namedQueries = entityClass.getAnnotation(NamedQueries.class);
+                if (namedQueries != null) {
+                    for (NamedQuery namedQuery : namedQueries.value()) {
+                        names.put(normalize(namedQuery.query()), namedQuery.name());
+                    }
+                }
+                final NamedNativeQueries namedNativeQueries = entityClass.getAnnotation(NamedNativeQueries.class);
+                if (namedNativeQueries != null) {
+                    for (NamedNativeQuery namedNativeQuery : namedNativeQueries.value()) {
+                        names.put(normalize(namedNativeQuery.query()), namedNativeQuery.name());
+                    }
+                }
+            }
+            names = Collections.unmodifiableMap(names);
+            queryNames = names;
+        }
+        return names;
+    }
+
+    //Hibernate reports a query as it was declared, give or take surrounding whitespace
+    private static String normalize(final String query) {
+        return query.trim().replaceAll("\\s+", " ");
+    }
+}
@@ -1,5 +1,8 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.common.QuestionSummary;
+import com.upgrad.quora.service.common.TaggedContent;
+import com.upgrad.quora.service.dao.AnswerDao;
 import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.dao.UserAuthDao;
 import com.upgrad.quora.service.dao.UserDao;
@@ -7,13 +10,22 @@ import com.upgrad.quora.service.entity.QuestionEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.InvalidQuestionException;
+import com.upgrad.quora.service.exception.InvalidSearchQueryException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.search.AutocompleteIndex;
+import com.upgrad.quora.service.search.Completion;
+import com.upgrad.quora.service.search.InMemorySearchIndex;
+import com.upgrad.quora.service.search.SearchCursor;
+import com.upgrad.quora.service.search.SearchPage;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Predicate;
 
 @Service
 public class QuestionBusinessService {
@@ -30,6 +42,15 @@ public class QuestionBusinessService {
     @Autowired
     private CommonBusinessService commonBusinessService;
 
+    @Autowired
+    private AnswerDao answerDao;
+
+    @Autowired
+    private InMemorySearchIndex inMemorySearchIndex;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
     /**
      * This method creates the question entity in the system.
      *
@@ -46,22 +67,37 @@ public class QuestionBusinessService {
         UserEntity userEntity = commonBusinessService.getAuthenticatedUser(authToken, signoutExceptionMessage);
 
         questionEntity.setUser(userEntity);
-        return questionDao.createQuestion(questionEntity);
+        final QuestionEntity createdQuestion = questionDao.createQuestion(questionEntity);
+        inMemorySearchIndex.indexQuestion(createdQuestion);
+        autocompleteIndex.addQuestion(createdQuestion);
+        return createdQuestion;
     }
 
     /**
-     * This method fetches all the questions asked by any user
+     * This method fetches all the questions asked by any user, unless the client already holds the current list.
      *
-     * @param authToken The JWT access token of the user
-     * @return List<QuestionEntity> List of all the questions asked by any user
+     * @param authToken    The JWT access token of the user
+     * @param heldByClient Tells whether the client already holds the content of the given tag
+     * @return TaggedContent<List<QuestionSummary>> The tag of the current list, with all the questions asked by any
+     * user if the client does not hold it yet
      * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
      */
-    public List<QuestionEntity> getAllQuestions(final String authToken) throws AuthorizationFailedException {
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public TaggedContent<List<QuestionSummary>> getAllQuestions(final String authToken, final Predicate<String> heldByClient)
+            throws AuthorizationFailedException {
         //Get the user entity from the given authToken.
         final String signoutExceptionMessage = "User is signed out.Sign in first to get all questions";
         UserEntity userEntity = commonBusinessService.getAuthenticatedUser(authToken, signoutExceptionMessage);
 
-        return questionDao.getAllQuestions();
+        //The version is read before the list, so it never stands for newer content than the body carries
+        final long version = questionDao.getAllQuestionsVersion();
+        final String tag = String.valueOf(version);
+        if (heldByClient.test(tag)) {
+            return TaggedContent.notModified(tag);
+        }
+
+        //The list is cached per version, and the callers missing the cache at the same time share a single query
+        return TaggedContent.of(tag, questionDao.getAllQuestions(version));
     }
 
     /**
@@ -69,11 +105,12 @@ public class QuestionBusinessService {
      *
      * @param authToken The JWT access token of the user
      * @param userUuid  The uuid of the user whose questions needs to be fetched
-     * @return List<QuestionEntity> List of all the questions asked by the corresponding user
+     * @return List<QuestionSummary> List of all the questions asked by the corresponding user
      * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
      * @throws UserNotFoundException        This exception is thrown if entered user uuid does not exist in the system.
      */
-    public List<QuestionEntity> getAllQuestionsByUser(final String authToken, final String userUuid)
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<QuestionSummary> getAllQuestionsByUser(final String authToken, final String userUuid)
             throws AuthorizationFailedException, UserNotFoundException {
 
         //Get the user entity from the given authToken.
@@ -84,7 +121,71 @@ public class QuestionBusinessService {
         if (retrievedUser == null) {
             throw new UserNotFoundException("USR-001", "User with entered uuid whose question details are to be seen does not exist");
         }
-        return questionDao.getAllQuestionsByUserUuid(userUuid);
+        return questionDao.getAllQuestionsByUserUuid(userUuid, questionDao.getUserQuestionsVersion(userUuid));
+    }
+
+    /**
+     * This method searches the content of all the questions, most relevant first, one page at a time. Searches are
+     * served by the in-memory index when it is enabled and loaded, else by the database.
+     *
+     * @param authToken The JWT access token of the user
+     * @param query     The words to search for
+     * @param cursor    The cursor returned with the previous page, or null for the first page
+     * @param limit     The number of hits per page, or null for the default page size
+     * @return SearchPage<QuestionEntity> The matching questions and the cursor of the next page
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
+     * @throws InvalidSearchQueryException  This exception is thrown if the query is blank, the cursor is malformed or
+     *                                      the query matches too much to be ranked within the statement timeout.
+     */
+    //Rolled back on a timed out search, which Hibernate has marked rollback-only
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true, rollbackFor = InvalidSearchQueryException.class)
+    public SearchPage<QuestionEntity> searchQuestions(final String authToken, final String query, final String cursor, final Integer limit)
+            throws AuthorizationFailedException, InvalidSearchQueryException {
+
+        //Get the user entity from the given authToken.
+        final String signoutExceptionMessage = "User is signed out.Sign in first to search questions";
+        commonBusinessService.getAuthenticatedUser(authToken, signoutExceptionMessage);
+
+        if (query == null || query.trim().isEmpty()) {
+            throw new InvalidSearchQueryException("SRCH-001", "Search query cannot be empty");
+        }
+        final SearchCursor after = commonBusinessService.getSearchCursor(cursor);
+        final int pageSize = SearchPage.size(limit);
+
+        //One extra hit tells whether another page follows
+        if (inMemorySearchIndex.isReady()) {
+            return SearchPage.fromIndex(inMemorySearchIndex.searchQuestions(query, pageSize + 1, after), pageSize,
+                    questionDao::getQuestionsByIds, QuestionEntity::getId);
+        }
+        try {
+            return SearchPage.of(questionDao.searchQuestions(query, after, pageSize + 1), pageSize, QuestionEntity::getId);
+        } catch (QueryTimeoutException e) {
+            throw new InvalidSearchQueryException("SRCH-003", "Search query matches too many questions, add words to narrow it down");
+        }
+    }
+
+    /**
+     * This method completes the start of a question text with the newest questions starting that way. Completions are
+     * served from memory.
+     *
+     * @param authToken The JWT access token of the user
+     * @param prefix    The text typed so far
+     * @param limit     The maximum number of completions, or null for the default
+     * @return List<Completion> The uuids and contents of the matching questions
+     * @throws AuthorizationFailedException This exception is thrown if user has not signed in or if he is signed out.
+     * @throws InvalidSearchQueryException  This exception is thrown if the prefix is blank.
+     */
+    @Transactional(propagation = Propagation.REQUIRED, readOnly = true)
+    public List<Completion> autocompleteQuestions(final String authToken, final String prefix, final Integer limit)
+            throws AuthorizationFailedException, InvalidSearchQueryException {
+        //Get the user entity from the given authToken.
+        final String signoutExceptionMessage = "User is signed out.Sign in first to search questions";
+        commonBusinessService.getAuthenticatedUser(authToken, signoutExceptionMessage);
+
+        if (prefix == null || prefix.trim().isEmpty()) {
+            throw new InvalidSearchQueryException("SRCH-001", "Search query cannot be empty");
+        }
+        return autocompleteIndex.completeQuestions(prefix, autocompleteIndex.size(limit));
     }
 
     /**
@@ -114,7 +215,11 @@ public class QuestionBusinessService {
         questionEntity.setId(existingQuestionEntity.getId());
         questionEntity.setCreatedDate(existingQuestionEntity.getCreatedDate());
         questionEntity.setUser(existingQuestionEntity.getUser());
+        //Merging copies the new content onto the existing entity, so the previous content is read first
+        final String previousContent = existingQuestionEntity.getContent();
         questionDao.editQuestion(questionEntity);
+        inMemorySearchIndex.indexQuestion(questionEntity);
+        autocompleteIndex.editQuestion(previousContent, questionEntity);
     }
 
     /**
@@ -141,6 +246,11 @@ public class QuestionBusinessService {
 
         //delete the question if either the user is the owner of the question or admin else throw Authorizarion exception
         if (questionOwner.getUuid().equals(userEntity.getUuid()) || userEntity.getRole().equals("admin")) {
+            if (inMemorySearchIndex.isEnabled()) {
+                //The answers to the question are deleted along with it
+                inMemorySearchIndex.remove(Collections.singletonList(question.getId()), answerDao.getAnswerIdsToQuestion(question.getId()));
+            }
+            autocompleteIndex.removeQuestions(Collections.singletonList(question));
             questionDao.deleteQuestion(question);
         } else {
             throw new AuthorizationFailedException("ATHR-003", "Only the question owner or admin can delete the question");
@@ -1,9 +1,14 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.RegisteredUserFilter;
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
 import com.upgrad.quora.service.dao.UserDao;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthorizationFailedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.search.AutocompleteIndex;
+import com.upgrad.quora.service.search.InMemorySearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
@@ -15,9 +20,24 @@ public class UserAdminBusinessService {
     @Autowired
     private UserDao userDao;
 
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private AnswerDao answerDao;
+
     @Autowired
     private CommonBusinessService commonBusinessService;
 
+    @Autowired
+    private InMemorySearchIndex inMemorySearchIndex;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    @Autowired
+    private RegisteredUserFilter registeredUserFilter;
+
     /**
      * This method deletes user in system by admin.
      *
@@ -42,6 +62,15 @@ public class UserAdminBusinessService {
             throw new UserNotFoundException("USR-001", "User with entered uuid to be deleted does not exist");
         }
 
+        if (inMemorySearchIndex.isEnabled()) {
+            //The questions and answers of the user are deleted along with it
+            inMemorySearchIndex.remove(questionDao.getQuestionIdsByUserUuid(userUuid), answerDao.getAnswerIdsByUserUuid(userUuid));
+        }
+        if (autocompleteIndex.isEnabled()) {
+            autocompleteIndex.removeQuestions(questionDao.getQuestionsByUserUuid(userUuid));
+        }
+        autocompleteIndex.removeUser(user);
+        registeredUserFilter.removeUser(user);
         userDao.deleteUser(user);
 
     }
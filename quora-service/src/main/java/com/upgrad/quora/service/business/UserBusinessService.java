@@ -1,14 +1,19 @@
 package com.upgrad.quora.service.business;
 
+import com.upgrad.quora.service.cache.RegisteredUserFilter;
 import com.upgrad.quora.service.dao.UserAuthDao;
 import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.datasource.ReadYourWritesTracker;
 import com.upgrad.quora.service.entity.UserAuthTokenEntity;
 import com.upgrad.quora.service.entity.UserEntity;
 import com.upgrad.quora.service.exception.AuthenticationFailedException;
 import com.upgrad.quora.service.exception.SignOutRestrictedException;
 import com.upgrad.quora.service.exception.SignUpRestrictedException;
 import com.upgrad.quora.service.exception.UserNotFoundException;
+import com.upgrad.quora.service.search.AutocompleteIndex;
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,6 +23,12 @@ import java.util.UUID;
 
 @Service
 public class UserBusinessService {
+
+    //The unique constraints Postgres creates for the userName and email columns of the USERS table
+    private static final String USERNAME_CONSTRAINT = "users_username_key";
+
+    private static final String EMAIL_CONSTRAINT = "users_email_key";
+
     @Autowired
     private UserDao userDao;
 
@@ -27,6 +38,15 @@ public class UserBusinessService {
     @Autowired
     private PasswordCryptographyProvider passwordCryptographyProvider;
 
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Autowired
+    private AutocompleteIndex autocompleteIndex;
+
+    @Autowired
+    private RegisteredUserFilter registeredUserFilter;
+
     /**
      * This method is used to successfully sign-in the given new user
      *
@@ -65,34 +85,71 @@ public class UserBusinessService {
         userAuthDao.createAuthToken(userAuthToken);
         userDao.updateUser(userEntity);
 
+        //The new token has to be found by the next requests even before the replicas have caught up
+        readYourWritesTracker.recordWrite(userAuthToken.getAccessToken());
+
         return userAuthToken;
     }
 
     /**
-     * This method is used to sign up the given new user
+     * This method is used to sign up the given new user. The username and email are only looked up in the database
+     * when the bloom filters say they may be taken; a duplicate they miss is caught by the unique constraints.
      *
      * @param userEntity The user details to be signed up
      * @return UserEntity The persisted signed up user details.
      * @throws SignUpRestrictedException This exception is thrown if the given username or email already exists
      */
-    @Transactional(propagation = Propagation.REQUIRED)
+    @Transactional(propagation = Propagation.REQUIRED, rollbackFor = SignUpRestrictedException.class)
     public UserEntity signup(UserEntity userEntity) throws SignUpRestrictedException {
         //Check and throw SignUpRestrictedException if the Username has already been taken
-        UserEntity existingEntity = userDao.getUserByUserName(userEntity.getUserName());
-        if (existingEntity != null) {
-            throw new SignUpRestrictedException("SGR-001", "Try any other Username, this Username has already been taken");
+        if (registeredUserFilter.mightHaveUserName(userEntity.getUserName())
+                && userDao.getUserByUserName(userEntity.getUserName()) != null) {
+            throw userNameTaken();
         }
         //Check and throw SignUpRestrictedException if the email address has already been taken
-        existingEntity = userDao.getUserByEmail(userEntity.getEmail());
-        if (existingEntity != null) {
-            throw new SignUpRestrictedException("SGR-002", "This user has already been registered, try with any other emailId");
+        if (registeredUserFilter.mightHaveEmail(userEntity.getEmail())
+                && userDao.getUserByEmail(userEntity.getEmail()) != null) {
+            throw emailTaken();
         }
         //For a non-existing user, generate the salt and hashed password and set it to UserEntity
         String[] encryptedText = passwordCryptographyProvider.encrypt(userEntity.getPassword());
         userEntity.setSalt(encryptedText[0]);
         userEntity.setPassword(encryptedText[1]);
 
-        return userDao.createUser(userEntity);
+        final UserEntity createdUser;
+        try {
+            createdUser = userDao.createUser(userEntity);
+        } catch (DataIntegrityViolationException e) {
+            //Another signup took the username or email in between, or the filters did not know about it
+            final String constraint = getViolatedConstraint(e);
+            if (USERNAME_CONSTRAINT.equalsIgnoreCase(constraint)) {
+                throw userNameTaken();
+            }
+            if (EMAIL_CONSTRAINT.equalsIgnoreCase(constraint)) {
+                throw emailTaken();
+            }
+            throw e;
+        }
+        registeredUserFilter.addUser(createdUser);
+        autocompleteIndex.addUser(createdUser);
+        return createdUser;
+    }
+
+    private static SignUpRestrictedException userNameTaken() {
+        return new SignUpRestrictedException("SGR-001", "Try any other Username, this Username has already been taken");
+    }
+
+    private static SignUpRestrictedException emailTaken() {
+        return new SignUpRestrictedException("SGR-002", "This user has already been registered, try with any other emailId");
+    }
+
+    private static String getViolatedConstraint(final DataIntegrityViolationException e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                return ((ConstraintViolationException) cause).getConstraintName();
+            }
+        }
+        return null;
     }
 
     /**
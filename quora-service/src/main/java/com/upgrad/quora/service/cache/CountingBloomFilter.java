@@ -0,0 +1,165 @@
+package com.upgrad.quora.service.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter over strings whose cells are 4 bit counters instead of bits, so that strings can be removed again.
+ * A string that was added is always reported as possibly present; a string that was never added is reported as
+ * possibly present with about the false positive rate the filter was sized for.
+ * <p>
+ * Counters stop at 15 and are never decremented from there, so an overflow can only cost accuracy, never report an
+ * added string as absent. Removing a string that was never added breaks that promise for the strings sharing its
+ * counters, which callers have to tolerate. All methods are thread safe and lock free.
+ */
+public class CountingBloomFilter {
+
+    private static final int COUNTERS_PER_WORD = 16;
+
+    private static final long COUNTER_MASK = 0xFL;
+
+    private final AtomicLongArray words;
+
+    private final long counters;
+
+    private final int hashes;
+
+    private final long capacity;
+
+    /**
+     * @param capacity          The number of strings the filter is sized for
+     * @param falsePositiveRate The rate of false positives wanted once the filter holds that many strings
+     */
+    public CountingBloomFilter(final long capacity, final double falsePositiveRate) {
+        if (capacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Invalid bloom filter size " + capacity + " / " + falsePositiveRate);
+        }
+        //m = -n ln(p) / ln(2)^2 counters and k = m/n ln(2) hash functions give the lowest rate for n strings
+        final long optimal = (long) Math.ceil(-capacity * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        final long wordCount = (optimal + COUNTERS_PER_WORD - 1) / COUNTERS_PER_WORD;
+        if (wordCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Bloom filter for " + capacity + " strings is too large");
+        }
+        this.words = new AtomicLongArray((int) wordCount);
+        this.counters = wordCount * COUNTERS_PER_WORD;
+        this.hashes = Math.max(1, (int) Math.round((double) counters / capacity * Math.log(2)));
+        this.capacity = capacity;
+    }
+
+    /**
+     * This method adds the given string.
+     *
+     * @param value The string to add
+     */
+    public void add(final String value) {
+        final long hash = hash(value);
+        final long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            increment(index(hash, step, i));
+        }
+    }
+
+    /**
+     * This method removes one occurrence of the given string, which must have been added before.
+     *
+     * @param value The string to remove
+     */
+    public void remove(final String value) {
+        final long hash = hash(value);
+        final long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            decrement(index(hash, step, i));
+        }
+    }
+
+    /**
+     * This method tells whether the given string may have been added.
+     *
+     * @param value The string to look for
+     * @return boolean false if the string was definitely never added (or removed again), true if it may have been
+     */
+    public boolean mightContain(final String value) {
+        final long hash = hash(value);
+        final long step = step(hash);
+        for (int i = 0; i < hashes; i++) {
+            final long index = index(hash, step, i);
+            if (counter(words.get((int) (index / COUNTERS_PER_WORD)), index) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return long The number of strings the filter is sized for
+     */
+    public long getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @return long The size of the filter in bytes
+     */
+    public long getSizeInBytes() {
+        return (long) words.length() * Long.BYTES;
+    }
+
+    private void increment(final long index) {
+        final int word = (int) (index / COUNTERS_PER_WORD);
+        while (true) {
+            final long current = words.get(word);
+            final long counter = counter(current, index);
+            if (counter == COUNTER_MASK || words.compareAndSet(word, current, current + (1L << shift(index)))) {
+                return;
+            }
+        }
+    }
+
+    private void decrement(final long index) {
+        final int word = (int) (index / COUNTERS_PER_WORD);
+        while (true) {
+            final long current = words.get(word);
+            final long counter = counter(current, index);
+            //A saturated counter no longer knows how many strings it counts, an empty one has nothing to remove
+            if (counter == COUNTER_MASK || counter == 0 || words.compareAndSet(word, current, current - (1L << shift(index)))) {
+                return;
+            }
+        }
+    }
+
+    private static long counter(final long word, final long index) {
+        return (word >>> shift(index)) & COUNTER_MASK;
+    }
+
+    private static int shift(final long index) {
+        return (int) (index % COUNTERS_PER_WORD) * 4;
+    }
+
+    //Double hashing: the i-th counter is hash + i * step, which is as good as k independent hashes for a Bloom filter
+    private long index(final long hash, final long step, final int i) {
+        return Long.remainderUnsigned(hash + i * step, counters);
+    }
+
+    private static long step(final long hash) {
+        return mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+    }
+
+    //64 bit FNV-1a over the UTF-8 bytes, finished with the murmur3 mixer to spread the short keys over all bits
+    private static long hash(final String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,192 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Bloom filters over the usernames and emails of all the users, so that signup only has to look a username or email
+ * up in the database when it may already be taken. Enabled with quora.signup.bloom-filter.enabled; the filters are
+ * loaded once the application is ready and then follow every committed signup and user deletion.
+ * <p>
+ * The filters only ever save queries. Until they are loaded every name may be taken, and a name they wrongly report
+ * as free (after a user was created outside the application, for instance) is still rejected by the unique
+ * constraints of the USERS table.
+ */
+@Component
+public class RegisteredUserFilter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RegisteredUserFilter.class);
+
+    @Autowired
+    private UserDao userDao;
+
+    private final boolean enabled;
+
+    private final long expectedUsers;
+
+    private final double falsePositiveRate;
+
+    private final int loadBatchSize;
+
+    //The filters answering lookups, null until the first load completes
+    private volatile Filters filters;
+
+    //The filters being loaded, which also have to see the changes committed while the load runs
+    private volatile Filters loading;
+
+    public RegisteredUserFilter(@Value("${quora.signup.bloom-filter.enabled:true}") final boolean enabled,
+                                @Value("${quora.signup.bloom-filter.expected-users:1000000}") final long expectedUsers,
+                                @Value("${quora.signup.bloom-filter.false-positive-rate:0.01}") final double falsePositiveRate,
+                                @Value("${quora.signup.bloom-filter.load-batch-size:10000}") final int loadBatchSize) {
+        this.enabled = enabled;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveRate = falsePositiveRate;
+        this.loadBatchSize = loadBatchSize;
+    }
+
+    /**
+     * This method loads the filters from the database once the application has started. They are sized for twice
+     * the current number of users, but at least for the expected number, so they stay accurate while users sign up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        final long start = System.nanoTime();
+        final long capacity = Math.max(expectedUsers, 2 * userDao.getUserCount());
+        final Filters building = new Filters(capacity, falsePositiveRate);
+        loading = building;
+        long count = 0;
+        long afterId = 0;
+        for (List<Object[]> batch = userDao.getUserLogins(afterId, loadBatchSize); !batch.isEmpty();
+             batch = userDao.getUserLogins(afterId, loadBatchSize)) {
+            for (Object[] row : batch) {
+                afterId = ((Number) row[0]).longValue();
+                building.userNames.add((String) row[1]);
+                building.emails.add((String) row[2]);
+                count++;
+            }
+        }
+        filters = building;
+        loading = null;
+        LOGGER.info("Signup bloom filters loaded {} users in {} ms, {} KB for up to {} users", count,
+                (System.nanoTime() - start) / 1_000_000, 2 * building.userNames.getSizeInBytes() / 1024, capacity);
+    }
+
+    /**
+     * This method tells whether the given username may already be taken.
+     *
+     * @param userName The username to look for
+     * @return boolean false if no user has the username, true if one may have it
+     */
+    public boolean mightHaveUserName(final String userName) {
+        final Filters current = filters;
+        return current == null || current.userNames.mightContain(userName);
+    }
+
+    /**
+     * This method tells whether the given email may already be registered.
+     *
+     * @param email The email to look for
+     * @return boolean false if no user has the email, true if one may have it
+     */
+    public boolean mightHaveEmail(final String email) {
+        final Filters current = filters;
+        return current == null || current.emails.mightContain(email);
+    }
+
+    /**
+     * This method adds the username and email of the given user once the current transaction commits.
+     *
+     * @param user The signed up user
+     */
+    public void addUser(final UserEntity user) {
+        final String userName = user.getUserName();
+        final String email = user.getEmail();
+        afterCommit(() -> update(target -> {
+            target.userNames.add(userName);
+            target.emails.add(email);
+        }));
+    }
+
+    /**
+     * This method removes the username and email of the given user once the current transaction commits.
+     *
+     * @param user The deleted user
+     */
+    public void removeUser(final UserEntity user) {
+        final String userName = user.getUserName();
+        final String email = user.getEmail();
+        afterCommit(() -> update(target -> {
+            target.userNames.remove(userName);
+            target.emails.remove(email);
+        }));
+    }
+
+    /**
+     * @return boolean true if the filters are enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return boolean true once the filters answer lookups
+     */
+    public boolean isReady() {
+        return filters != null;
+    }
+
+    private void update(final Consumer<Filters> change) {
+        //The load publishes the filters before it clears loading, so a change never misses both
+        final Filters building = loading;
+        if (building != null) {
+            change.accept(building);
+        }
+        final Filters current = filters;
+        if (current != null && current != building) {
+            change.accept(current);
+        }
+    }
+
+    private void afterCommit(final Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+
+    private static final class Filters {
+
+        private final CountingBloomFilter userNames;
+
+        private final CountingBloomFilter emails;
+
+        private Filters(final long capacity, final double falsePositiveRate) {
+            this.userNames = new CountingBloomFilter(capacity, falsePositiveRate);
+            this.emails = new CountingBloomFilter(capacity, falsePositiveRate);
+        }
+    }
+}
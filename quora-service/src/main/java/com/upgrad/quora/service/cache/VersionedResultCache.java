@@ -0,0 +1,130 @@
+package com.upgrad.quora.service.cache;
+
+import com.upgrad.quora.service.common.SingleFlight;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Caches query results per key together with the content version they were computed for. An entry is reloaded when
+ * the version moves on or when it expires.
+ * <p>
+ * Expiry is probabilistic: each read may refresh an entry a little before its TTL ends, with a probability that grows
+ * as the expiry gets closer and with the time the last load took (the "XFetch" rule). A popular key is then refreshed
+ * by a single early reader instead of expiring for everyone at once, and the loads that do happen at the same time
+ * for the same key and version share one query.
+ *
+ * @param <V> Type of the cached result
+ */
+public class VersionedResultCache<V> {
+
+    private final ConcurrentHashMap<String, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    private final SingleFlight<String, Entry<V>> loads;
+
+    private final long ttlNanos;
+
+    private final double beta;
+
+    private final int maxEntries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong earlyRefreshes = new AtomicLong();
+
+    public VersionedResultCache(final long ttlMillis, final double beta, final int maxEntries, final long maxLoadWaitMillis) {
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.beta = beta;
+        this.maxEntries = maxEntries;
+        this.loads = new SingleFlight<>(maxLoadWaitMillis);
+    }
+
+    /**
+     * This method returns the cached result for the given key and version, loading it when it is missing, stale or
+     * picked for an early refresh.
+     *
+     * @param key     The cache key
+     * @param version The current version of the content behind the key
+     * @param loader  The query computing the result
+     * @return V The cached or freshly loaded result
+     */
+    public V get(final String key, final long version, final Supplier<V> loader) {
+        final Entry<V> entry = entries.get(key);
+        if (entry != null && entry.version == version) {
+            if (!refreshEarly(entry)) {
+                hits.incrementAndGet();
+                return entry.value;
+            }
+            earlyRefreshes.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+        }
+
+        return loads.execute(key + '@' + version, () -> load(key, version, loader)).value;
+    }
+
+    private Entry<V> load(final String key, final long version, final Supplier<V> loader) {
+        final long start = System.nanoTime();
+        final V value = loader.get();
+        final long now = System.nanoTime();
+        final Entry<V> loaded = new Entry<>(value, version, now - start, now + ttlNanos);
+
+        //Never replace an entry computed for a newer version by a slow load of an older one
+        entries.merge(key, loaded, (existing, candidate) -> existing.version > candidate.version ? existing : candidate);
+        if (entries.size() > maxEntries) {
+            evict(now);
+        }
+        return loaded;
+    }
+
+    private boolean refreshEarly(final Entry<V> entry) {
+        final double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        final double earlyBy = -entry.loadNanos * beta * Math.log(random);
+        return System.nanoTime() + earlyBy >= entry.expiresAtNanos;
+    }
+
+    private void evict(final long now) {
+        entries.values().removeIf(entry -> entry.expiresAtNanos - now <= 0);
+        final Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getEarlyRefreshCount() {
+        return earlyRefreshes.get();
+    }
+
+    private static final class Entry<V> {
+
+        private final V value;
+
+        private final long version;
+
+        private final long loadNanos;
+
+        private final long expiresAtNanos;
+
+        private Entry(final V value, final long version, final long loadNanos, final long expiresAtNanos) {
+            this.value = value;
+            this.version = version;
+            this.loadNanos = loadNanos;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.upgrad.quora.service.common;
+
+import com.upgrad.quora.service.entity.AnswerEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The uuid and text of an answer along with the content of its question, as listed by answer/all/{questionId}. Unlike
+ * an {@link AnswerEntity} it is immutable and belongs to no persistence context, so a list of them can be handed to
+ * several requests at once.
+ */
+public final class AnswerSummary {
+
+    private final String uuid;
+
+    private final String answer;
+
+    private final String questionContent;
+
+    public AnswerSummary(final String uuid, final String answer, final String questionContent) {
+        this.uuid = uuid;
+        this.answer = answer;
+        this.questionContent = questionContent;
+    }
+
+    /**
+     * This method copies the listed fields of the given answers.
+     *
+     * @param answers The answers as loaded by the current persistence context, with their questions
+     * @return List<AnswerSummary> An unmodifiable list of the summaries, in the same order
+     */
+    public static List<AnswerSummary> of(final List<AnswerEntity> answers) {
+        final List<AnswerSummary> summaries = new ArrayList<>(answers.size());
+        for (AnswerEntity answer : answers) {
+            summaries.add(new AnswerSummary(answer.getUuid(), answer.getAnswer(), answer.getQuestion().getContent()));
+        }
+        return Collections.unmodifiableList(summaries);
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getAnswer() {
+        return answer;
+    }
+
+    public String getQuestionContent() {
+        return questionContent;
+    }
+}
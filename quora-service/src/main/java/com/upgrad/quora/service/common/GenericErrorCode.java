@@ -10,7 +10,14 @@ public enum GenericErrorCode implements ErrorCode {
      * <b>Cause:</b> This error could have occurred due to undetermined runtime errors.<br>
      * <b>Action: None</b><br>
      */
-    GEN_001("GEN-001", "An unexpected error occurred. Please contact System Administrator");
+    GEN_001("GEN-001", "An unexpected error occurred. Please contact System Administrator"),
+
+    /**
+     * Error message: <b>The service is overloaded. Please try again later</b><br>
+     * <b>Cause:</b> More requests are in progress than the concurrency limit of the route admits.<br>
+     * <b>Action: Retry after a short delay</b><br>
+     */
+    GEN_002("GEN-002", "The service is overloaded. Please try again later");
 
     private static final Map<String, GenericErrorCode> LOOKUP = new HashMap<String, GenericErrorCode>();
 
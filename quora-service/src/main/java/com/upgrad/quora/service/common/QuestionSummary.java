@@ -0,0 +1,46 @@
+package com.upgrad.quora.service.common;
+
+import com.upgrad.quora.service.entity.QuestionEntity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The uuid and content of a question, as listed by question/all and question/all/{userId}. Unlike a
+ * {@link QuestionEntity} it is immutable and belongs to no persistence context, so a list of them can be cached and
+ * handed to several requests at once.
+ */
+public final class QuestionSummary {
+
+    private final String uuid;
+
+    private final String content;
+
+    public QuestionSummary(final String uuid, final String content) {
+        this.uuid = uuid;
+        this.content = content;
+    }
+
+    /**
+     * This method copies the listed fields of the given questions.
+     *
+     * @param questions The questions as loaded by the current persistence context
+     * @return List<QuestionSummary> An unmodifiable list of the summaries, in the same order
+     */
+    public static List<QuestionSummary> of(final List<QuestionEntity> questions) {
+        final List<QuestionSummary> summaries = new ArrayList<>(questions.size());
+        for (QuestionEntity question : questions) {
+            summaries.add(new QuestionSummary(question.getUuid(), question.getContent()));
+        }
+        return Collections.unmodifiableList(summaries);
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getContent() {
+        return content;
+    }
+}
@@ -0,0 +1,130 @@
+package com.upgrad.quora.service.common;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces identical concurrent calls. The first caller for a key runs the supplier, and every caller arriving
+ * while it runs waits for that result instead of running the supplier again. A waiter that does not get the shared
+ * result within the wait limit runs the supplier on its own, and a waiter that is interrupted gives up with GEN-001.
+ * <p>
+ * The shared result is handed to several threads at once, so suppliers have to return immutable values that do not
+ * depend on the caller's thread, such as detached copies rather than managed entities. A caller that must not see a
+ * result computed for another caller, for example one reading its own writes, should not go through the flight, and
+ * the key should include whatever version the result is computed for.
+ * <p>
+ * The executions, coalesced calls and timed out waits are exported as the "quora.single-flight.executions",
+ * "quora.single-flight.coalesced" and "quora.single-flight.timeouts" meters, tagged with the name of the flight.
+ *
+ * @param <K> Type of the key identifying identical calls
+ * @param <V> Type of the shared result
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final long maxWaitMillis;
+
+    private final AtomicLong executions = new AtomicLong();
+
+    private final AtomicLong coalesced = new AtomicLong();
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    public SingleFlight(final long maxWaitMillis) {
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public SingleFlight(final String name, final long maxWaitMillis, final MeterRegistry meterRegistry) {
+        this(maxWaitMillis);
+        FunctionCounter.builder("quora.single-flight.executions", this, SingleFlight::getExecutionCount)
+                .description("Number of times a supplier actually ran")
+                .tag("flight", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("quora.single-flight.coalesced", this, SingleFlight::getCoalescedCount)
+                .description("Number of calls that joined a call already in flight")
+                .tag("flight", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("quora.single-flight.timeouts", this, SingleFlight::getTimeoutCount)
+                .description("Number of joined calls that gave up waiting and ran the supplier themselves")
+                .tag("flight", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * This method returns the result of the supplier for the given key, sharing a single execution between all the
+     * callers that ask for the same key at the same time.
+     *
+     * @param key      The key identifying identical calls
+     * @param supplier The call to execute
+     * @return V The result of the supplier
+     */
+    public V execute(final K key, final Supplier<V> supplier) {
+        final CompletableFuture<V> call = new CompletableFuture<>();
+        final CompletableFuture<V> existingCall = inFlight.putIfAbsent(key, call);
+        if (existingCall == null) {
+            return runAndPublish(key, call, supplier);
+        }
+
+        coalesced.incrementAndGet();
+        try {
+            return existingCall.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            timeouts.incrementAndGet();
+        } catch (InterruptedException e) {
+            //Running the supplier on an interrupted thread would only fail later, so the call gives up here
+            Thread.currentThread().interrupt();
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new UnexpectedException(GenericErrorCode.GEN_001, e.getCause());
+        }
+        executions.incrementAndGet();
+        return supplier.get();
+    }
+
+    private V runAndPublish(final K key, final CompletableFuture<V> call, final Supplier<V> supplier) {
+        executions.incrementAndGet();
+        try {
+            final V result = supplier.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * @return long The number of times a supplier actually ran
+     */
+    public long getExecutionCount() {
+        return executions.get();
+    }
+
+    /**
+     * @return long The number of calls that joined a call already in flight
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return long The number of joined calls that gave up waiting and ran the supplier themselves
+     */
+    public long getTimeoutCount() {
+        return timeouts.get();
+    }
+}
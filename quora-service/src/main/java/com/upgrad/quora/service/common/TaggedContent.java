@@ -0,0 +1,57 @@
+package com.upgrad.quora.service.common;
+
+/**
+ * Content returned together with the tag of the database state it was read from. The content is only loaded when the
+ * client does not hold that state yet, so a request that can be answered 304 Not Modified never loads it.
+ *
+ * @param <T> Type of the content
+ */
+public class TaggedContent<T> {
+
+    private final String tag;
+
+    private final T content;
+
+    private final boolean modified;
+
+    private TaggedContent(final String tag, final T content, final boolean modified) {
+        this.tag = tag;
+        this.content = content;
+        this.modified = modified;
+    }
+
+    /**
+     * @param tag The tag of the state the client already holds
+     * @return TaggedContent The tag without content
+     */
+    public static <T> TaggedContent<T> notModified(final String tag) {
+        return new TaggedContent<>(tag, null, false);
+    }
+
+    /**
+     * @param tag     The tag of the state the content was read from
+     * @param content The content
+     * @return TaggedContent The tag with its content
+     */
+    public static <T> TaggedContent<T> of(final String tag, final T content) {
+        return new TaggedContent<>(tag, content, true);
+    }
+
+    public String getTag() {
+        return tag;
+    }
+
+    /**
+     * @return T The content, null if the client already holds it
+     */
+    public T getContent() {
+        return content;
+    }
+
+    /**
+     * @return boolean false if the client already holds the content and it was not loaded
+     */
+    public boolean isModified() {
+        return modified;
+    }
+}
@@ -1,11 +1,19 @@
 package com.upgrad.quora.service.dao;
 
 import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.search.SearchCursor;
+import com.upgrad.quora.service.search.SearchHit;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 @Repository
@@ -14,6 +22,9 @@ public class AnswerDao {
     @PersistenceContext
     private EntityManager entityManager;
 
+    @Value("${quora.search.statement-timeout-ms:2000}")
+    private long searchStatementTimeoutMillis;
+
     /**
      * This method persists the given answer entity to the database
      *
@@ -69,4 +80,95 @@ public class AnswerDao {
     public List<AnswerEntity> getAllAnswersToQuestion(final String questionId) {
         return entityManager.createNamedQuery("getAllAnswersToQuestion", AnswerEntity.class).setParameter("uuid", questionId).getResultList();
     }
+
+    /**
+     * This method returns the version of the list of answers to the given question. It is kept in the database and grows
+     * with every write to the answers or to the question, wherever it was made.
+     *
+     * @param questionUuid The uuid of the question
+     * @return Long The current version of the list of answers, or null if the question does not exist
+     */
+    public Long getAnswersToQuestionVersion(final String questionUuid) {
+        final List<?> versions = entityManager.createNamedQuery("getAnswersToQuestionVersion").setParameter("uuid", questionUuid).getResultList();
+        return versions.isEmpty() ? null : ((Number) versions.get(0)).longValue();
+    }
+
+    /**
+     * This method searches all the answers, most relevant first. Answers with the same relevance are ordered by
+     * descending id, so that (rank, id) identifies the position of every hit. Every match is ranked, and the search is
+     * cancelled by the database once it takes longer than quora.search.statement-timeout-ms.
+     *
+     * @param query      The words to search for
+     * @param after      The position of the last hit of the previous page, or null for the first page
+     * @param maxResults The maximum number of hits to return
+     * @return List<SearchHit<AnswerEntity>> The matching answers with their relevance
+     * @throws QueryTimeoutException If the search took longer than the statement timeout
+     */
+    public List<SearchHit<AnswerEntity>> searchAnswers(final String query, final SearchCursor after, final int maxResults) {
+        final Query searchQuery;
+        if (after == null) {
+            searchQuery = entityManager.createNamedQuery("searchAnswers");
+        } else {
+            searchQuery = entityManager.createNamedQuery("searchAnswersAfter")
+                    .setParameter("afterRank", after.getRank())
+                    .setParameter("afterId", after.getId());
+        }
+        //Ranking all the matches of very common words can cost more than a page is worth, so the database gives up on it
+        final List<?> rows = SearchTimeout.getResultList(entityManager,
+                searchQuery.setParameter("query", query).setMaxResults(maxResults), searchStatementTimeoutMillis);
+
+        final List<SearchHit<AnswerEntity>> hits = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            final Object[] columns = (Object[]) row;
+            hits.add(new SearchHit<>((AnswerEntity) columns[0], (Float) columns[1]));
+        }
+        return hits;
+    }
+
+    /**
+     * This method fetches the answers with the given ids
+     *
+     * @param ids The ids of the answers
+     * @return List<AnswerEntity> The answers that exist, in no particular order
+     */
+    public List<AnswerEntity> getAnswersByIds(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return entityManager.createNamedQuery("getAnswersByIds", AnswerEntity.class).setParameter("ids", ids).getResultList();
+    }
+
+    /**
+     * This method fetches the ids of all the answers to the given question
+     *
+     * @param questionId The id of the question
+     * @return List<Long> The ids of the answers to the question
+     */
+    public List<Long> getAnswerIdsToQuestion(final long questionId) {
+        return entityManager.createNamedQuery("getAnswerIdsToQuestion", Long.class).setParameter("questionId", questionId).getResultList();
+    }
+
+    /**
+     * This method fetches the ids of the answers removed along with the given user: the answers the user posted and
+     * the answers to the questions the user posted
+     *
+     * @param userUuid The uuid of the user
+     * @return List<Long> The ids of the answers
+     */
+    public List<Long> getAnswerIdsByUserUuid(final String userUuid) {
+        return entityManager.createNamedQuery("getAnswerIdsByUserUuid", Long.class).setParameter("userUuid", userUuid).getResultList();
+    }
+
+    /**
+     * This method fetches the id and text of the answers following the given id, in increasing id order, so that all
+     * the answers can be read in batches
+     *
+     * @param afterId    The id of the last answer of the previous batch, 0 for the first batch
+     * @param maxResults The size of the batch
+     * @return List<Object[]> The id and text of every answer of the batch
+     */
+    public List<Object[]> getAnswerContents(final long afterId, final int maxResults) {
+        return entityManager.createNamedQuery("getAnswerContents", Object[].class).setParameter("afterId", afterId)
+                .setMaxResults(maxResults).getResultList();
+    }
 }
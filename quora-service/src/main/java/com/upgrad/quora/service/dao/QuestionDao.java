@@ -1,19 +1,51 @@
 package com.upgrad.quora.service.dao;
 
+import com.upgrad.quora.service.cache.VersionedResultCache;
+import com.upgrad.quora.service.common.QuestionSummary;
+import com.upgrad.quora.service.datasource.ReadYourWritesTracker;
 import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.search.SearchHit;
+import com.upgrad.quora.service.search.SearchCursor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.stereotype.Repository;
 
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 @Repository
 public class QuestionDao {
 
+    private static final String ALL_QUESTIONS_KEY = "questions";
+
+    private static final String USER_QUESTIONS_KEY_PREFIX = "questions:user:";
+
     @PersistenceContext
     EntityManager entityManager;
 
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+
+    @Value("${quora.search.statement-timeout-ms:2000}")
+    private long searchStatementTimeoutMillis;
+
+    private final VersionedResultCache<List<QuestionSummary>> questionListCache;
+
+    public QuestionDao(@Value("${quora.cache.question-listing.ttl-ms:60000}") final long ttlMillis,
+                       @Value("${quora.cache.question-listing.beta:1.0}") final double beta,
+                       @Value("${quora.cache.question-listing.max-entries:10000}") final int maxEntries,
+                       @Value("${quora.single-flight.max-wait-ms:2000}") final long maxLoadWaitMillis) {
+        this.questionListCache = new VersionedResultCache<>(ttlMillis, beta, maxEntries, maxLoadWaitMillis);
+    }
+
     /**
      * This method persists the given question entity to the database
      *
@@ -28,22 +60,144 @@ public class QuestionDao {
     /**
      * This method fetches all the questions posted by any user
      *
-     * @return List<QuestionEntity> List of all the questions asked by any user
+     * @param version The version of the list of all the questions, as returned by {@link #getAllQuestionsVersion()}
+     * @return List<QuestionSummary> List of all the questions asked by any user
      */
-    public List<QuestionEntity> getAllQuestions() {
-        return entityManager.createNamedQuery("getAllQuestions", QuestionEntity.class).getResultList();
+    public List<QuestionSummary> getAllQuestions(final long version) {
+        return getQuestionList(ALL_QUESTIONS_KEY, version,
+                () -> entityManager.createNamedQuery("getAllQuestions", QuestionEntity.class).getResultList());
+    }
+
+    /**
+     * This method returns the version of the list of all the questions. It is kept in the database and grows with
+     * every insert, update or delete of a question, including writes made by another instance or straight in the
+     * database, and is read with a single primary key lookup.
+     *
+     * @return long The current version of the list of all the questions
+     */
+    public long getAllQuestionsVersion() {
+        return ((Number) entityManager.createNamedQuery("getAllQuestionsVersion").getSingleResult()).longValue();
     }
 
     /**
      * This method fetches all the questions based on the user id
      *
      * @param userUuid The uuid of the user
+     * @param version  The version of the user's question list, as returned by {@link #getUserQuestionsVersion(String)}
+     * @return List<QuestionSummary> List of all the questions asked by the user
+     */
+    public List<QuestionSummary> getAllQuestionsByUserUuid(final String userUuid, final long version) {
+        return getQuestionList(USER_QUESTIONS_KEY_PREFIX + userUuid, version, () -> getQuestionsByUserUuid(userUuid));
+    }
+
+    /**
+     * This method returns the version of the list of questions posted by the given user. It is kept in the database
+     * and grows with every write to the user's questions, wherever it was made.
+     *
+     * @param userUuid The uuid of the user
+     * @return long The current version of the user's question list
+     */
+    public long getUserQuestionsVersion(final String userUuid) {
+        return ((Number) entityManager.createNamedQuery("getUserQuestionsVersion").setParameter("userUuid", userUuid)
+                .getSingleResult()).longValue();
+    }
+
+    /**
+     * This method fetches the question entities posted by the given user, bypassing the cache
+     *
+     * @param userUuid The uuid of the user
      * @return List<QuestionEntity> List of all the questions asked by the user
      */
-    public List<QuestionEntity> getAllQuestionsByUserUuid(final String userUuid) {
+    public List<QuestionEntity> getQuestionsByUserUuid(final String userUuid) {
         return entityManager.createNamedQuery("getAllQuestionsByUserUuid", QuestionEntity.class).setParameter("userUuid", userUuid).getResultList();
     }
 
+    /**
+     * This method returns a cached question list, loading it when the cached one was computed for another version. The
+     * version is read first in the same transaction as the list, so a list is never cached under a version newer than
+     * its rows, whichever database served them.
+     *
+     * @param key     The cache key of the list
+     * @param version The current version of the list
+     * @param query   The query loading the questions of the list
+     * @return List<QuestionSummary> The questions of the list, detached from any persistence context
+     */
+    private List<QuestionSummary> getQuestionList(final String key, final long version, final Supplier<List<QuestionEntity>> query) {
+        //A caller that must read its own recent writes gets them from the primary, never from what other callers cached
+        if (readYourWritesTracker.isCurrentCallerPinned()) {
+            return QuestionSummary.of(query.get());
+        }
+        return questionListCache.get(key, version, () -> QuestionSummary.of(query.get()));
+    }
+
+    /**
+     * This method searches the content of all the questions, most relevant first. Questions with the same relevance are
+     * ordered by descending id, so that (rank, id) identifies the position of every hit. Every match is ranked, and
+     * the search is cancelled by the database once it takes longer than quora.search.statement-timeout-ms.
+     *
+     * @param query      The words to search for
+     * @param after      The position of the last hit of the previous page, or null for the first page
+     * @param maxResults The maximum number of hits to return
+     * @return List<SearchHit<QuestionEntity>> The matching questions with their relevance
+     * @throws QueryTimeoutException If the search took longer than the statement timeout
+     */
+    public List<SearchHit<QuestionEntity>> searchQuestions(final String query, final SearchCursor after, final int maxResults) {
+        final Query searchQuery;
+        if (after == null) {
+            searchQuery = entityManager.createNamedQuery("searchQuestions");
+        } else {
+            searchQuery = entityManager.createNamedQuery("searchQuestionsAfter")
+                    .setParameter("afterRank", after.getRank())
+                    .setParameter("afterId", after.getId());
+        }
+        //Ranking all the matches of very common words can cost more than a page is worth, so the database gives up on it
+        final List<?> rows = SearchTimeout.getResultList(entityManager,
+                searchQuery.setParameter("query", query).setMaxResults(maxResults), searchStatementTimeoutMillis);
+
+        final List<SearchHit<QuestionEntity>> hits = new ArrayList<>(rows.size());
+        for (Object row : rows) {
+            final Object[] columns = (Object[]) row;
+            hits.add(new SearchHit<>((QuestionEntity) columns[0], (Float) columns[1]));
+        }
+        return hits;
+    }
+
+    /**
+     * This method fetches the questions with the given ids
+     *
+     * @param ids The ids of the questions
+     * @return List<QuestionEntity> The questions that exist, in no particular order
+     */
+    public List<QuestionEntity> getQuestionsByIds(final Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return entityManager.createNamedQuery("getQuestionsByIds", QuestionEntity.class).setParameter("ids", ids).getResultList();
+    }
+
+    /**
+     * This method fetches the ids of all the questions posted by the given user
+     *
+     * @param userUuid The uuid of the user
+     * @return List<Long> The ids of the user's questions
+     */
+    public List<Long> getQuestionIdsByUserUuid(final String userUuid) {
+        return entityManager.createNamedQuery("getQuestionIdsByUserUuid", Long.class).setParameter("userUuid", userUuid).getResultList();
+    }
+
+    /**
+     * This method fetches the id, content, uuid and creation date of the questions following the given id, in
+     * increasing id order, so that all the questions can be read in batches
+     *
+     * @param afterId    The id of the last question of the previous batch, 0 for the first batch
+     * @param maxResults The size of the batch
+     * @return List<Object[]> The id, content, uuid and creation date of every question of the batch
+     */
+    public List<Object[]> getQuestionContents(final long afterId, final int maxResults) {
+        return entityManager.createNamedQuery("getQuestionContents", Object[].class).setParameter("afterId", afterId)
+                .setMaxResults(maxResults).getResultList();
+    }
+
     /**
      * This method fetches the question entity from the database based on Question Uuid
      *
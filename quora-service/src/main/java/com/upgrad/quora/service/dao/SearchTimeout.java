@@ -0,0 +1,46 @@
+package com.upgrad.quora.service.dao;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+import javax.persistence.Query;
+import javax.persistence.QueryTimeoutException;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Bounds the full-text searches of {@link QuestionDao} and {@link AnswerDao}, which rank every match, with a
+ * statement timeout of the current transaction.
+ */
+final class SearchTimeout {
+
+    //The SQLSTATE of a statement cancelled by statement_timeout, which Hibernate reports as a generic JDBC error
+    private static final String QUERY_CANCELED = "57014";
+
+    private SearchTimeout() {
+    }
+
+    /**
+     * This method sets the statement timeout of the current transaction and executes the given search under it.
+     *
+     * @param entityManager The entity manager of the current transaction
+     * @param search        The search query, with its parameters set
+     * @param timeoutMillis How long the database may take over the search
+     * @return List<?> The rows of the search
+     * @throws QueryTimeoutException If the database cancelled the search because it took longer than the timeout, which
+     *                               the DAOs hand on as Spring's QueryTimeoutException
+     */
+    static List<?> getResultList(final EntityManager entityManager, final Query search, final long timeoutMillis) {
+        entityManager.createNamedQuery("setSearchStatementTimeout")
+                .setParameter("timeout", timeoutMillis + "ms").getSingleResult();
+        try {
+            return search.getResultList();
+        } catch (PersistenceException e) {
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof SQLException && QUERY_CANCELED.equals(((SQLException) cause).getSQLState())) {
+                    throw new QueryTimeoutException("The search took longer than " + timeoutMillis + " ms", e);
+                }
+            }
+            throw e;
+        }
+    }
+}
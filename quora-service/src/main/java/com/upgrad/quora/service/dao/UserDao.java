@@ -6,6 +6,7 @@ import org.springframework.stereotype.Repository;
 import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
+import java.util.List;
 
 @Repository
 public class UserDao {
@@ -84,4 +85,51 @@ public class UserDao {
         entityManager.remove(user);
     }
 
-}
\ No newline at end of file
+    /**
+     * This method returns the version of the details of the given user. It is kept in the database and grows with every
+     * update of the user, wherever it was made.
+     *
+     * @param userUuid The uuid of the user
+     * @return Long The current version of the user's details, or null if the user does not exist
+     */
+    public Long getUserVersion(final String userUuid) {
+        final List<?> versions = entityManager.createNamedQuery("getUserVersion").setParameter("userUuid", userUuid).getResultList();
+        return versions.isEmpty() ? null : ((Number) versions.get(0)).longValue();
+    }
+
+    /**
+     * This method fetches the id, uuid and username of the users following the given id, in increasing id order, so
+     * that all the users can be read in batches.
+     *
+     * @param afterId    The id of the last user of the previous batch, 0 for the first batch
+     * @param maxResults The size of the batch
+     * @return List<Object[]> The id, uuid and username of every user of the batch
+     */
+    public List<Object[]> getUserNames(final long afterId, final int maxResults) {
+        return entityManager.createNamedQuery("getUserNames", Object[].class).setParameter("afterId", afterId)
+                .setMaxResults(maxResults).getResultList();
+    }
+
+    /**
+     * This method fetches the id, username and email of the users following the given id, in increasing id order, so
+     * that all the users can be read in batches.
+     *
+     * @param afterId    The id of the last user of the previous batch, 0 for the first batch
+     * @param maxResults The size of the batch
+     * @return List<Object[]> The id, username and email of every user of the batch
+     */
+    public List<Object[]> getUserLogins(final long afterId, final int maxResults) {
+        return entityManager.createNamedQuery("getUserLogins", Object[].class).setParameter("afterId", afterId)
+                .setMaxResults(maxResults).getResultList();
+    }
+
+    /**
+     * This method counts the users in the database.
+     *
+     * @return long The number of users
+     */
+    public long getUserCount() {
+        return entityManager.createNamedQuery("countUsers", Long.class).getSingleResult();
+    }
+
+}
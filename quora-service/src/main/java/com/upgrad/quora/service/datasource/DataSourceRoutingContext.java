@@ -0,0 +1,38 @@
+package com.upgrad.quora.service.datasource;
+
+/**
+ * Holds the identity of the caller (its authorization header) for the request being served on the current thread.
+ * The routing DataSource uses it to decide whether a read has to see the caller's own recent writes.
+ */
+public final class DataSourceRoutingContext {
+
+    private static final ThreadLocal<String> CALLER_KEY = new ThreadLocal<>();
+
+    private DataSourceRoutingContext() {
+    }
+
+    /**
+     * This method binds the given caller key to the current thread.
+     *
+     * @param callerKey The key identifying the caller, usually its access token
+     */
+    public static void setCallerKey(final String callerKey) {
+        CALLER_KEY.set(callerKey);
+    }
+
+    /**
+     * This method returns the caller key bound to the current thread.
+     *
+     * @return String The caller key or null if no caller is bound
+     */
+    public static String getCallerKey() {
+        return CALLER_KEY.get();
+    }
+
+    /**
+     * This method removes the caller key from the current thread.
+     */
+    public static void clear() {
+        CALLER_KEY.remove();
+    }
+}
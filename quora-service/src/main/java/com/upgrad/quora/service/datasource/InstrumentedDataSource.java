@@ -0,0 +1,134 @@
+package com.upgrad.quora.service.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A DataSource that times every statement executed through its connections and reports it to its
+ * {@link StatementListener}s, together with the SQL and the types of the bound parameters. The listeners count the
+ * statements of a request or capture the slow ones.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final List<StatementListener> listeners;
+
+    public InstrumentedDataSource(final DataSource targetDataSource, final List<StatementListener> listeners) {
+        super(targetDataSource);
+        this.listeners = Collections.unmodifiableList(new ArrayList<>(listeners));
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, obtainTargetDataSource().getConnection(), this::invokeOnConnection);
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        return proxy(Connection.class, obtainTargetDataSource().getConnection(username, password), this::invokeOnConnection);
+    }
+
+    private Object invokeOnConnection(final Object connection, final Method method, final Object[] args) throws Throwable {
+        final Object result = invoke(connection, method, args);
+        //Every statement the connection creates is instrumented, whatever kind it is
+        final String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+        if (result instanceof CallableStatement) {
+            return proxy(CallableStatement.class, result, new StatementHandler(sql));
+        }
+        if (result instanceof PreparedStatement) {
+            return proxy(PreparedStatement.class, result, new StatementHandler(sql));
+        }
+        if (result instanceof Statement) {
+            return proxy(Statement.class, result, new StatementHandler(null));
+        }
+        return result;
+    }
+
+    private static Object invoke(final Object target, final Method method, final Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private static <T> T proxy(final Class<T> type, final Object target, final TargetInvocation invocation) {
+        final InvocationHandler handler = (proxy, method, args) -> invocation.invoke(target, method, args);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    @FunctionalInterface
+    private interface TargetInvocation {
+
+        Object invoke(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    /**
+     * Times the executions of one statement and keeps track of its SQL and parameter types. A statement is only used
+     * by one thread at a time, so the state needs no synchronization.
+     */
+    private class StatementHandler implements TargetInvocation {
+
+        private String sql;
+
+        private final List<String> parameterTypes = new ArrayList<>();
+
+        StatementHandler(final String sql) {
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(final Object statement, final Method method, final Object[] args) throws Throwable {
+            final String name = method.getName();
+            if (name.startsWith("execute")) {
+                if (args != null && args.length > 0 && args[0] instanceof String) {
+                    sql = (String) args[0];
+                }
+                final long start = System.nanoTime();
+                try {
+                    return InstrumentedDataSource.invoke(statement, method, args);
+                } finally {
+                    final long elapsed = System.nanoTime() - start;
+                    for (StatementListener listener : listeners) {
+                        listener.statementExecuted(sql, parameterTypes, elapsed);
+                    }
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer) {
+                bind((Integer) args[0], name, args[1]);
+            } else if ("clearParameters".equals(name)) {
+                parameterTypes.clear();
+            } else if ("addBatch".equals(name) && args != null && args.length == 1) {
+                sql = (String) args[0];
+            }
+            return InstrumentedDataSource.invoke(statement, method, args);
+        }
+
+        private void bind(final int parameterIndex, final String setter, final Object value) {
+            final String type;
+            if ("setNull".equals(setter) || value == null) {
+                type = "null";
+            } else if ("setObject".equals(setter)) {
+                type = value.getClass().getSimpleName();
+            } else {
+                type = setter.substring("set".length());
+            }
+            while (parameterTypes.size() < parameterIndex) {
+                parameterTypes.add(null);
+            }
+            parameterTypes.set(parameterIndex - 1, type);
+        }
+    }
+}
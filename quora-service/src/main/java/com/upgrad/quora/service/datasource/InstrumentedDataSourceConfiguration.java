@@ -0,0 +1,54 @@
+package com.upgrad.quora.service.datasource;
+
+import com.upgrad.quora.service.metrics.SlowQueryLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Wraps the DataSource used by JPA in an {@link InstrumentedDataSource} when "quora.sql-statistics.enabled",
+ * "quora.access-log.enabled" or "quora.query-statistics.enabled" is set. The first two count the statements of every
+ * request, the last captures the slow ones in the {@link SlowQueryLog}. With all of them off the DataSource is left
+ * alone, so the instrumentation costs nothing.
+ */
+@Configuration
+@ConditionalOnExpression("${quora.sql-statistics.enabled:false} or ${quora.access-log.enabled:false} or ${quora.query-statistics.enabled:false}")
+public class InstrumentedDataSourceConfiguration {
+
+    //Both the auto-configured DataSource and the replica routing one are registered under this name
+    private static final String DATA_SOURCE_BEAN_NAME = "dataSource";
+
+    /**
+     * Static, so that it is registered before the DataSource is created.
+     */
+    @Bean
+    public static BeanPostProcessor instrumentedDataSourcePostProcessor(final Environment environment,
+                                                                        final ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(final Object bean, final String beanName) {
+                if (!DATA_SOURCE_BEAN_NAME.equals(beanName) || !(bean instanceof DataSource)
+                        || bean instanceof InstrumentedDataSource) {
+                    return bean;
+                }
+                final List<StatementListener> listeners = new ArrayList<>();
+                if (environment.getProperty("quora.sql-statistics.enabled", Boolean.class, false)
+                        || environment.getProperty("quora.access-log.enabled", Boolean.class, false)) {
+                    listeners.add((sql, parameterTypes, elapsedNanos) -> StatementStatistics.record(elapsedNanos));
+                }
+                final SlowQueryLog log = slowQueryLog.getIfAvailable();
+                if (log != null && log.isEnabled()) {
+                    listeners.add(log);
+                }
+                return new InstrumentedDataSource((DataSource) bean, listeners);
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.upgrad.quora.service.datasource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remembers which callers have written to the primary database recently, so that their reads within the configured
+ * window are served by the primary instead of a possibly lagging replica.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private static final int CLEANUP_EVERY_N_WRITES = 1024;
+
+    private final Map<String, Long> lastWriteAt = new ConcurrentHashMap<>();
+
+    private final AtomicInteger writesSinceCleanup = new AtomicInteger();
+
+    @Value("${quora.datasource.replica-routing.enabled:false}")
+    private boolean enabled;
+
+    @Value("${quora.datasource.replica-routing.read-your-writes-window-ms:5000}")
+    private long windowMillis;
+
+    /**
+     * This method records that the given caller has just written to the primary database.
+     *
+     * @param callerKey The key identifying the caller, usually its access token
+     */
+    public void recordWrite(final String callerKey) {
+        if (!enabled || callerKey == null) {
+            return;
+        }
+        final long now = System.currentTimeMillis();
+        lastWriteAt.put(callerKey, now);
+        if (writesSinceCleanup.incrementAndGet() >= CLEANUP_EVERY_N_WRITES) {
+            writesSinceCleanup.set(0);
+            lastWriteAt.values().removeIf(writtenAt -> now - writtenAt > windowMillis);
+        }
+    }
+
+    /**
+     * This method checks whether the given caller wrote to the primary database within the read-your-writes window.
+     *
+     * @param callerKey The key identifying the caller, usually its access token
+     * @return boolean true if the caller's reads must go to the primary database
+     */
+    public boolean hasRecentWrite(final String callerKey) {
+        if (callerKey == null) {
+            return false;
+        }
+        final Long writtenAt = lastWriteAt.get(callerKey);
+        return writtenAt != null && System.currentTimeMillis() - writtenAt <= windowMillis;
+    }
+
+    /**
+     * This method checks whether the caller of the request being served on the current thread, as bound in
+     * {@link DataSourceRoutingContext}, wrote to the primary database within the read-your-writes window.
+     *
+     * @return boolean true if the current caller's reads must go to the primary database
+     */
+    public boolean isCurrentCallerPinned() {
+        return hasRecentWrite(DataSourceRoutingContext.getCallerKey());
+    }
+}
@@ -0,0 +1,58 @@
+package com.upgrad.quora.service.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured DataSource with a {@link ReplicaRoutingDataSource} when
+ * "quora.datasource.replica-routing.enabled" is set. The primary pool is still built from "spring.datasource".
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "quora.datasource.replica-routing", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class ReplicaRoutingConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(final DataSourceProperties dataSourceProperties,
+                                                             final ReplicaRoutingProperties routingProperties,
+                                                             final ReadYourWritesTracker readYourWritesTracker) {
+        final HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+
+        final List<DataSource> replicas = new ArrayList<>();
+        for (ReplicaRoutingProperties.Replica replica : routingProperties.getReplicas()) {
+            final HikariDataSource replicaDataSource = new HikariDataSource();
+            replicaDataSource.setPoolName("replica-" + replicas.size());
+            replicaDataSource.setDriverClassName(dataSourceProperties.determineDriverClassName());
+            replicaDataSource.setJdbcUrl(replica.getUrl());
+            replicaDataSource.setUsername(replica.getUsername());
+            replicaDataSource.setPassword(replica.getPassword());
+            replicaDataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+            replicaDataSource.setReadOnly(true);
+            replicas.add(replicaDataSource);
+        }
+        return new ReplicaRoutingDataSource(primary, replicas, readYourWritesTracker,
+                routingProperties.getHealthCheckIntervalMs(), routingProperties.getMaxReplicationLagMs());
+    }
+
+    /**
+     * The DataSource used by JPA. The lazy proxy defers fetching the physical connection until the first statement,
+     * after the transaction has been marked read-only, so the routing DataSource can see that flag.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(final ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
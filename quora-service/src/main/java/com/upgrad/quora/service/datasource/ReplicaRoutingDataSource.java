@@ -0,0 +1,189 @@
+package com.upgrad.quora.service.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A DataSource that sends read-only transactions to one of the healthy read replicas and everything else to the
+ * primary database. A caller who wrote to the primary within the read-your-writes window keeps reading from the
+ * primary, and a replica that fails a connection attempt or lags too far behind is skipped until its next successful
+ * health check.
+ * <p>
+ * The routing decision is taken when the physical connection is requested, so this DataSource has to be wrapped in a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy} for the transaction's read-only flag to be
+ * visible at that point.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final String REPLICATION_LAG_QUERY = "select pg_last_xact_replay_timestamp(), now()";
+
+    private final DataSource primary;
+
+    private final List<ReplicaTarget> replicas = new ArrayList<>();
+
+    private final ReadYourWritesTracker readYourWritesTracker;
+
+    private final long maxReplicationLagMillis;
+
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    private final ScheduledExecutorService healthChecker;
+
+    public ReplicaRoutingDataSource(final DataSource primary, final List<DataSource> replicas,
+                                    final ReadYourWritesTracker readYourWritesTracker,
+                                    final long healthCheckIntervalMillis, final long maxReplicationLagMillis) {
+        this.primary = primary;
+        for (int i = 0; i < replicas.size(); i++) {
+            this.replicas.add(new ReplicaTarget("replica-" + i, replicas.get(i)));
+        }
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.maxReplicationLagMillis = maxReplicationLagMillis;
+        this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.healthChecker.scheduleWithFixedDelay(this::checkReplicas,
+                healthCheckIntervalMillis, healthCheckIntervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        final ReplicaTarget replica = selectReplica();
+        if (replica == null) {
+            return primary.getConnection();
+        }
+        try {
+            return replica.dataSource.getConnection();
+        } catch (SQLException e) {
+            markDown(replica, e.getMessage());
+            return primary.getConnection();
+        }
+    }
+
+    @Override
+    public Connection getConnection(final String username, final String password) throws SQLException {
+        final ReplicaTarget replica = selectReplica();
+        if (replica == null) {
+            return primary.getConnection(username, password);
+        }
+        try {
+            return replica.dataSource.getConnection(username, password);
+        } catch (SQLException e) {
+            markDown(replica, e.getMessage());
+            return primary.getConnection(username, password);
+        }
+    }
+
+    /**
+     * This method picks the replica for the connection being requested on the current thread.
+     *
+     * @return ReplicaTarget A healthy replica in round-robin order, or null if the primary has to be used
+     */
+    private ReplicaTarget selectReplica() {
+        final String callerKey = DataSourceRoutingContext.getCallerKey();
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            //Everything that may write goes to the primary, and the caller must read its own writes for a while
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                readYourWritesTracker.recordWrite(callerKey);
+            }
+            return null;
+        }
+        if (readYourWritesTracker.hasRecentWrite(callerKey)) {
+            return null;
+        }
+
+        final int size = replicas.size();
+        final int start = nextReplica.getAndIncrement() & Integer.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            final ReplicaTarget replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method checks that every replica accepts connections and is not lagging behind the primary by more than
+     * the configured maximum.
+     */
+    private void checkReplicas() {
+        for (ReplicaTarget replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(REPLICATION_LAG_QUERY)) {
+                resultSet.next();
+                final Timestamp lastReplayedAt = resultSet.getTimestamp(1);
+                //A null replay timestamp means the instance is not a streaming standby, so it cannot lag
+                final long lagMillis = lastReplayedAt == null ? 0 : resultSet.getTimestamp(2).getTime() - lastReplayedAt.getTime();
+                if (lagMillis > maxReplicationLagMillis) {
+                    markDown(replica, "replication lag of " + lagMillis + " ms");
+                } else if (!replica.healthy) {
+                    replica.healthy = true;
+                    LOGGER.info("Read replica {} is healthy again", replica.name);
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    private void markDown(final ReplicaTarget replica, final String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            LOGGER.warn("Read replica {} taken out of rotation: {}", replica.name, reason);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        healthChecker.shutdownNow();
+        closeQuietly(primary);
+        for (ReplicaTarget replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+    }
+
+    private static void closeQuietly(final DataSource dataSource) throws IOException {
+        if (dataSource instanceof Closeable) {
+            ((Closeable) dataSource).close();
+        }
+    }
+
+    /**
+     * A read replica together with its last known health.
+     */
+    private static final class ReplicaTarget {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        private ReplicaTarget(final String name, final DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.upgrad.quora.service.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the read replica routing, bound from the "quora.datasource.replica-routing" properties.
+ * The primary database is still configured through "spring.datasource".
+ */
+@ConfigurationProperties(prefix = "quora.datasource.replica-routing")
+public class ReplicaRoutingProperties {
+
+    private boolean enabled;
+
+    private long readYourWritesWindowMs = 5000;
+
+    private long healthCheckIntervalMs = 5000;
+
+    private long maxReplicationLagMs = 10000;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getReadYourWritesWindowMs() {
+        return readYourWritesWindowMs;
+    }
+
+    public void setReadYourWritesWindowMs(long readYourWritesWindowMs) {
+        this.readYourWritesWindowMs = readYourWritesWindowMs;
+    }
+
+    public long getHealthCheckIntervalMs() {
+        return healthCheckIntervalMs;
+    }
+
+    public void setHealthCheckIntervalMs(long healthCheckIntervalMs) {
+        this.healthCheckIntervalMs = healthCheckIntervalMs;
+    }
+
+    public long getMaxReplicationLagMs() {
+        return maxReplicationLagMs;
+    }
+
+    public void setMaxReplicationLagMs(long maxReplicationLagMs) {
+        this.maxReplicationLagMs = maxReplicationLagMs;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * Connection settings of a single read replica.
+     */
+    public static class Replica {
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        private int maximumPoolSize = 10;
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+    }
+}
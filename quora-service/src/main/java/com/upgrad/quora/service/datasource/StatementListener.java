@@ -0,0 +1,19 @@
+package com.upgrad.quora.service.datasource;
+
+import java.util.List;
+
+/**
+ * Notified by the {@link InstrumentedDataSource} after every statement it executed.
+ */
+public interface StatementListener {
+
+    /**
+     * This method is called on the thread that executed the statement, right after it completed or failed.
+     *
+     * @param sql            The SQL of the statement, null if the driver was handed none
+     * @param parameterTypes The types of the bound parameters by position, such as "String" or "null". The list is
+     *                       reused by the statement, so it has to be copied to be kept
+     * @param elapsedNanos   The time the statement took
+     */
+    void statementExecuted(String sql, List<String> parameterTypes, long elapsedNanos);
+}
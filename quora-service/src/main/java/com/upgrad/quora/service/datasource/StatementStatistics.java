@@ -0,0 +1,122 @@
+package com.upgrad.quora.service.datasource;
+
+/**
+ * Counts the SQL statements executed on the current thread, and the time they took, between {@link #start()} and
+ * {@link #stop()}. The {@link InstrumentedDataSource} records into it; threads that did not start counting record nothing.
+ * Counting can be started more than once on a thread, by the statistics filter and the access log, in which case all
+ * of them share the statistics until the outermost one stops.
+ * <p>
+ * A request that continues on another thread, such as a pool thread of the bulkheads, takes its statistics along with
+ * {@link #resume(StatementStatistics)}. The statistics are recorded into by one thread at a time, the one the request
+ * is executed on.
+ */
+public final class StatementStatistics {
+
+    private static final ThreadLocal<Binding> CURRENT = new ThreadLocal<>();
+
+    private int count;
+
+    private long nanos;
+
+    private StatementStatistics() {
+    }
+
+    /**
+     * This method starts counting the statements of the current thread.
+     *
+     * @return StatementStatistics The statistics the statements of the thread are counted in from now on, the ones
+     * already counted in if counting was started before
+     */
+    public static StatementStatistics start() {
+        final Binding binding = CURRENT.get();
+        return bind(binding != null ? binding.statistics : new StatementStatistics());
+    }
+
+    /**
+     * This method counts the statements of the current thread in the given statistics, started on another thread, until
+     * {@link #stop()} is called.
+     *
+     * @param statistics The statistics to count in
+     */
+    public static void resume(final StatementStatistics statistics) {
+        bind(statistics);
+    }
+
+    /**
+     * This method stops counting the statements of the current thread, once every start has been stopped.
+     */
+    public static void stop() {
+        final Binding binding = CURRENT.get();
+        if (binding != null && --binding.depth == 0) {
+            if (binding.previous != null) {
+                CURRENT.set(binding.previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * @return StatementStatistics The statistics the statements of the current thread are counted in, null if the
+     * thread does not count them
+     */
+    public static StatementStatistics current() {
+        final Binding binding = CURRENT.get();
+        return binding != null ? binding.statistics : null;
+    }
+
+    /**
+     * This method records one statement executed on the current thread, if the thread counts its statements.
+     *
+     * @param elapsedNanos The time the statement took
+     */
+    static void record(final long elapsedNanos) {
+        final Binding binding = CURRENT.get();
+        if (binding != null) {
+            binding.statistics.count++;
+            binding.statistics.nanos += elapsedNanos;
+        }
+    }
+
+    private static StatementStatistics bind(final StatementStatistics statistics) {
+        Binding binding = CURRENT.get();
+        if (binding == null || binding.statistics != statistics) {
+            binding = new Binding(statistics, binding);
+            CURRENT.set(binding);
+        }
+        binding.depth++;
+        return statistics;
+    }
+
+    /**
+     * @return int The number of statements executed
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return long The total time the statements took, in nanoseconds
+     */
+    public long getNanos() {
+        return nanos;
+    }
+
+    /**
+     * The statistics a thread counts in, with the number of starts on the thread not stopped yet.
+     */
+    private static class Binding {
+
+        private final StatementStatistics statistics;
+
+        //The statistics the thread counted in before, restored once this binding is stopped
+        private final Binding previous;
+
+        private int depth;
+
+        Binding(final StatementStatistics statistics, final Binding previous) {
+            this.statistics = statistics;
+            this.previous = previous;
+        }
+    }
+}
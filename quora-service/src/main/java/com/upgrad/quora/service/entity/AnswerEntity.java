@@ -4,6 +4,7 @@ import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
 import org.apache.commons.lang3.builder.ToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.jpa.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -14,9 +15,41 @@ import java.time.ZonedDateTime;
 @Entity
 @Table(name = "answer")
 @NamedQueries({
-        @NamedQuery(name = "getAnswerById", query = "select a from AnswerEntity a where a.uuid = :answerUuid"),
-        @NamedQuery(name = "getAllAnswersToQuestion", query = "select a from AnswerEntity a where a.question.uuid = :uuid")
+        @NamedQuery(name = "getAnswerById", query = "select a from AnswerEntity a join fetch a.user join fetch a.question q join fetch q.user where a.uuid = :answerUuid"),
+        @NamedQuery(name = "getAllAnswersToQuestion", query = "select a from AnswerEntity a join fetch a.user join fetch a.question q join fetch q.user where q.uuid = :uuid",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true")),
+        @NamedQuery(name = "getAnswersByIds", query = "select a from AnswerEntity a join fetch a.user join fetch a.question q join fetch q.user where a.id in :ids",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true")),
+        @NamedQuery(name = "getAnswerIdsToQuestion", query = "select a.id from AnswerEntity a where a.question.id = :questionId"),
+        @NamedQuery(name = "getAnswerIdsByUserUuid",
+                query = "select a.id from AnswerEntity a where a.user.uuid = :userUuid or a.question.user.uuid = :userUuid"),
+        @NamedQuery(name = "getAnswerContents", query = "select a.id, a.answer from AnswerEntity a where a.id > :afterId order by a.id")
 })
+@NamedNativeQueries({
+        //content_version is bumped by triggers in every writing transaction, see quora-db/src/main/resources/sql/quora_versions.sql.
+        //The question is joined so that a missing question is told apart from one whose answers never changed
+        @NamedNativeQuery(name = "getAnswersToQuestionVersion",
+                query = "select coalesce(v.version, 0) from question q left join content_version v on v.key = 'answers:' || q.uuid"
+                        + " where q.uuid = :uuid"),
+        //ans_tsv is maintained by a trigger and indexed with GIN, see quora-db/src/main/resources/sql/quora_search.sql.
+        //Every match is ranked, so that no relevant answer is left out; the DAO bounds the cost with a statement timeout
+        @NamedNativeQuery(name = "searchAnswers", resultSetMapping = "answerSearchHit",
+                query = "select a.id, a.uuid, a.ans, a.date, a.user_id, a.question_id, ts_rank_cd(a.ans_tsv, tsq) as rank"
+                        + " from answer a, plainto_tsquery('english', :query) tsq"
+                        + " where a.ans_tsv @@ tsq order by rank desc, a.id desc",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true")),
+        @NamedNativeQuery(name = "searchAnswersAfter", resultSetMapping = "answerSearchHit",
+                query = "select * from ("
+                        + "select a.id, a.uuid, a.ans, a.date, a.user_id, a.question_id, ts_rank_cd(a.ans_tsv, tsq) as rank"
+                        + " from answer a, plainto_tsquery('english', :query) tsq"
+                        + " where a.ans_tsv @@ tsq) hit"
+                        + " where hit.rank < cast(:afterRank as real) or (hit.rank = cast(:afterRank as real) and hit.id < :afterId)"
+                        + " order by hit.rank desc, hit.id desc",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true"))
+})
+@SqlResultSetMapping(name = "answerSearchHit",
+        entities = @EntityResult(entityClass = AnswerEntity.class),
+        columns = @ColumnResult(name = "rank", type = Float.class))
 public class AnswerEntity implements Serializable {
 
     @Id
@@ -98,12 +131,12 @@ public class AnswerEntity implements Serializable {
 
     @Override
     public boolean equals(Object obj) {
-        return new EqualsBuilder().append(this, obj).isEquals();
+        return EqualsBuilder.reflectionEquals(this, obj);
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(this).hashCode();
+        return HashCodeBuilder.reflectionHashCode(this);
     }
 
     @Override
@@ -3,10 +3,12 @@ package com.upgrad.quora.service.entity;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.jpa.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -18,10 +20,45 @@ import java.util.List;
 @Entity
 @Table(name = "question")
 @NamedQueries({
-        @NamedQuery(name = "getQuestionByUuid", query = "select q from QuestionEntity q where q.uuid = :questionUuid"),
-        @NamedQuery(name = "getAllQuestions", query = "select q from QuestionEntity q"),
-        @NamedQuery(name = "getAllQuestionsByUserUuid", query = "select q from QuestionEntity q where q.user.uuid = :userUuid")
+        @NamedQuery(name = "getQuestionByUuid", query = "select q from QuestionEntity q join fetch q.user where q.uuid = :questionUuid"),
+        @NamedQuery(name = "getAllQuestions", query = "select q from QuestionEntity q join fetch q.user",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true")),
+        @NamedQuery(name = "getAllQuestionsByUserUuid", query = "select q from QuestionEntity q join fetch q.user u where u.uuid = :userUuid",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true")),
+        @NamedQuery(name = "getQuestionsByIds", query = "select q from QuestionEntity q join fetch q.user where q.id in :ids",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true")),
+        @NamedQuery(name = "getQuestionIdsByUserUuid", query = "select q.id from QuestionEntity q where q.user.uuid = :userUuid"),
+        @NamedQuery(name = "getQuestionContents", query = "select q.id, q.content, q.uuid, q.createdDate from QuestionEntity q where q.id > :afterId order by q.id")
 })
+@NamedNativeQueries({
+        //content_version is bumped by triggers in every writing transaction, see quora-db/src/main/resources/sql/quora_versions.sql
+        @NamedNativeQuery(name = "getAllQuestionsVersion",
+                query = "select coalesce((select v.version from content_version v where v.key = 'questions'), 0)"),
+        @NamedNativeQuery(name = "getUserQuestionsVersion",
+                query = "select coalesce((select v.version from content_version v where v.key = 'questions:user:' || :userUuid), 0)"),
+        //Bounds the searches of questions and answers for the rest of the transaction, is_local true
+        @NamedNativeQuery(name = "setSearchStatementTimeout", query = "select set_config('statement_timeout', :timeout, true)"),
+        //content_tsv is maintained by a trigger and indexed with GIN, see quora-db/src/main/resources/sql/quora_search.sql.
+        //Every match is ranked, so that no relevant question is left out; the DAO bounds the cost with a statement timeout
+        @NamedNativeQuery(name = "searchQuestions", resultSetMapping = "questionSearchHit",
+                query = "select q.id, q.uuid, q.content, q.date, q.user_id, ts_rank_cd(q.content_tsv, tsq) as rank"
+                        + " from question q, plainto_tsquery('english', :query) tsq"
+                        + " where q.content_tsv @@ tsq order by rank desc, q.id desc",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true")),
+        @NamedNativeQuery(name = "searchQuestionsAfter", resultSetMapping = "questionSearchHit",
+                query = "select * from ("
+                        + "select q.id, q.uuid, q.content, q.date, q.user_id, ts_rank_cd(q.content_tsv, tsq) as rank"
+                        + " from question q, plainto_tsquery('english', :query) tsq"
+                        + " where q.content_tsv @@ tsq) hit"
+                        + " where hit.rank < cast(:afterRank as real) or (hit.rank = cast(:afterRank as real) and hit.id < :afterId)"
+                        + " order by hit.rank desc, hit.id desc",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true"))
+})
+@SqlResultSetMapping(name = "questionSearchHit",
+        entities = @EntityResult(entityClass = QuestionEntity.class),
+        columns = @ColumnResult(name = "rank", type = Float.class))
+//Questions referenced by rows of native queries, which cannot join fetch them, are loaded up to this many at a time
+@BatchSize(size = 100)
 public class QuestionEntity implements Serializable {
 
     @Id
@@ -100,19 +137,22 @@ public class QuestionEntity implements Serializable {
         this.answers = answers;
     }
 
+    //The lazily loaded inverse sides are left out: reading them may hit the database, and they lead back to this entity
+    private static final String[] EXCLUDED_FIELDS = {"answers"};
+
     @Override
     public boolean equals(Object obj) {
-        return new EqualsBuilder().append(this, obj).isEquals();
+        return EqualsBuilder.reflectionEquals(this, obj, EXCLUDED_FIELDS);
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(this).hashCode();
+        return HashCodeBuilder.reflectionHashCode(this, EXCLUDED_FIELDS);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+        return new ReflectionToStringBuilder(this, ToStringStyle.MULTI_LINE_STYLE).setExcludeFieldNames(EXCLUDED_FIELDS).toString();
     }
 
 }
\ No newline at end of file
@@ -3,10 +3,12 @@ package com.upgrad.quora.service.entity;
 
 import org.apache.commons.lang3.builder.EqualsBuilder;
 import org.apache.commons.lang3.builder.HashCodeBuilder;
-import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
+import org.hibernate.annotations.BatchSize;
 import org.hibernate.annotations.OnDelete;
 import org.hibernate.annotations.OnDeleteAction;
+import org.hibernate.jpa.QueryHints;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotNull;
@@ -19,8 +21,17 @@ import java.util.List;
 @NamedQueries({
         @NamedQuery(name = "userByUserName", query = "select u from UserEntity u where u.userName = :userName"),
         @NamedQuery(name = "userByEmail", query = "select u from UserEntity u where u.email = :email"),
-        @NamedQuery(name = "userByUuid", query = "select u from UserEntity u where u.uuid = :userUuid")
+        @NamedQuery(name = "userByUuid", query = "select u from UserEntity u where u.uuid = :userUuid",
+                hints = @QueryHint(name = QueryHints.HINT_READONLY, value = "true")),
+        @NamedQuery(name = "getUserNames", query = "select u.id, u.uuid, u.userName from UserEntity u where u.id > :afterId order by u.id"),
+        @NamedQuery(name = "getUserLogins", query = "select u.id, u.userName, u.email from UserEntity u where u.id > :afterId order by u.id"),
+        @NamedQuery(name = "countUsers", query = "select count(u) from UserEntity u")
 })
+//content_version is bumped by a trigger on every update, see quora-db/src/main/resources/sql/quora_versions.sql
+@NamedNativeQuery(name = "getUserVersion",
+        query = "select coalesce(v.version, 0) from users u left join content_version v on v.key = 'user:' || u.uuid where u.uuid = :userUuid")
+//Users referenced by rows of native queries, which cannot join fetch them, are loaded up to this many at a time
+@BatchSize(size = 100)
 public class UserEntity implements Serializable {
 
     @Id
@@ -223,18 +234,21 @@ public class UserEntity implements Serializable {
         this.answers = answers;
     }
 
+    //The lazily loaded inverse sides are left out: reading them may hit the database, and they lead back to this entity
+    private static final String[] EXCLUDED_FIELDS = {"userAuthTokens", "questions", "answers"};
+
     @Override
     public boolean equals(Object obj) {
-        return new EqualsBuilder().append(this, obj).isEquals();
+        return EqualsBuilder.reflectionEquals(this, obj, EXCLUDED_FIELDS);
     }
 
     @Override
     public int hashCode() {
-        return new HashCodeBuilder().append(this).hashCode();
+        return HashCodeBuilder.reflectionHashCode(this, EXCLUDED_FIELDS);
     }
 
     @Override
     public String toString() {
-        return ToStringBuilder.reflectionToString(this, ToStringStyle.MULTI_LINE_STYLE);
+        return new ReflectionToStringBuilder(this, ToStringStyle.MULTI_LINE_STYLE).setExcludeFieldNames(EXCLUDED_FIELDS).toString();
     }
 }
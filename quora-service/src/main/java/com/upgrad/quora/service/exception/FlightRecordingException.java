@@ -0,0 +1,41 @@
+package com.upgrad.quora.service.exception;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * FlightRecordingException is thrown when a flight recording can not be started, stopped or dumped in its current state.
+ */
+public class FlightRecordingException extends Exception {
+    private final String code;
+    private final String errorMessage;
+
+    public FlightRecordingException(final String code, final String errorMessage) {
+        this.code = code;
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public void printStackTrace() {
+        super.printStackTrace();
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s) {
+        super.printStackTrace(s);
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s) {
+        super.printStackTrace(s);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.upgrad.quora.service.exception;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * InvalidSearchQueryException is thrown when the search query or the search cursor is not valid.
+ */
+public class InvalidSearchQueryException extends Exception {
+    private final String code;
+    private final String errorMessage;
+
+    public InvalidSearchQueryException(final String code, final String errorMessage) {
+        this.code = code;
+        this.errorMessage = errorMessage;
+    }
+
+    @Override
+    public void printStackTrace() {
+        super.printStackTrace();
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s) {
+        super.printStackTrace(s);
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s) {
+        super.printStackTrace(s);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+}
+
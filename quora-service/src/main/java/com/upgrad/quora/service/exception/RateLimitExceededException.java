@@ -0,0 +1,47 @@
+package com.upgrad.quora.service.exception;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+
+/**
+ * RateLimitExceededException is thrown when a client sends more requests to a route than its rate limit admits.
+ */
+public class RateLimitExceededException extends Exception {
+    private final String code;
+    private final String errorMessage;
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(final String code, final String errorMessage, final long retryAfterSeconds) {
+        this.code = code;
+        this.errorMessage = errorMessage;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public void printStackTrace() {
+        super.printStackTrace();
+    }
+
+    @Override
+    public void printStackTrace(PrintStream s) {
+        super.printStackTrace(s);
+    }
+
+    @Override
+    public void printStackTrace(PrintWriter s) {
+        super.printStackTrace(s);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getErrorMessage() {
+        return errorMessage;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+}
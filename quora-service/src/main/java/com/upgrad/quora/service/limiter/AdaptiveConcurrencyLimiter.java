@@ -0,0 +1,185 @@
+package com.upgrad.quora.service.limiter;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of requests in progress to a limit that adapts to the latency they see, in the manner of TCP Vegas.
+ * The lowest latency seen stands for the latency without queueing. The more a request's latency exceeds it, the more
+ * requests are estimated to be queued, on the connection pool or the database, and the limit shrinks; while hardly
+ * any are queued the limit grows. Requests beyond the limit are rejected at once, so that under saturation some
+ * requests fail fast instead of all of them timing out.
+ * <p>
+ * Acquiring is a compare-and-set on the number of requests in progress. The limit is updated under a lock once per
+ * completed request.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double smoothing;
+
+    private final int probeMultiplier;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private volatile int limit;
+
+    //A lock rather than a monitor, so that a virtual thread waiting for it does not pin its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    //Guarded by lock
+    private double estimatedLimit;
+
+    private long noLoadRttNanos;
+
+    private long probeCount;
+
+    private long probeInterval;
+
+    public AdaptiveConcurrencyLimiter(final String name, final int initialLimit, final int minLimit, final int maxLimit,
+                                      final double smoothing, final int probeMultiplier) {
+        if (minLimit < 1 || initialLimit < minLimit || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("The limits of " + name + " must satisfy 1 <= min <= initial <= max");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.probeMultiplier = probeMultiplier;
+        this.limit = initialLimit;
+        this.estimatedLimit = initialLimit;
+        this.probeInterval = nextProbeInterval(initialLimit);
+    }
+
+    /**
+     * This method admits a request if fewer requests than the limit are in progress.
+     *
+     * @return Listener The admitted request, which has to be completed through the listener, or null if the request
+     * is rejected
+     */
+    public Listener tryAcquire() {
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= limit) {
+                rejected.incrementAndGet();
+                return null;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return new Listener(System.nanoTime(), current + 1);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return long The number of requests rejected since the limiter was created
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    private void update(final long rttNanos, final int inFlightAtStart, final boolean dropped) {
+        lock.lock();
+        try {
+            //Every so often the baseline is taken afresh, so that it follows the database when it gets slower for good
+            if (++probeCount >= probeInterval) {
+                probeCount = 0;
+                probeInterval = nextProbeInterval(limit);
+                noLoadRttNanos = rttNanos;
+                return;
+            }
+            if (noLoadRttNanos == 0 || rttNanos < noLoadRttNanos) {
+                noLoadRttNanos = rttNanos;
+                return;
+            }
+
+            final double log10Limit = Math.max(1, Math.log10(estimatedLimit));
+            double newLimit;
+            if (dropped) {
+                newLimit = estimatedLimit - log10Limit;
+            } else if (inFlightAtStart * 2 < estimatedLimit) {
+                //The limit was not what held the requests back, so their latency says nothing about it
+                return;
+            } else {
+                final double queueSize = Math.ceil(estimatedLimit * (1 - (double) noLoadRttNanos / rttNanos));
+                if (queueSize <= log10Limit) {
+                    newLimit = estimatedLimit + 6 * log10Limit;
+                } else if (queueSize < 3 * log10Limit) {
+                    newLimit = estimatedLimit + log10Limit;
+                } else if (queueSize > 6 * log10Limit) {
+                    newLimit = estimatedLimit - log10Limit;
+                } else {
+                    return;
+                }
+            }
+            newLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+            estimatedLimit = (1 - smoothing) * estimatedLimit + smoothing * newLimit;
+            limit = (int) Math.max(minLimit, Math.round(estimatedLimit));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long nextProbeInterval(final int forLimit) {
+        //Jittered, so that the limiters of several instances do not probe together
+        return (long) ((probeMultiplier + ThreadLocalRandom.current().nextDouble()) * forLimit);
+    }
+
+    /**
+     * An admitted request. Exactly one of its methods has to be called once the request completes.
+     */
+    public class Listener {
+
+        private final long startNanos;
+
+        private final int inFlightAtStart;
+
+        Listener(final long startNanos, final int inFlightAtStart) {
+            this.startNanos = startNanos;
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * This method completes a request that was served, whatever its outcome for the client.
+         */
+        public void onSuccess() {
+            inFlight.decrementAndGet();
+            update(System.nanoTime() - startNanos, inFlightAtStart, false);
+        }
+
+        /**
+         * This method completes a request that failed because the service is overloaded, such as a timeout waiting
+         * for a database connection, which shrinks the limit.
+         */
+        public void onDropped() {
+            inFlight.decrementAndGet();
+            update(System.nanoTime() - startNanos, inFlightAtStart, true);
+        }
+
+        /**
+         * This method completes a request whose latency says nothing about the load, without adapting the limit.
+         */
+        public void onIgnore() {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.upgrad.quora.service.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the adaptive concurrency limits of the API, bound from the "quora.concurrency-limit" properties.
+ */
+@ConfigurationProperties(prefix = "quora.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    //The routes limited separately because they cost much more than the others, such as "POST /user/signin"
+    private List<String> expensiveRoutes = new ArrayList<>();
+
+    private Limit standard = new Limit(20, 4, 200);
+
+    private Limit expensive = new Limit(4, 1, 20);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public List<String> getExpensiveRoutes() {
+        return expensiveRoutes;
+    }
+
+    public void setExpensiveRoutes(List<String> expensiveRoutes) {
+        this.expensiveRoutes = expensiveRoutes;
+    }
+
+    public Limit getStandard() {
+        return standard;
+    }
+
+    public void setStandard(Limit standard) {
+        this.standard = standard;
+    }
+
+    public Limit getExpensive() {
+        return expensive;
+    }
+
+    public void setExpensive(Limit expensive) {
+        this.expensive = expensive;
+    }
+
+    /**
+     * The bounds of one adaptive limit.
+     */
+    public static class Limit {
+
+        private int initialLimit;
+
+        private int minLimit;
+
+        private int maxLimit;
+
+        //How much of a change of the limit is applied at once, between 0 and 1
+        private double smoothing = 1.0;
+
+        //The baseline latency is measured afresh every probe-multiplier times the limit requests
+        private int probeMultiplier = 30;
+
+        public Limit() {
+        }
+
+        Limit(final int initialLimit, final int minLimit, final int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+
+        public int getInitialLimit() {
+            return initialLimit;
+        }
+
+        public void setInitialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+        }
+
+        public int getMinLimit() {
+            return minLimit;
+        }
+
+        public void setMinLimit(int minLimit) {
+            this.minLimit = minLimit;
+        }
+
+        public int getMaxLimit() {
+            return maxLimit;
+        }
+
+        public void setMaxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+        }
+
+        public double getSmoothing() {
+            return smoothing;
+        }
+
+        public void setSmoothing(double smoothing) {
+            this.smoothing = smoothing;
+        }
+
+        public int getProbeMultiplier() {
+            return probeMultiplier;
+        }
+
+        public void setProbeMultiplier(int probeMultiplier) {
+            this.probeMultiplier = probeMultiplier;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.upgrad.quora.service.limiter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link ConcurrencyLimiters} unless "quora.concurrency-limit.enabled" is switched off.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "quora.concurrency-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class ConcurrencyLimiterConfiguration {
+
+    @Bean
+    public ConcurrencyLimiters concurrencyLimiters(final ConcurrencyLimitProperties concurrencyLimitProperties,
+                                                   final MeterRegistry meterRegistry) {
+        return new ConcurrencyLimiters(concurrencyLimitProperties, meterRegistry);
+    }
+}
@@ -0,0 +1,56 @@
+package com.upgrad.quora.service.limiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The adaptive concurrency limiters of the API: one for the expensive routes, such as signing in with its password
+ * hash or deleting a user with everything they posted, and one for the rest, so that a flood of expensive requests
+ * cannot starve the cheap reads. The limits, the requests in progress and the rejected requests are exported as the
+ * "quora.concurrency.limit", "quora.concurrency.in-flight" and "quora.concurrency.rejected" meters.
+ */
+public class ConcurrencyLimiters {
+
+    private final AdaptiveConcurrencyLimiter standard;
+
+    private final AdaptiveConcurrencyLimiter expensive;
+
+    private final Set<String> expensiveRoutes;
+
+    public ConcurrencyLimiters(final ConcurrencyLimitProperties properties, final MeterRegistry meterRegistry) {
+        this.standard = create("standard", properties.getStandard(), meterRegistry);
+        this.expensive = create("expensive", properties.getExpensive(), meterRegistry);
+        this.expensiveRoutes = new HashSet<>(properties.getExpensiveRoutes());
+    }
+
+    /**
+     * @param route The HTTP method and the path pattern of the route, such as "POST /user/signin"
+     * @return AdaptiveConcurrencyLimiter The limiter the requests to the route go through
+     */
+    public AdaptiveConcurrencyLimiter forRoute(final String route) {
+        return expensiveRoutes.contains(route) ? expensive : standard;
+    }
+
+    private static AdaptiveConcurrencyLimiter create(final String name, final ConcurrencyLimitProperties.Limit limit,
+                                                     final MeterRegistry meterRegistry) {
+        final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(name, limit.getInitialLimit(),
+                limit.getMinLimit(), limit.getMaxLimit(), limit.getSmoothing(), limit.getProbeMultiplier());
+        Gauge.builder("quora.concurrency.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .description("Number of requests the limiter admits at once")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        Gauge.builder("quora.concurrency.in-flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .description("Number of requests in progress")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        FunctionCounter.builder("quora.concurrency.rejected", limiter, AdaptiveConcurrencyLimiter::getRejectedCount)
+                .description("Number of requests rejected because the limit was reached")
+                .tag("limiter", name)
+                .register(meterRegistry);
+        return limiter;
+    }
+}
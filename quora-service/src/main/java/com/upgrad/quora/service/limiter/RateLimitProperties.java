@@ -0,0 +1,116 @@
+package com.upgrad.quora.service.limiter;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings of the per client rate limits of the API, bound from the "quora.rate-limit" properties.
+ */
+@ConfigurationProperties(prefix = "quora.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    //The limit of every route without one of its own
+    private Limit standard = new Limit(50, 20);
+
+    //The routes with a limit of their own, such as "POST /question/create"
+    private List<RouteLimit> routes = new ArrayList<>();
+
+    //The number of clients and routes kept track of at most, across all stripes
+    private int maxKeys = 100000;
+
+    private int stripes = 64;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Limit getStandard() {
+        return standard;
+    }
+
+    public void setStandard(Limit standard) {
+        this.standard = standard;
+    }
+
+    public List<RouteLimit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(List<RouteLimit> routes) {
+        this.routes = routes;
+    }
+
+    public int getMaxKeys() {
+        return maxKeys;
+    }
+
+    public void setMaxKeys(int maxKeys) {
+        this.maxKeys = maxKeys;
+    }
+
+    public int getStripes() {
+        return stripes;
+    }
+
+    public void setStripes(int stripes) {
+        this.stripes = stripes;
+    }
+
+    /**
+     * A token bucket: a client may send capacity requests at once, and one more for every token refilled.
+     */
+    public static class Limit {
+
+        private int capacity;
+
+        private double refillPerSecond;
+
+        public Limit() {
+        }
+
+        Limit(final int capacity, final double refillPerSecond) {
+            this.capacity = capacity;
+            this.refillPerSecond = refillPerSecond;
+        }
+
+        public int getCapacity() {
+            return capacity;
+        }
+
+        public void setCapacity(int capacity) {
+            this.capacity = capacity;
+        }
+
+        public double getRefillPerSecond() {
+            return refillPerSecond;
+        }
+
+        public void setRefillPerSecond(double refillPerSecond) {
+            this.refillPerSecond = refillPerSecond;
+        }
+    }
+
+    /**
+     * The limit of one route.
+     */
+    public static class RouteLimit extends Limit {
+
+        private String route;
+
+        public String getRoute() {
+            return route;
+        }
+
+        public void setRoute(String route) {
+            this.route = route;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.upgrad.quora.service.limiter;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link TokenBucketRateLimiter} unless "quora.rate-limit.enabled" is switched off. The rejected requests
+ * and the buckets kept are exported as the "quora.rate-limit.rejected" and "quora.rate-limit.keys" meters.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "quora.rate-limit", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(RateLimitProperties.class)
+public class RateLimiterConfiguration {
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter(final RateLimitProperties rateLimitProperties,
+                                                         final MeterRegistry meterRegistry) {
+        final TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(rateLimitProperties);
+        FunctionCounter.builder("quora.rate-limit.rejected", rateLimiter, TokenBucketRateLimiter::getRejectedCount)
+                .description("Number of requests rejected because their client exceeded the rate limit of the route")
+                .register(meterRegistry);
+        Gauge.builder("quora.rate-limit.keys", rateLimiter, TokenBucketRateLimiter::getKeyCount)
+                .description("Number of client and route buckets kept")
+                .register(meterRegistry);
+        return rateLimiter;
+    }
+}
@@ -0,0 +1,161 @@
+package com.upgrad.quora.service.limiter;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limits the rate of the requests of every client to every route with a token bucket per client and route. A bucket
+ * is kept as the time it will be full again, in the manner of the generic cell rate algorithm: a request takes a token
+ * by moving that time one refill interval ahead, and is rejected if that would put it more than the capacity of the
+ * bucket into the future. The refill is thereby computed lazily from the clock, and taking a token is a single
+ * compare-and-set, without a lock or a timer.
+ * <p>
+ * The buckets are spread over stripes, each holding at most its share of the maximum number of keys. A stripe that
+ * is full drops the buckets that have refilled completely, which are no different from a new bucket. Should that not
+ * free enough room, because that many clients are active at once, it drops buckets regardless until it is below the
+ * maximum again, which gives their clients a fresh bucket early rather than letting the memory grow.
+ */
+public class TokenBucketRateLimiter {
+
+    private final Bucket standard;
+
+    private final Map<String, Bucket> routes = new HashMap<>();
+
+    private final Stripe[] stripes;
+
+    private final int maxKeysPerStripe;
+
+    private final AtomicLong rejected = new AtomicLong();
+
+    private final LongSupplier nanoClock;
+
+    public TokenBucketRateLimiter(final RateLimitProperties properties) {
+        this(properties, System::nanoTime);
+    }
+
+    /**
+     * @param properties The limits and the number of keys kept
+     * @param nanoClock  The clock the buckets refill by, in nanoseconds as returned by {@link System#nanoTime()}
+     */
+    TokenBucketRateLimiter(final RateLimitProperties properties, final LongSupplier nanoClock) {
+        this.nanoClock = nanoClock;
+        this.standard = new Bucket(properties.getStandard());
+        for (RateLimitProperties.RouteLimit routeLimit : properties.getRoutes()) {
+            routes.put(routeLimit.getRoute(), new Bucket(routeLimit));
+        }
+        //A power of two, so that the stripe of a key is found with a mask
+        final int stripeCount = Integer.highestOneBit(Math.max(1, properties.getStripes() - 1)) << 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.maxKeysPerStripe = Math.max(1, properties.getMaxKeys() / stripeCount);
+    }
+
+    /**
+     * This method takes a token from the bucket of the given client for the given route.
+     *
+     * @param route  The HTTP method and the path pattern of the route, such as "POST /question/create"
+     * @param client The key identifying the client, such as its address or its hashed access token
+     * @return long 0 if the request is admitted, otherwise the time in nanoseconds until the bucket holds a token again
+     */
+    public long tryAcquire(final String route, final String client) {
+        final Bucket bucket = routes.getOrDefault(route, standard);
+        final String key = route + ' ' + client;
+        final long now = nanoClock.getAsLong();
+        final Stripe stripe = stripes[spread(key.hashCode()) & (stripes.length - 1)];
+        AtomicLong fullAt = stripe.buckets.get(key);
+        if (fullAt == null) {
+            if (stripe.buckets.size() >= maxKeysPerStripe) {
+                stripe.evict(now, maxKeysPerStripe);
+            }
+            fullAt = stripe.buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        while (true) {
+            final long current = fullAt.get();
+            //A bucket that has been full for a while holds no more than its capacity
+            final long next = (current - now < 0 ? now : current) + bucket.refillIntervalNanos;
+            final long wait = next - now - bucket.capacityNanos;
+            if (wait > 0) {
+                rejected.incrementAndGet();
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * @return long The number of requests rejected since the start
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return int The number of buckets kept
+     */
+    public int getKeyCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            count += stripe.buckets.size();
+        }
+        return count;
+    }
+
+    private static int spread(final int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The size of the buckets of one route, in time.
+     */
+    private static class Bucket {
+
+        private final long refillIntervalNanos;
+
+        private final long capacityNanos;
+
+        Bucket(final RateLimitProperties.Limit limit) {
+            if (limit.getCapacity() < 1 || limit.getRefillPerSecond() <= 0) {
+                throw new IllegalArgumentException("A rate limit needs a capacity of at least 1 and a positive refill rate");
+            }
+            this.refillIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRefillPerSecond());
+            this.capacityNanos = refillIntervalNanos * limit.getCapacity();
+        }
+    }
+
+    /**
+     * The buckets of a share of the keys, by key, each kept as the time it will be full again.
+     */
+    private static class Stripe {
+
+        private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+
+        //Set while a thread evicts, the others go on without waiting for it
+        private final AtomicBoolean evicting = new AtomicBoolean();
+
+        void evict(final long now, final int maxKeys) {
+            if (!evicting.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                buckets.values().removeIf(fullAt -> fullAt.get() - now <= 0);
+                final Iterator<AtomicLong> iterator = buckets.values().iterator();
+                while (buckets.size() >= maxKeys && iterator.hasNext()) {
+                    iterator.next();
+                    iterator.remove();
+                }
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+}
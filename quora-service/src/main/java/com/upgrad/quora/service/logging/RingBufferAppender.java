@@ -0,0 +1,292 @@
+package com.upgrad.quora.service.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.UnsynchronizedAppenderBase;
+import ch.qos.logback.core.spi.AppenderAttachable;
+import ch.qos.logback.core.spi.AppenderAttachableImpl;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An appender that hands the events to its attached appenders on a background thread, through a bounded lock-free
+ * ring buffer, so that the threads that log never wait for disk I/O or for each other. Unlike logback's AsyncAppender,
+ * which puts a lock-based queue in front, appending is a compare-and-set on the ring. When the ring is full the event
+ * is dropped rather than blocking the request, and the number of dropped events is written to the attached appenders
+ * once there is room again.
+ * <p>
+ * When the ring is empty the worker yields for a while, to catch up with a burst, and then parks until a producer
+ * unparks it. Only the first producer to find the worker parked pays for the unpark.
+ * <p>
+ * Configured like the AsyncAppender:
+ * <pre>
+ * &lt;appender name="ASYNC_ACCESS" class="com.upgrad.quora.service.logging.RingBufferAppender"&gt;
+ *     &lt;capacity&gt;8192&lt;/capacity&gt;
+ *     &lt;appender-ref ref="ACCESS_FILE"/&gt;
+ * &lt;/appender&gt;
+ * </pre>
+ */
+public class RingBufferAppender extends UnsynchronizedAppenderBase<ILoggingEvent> implements AppenderAttachable<ILoggingEvent> {
+
+    private static final int DEFAULT_CAPACITY = 8192;
+
+    //How often the worker yields when the ring is empty, to catch up with a burst, before it parks
+    private static final int IDLE_YIELDS = 100;
+
+    //How long the worker parks when the ring stays empty, unless a producer unparks it first; the bound only matters
+    //if a wakeup got lost
+    private static final long IDLE_PARK_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final AppenderAttachableImpl<ILoggingEvent> appenders = new AppenderAttachableImpl<>();
+
+    private int capacity = DEFAULT_CAPACITY;
+
+    private int maxFlushTimeMs = 1000;
+
+    private boolean includeCallerData;
+
+    private int mask;
+
+    //The event of every slot, and the sequence that tells whether it is free for the producer at that position or
+    //holds an event for the consumer
+    private AtomicReferenceArray<ILoggingEvent> events;
+
+    private AtomicLongArray sequences;
+
+    //The next position a producer claims
+    private final AtomicLong tail = new AtomicLong();
+
+    //The next position the worker reads, only used by the worker
+    private long head;
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private volatile boolean running;
+
+    //Set by the worker before it parks, and cleared by the producer that unparks it
+    private final AtomicBoolean parked = new AtomicBoolean();
+
+    private volatile Thread worker;
+
+    /**
+     * @param capacity The number of events the ring holds, rounded up to a power of two
+     */
+    public void setCapacity(final int capacity) {
+        this.capacity = capacity;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @param maxFlushTimeMs How long stopping waits for the events still in the ring to be written
+     */
+    public void setMaxFlushTimeMs(final int maxFlushTimeMs) {
+        this.maxFlushTimeMs = maxFlushTimeMs;
+    }
+
+    public int getMaxFlushTimeMs() {
+        return maxFlushTimeMs;
+    }
+
+    public void setIncludeCallerData(final boolean includeCallerData) {
+        this.includeCallerData = includeCallerData;
+    }
+
+    public boolean isIncludeCallerData() {
+        return includeCallerData;
+    }
+
+    /**
+     * @return long The number of events dropped because the ring was full, since the appender was started
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    @Override
+    public void start() {
+        if (isStarted()) {
+            return;
+        }
+        if (capacity < 1) {
+            addError("Invalid capacity " + capacity + " of appender " + name);
+            return;
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        mask = size - 1;
+        events = new AtomicReferenceArray<>(size);
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        tail.set(0);
+        head = 0;
+        parked.set(false);
+        running = true;
+        worker = new Thread(this::drain, "logback-ring-" + name);
+        worker.setDaemon(true);
+        worker.start();
+        super.start();
+    }
+
+    @Override
+    public void stop() {
+        if (!isStarted()) {
+            return;
+        }
+        super.stop();
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(maxFlushTimeMs);
+            if (worker.isAlive()) {
+                addWarn("Gave up writing the remaining events of appender " + name + " after " + maxFlushTimeMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    protected void append(final ILoggingEvent event) {
+        //The worker must not see values that change once the logging thread moves on
+        event.prepareForDeferredProcessing();
+        if (includeCallerData) {
+            event.getCallerData();
+        }
+        if (!offer(event)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private boolean offer(final ILoggingEvent event) {
+        while (true) {
+            final long position = tail.get();
+            final int slot = (int) position & mask;
+            final long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events.lazySet(slot, event);
+                    //A volatile write, so that either the worker sees the event or this thread sees it parked
+                    sequences.set(slot, position + 1);
+                    if (parked.get() && parked.compareAndSet(true, false)) {
+                        LockSupport.unpark(worker);
+                    }
+                    return true;
+                }
+            } else if (difference < 0) {
+                //The worker has not taken the event a whole ring ago yet
+                return false;
+            }
+            //Another producer claimed the position, try the next one
+        }
+    }
+
+    private boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    private ILoggingEvent poll() {
+        if (isEmpty()) {
+            return null;
+        }
+        final int slot = (int) head & mask;
+        final ILoggingEvent event = events.get(slot);
+        events.lazySet(slot, null);
+        sequences.lazySet(slot, head + mask + 1);
+        head++;
+        return event;
+    }
+
+    private void drain() {
+        long reportedDropped = 0;
+        int idle = 0;
+        while (true) {
+            final ILoggingEvent event = poll();
+            if (event != null) {
+                appenders.appendLoopOnAppenders(event);
+                idle = 0;
+                continue;
+            }
+            final long droppedNow = dropped.get();
+            if (droppedNow != reportedDropped) {
+                appenders.appendLoopOnAppenders(droppedEvent(droppedNow - reportedDropped));
+                reportedDropped = droppedNow;
+            }
+            if (!running) {
+                return;
+            }
+            if (idle++ < IDLE_YIELDS) {
+                Thread.yield();
+                continue;
+            }
+            parked.set(true);
+            //An event offered before the flag was set did not unpark the worker, so the ring is checked once more
+            if (isEmpty() && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            parked.set(false);
+        }
+    }
+
+    private ILoggingEvent droppedEvent(final long count) {
+        final LoggingEvent event = new LoggingEvent();
+        event.setLoggerName(name);
+        event.setLevel(Level.WARN);
+        event.setThreadName(Thread.currentThread().getName());
+        event.setLoggerContextRemoteView(((LoggerContext) getContext()).getLoggerContextRemoteView());
+        event.setTimeStamp(System.currentTimeMillis());
+        event.setMessage("Dropped " + count + " events because the ring buffer of appender " + name + " was full");
+        return event;
+    }
+
+    @Override
+    public void addAppender(final Appender<ILoggingEvent> newAppender) {
+        appenders.addAppender(newAppender);
+    }
+
+    @Override
+    public Iterator<Appender<ILoggingEvent>> iteratorForAppenders() {
+        return appenders.iteratorForAppenders();
+    }
+
+    @Override
+    public Appender<ILoggingEvent> getAppender(final String name) {
+        return appenders.getAppender(name);
+    }
+
+    @Override
+    public boolean isAttached(final Appender<ILoggingEvent> appender) {
+        return appenders.isAttached(appender);
+    }
+
+    @Override
+    public void detachAndStopAllAppenders() {
+        appenders.detachAndStopAllAppenders();
+    }
+
+    @Override
+    public boolean detachAppender(final Appender<ILoggingEvent> appender) {
+        return appenders.detachAppender(appender);
+    }
+
+    @Override
+    public boolean detachAppender(final String name) {
+        return appenders.detachAppender(name);
+    }
+}
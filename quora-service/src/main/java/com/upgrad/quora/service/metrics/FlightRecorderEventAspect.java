@@ -0,0 +1,40 @@
+package com.upgrad.quora.service.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records every call to a public DAO method as a JFR event, with the DAO, the method and the outcome, so that a
+ * recording shows which queries a request spent its time in. While no recording takes the events this costs a
+ * volatile read per call.
+ */
+@Aspect
+@Component
+public class FlightRecorderEventAspect {
+
+    private static final String SUCCESS = "success";
+
+    /**
+     * This method records the intercepted call as a DAO query event.
+     *
+     * @param joinPoint The intercepted DAO call
+     * @return Object The result of the call
+     * @throws Throwable Whatever the call throws, unchanged
+     */
+    @Around("execution(public * com.upgrad.quora.service.dao..*(..))")
+    public Object recordDaoQuery(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final FlightRecorderEvents.Phase event = FlightRecorderEvents.daoQuery(
+                joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint.getSignature().getName());
+        String outcome = SUCCESS;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = ServiceMethodTimingAspect.outcome(e);
+            throw e;
+        } finally {
+            event.end(outcome);
+        }
+    }
+}
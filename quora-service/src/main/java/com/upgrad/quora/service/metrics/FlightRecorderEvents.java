@@ -0,0 +1,93 @@
+package com.upgrad.quora.service.metrics;
+
+/**
+ * Emits the application's Java Flight Recorder events: one per request at the controller boundary, one per access
+ * token resolution, one per PBKDF2 password hash and one per DAO call. The events nest on the thread that handled the
+ * request, so a slow request in a recording can be broken down into the phases it spent its time in.
+ * <p>
+ * The application is built for Java 8, where the jdk.jfr API is not always present, so the JFR classes are only
+ * touched when the running JVM provides them. While no recording is running, or the event is disabled in the
+ * recording settings, a phase is a shared no-op and costs a volatile read.
+ */
+public final class FlightRecorderEvents {
+
+    private static final boolean AVAILABLE = detectFlightRecorder();
+
+    private FlightRecorderEvents() {
+    }
+
+    /**
+     * A phase of the work, such as a request or a password hash, that is recorded as one event when it ends.
+     */
+    public interface Phase {
+
+        /**
+         * This method ends the phase and commits its event.
+         *
+         * @param outcome "success", the code of the exception the phase failed with, or the HTTP status of a request
+         */
+        void end(String outcome);
+    }
+
+    //Shared by every phase that is not recorded
+    static final Phase NONE = outcome -> {
+    };
+
+    /**
+     * @return boolean Whether the running JVM supports flight recordings
+     */
+    public static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    private static boolean detectFlightRecorder() {
+        try {
+            final Class<?> flightRecorder = Class.forName("jdk.jfr.FlightRecorder");
+            return (Boolean) flightRecorder.getMethod("isAvailable").invoke(null);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * This method begins the event of a request to a controller.
+     *
+     * @param method The HTTP method of the request
+     * @param path   The path of the request, without the query string
+     * @return Phase The request, to be ended with the HTTP status of the response
+     */
+    public static Phase request(final String method, final String path) {
+        return AVAILABLE ? JfrEvents.request(method, path) : NONE;
+    }
+
+    /**
+     * This method begins the event of resolving an access token to the signed in user.
+     *
+     * @return Phase The token resolution, to be ended with its outcome
+     */
+    public static Phase authentication() {
+        return AVAILABLE ? JfrEvents.authentication() : NONE;
+    }
+
+    /**
+     * This method begins the event of hashing a password.
+     *
+     * @param algorithm  The key derivation algorithm
+     * @param iterations The number of iterations of the algorithm
+     * @return Phase The password hash, to be ended with its outcome
+     */
+    public static Phase passwordHash(final String algorithm, final int iterations) {
+        return AVAILABLE ? JfrEvents.passwordHash(algorithm, iterations) : NONE;
+    }
+
+    /**
+     * This method begins the event of a DAO call.
+     *
+     * @param dao    The simple name of the DAO
+     * @param method The name of the DAO method
+     * @return Phase The DAO call, to be ended with its outcome
+     */
+    public static Phase daoQuery(final String dao, final String method) {
+        return AVAILABLE ? JfrEvents.daoQuery(dao, method) : NONE;
+    }
+}
@@ -0,0 +1,54 @@
+package com.upgrad.quora.service.metrics;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The state of the flight recording managed by the {@link FlightRecordings}, at the time it was taken.
+ */
+public class FlightRecording {
+
+    private final String name;
+
+    private final String settings;
+
+    private final boolean running;
+
+    private final ZonedDateTime startTime;
+
+    private final ZonedDateTime stopTime;
+
+    public FlightRecording(final String name, final String settings, final boolean running,
+                           final ZonedDateTime startTime, final ZonedDateTime stopTime) {
+        this.name = name;
+        this.settings = settings;
+        this.running = running;
+        this.startTime = startTime;
+        this.stopTime = stopTime;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return String The name of the JFR settings the recording was started with, such as "default" or "profile"
+     */
+    public String getSettings() {
+        return settings;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public ZonedDateTime getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return ZonedDateTime The time the recording was stopped, null while it is running
+     */
+    public ZonedDateTime getStopTime() {
+        return stopTime;
+    }
+}
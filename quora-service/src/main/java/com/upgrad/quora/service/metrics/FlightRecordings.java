@@ -0,0 +1,194 @@
+package com.upgrad.quora.service.metrics;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import com.upgrad.quora.service.exception.FlightRecordingException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Starts, stops and dumps the one flight recording of the application. The recording keeps the events of the last
+ * "quora.flight-recorder.max-age-minutes" up to "quora.flight-recorder.max-size-mb", so with the "default" settings it
+ * can be left running as an always-on profile and dumped once a slow request has been noticed. The recording can also
+ * be started with the application through "quora.flight-recorder.start-on-startup".
+ * <p>
+ * A stopped recording is kept, so it can still be dumped, until the next one is started.
+ */
+@Component
+public class FlightRecordings {
+
+    private static final String RECORDING_NAME = "quora";
+
+    private final String defaultSettings;
+
+    private final Duration maxAge;
+
+    private final long maxSizeBytes;
+
+    private final boolean startOnStartup;
+
+    //A lock rather than a monitor, so that a dump writing its file does not pin a virtual thread to its carrier
+    private final ReentrantLock lock = new ReentrantLock();
+
+    //Guarded by lock
+    private JfrRecording recording;
+
+    public FlightRecordings(@Value("${quora.flight-recorder.settings:default}") final String defaultSettings,
+                            @Value("${quora.flight-recorder.max-age-minutes:30}") final long maxAgeMinutes,
+                            @Value("${quora.flight-recorder.max-size-mb:64}") final long maxSizeMegabytes,
+                            @Value("${quora.flight-recorder.start-on-startup:false}") final boolean startOnStartup) {
+        this.defaultSettings = defaultSettings;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.maxSizeBytes = maxSizeMegabytes * 1024 * 1024;
+        this.startOnStartup = startOnStartup;
+    }
+
+    @PostConstruct
+    public void startOnStartup() throws FlightRecordingException {
+        if (startOnStartup && isAvailable()) {
+            start(null);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        lock.lock();
+        try {
+            if (recording != null) {
+                recording.close();
+                recording = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return boolean Whether the running JVM supports flight recordings
+     */
+    public boolean isAvailable() {
+        return FlightRecorderEvents.isAvailable();
+    }
+
+    /**
+     * This method starts a new recording and discards the last one, if it was stopped.
+     *
+     * @param settings The name of the JFR settings to record with, such as "default" or "profile", or null for the
+     *                 configured ones
+     * @return FlightRecording The recording that was started
+     * @throws FlightRecordingException This exception is thrown if the JVM does not support flight recordings, a
+     *                                  recording is already running or there are no settings of the given name
+     */
+    public FlightRecording start(final String settings) throws FlightRecordingException {
+        lock.lock();
+        try {
+            checkAvailable();
+            if (recording != null && recording.isRunning()) {
+                throw new FlightRecordingException("JFR-002", "A flight recording is already running");
+            }
+
+            final JfrRecording started;
+            try {
+                started = JfrRecording.start(RECORDING_NAME, settings == null ? defaultSettings : settings, maxAge, maxSizeBytes);
+            } catch (IOException | ParseException e) {
+                throw new FlightRecordingException("JFR-004", "There are no flight recording settings with entered name");
+            }
+            close();
+            recording = started;
+            return getRecording();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This method stops the running recording. Its events are kept until the next recording is started.
+     *
+     * @return FlightRecording The recording that was stopped
+     * @throws FlightRecordingException This exception is thrown if the JVM does not support flight recordings or no
+     *                                  recording is running
+     */
+    public FlightRecording stop() throws FlightRecordingException {
+        lock.lock();
+        try {
+            checkAvailable();
+            if (recording == null || !recording.isRunning()) {
+                throw new FlightRecordingException("JFR-003", "No flight recording is running");
+            }
+            recording.stop();
+            return getRecording();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * This method writes the events of the running or the last stopped recording to a temporary file, which the
+     * caller has to delete.
+     *
+     * @return Path The temporary file in the JFR format
+     * @throws FlightRecordingException This exception is thrown if the JVM does not support flight recordings or no
+     *                                  recording has been started
+     */
+    public Path dump() throws FlightRecordingException {
+        lock.lock();
+        try {
+            checkAvailable();
+            if (recording == null) {
+                throw new FlightRecordingException("JFR-003", "No flight recording has been started");
+            }
+            try {
+                final Path file = Files.createTempFile(RECORDING_NAME + "-", ".jfr");
+                try {
+                    recording.dump(file);
+                } catch (IOException | RuntimeException e) {
+                    Files.deleteIfExists(file);
+                    throw e;
+                }
+                return file;
+            } catch (IOException e) {
+                throw new UnexpectedException(GenericErrorCode.GEN_001, e);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return FlightRecording The running or the last stopped recording, or null if none has been started
+     */
+    public FlightRecording getRecording() {
+        lock.lock();
+        try {
+            if (recording == null) {
+                return null;
+            }
+            return new FlightRecording(recording.getName(), recording.getSettings(), recording.isRunning(),
+                    toZonedDateTime(recording.getStartTime()), toZonedDateTime(recording.getStopTime()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void checkAvailable() throws FlightRecordingException {
+        if (!isAvailable()) {
+            throw new FlightRecordingException("JFR-001", "Flight recording is not supported by the JVM");
+        }
+    }
+
+    private static ZonedDateTime toZonedDateTime(final Instant instant) {
+        return instant == null ? null : ZonedDateTime.ofInstant(instant, ZoneId.systemDefault());
+    }
+}
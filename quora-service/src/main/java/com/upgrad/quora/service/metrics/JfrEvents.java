@@ -0,0 +1,157 @@
+package com.upgrad.quora.service.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * The JFR event types behind {@link FlightRecorderEvents}. Together with {@link JfrRecording} it is the only code
+ * that refers to the jdk.jfr API, and it is only loaded on JVMs that provide it.
+ */
+final class JfrEvents {
+
+    private static final EventType REQUEST = EventType.getEventType(RequestEvent.class);
+
+    private static final EventType AUTHENTICATION = EventType.getEventType(AuthenticationEvent.class);
+
+    private static final EventType PASSWORD_HASH = EventType.getEventType(PasswordHashEvent.class);
+
+    private static final EventType DAO_QUERY = EventType.getEventType(DaoQueryEvent.class);
+
+    private JfrEvents() {
+    }
+
+    static FlightRecorderEvents.Phase request(final String method, final String path) {
+        if (!REQUEST.isEnabled()) {
+            return FlightRecorderEvents.NONE;
+        }
+        final RequestEvent event = new RequestEvent();
+        event.method = method;
+        event.path = path;
+        event.begin();
+        return event;
+    }
+
+    static FlightRecorderEvents.Phase authentication() {
+        if (!AUTHENTICATION.isEnabled()) {
+            return FlightRecorderEvents.NONE;
+        }
+        final AuthenticationEvent event = new AuthenticationEvent();
+        event.begin();
+        return event;
+    }
+
+    static FlightRecorderEvents.Phase passwordHash(final String algorithm, final int iterations) {
+        if (!PASSWORD_HASH.isEnabled()) {
+            return FlightRecorderEvents.NONE;
+        }
+        final PasswordHashEvent event = new PasswordHashEvent();
+        event.algorithm = algorithm;
+        event.iterations = iterations;
+        event.begin();
+        return event;
+    }
+
+    static FlightRecorderEvents.Phase daoQuery(final String dao, final String method) {
+        if (!DAO_QUERY.isEnabled()) {
+            return FlightRecorderEvents.NONE;
+        }
+        final DaoQueryEvent event = new DaoQueryEvent();
+        event.dao = dao;
+        event.method = method;
+        event.begin();
+        return event;
+    }
+
+    //The thread and the start and duration of the events tie them to the request they belong to, stack traces would
+    //only add overhead
+    @Name("com.upgrad.quora.Request")
+    @Label("Request")
+    @Description("A request handled by a controller")
+    @Category({"Quora", "Request"})
+    @StackTrace(false)
+    static final class RequestEvent extends Event implements FlightRecorderEvents.Phase {
+
+        @Label("Method")
+        String method;
+
+        @Label("Path")
+        String path;
+
+        @Label("Status")
+        String status;
+
+        @Override
+        public void end(final String outcome) {
+            status = outcome;
+            commit();
+        }
+    }
+
+    @Name("com.upgrad.quora.Authentication")
+    @Label("Authentication")
+    @Description("The resolution of an access token to the signed in user")
+    @Category({"Quora", "Authentication"})
+    @StackTrace(false)
+    static final class AuthenticationEvent extends Event implements FlightRecorderEvents.Phase {
+
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public void end(final String outcome) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    @Name("com.upgrad.quora.PasswordHash")
+    @Label("Password Hash")
+    @Description("The key derivation of a password on signup or signin")
+    @Category({"Quora", "Authentication"})
+    @StackTrace(false)
+    static final class PasswordHashEvent extends Event implements FlightRecorderEvents.Phase {
+
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Iterations")
+        int iterations;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public void end(final String outcome) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+
+    @Name("com.upgrad.quora.DaoQuery")
+    @Label("DAO Query")
+    @Description("A call to a DAO method and the statements it executed")
+    @Category({"Quora", "Persistence"})
+    @StackTrace(false)
+    static final class DaoQueryEvent extends Event implements FlightRecorderEvents.Phase {
+
+        @Label("DAO")
+        String dao;
+
+        @Label("Method")
+        String method;
+
+        @Label("Outcome")
+        String outcome;
+
+        @Override
+        public void end(final String outcome) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
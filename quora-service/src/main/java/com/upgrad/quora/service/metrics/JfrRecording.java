@@ -0,0 +1,88 @@
+package com.upgrad.quora.service.metrics;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * A flight recording started by the {@link FlightRecordings}. Together with {@link JfrEvents} it is the only code that
+ * refers to the jdk.jfr API, and it is only loaded on JVMs that provide it.
+ */
+final class JfrRecording {
+
+    private final String settings;
+
+    private final Recording recording;
+
+    private JfrRecording(final String settings, final Recording recording) {
+        this.settings = settings;
+        this.recording = recording;
+    }
+
+    /**
+     * This method starts a recording that keeps the events of the given age and size at most, so it can run for as
+     * long as the application does.
+     *
+     * @param name         The name of the recording
+     * @param settings     The name of the JFR settings to record with, such as "default" or "profile"
+     * @param maxAge       The age after which events are dropped
+     * @param maxSizeBytes The size the oldest events are dropped at
+     * @return JfrRecording The running recording
+     * @throws IOException    This exception is thrown if there are no settings of the given name
+     * @throws ParseException This exception is thrown if the settings of the given name can not be parsed
+     */
+    static JfrRecording start(final String name, final String settings, final Duration maxAge, final long maxSizeBytes)
+            throws IOException, ParseException {
+        final Recording recording = new Recording(Configuration.getConfiguration(settings));
+        recording.setName(name);
+        recording.setMaxAge(maxAge);
+        recording.setMaxSize(maxSizeBytes);
+        recording.setToDisk(true);
+        recording.start();
+        return new JfrRecording(settings, recording);
+    }
+
+    String getName() {
+        return recording.getName();
+    }
+
+    String getSettings() {
+        return settings;
+    }
+
+    boolean isRunning() {
+        return recording.getState() == RecordingState.RUNNING;
+    }
+
+    Instant getStartTime() {
+        return recording.getStartTime();
+    }
+
+    Instant getStopTime() {
+        return recording.getStopTime();
+    }
+
+    void stop() {
+        recording.stop();
+    }
+
+    /**
+     * This method writes the events recorded so far to a file, whether the recording is still running or not.
+     *
+     * @param path The file to write
+     * @throws IOException This exception is thrown if the file can not be written
+     */
+    void dump(final Path path) throws IOException {
+        recording.dump(path);
+    }
+
+    void close() {
+        recording.close();
+    }
+}
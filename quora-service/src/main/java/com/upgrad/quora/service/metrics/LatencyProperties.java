@@ -0,0 +1,112 @@
+package com.upgrad.quora.service.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings of the per-route latency tracking, bound from the "quora.latency" properties.
+ */
+@ConfigurationProperties(prefix = "quora.latency")
+public class LatencyProperties {
+
+    private boolean enabled = true;
+
+    private long highestTrackableMs = 60000;
+
+    private int significantDigits = 2;
+
+    private Slo slo = new Slo();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getHighestTrackableMs() {
+        return highestTrackableMs;
+    }
+
+    public void setHighestTrackableMs(long highestTrackableMs) {
+        this.highestTrackableMs = highestTrackableMs;
+    }
+
+    public int getSignificantDigits() {
+        return significantDigits;
+    }
+
+    public void setSignificantDigits(int significantDigits) {
+        this.significantDigits = significantDigits;
+    }
+
+    public Slo getSlo() {
+        return slo;
+    }
+
+    public void setSlo(Slo slo) {
+        this.slo = slo;
+    }
+
+    /**
+     * The latency objectives of the routes, which are met while the p99 latency over the window stays below the
+     * threshold of the route.
+     */
+    public static class Slo {
+
+        private int windowMinutes = 5;
+
+        private long minimumRequests = 100;
+
+        private long defaultP99Ms = 1000;
+
+        //The thresholds of single routes by route, such as "POST /user/signup"
+        private Map<String, Long> p99Ms = new HashMap<>();
+
+        //A slow dependency breaches the objective on every instance at once, so it would take the whole fleet out
+        private boolean readiness = false;
+
+        public int getWindowMinutes() {
+            return windowMinutes;
+        }
+
+        public void setWindowMinutes(int windowMinutes) {
+            this.windowMinutes = windowMinutes;
+        }
+
+        public long getMinimumRequests() {
+            return minimumRequests;
+        }
+
+        public void setMinimumRequests(long minimumRequests) {
+            this.minimumRequests = minimumRequests;
+        }
+
+        public long getDefaultP99Ms() {
+            return defaultP99Ms;
+        }
+
+        public void setDefaultP99Ms(long defaultP99Ms) {
+            this.defaultP99Ms = defaultP99Ms;
+        }
+
+        public Map<String, Long> getP99Ms() {
+            return p99Ms;
+        }
+
+        public void setP99Ms(Map<String, Long> p99Ms) {
+            this.p99Ms = p99Ms;
+        }
+
+        public boolean isReadiness() {
+            return readiness;
+        }
+
+        public void setReadiness(boolean readiness) {
+            this.readiness = readiness;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.upgrad.quora.service.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Tracks the latency of every route in HdrHistogram recorders and reports the p50, p99, p999 and maximum over sliding
+ * windows of 1, 5 and 15 minutes, so that tail latency regressions that averages hide are noticed. A route whose p99
+ * over the SLO window exceeds its threshold breaches its objective.
+ * <p>
+ * Recording is wait-free. Once a minute the recorders are flipped into a ring of one histogram per minute, and a
+ * window of N minutes adds up the running minute and the N minutes before it, so it covers at least the last N
+ * minutes. A route that saw no requests in a minute keeps no histogram for it.
+ */
+public class LatencyTracker implements AutoCloseable {
+
+    public static final int[] WINDOW_MINUTES = {1, 5, 15};
+
+    private static final int SLOTS = WINDOW_MINUTES[WINDOW_MINUTES.length - 1];
+
+    private static final double MICROS_PER_MILLI = TimeUnit.MILLISECONDS.toMicros(1);
+
+    private final LatencyProperties properties;
+
+    private final long highestTrackableMicros;
+
+    private final ConcurrentHashMap<String, RouteLatency> routes = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService rotation;
+
+    public LatencyTracker(final LatencyProperties properties) {
+        this.properties = properties;
+        this.highestTrackableMicros = TimeUnit.MILLISECONDS.toMicros(properties.getHighestTrackableMs());
+        if (Arrays.binarySearch(WINDOW_MINUTES, properties.getSlo().getWindowMinutes()) < 0) {
+            throw new IllegalArgumentException("quora.latency.slo.window-minutes must be one of "
+                    + Arrays.toString(WINDOW_MINUTES));
+        }
+        this.rotation = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "latency-window-rotation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.rotation.scheduleAtFixedRate(this::rotate, 1, 1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * This method records the latency of one request.
+     *
+     * @param route        The HTTP method and the path pattern of the route, such as "GET /question/all/{userId}"
+     * @param elapsedNanos The time the request took
+     */
+    public void record(final String route, final long elapsedNanos) {
+        RouteLatency latency = routes.get(route);
+        if (latency == null) {
+            latency = routes.computeIfAbsent(route, RouteLatency::new);
+        }
+        latency.record(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), 1), highestTrackableMicros));
+    }
+
+    /**
+     * @return List<RouteLatencyStatistics> The latency of every route that has been requested, by route
+     */
+    public List<RouteLatencyStatistics> getStatistics() {
+        final List<RouteLatencyStatistics> statistics = new ArrayList<>();
+        for (RouteLatency latency : routes.values()) {
+            statistics.add(latency.getStatistics());
+        }
+        statistics.sort((first, second) -> first.getRoute().compareTo(second.getRoute()));
+        return statistics;
+    }
+
+    /**
+     * @return List<RouteLatencyStatistics> The routes that breach their latency objective
+     */
+    public List<RouteLatencyStatistics> getSloBreaches() {
+        final List<RouteLatencyStatistics> breaches = new ArrayList<>();
+        for (RouteLatencyStatistics statistics : getStatistics()) {
+            if (statistics.isSloBreached()) {
+                breaches.add(statistics);
+            }
+        }
+        return breaches;
+    }
+
+    /**
+     * @param route The HTTP method and the path pattern of the route
+     * @return long The p99 latency threshold of the route in milliseconds
+     */
+    public long getSloP99Millis(final String route) {
+        final Map<String, Long> thresholds = properties.getSlo().getP99Ms();
+        final Long threshold = thresholds.get(route);
+        return threshold == null ? properties.getSlo().getDefaultP99Ms() : threshold;
+    }
+
+    public int getSloWindowMinutes() {
+        return properties.getSlo().getWindowMinutes();
+    }
+
+    public boolean isSloReadiness() {
+        return properties.getSlo().isReadiness();
+    }
+
+    @Override
+    public void close() {
+        rotation.shutdownNow();
+    }
+
+    private void rotate() {
+        for (RouteLatency latency : routes.values()) {
+            latency.rotate();
+        }
+    }
+
+    /**
+     * The recorder and the histograms of the last minutes of one route.
+     */
+    private class RouteLatency {
+
+        private final String route;
+
+        private final Recorder recorder;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        //Guarded by lock: the running minute, and the ring of the minutes before it with null for the idle ones
+        private Histogram current;
+
+        private final Histogram[] minutes = new Histogram[SLOTS];
+
+        private int newest;
+
+        private Histogram interval;
+
+        RouteLatency(final String route) {
+            this.route = route;
+            this.recorder = new Recorder(highestTrackableMicros, properties.getSignificantDigits());
+            this.current = newHistogram();
+        }
+
+        void record(final long micros) {
+            recorder.recordValue(micros);
+        }
+
+        void rotate() {
+            lock.lock();
+            try {
+                collect();
+                newest = (newest + 1) % SLOTS;
+                final Histogram oldest = minutes[newest];
+                minutes[newest] = current.getTotalCount() > 0 ? current : null;
+                if (oldest != null) {
+                    oldest.reset();
+                    current = oldest;
+                } else if (minutes[newest] != null) {
+                    current = newHistogram();
+                } else {
+                    //The running minute was idle and can be reused as it is
+                    current.reset();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        RouteLatencyStatistics getStatistics() {
+            lock.lock();
+            try {
+                collect();
+                final long sloP99Millis = getSloP99Millis(route);
+                final Histogram window = current.copy();
+                final List<LatencyWindow> windows = new ArrayList<>();
+                boolean sloBreached = false;
+                int added = 0;
+                for (int windowMinutes : WINDOW_MINUTES) {
+                    for (; added < windowMinutes; added++) {
+                        final Histogram minute = minutes[(newest - added + SLOTS) % SLOTS];
+                        if (minute != null) {
+                            window.add(minute);
+                        }
+                    }
+                    final LatencyWindow latencyWindow = new LatencyWindow(windowMinutes, window.getTotalCount(),
+                            millis(window.getValueAtPercentile(50)), millis(window.getValueAtPercentile(99)),
+                            millis(window.getValueAtPercentile(99.9)), millis(window.getMaxValue()));
+                    windows.add(latencyWindow);
+                    if (windowMinutes == getSloWindowMinutes()) {
+                        sloBreached = latencyWindow.getCount() >= properties.getSlo().getMinimumRequests()
+                                && latencyWindow.getP99Millis() > sloP99Millis;
+                    }
+                }
+                return new RouteLatencyStatistics(route, sloP99Millis, sloBreached, Collections.unmodifiableList(windows));
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void collect() {
+            interval = recorder.getIntervalHistogram(interval);
+            current.add(interval);
+        }
+
+        private Histogram newHistogram() {
+            return new Histogram(highestTrackableMicros, properties.getSignificantDigits());
+        }
+
+        private double millis(final long micros) {
+            return micros / MICROS_PER_MILLI;
+        }
+    }
+}
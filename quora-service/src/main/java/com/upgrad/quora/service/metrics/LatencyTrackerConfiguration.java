@@ -0,0 +1,20 @@
+package com.upgrad.quora.service.metrics;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Creates the {@link LatencyTracker} unless "quora.latency.enabled" is switched off.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "quora.latency", name = "enabled", havingValue = "true", matchIfMissing = true)
+@EnableConfigurationProperties(LatencyProperties.class)
+public class LatencyTrackerConfiguration {
+
+    @Bean(destroyMethod = "close")
+    public LatencyTracker latencyTracker(final LatencyProperties latencyProperties) {
+        return new LatencyTracker(latencyProperties);
+    }
+}
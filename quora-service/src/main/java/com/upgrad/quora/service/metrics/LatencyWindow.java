@@ -0,0 +1,53 @@
+package com.upgrad.quora.service.metrics;
+
+/**
+ * The latency percentiles of one route over one sliding window, in milliseconds.
+ */
+public class LatencyWindow {
+
+    private final int minutes;
+
+    private final long count;
+
+    private final double p50Millis;
+
+    private final double p99Millis;
+
+    private final double p999Millis;
+
+    private final double maxMillis;
+
+    public LatencyWindow(final int minutes, final long count, final double p50Millis, final double p99Millis,
+                         final double p999Millis, final double maxMillis) {
+        this.minutes = minutes;
+        this.count = count;
+        this.p50Millis = p50Millis;
+        this.p99Millis = p99Millis;
+        this.p999Millis = p999Millis;
+        this.maxMillis = maxMillis;
+    }
+
+    public int getMinutes() {
+        return minutes;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getP50Millis() {
+        return p50Millis;
+    }
+
+    public double getP99Millis() {
+        return p99Millis;
+    }
+
+    public double getP999Millis() {
+        return p999Millis;
+    }
+
+    public double getMaxMillis() {
+        return maxMillis;
+    }
+}
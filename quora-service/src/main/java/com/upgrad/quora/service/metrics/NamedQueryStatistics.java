@@ -0,0 +1,63 @@
+package com.upgrad.quora.service.metrics;
+
+/**
+ * The execution statistics Hibernate collected for one query, with the name it was declared under, if any.
+ */
+public class NamedQueryStatistics {
+
+    private final String name;
+
+    private final String query;
+
+    private final long executionCount;
+
+    private final long rowCount;
+
+    private final long maxTimeMillis;
+
+    private final long meanTimeMillis;
+
+    public NamedQueryStatistics(final String name, final String query, final long executionCount, final long rowCount,
+                                final long maxTimeMillis, final long meanTimeMillis) {
+        this.name = name;
+        this.query = query;
+        this.executionCount = executionCount;
+        this.rowCount = rowCount;
+        this.maxTimeMillis = maxTimeMillis;
+        this.meanTimeMillis = meanTimeMillis;
+    }
+
+    /**
+     * @return String The name of the named query, null for a query that was not declared with a name
+     */
+    public String getName() {
+        return name;
+    }
+
+    public String getQuery() {
+        return query;
+    }
+
+    public long getExecutionCount() {
+        return executionCount;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    public long getMaxTimeMillis() {
+        return maxTimeMillis;
+    }
+
+    public long getMeanTimeMillis() {
+        return meanTimeMillis;
+    }
+
+    /**
+     * @return long The time of all executions, what the queries are ranked by
+     */
+    public long getTotalTimeMillis() {
+        return executionCount * meanTimeMillis;
+    }
+}
@@ -0,0 +1,50 @@
+package com.upgrad.quora.service.metrics;
+
+import java.util.List;
+
+/**
+ * The latency of one route over the sliding windows of the {@link LatencyTracker}, and whether it meets its objective.
+ */
+public class RouteLatencyStatistics {
+
+    private final String route;
+
+    private final long sloP99Millis;
+
+    private final boolean sloBreached;
+
+    private final List<LatencyWindow> windows;
+
+    public RouteLatencyStatistics(final String route, final long sloP99Millis, final boolean sloBreached,
+                                  final List<LatencyWindow> windows) {
+        this.route = route;
+        this.sloP99Millis = sloP99Millis;
+        this.sloBreached = sloBreached;
+        this.windows = windows;
+    }
+
+    /**
+     * @return String The HTTP method and the path pattern of the route, such as "GET /question/all/{userId}"
+     */
+    public String getRoute() {
+        return route;
+    }
+
+    public long getSloP99Millis() {
+        return sloP99Millis;
+    }
+
+    /**
+     * @return boolean Whether the p99 latency over the SLO window exceeds the threshold, with enough requests to tell
+     */
+    public boolean isSloBreached() {
+        return sloBreached;
+    }
+
+    /**
+     * @return List<LatencyWindow> The 1, 5 and 15 minute windows, in that order
+     */
+    public List<LatencyWindow> getWindows() {
+        return windows;
+    }
+}
@@ -0,0 +1,144 @@
+package com.upgrad.quora.service.metrics;
+
+import com.upgrad.quora.service.common.UnexpectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every public method of the business services and DAOs with a "quora.service.method" timer, tagged with the
+ * class, the method and the outcome: "success", the code of the exception that was thrown (such as ATHR-001), or the
+ * simple name of an exception without a code. The timers publish percentile histograms, so latency percentiles can be
+ * aggregated across instances by the monitoring system.
+ * <p>
+ * The timers of a method are looked up once and kept, so timing a call costs two clock reads and a histogram update.
+ */
+@Aspect
+@Component
+@ConditionalOnProperty(prefix = "quora.metrics.service-timers", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ServiceMethodTimingAspect {
+
+    public static final String TIMER_NAME = "quora.service.method";
+
+    private static final String SUCCESS = "success";
+
+    //The public String getCode() of the application's exceptions, or null for exceptions without one
+    private static final ClassValue<Method> CODE_GETTERS = new ClassValue<Method>() {
+        @Override
+        protected Method computeValue(final Class<?> type) {
+            try {
+                final Method getter = type.getMethod("getCode");
+                return getter.getReturnType() == String.class ? getter : null;
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private final MeterRegistry meterRegistry;
+
+    private final Duration minimumExpectedValue;
+
+    private final Duration maximumExpectedValue;
+
+    private final ConcurrentHashMap<Method, MethodTimers> timers = new ConcurrentHashMap<>();
+
+    public ServiceMethodTimingAspect(final MeterRegistry meterRegistry,
+                                     @Value("${quora.metrics.service-timers.minimum-expected-ms:1}") final long minimumExpectedMillis,
+                                     @Value("${quora.metrics.service-timers.maximum-expected-ms:10000}") final long maximumExpectedMillis) {
+        this.meterRegistry = meterRegistry;
+        this.minimumExpectedValue = Duration.ofMillis(minimumExpectedMillis);
+        this.maximumExpectedValue = Duration.ofMillis(maximumExpectedMillis);
+    }
+
+    /**
+     * This method times the intercepted call and records it under its outcome.
+     *
+     * @param joinPoint The intercepted business service or DAO call
+     * @return Object The result of the call
+     * @throws Throwable Whatever the call throws, unchanged
+     */
+    @Around("execution(public * com.upgrad.quora.service.business..*(..)) || execution(public * com.upgrad.quora.service.dao..*(..))")
+    public Object time(final ProceedingJoinPoint joinPoint) throws Throwable {
+        final long start = System.nanoTime();
+        String outcome = SUCCESS;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            final long elapsed = System.nanoTime() - start;
+            final Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            timers.computeIfAbsent(method, MethodTimers::new).get(outcome).record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * @param e The exception a call failed with
+     * @return String The code of the exception, or its simple name if it has none
+     */
+    static String outcome(final Throwable e) {
+        if (e instanceof UnexpectedException && ((UnexpectedException) e).getErrorCode() != null) {
+            return ((UnexpectedException) e).getErrorCode().getCode();
+        }
+        final Method codeGetter = CODE_GETTERS.get(e.getClass());
+        if (codeGetter != null) {
+            try {
+                final Object code = codeGetter.invoke(e);
+                if (code != null) {
+                    return (String) code;
+                }
+            } catch (ReflectiveOperationException | RuntimeException ignored) {
+                //Fall back to the exception type
+            }
+        }
+        return e.getClass().getSimpleName();
+    }
+
+    /**
+     * The timers of one method, one per outcome.
+     */
+    private class MethodTimers {
+
+        private final String className;
+
+        private final String methodName;
+
+        private final Timer success;
+
+        private final ConcurrentHashMap<String, Timer> failures = new ConcurrentHashMap<>();
+
+        MethodTimers(final Method method) {
+            this.className = method.getDeclaringClass().getSimpleName();
+            this.methodName = method.getName();
+            this.success = register(SUCCESS);
+        }
+
+        Timer get(final String outcome) {
+            //Success is by far the most common outcome, so it skips the map
+            return SUCCESS.equals(outcome) ? success : failures.computeIfAbsent(outcome, this::register);
+        }
+
+        private Timer register(final String outcome) {
+            return Timer.builder(TIMER_NAME)
+                    .description("Time spent in business service and DAO methods")
+                    .tags("class", className, "method", methodName, "outcome", outcome)
+                    .publishPercentileHistogram()
+                    .minimumExpectedValue(minimumExpectedValue)
+                    .maximumExpectedValue(maximumExpectedValue)
+                    .register(meterRegistry);
+        }
+    }
+}
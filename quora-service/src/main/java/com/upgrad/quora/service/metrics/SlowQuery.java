@@ -0,0 +1,58 @@
+package com.upgrad.quora.service.metrics;
+
+import java.time.ZonedDateTime;
+import java.util.List;
+
+/**
+ * A statement that took longer than the slow query threshold, as captured by the {@link SlowQueryLog}.
+ */
+public class SlowQuery {
+
+    private final String sql;
+
+    private final List<String> parameterTypes;
+
+    private final long elapsedNanos;
+
+    private final ZonedDateTime executedAt;
+
+    private final List<String> origin;
+
+    public SlowQuery(final String sql, final List<String> parameterTypes, final long elapsedNanos,
+                     final ZonedDateTime executedAt, final List<String> origin) {
+        this.sql = sql;
+        this.parameterTypes = parameterTypes;
+        this.elapsedNanos = elapsedNanos;
+        this.executedAt = executedAt;
+        this.origin = origin;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return List<String> The types of the bound parameters by position, never their values
+     */
+    public List<String> getParameterTypes() {
+        return parameterTypes;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * @return ZonedDateTime The time the statement completed
+     */
+    public ZonedDateTime getExecutedAt() {
+        return executedAt;
+    }
+
+    /**
+     * @return List<String> The application frames the statement was executed from, innermost first
+     */
+    public List<String> getOrigin() {
+        return origin;
+    }
+}
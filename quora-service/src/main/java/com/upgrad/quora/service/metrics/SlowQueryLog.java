@@ -0,0 +1,120 @@
+package com.upgrad.quora.service.metrics;
+
+import com.upgrad.quora.service.datasource.StatementListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Keeps the most recent statements that took longer than "quora.query-statistics.slow-query-threshold-ms" in a ring
+ * buffer of fixed size, with their SQL, the types of their parameters and the application code they came from. The
+ * values of the parameters are never kept, as they may hold passwords or personal data.
+ * <p>
+ * Fast statements cost one comparison. The stack is only walked for the slow ones.
+ */
+@Component
+public class SlowQueryLog implements StatementListener {
+
+    private static final String APPLICATION_PACKAGE = "com.upgrad.quora.";
+
+    //The frames of the instrumentation itself say nothing about where a statement came from
+    private static final String[] INSTRUMENTATION_PACKAGES = {"com.upgrad.quora.service.datasource.",
+            "com.upgrad.quora.service.metrics."};
+
+    private static final int MAX_ORIGIN_FRAMES = 8;
+
+    private final boolean enabled;
+
+    private final long thresholdNanos;
+
+    private final AtomicReferenceArray<SlowQuery> slowQueries;
+
+    //The number of slow queries recorded so far, the next one goes to slot sequence % capacity
+    private final AtomicLong sequence = new AtomicLong();
+
+    public SlowQueryLog(@Value("${quora.query-statistics.enabled:false}") final boolean enabled,
+                        @Value("${quora.query-statistics.slow-query-threshold-ms:100}") final long thresholdMillis,
+                        @Value("${quora.query-statistics.slow-query-capacity:100}") final int capacity) {
+        this.enabled = enabled;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.slowQueries = new AtomicReferenceArray<>(capacity);
+    }
+
+    @Override
+    public void statementExecuted(final String sql, final List<String> parameterTypes, final long elapsedNanos) {
+        if (elapsedNanos < thresholdNanos) {
+            return;
+        }
+        final SlowQuery slowQuery = new SlowQuery(sql, Collections.unmodifiableList(new ArrayList<>(parameterTypes)),
+                elapsedNanos, ZonedDateTime.now(), origin(new Throwable().getStackTrace()));
+        final long slot = sequence.getAndIncrement();
+        slowQueries.set((int) (slot % slowQueries.length()), slowQuery);
+    }
+
+    /**
+     * This method returns the slow queries still held by the buffer.
+     *
+     * @return List<SlowQuery> The slow queries, most recent first
+     */
+    public List<SlowQuery> getSlowQueries() {
+        final int capacity = slowQueries.length();
+        final long last = sequence.get();
+        final List<SlowQuery> snapshot = new ArrayList<>(capacity);
+        for (long slot = last - 1; slot >= 0 && slot >= last - capacity; slot--) {
+            final SlowQuery slowQuery = slowQueries.get((int) (slot % capacity));
+            if (slowQuery != null) {
+                snapshot.add(slowQuery);
+            }
+        }
+        return snapshot;
+    }
+
+    /**
+     * This method empties the buffer.
+     */
+    public void clear() {
+        for (int i = 0; i < slowQueries.length(); i++) {
+            slowQueries.set(i, null);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+    }
+
+    private static List<String> origin(final StackTraceElement[] stackTrace) {
+        final List<String> origin = new ArrayList<>(MAX_ORIGIN_FRAMES);
+        for (StackTraceElement frame : stackTrace) {
+            if (isApplicationFrame(frame.getClassName())) {
+                origin.add(frame.toString());
+                if (origin.size() == MAX_ORIGIN_FRAMES) {
+                    break;
+                }
+            }
+        }
+        return Collections.unmodifiableList(origin);
+    }
+
+    private static boolean isApplicationFrame(final String className) {
+        if (!className.startsWith(APPLICATION_PACKAGE) || className.contains("$$")) {
+            return false;
+        }
+        for (String instrumentationPackage : INSTRUMENTATION_PACKAGES) {
+            if (className.startsWith(instrumentationPackage)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
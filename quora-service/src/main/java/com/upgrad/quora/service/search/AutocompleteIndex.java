@@ -0,0 +1,222 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.dao.UserDao;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import com.upgrad.quora.service.entity.UserEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Type-ahead completions of question texts and usernames, served from memory. Enabled with quora.autocomplete.enabled;
+ * the tries are loaded from the database once the application is ready and then follow every committed change.
+ * Questions are ranked newest first, usernames shortest and then alphabetically first.
+ */
+@Component
+public class AutocompleteIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AutocompleteIndex.class);
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private UserDao userDao;
+
+    private final boolean enabled;
+
+    private final int topK;
+
+    private final int loadBatchSize;
+
+    private final CompletionTrie questions;
+
+    private final CompletionTrie users;
+
+    public AutocompleteIndex(@Value("${quora.autocomplete.enabled:true}") final boolean enabled,
+                             @Value("${quora.autocomplete.top-k:10}") final int topK,
+                             @Value("${quora.autocomplete.load-batch-size:10000}") final int loadBatchSize) {
+        this.enabled = enabled;
+        this.topK = topK;
+        this.loadBatchSize = loadBatchSize;
+        this.questions = new CompletionTrie(topK);
+        this.users = new CompletionTrie(topK);
+    }
+
+    /**
+     * This method loads both tries from the database once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        final long start = System.nanoTime();
+        questions.rebuild(sink -> {
+            long afterId = 0;
+            for (List<Object[]> batch = questionDao.getQuestionContents(afterId, loadBatchSize); !batch.isEmpty();
+                 batch = questionDao.getQuestionContents(afterId, loadBatchSize)) {
+                for (Object[] row : batch) {
+                    afterId = (Long) row[0];
+                    sink.accept(new Completion((String) row[2], (String) row[1], weight((ZonedDateTime) row[3])));
+                }
+            }
+        });
+        users.rebuild(sink -> {
+            long afterId = 0;
+            for (List<Object[]> batch = userDao.getUserNames(afterId, loadBatchSize); !batch.isEmpty();
+                 batch = userDao.getUserNames(afterId, loadBatchSize)) {
+                for (Object[] row : batch) {
+                    afterId = ((Number) row[0]).longValue();
+                    sink.accept(new Completion((String) row[1], (String) row[2], 0));
+                }
+            }
+        });
+        LOGGER.info("Autocomplete loaded {} questions and {} usernames in {} ms", questions.size(), users.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * This method returns the page size to use for the number of completions the client asked for.
+     *
+     * @param limit The number of completions asked for, or null
+     * @return int topK if none was asked for, else the asked number brought within 1 and topK
+     */
+    public int size(final Integer limit) {
+        return limit == null ? topK : Math.max(1, Math.min(limit, topK));
+    }
+
+    /**
+     * This method completes the start of a question text.
+     *
+     * @param prefix The text typed so far
+     * @param limit  The maximum number of completions
+     * @return List<Completion> The uuids and texts of the newest matching questions
+     */
+    public List<Completion> completeQuestions(final String prefix, final int limit) {
+        return enabled ? questions.complete(prefix, limit) : Collections.emptyList();
+    }
+
+    /**
+     * This method completes the start of a username.
+     *
+     * @param prefix The text typed so far
+     * @param limit  The maximum number of completions
+     * @return List<Completion> The uuids and usernames of the matching users
+     */
+    public List<Completion> completeUsers(final String prefix, final int limit) {
+        return enabled ? users.complete(prefix, limit) : Collections.emptyList();
+    }
+
+    /**
+     * This method adds the given question once the current transaction commits.
+     *
+     * @param question The created question
+     */
+    public void addQuestion(final QuestionEntity question) {
+        final Completion completion = new Completion(question.getUuid(), question.getContent(), weight(question.getCreatedDate()));
+        afterCommit(() -> questions.add(completion));
+    }
+
+    /**
+     * This method replaces the text of the given question once the current transaction commits.
+     *
+     * @param previousContent The content of the question before the edit
+     * @param question        The edited question
+     */
+    public void editQuestion(final String previousContent, final QuestionEntity question) {
+        final Completion completion = new Completion(question.getUuid(), question.getContent(), weight(question.getCreatedDate()));
+        afterCommit(() -> {
+            questions.remove(completion.getUuid(), previousContent);
+            questions.add(completion);
+        });
+    }
+
+    /**
+     * This method removes the given questions once the current transaction commits.
+     *
+     * @param deletedQuestions The deleted questions
+     */
+    public void removeQuestions(final Collection<QuestionEntity> deletedQuestions) {
+        final List<Completion> completions = new ArrayList<>(deletedQuestions.size());
+        for (QuestionEntity question : deletedQuestions) {
+            completions.add(new Completion(question.getUuid(), question.getContent(), 0));
+        }
+        afterCommit(() -> completions.forEach(completion -> questions.remove(completion.getUuid(), completion.getText())));
+    }
+
+    /**
+     * This method adds the given user once the current transaction commits.
+     *
+     * @param user The signed up user
+     */
+    public void addUser(final UserEntity user) {
+        final Completion completion = new Completion(user.getUuid(), user.getUserName(), 0);
+        afterCommit(() -> users.add(completion));
+    }
+
+    /**
+     * This method removes the given user once the current transaction commits.
+     *
+     * @param user The deleted user
+     */
+    public void removeUser(final UserEntity user) {
+        final String uuid = user.getUuid();
+        final String userName = user.getUserName();
+        afterCommit(() -> users.remove(uuid, userName));
+    }
+
+    /**
+     * @return boolean true if autocomplete is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return CompletionTrie The completions of the question texts
+     */
+    public CompletionTrie getQuestions() {
+        return questions;
+    }
+
+    /**
+     * @return CompletionTrie The completions of the usernames
+     */
+    public CompletionTrie getUsers() {
+        return users;
+    }
+
+    private static long weight(final ZonedDateTime createdDate) {
+        return createdDate == null ? 0 : createdDate.toEpochSecond();
+    }
+
+    private void afterCommit(final Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,43 @@
+package com.upgrad.quora.service.search;
+
+/**
+ * A suggestion of a {@link CompletionTrie}: the uuid and text of the completed entity, and the weight ranking it among
+ * the other completions of a prefix.
+ */
+public final class Completion {
+
+    private final String uuid;
+
+    private final String text;
+
+    private final long weight;
+
+    //Normalized text followed by the uuid, unique within a trie
+    final String key;
+
+    public Completion(final String uuid, final String text, final long weight) {
+        this.uuid = uuid;
+        this.text = text;
+        this.weight = weight;
+        this.key = CompletionTrie.key(text, uuid);
+    }
+
+    public String getUuid() {
+        return uuid;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * Completions rank by descending weight, then by key so that shorter and alphabetically first texts win ties.
+     */
+    boolean ranksAbove(final Completion other) {
+        return weight != other.weight ? weight > other.weight : key.compareTo(other.key) < 0;
+    }
+}
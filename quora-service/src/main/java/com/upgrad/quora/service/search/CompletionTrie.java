@@ -0,0 +1,418 @@
+package com.upgrad.quora.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Prefix completion over the texts of entities, answering with the best weighted completions of a prefix in time
+ * proportional to the length of the prefix.
+ * <p>
+ * The trie is a radix tree: each edge holds a run of characters, so there are at most two nodes per text. Every node
+ * keeps the best completions of its subtree, which makes a lookup a walk down the prefix followed by a copy of that
+ * list. Nodes are immutable; a change copies the nodes on the path from the root to the changed text and publishes
+ * the new root through a volatile field, so lookups never lock and always see a consistent tree. Changes are made by
+ * one writer at a time.
+ */
+public class CompletionTrie {
+
+    //Texts are indexed by their start only: nobody types further than this before picking a completion
+    static final int MAX_PREFIX_LENGTH = 64;
+
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private static final Completion[] NO_COMPLETIONS = new Completion[0];
+
+    private final int topK;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Node root;
+
+    //Writer state, guarded by writeLock
+    private volatile int size;
+
+    //Changes made while a rebuild is loading, replayed on top of the rebuilt trie
+    private List<Runnable> rebuildLog;
+
+    /**
+     * @param topK The number of completions kept per node, the largest number a lookup can return
+     */
+    public CompletionTrie(final int topK) {
+        if (topK < 1) {
+            throw new IllegalArgumentException("topK must be positive");
+        }
+        this.topK = topK;
+        this.root = new Node("", NO_CHILDREN, null, NO_COMPLETIONS);
+    }
+
+    /**
+     * This method returns the best completions of the given prefix.
+     *
+     * @param prefix The text typed so far
+     * @param limit  The maximum number of completions, at most topK
+     * @return List<Completion> The completions, best first
+     */
+    public List<Completion> complete(final String prefix, final int limit) {
+        String normalized = normalize(prefix);
+        if (!normalized.isEmpty() && normalized.length() < MAX_PREFIX_LENGTH && Character.isWhitespace(prefix.charAt(prefix.length() - 1))) {
+            //A trailing space ends the last word: "how " must not complete to "however"
+            normalized += ' ';
+        }
+        Node node = root;
+        int position = 0;
+        while (position < normalized.length()) {
+            final int index = node.childIndex(normalized.charAt(position));
+            if (index < 0) {
+                return Collections.emptyList();
+            }
+            node = node.children[index];
+            final int common = commonPrefix(node.label, normalized, position);
+            if (common < node.label.length() && position + common < normalized.length()) {
+                return Collections.emptyList();
+            }
+            position += common;
+        }
+        final int count = Math.min(Math.min(limit, topK), node.top.length);
+        return count <= 0 ? Collections.emptyList() : Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(node.top, count)));
+    }
+
+    /**
+     * This method adds a completion. A completion with the same uuid and text replaces the one added before.
+     *
+     * @param completion The completion to add
+     */
+    public void add(final Completion completion) {
+        writeLock.lock();
+        try {
+            if (rebuildLog != null) {
+                rebuildLog.add(() -> insert(completion));
+            }
+            insert(completion);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * This method removes the completion of the given entity. Removing a completion that is not there does nothing.
+     *
+     * @param uuid The uuid of the entity
+     * @param text The text the entity was added with
+     */
+    public void remove(final String uuid, final String text) {
+        final String key = key(text, uuid);
+        writeLock.lock();
+        try {
+            if (rebuildLog != null) {
+                rebuildLog.add(() -> delete(key));
+            }
+            delete(key);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * This method replaces all the completions with the ones of the given source, building the tree bottom up instead
+     * of adding them one by one. Lookups and changes go on while the source loads; changes made meanwhile are applied
+     * again on top of the loaded completions, so they win over whatever the source read before or after them.
+     *
+     * @param source The source of all the completions
+     */
+    public void rebuild(final CompletionSource source) {
+        writeLock.lock();
+        try {
+            if (rebuildLog != null) {
+                throw new IllegalStateException("The trie is already being rebuilt");
+            }
+            rebuildLog = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        Node built = null;
+        int builtSize = 0;
+        try {
+            final List<Completion> loaded = new ArrayList<>();
+            source.load(loaded::add);
+            final Completion[] sorted = loaded.toArray(NO_COMPLETIONS);
+            Arrays.sort(sorted, (first, second) -> first.key.compareTo(second.key));
+            //A completion loaded twice keeps its last copy
+            final List<Completion> unique = new ArrayList<>(sorted.length);
+            for (int i = 0; i < sorted.length; i++) {
+                if (i + 1 == sorted.length || !sorted[i].key.equals(sorted[i + 1].key)) {
+                    unique.add(sorted[i]);
+                }
+            }
+            final Completion[] entries = unique.toArray(NO_COMPLETIONS);
+            built = entries.length == 0 ? new Node("", NO_CHILDREN, null, NO_COMPLETIONS) : build(entries, 0, entries.length, 0, "");
+            builtSize = entries.length;
+        } finally {
+            writeLock.lock();
+            try {
+                final List<Runnable> log = rebuildLog;
+                rebuildLog = null;
+                if (built != null) {
+                    root = built;
+                    size = builtSize;
+                    for (Runnable change : log) {
+                        change.run();
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return int The number of completions in the trie
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * This method returns the key a text is stored under: the normalized start of the text, then the uuid, so that
+     * entities with the same text are told apart.
+     */
+    static String key(final String text, final String uuid) {
+        return normalize(text) + KEY_SEPARATOR + uuid;
+    }
+
+    /**
+     * This method lower cases the text, collapses runs of whitespace and control characters into one space and cuts
+     * the result at MAX_PREFIX_LENGTH.
+     */
+    static String normalize(final String text) {
+        if (text == null) {
+            return "";
+        }
+        final StringBuilder normalized = new StringBuilder(Math.min(text.length(), MAX_PREFIX_LENGTH));
+        boolean space = false;
+        for (int i = 0; i < text.length() && normalized.length() < MAX_PREFIX_LENGTH; i++) {
+            final char c = text.charAt(i);
+            if (Character.isWhitespace(c) || Character.isISOControl(c)) {
+                space = normalized.length() > 0;
+            } else {
+                if (space) {
+                    normalized.append(' ');
+                    space = false;
+                }
+                if (normalized.length() < MAX_PREFIX_LENGTH) {
+                    normalized.append(Character.toLowerCase(c));
+                }
+            }
+        }
+        return normalized.toString();
+    }
+
+    private void insert(final Completion completion) {
+        root = insert(root, completion.key, 0, completion);
+    }
+
+    private void delete(final String key) {
+        final Node current = root;
+        final Node updated = delete(current, key, 0);
+        if (updated != current) {
+            //The root has an empty label and is never dropped by compact
+            root = updated;
+            size--;
+        }
+    }
+
+    private Node insert(final Node node, final String key, final int position, final Completion completion) {
+        if (position == key.length()) {
+            if (node.entry == null) {
+                size++;
+            }
+            return node(node.label, node.children, completion);
+        }
+        final int index = node.childIndex(key.charAt(position));
+        if (index < 0) {
+            final Node leaf = new Node(key.substring(position), NO_CHILDREN, completion, new Completion[]{completion});
+            size++;
+            final Node[] children = new Node[node.children.length + 1];
+            final int insertAt = -index - 1;
+            System.arraycopy(node.children, 0, children, 0, insertAt);
+            children[insertAt] = leaf;
+            System.arraycopy(node.children, insertAt, children, insertAt + 1, node.children.length - insertAt);
+            return node(node.label, children, node.entry);
+        }
+
+        final Node child = node.children[index];
+        final int common = commonPrefix(child.label, key, position);
+        final Node updatedChild;
+        if (common == child.label.length()) {
+            updatedChild = insert(child, key, position + common, completion);
+        } else {
+            //The new key leaves the edge half way: split the edge at the point they part
+            final Node tail = new Node(child.label.substring(common), child.children, child.entry, child.top);
+            final Node split = new Node(child.label.substring(0, common), new Node[]{tail}, null, child.top);
+            updatedChild = insert(split, key, position + common, completion);
+        }
+        return withChild(node, index, updatedChild);
+    }
+
+    private Node delete(final Node node, final String key, final int position) {
+        if (position == key.length()) {
+            return node.entry == null ? node : compact(node(node.label, node.children, null));
+        }
+        final int index = node.childIndex(key.charAt(position));
+        if (index < 0) {
+            return node;
+        }
+        final Node child = node.children[index];
+        if (!key.startsWith(child.label, position)) {
+            return node;
+        }
+        final Node updatedChild = delete(child, key, position + child.label.length());
+        if (updatedChild == child) {
+            return node;
+        }
+        if (updatedChild != null) {
+            return compact(withChild(node, index, updatedChild));
+        }
+        final Node[] children = new Node[node.children.length - 1];
+        System.arraycopy(node.children, 0, children, 0, index);
+        System.arraycopy(node.children, index + 1, children, index, children.length - index);
+        return compact(node(node.label, children, node.entry));
+    }
+
+    /**
+     * This method drops nodes left without completions and merges a node holding no completion of its own into its
+     * only child, so the tree stays a radix tree. The root is never merged.
+     */
+    private Node compact(final Node node) {
+        if (node.entry != null || node.label.isEmpty()) {
+            return node;
+        }
+        if (node.children.length == 0) {
+            return null;
+        }
+        if (node.children.length == 1) {
+            final Node child = node.children[0];
+            return new Node(node.label + child.label, child.children, child.entry, child.top);
+        }
+        return node;
+    }
+
+    private Node withChild(final Node node, final int index, final Node child) {
+        final Node[] children = node.children.clone();
+        children[index] = child;
+        return node(node.label, children, node.entry);
+    }
+
+    /**
+     * This method builds the subtree of the sorted entries [from, to), which all share their first depth characters.
+     */
+    private Node build(final Completion[] entries, int from, final int to, final int depth, final String label) {
+        Completion entry = null;
+        if (entries[from].key.length() == depth) {
+            entry = entries[from++];
+        }
+        final List<Node> children = new ArrayList<>();
+        while (from < to) {
+            final char first = entries[from].key.charAt(depth);
+            int end = from + 1;
+            while (end < to && entries[end].key.charAt(depth) == first) {
+                end++;
+            }
+            //Sorted keys share at least the prefix of the first and last key of the run
+            final String firstKey = entries[from].key;
+            final int common = depth + commonPrefix(entries[end - 1].key.substring(depth), firstKey, depth);
+            children.add(build(entries, from, end, common, firstKey.substring(depth, common)));
+            from = end;
+        }
+        return node(label, children.toArray(NO_CHILDREN), entry);
+    }
+
+    private Node node(final String label, final Node[] children, final Completion entry) {
+        int candidates = entry == null ? 0 : 1;
+        for (Node child : children) {
+            candidates += child.top.length;
+        }
+        final Completion[] all = new Completion[candidates];
+        int count = 0;
+        if (entry != null) {
+            all[count++] = entry;
+        }
+        for (Node child : children) {
+            System.arraycopy(child.top, 0, all, count, child.top.length);
+            count += child.top.length;
+        }
+        Arrays.sort(all, (first, second) -> first == second ? 0 : first.ranksAbove(second) ? -1 : 1);
+        return new Node(label, children, entry, all.length <= topK ? all : Arrays.copyOf(all, topK));
+    }
+
+    /**
+     * @return int The number of leading characters of label matching text from the given position
+     */
+    private static int commonPrefix(final String label, final String text, final int position) {
+        final int max = Math.min(label.length(), text.length() - position);
+        int common = 0;
+        while (common < max && label.charAt(common) == text.charAt(position + common)) {
+            common++;
+        }
+        return common;
+    }
+
+    /**
+     * A node of the radix tree: the characters of the edge leading to it, its children ordered by their first
+     * character, the completion ending at it if any, and the best completions of its subtree.
+     */
+    private static final class Node {
+
+        private final String label;
+
+        private final Node[] children;
+
+        private final Completion entry;
+
+        private final Completion[] top;
+
+        private Node(final String label, final Node[] children, final Completion entry, final Completion[] top) {
+            this.label = label;
+            this.children = children;
+            this.entry = entry;
+            this.top = top;
+        }
+
+        private int childIndex(final char c) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final char first = children[middle].label.charAt(0);
+                if (first < c) {
+                    low = middle + 1;
+                } else if (first > c) {
+                    high = middle - 1;
+                } else {
+                    return middle;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    /**
+     * Supplies every completion of the trie to a rebuild.
+     */
+    @FunctionalInterface
+    public interface CompletionSource {
+
+        /**
+         * This method passes every completion to the given sink.
+         *
+         * @param sink The sink accepting the completions
+         */
+        void load(Consumer<Completion> sink);
+    }
+}
@@ -0,0 +1,192 @@
+package com.upgrad.quora.service.search;
+
+import com.upgrad.quora.service.dao.AnswerDao;
+import com.upgrad.quora.service.dao.QuestionDao;
+import com.upgrad.quora.service.entity.AnswerEntity;
+import com.upgrad.quora.service.entity.QuestionEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * In-process full-text indexes of the question contents and the answers, for deployments without database full-text
+ * search. Enabled with quora.search.in-memory.enabled; the indexes are loaded from the database once the application
+ * is ready and then follow every committed create, edit and delete. Until the first load completes {@link #isReady()}
+ * is false and searches go to the database.
+ */
+@Component
+public class InMemorySearchIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InMemorySearchIndex.class);
+
+    @Autowired
+    private QuestionDao questionDao;
+
+    @Autowired
+    private AnswerDao answerDao;
+
+    private final boolean enabled;
+
+    private final int loadBatchSize;
+
+    private final InvertedIndex questions;
+
+    private final InvertedIndex answers;
+
+    private volatile boolean ready;
+
+    public InMemorySearchIndex(@Value("${quora.search.in-memory.enabled:false}") final boolean enabled,
+                               @Value("${quora.search.in-memory.max-tail-docs:1024}") final int maxTailDocs,
+                               @Value("${quora.search.in-memory.load-batch-size:10000}") final int loadBatchSize) {
+        this.enabled = enabled;
+        this.loadBatchSize = loadBatchSize;
+        this.questions = new InvertedIndex(maxTailDocs);
+        this.answers = new InvertedIndex(maxTailDocs);
+    }
+
+    /**
+     * This method loads both indexes from the database once the application has started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        final long start = System.nanoTime();
+        questions.rebuild(sink -> {
+            long afterId = 0;
+            for (List<Object[]> batch = questionDao.getQuestionContents(afterId, loadBatchSize); !batch.isEmpty();
+                 batch = questionDao.getQuestionContents(afterId, loadBatchSize)) {
+                for (Object[] row : batch) {
+                    afterId = (Long) row[0];
+                    sink.add(afterId, (String) row[1]);
+                }
+            }
+        });
+        answers.rebuild(sink -> {
+            long afterId = 0;
+            for (List<Object[]> batch = answerDao.getAnswerContents(afterId, loadBatchSize); !batch.isEmpty();
+                 batch = answerDao.getAnswerContents(afterId, loadBatchSize)) {
+                for (Object[] row : batch) {
+                    afterId = (Long) row[0];
+                    sink.add(afterId, (String) row[1]);
+                }
+            }
+        });
+        ready = true;
+        LOGGER.info("Search index loaded {} questions and {} answers in {} ms", questions.size(), answers.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * @return boolean true if the in-memory index is enabled
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return boolean true if the index is enabled and has been loaded, so that searches can be served from it
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * This method searches the question contents.
+     *
+     * @param query The words to search for
+     * @param limit The maximum number of hits to return
+     * @param after The position of the last hit of the previous page, or null for the first page
+     * @return List<IndexHit> The ids of the matching questions, best match first
+     */
+    public List<IndexHit> searchQuestions(final String query, final int limit, final SearchCursor after) {
+        return questions.search(query, limit, after == null ? null : new IndexHit(after.getId(), after.getRank()));
+    }
+
+    /**
+     * This method searches the answers.
+     *
+     * @param query The words to search for
+     * @param limit The maximum number of hits to return
+     * @param after The position of the last hit of the previous page, or null for the first page
+     * @return List<IndexHit> The ids of the matching answers, best match first
+     */
+    public List<IndexHit> searchAnswers(final String query, final int limit, final SearchCursor after) {
+        return answers.search(query, limit, after == null ? null : new IndexHit(after.getId(), after.getRank()));
+    }
+
+    /**
+     * This method indexes the given question once the current transaction commits.
+     *
+     * @param question The created or edited question
+     */
+    public void indexQuestion(final QuestionEntity question) {
+        final long id = question.getId();
+        final String content = question.getContent();
+        afterCommit(() -> questions.index(id, content));
+    }
+
+    /**
+     * This method indexes the given answer once the current transaction commits.
+     *
+     * @param answer The created or edited answer
+     */
+    public void indexAnswer(final AnswerEntity answer) {
+        final long id = answer.getId();
+        final String content = answer.getAnswer();
+        afterCommit(() -> answers.index(id, content));
+    }
+
+    /**
+     * This method removes the given questions and answers from the indexes once the current transaction commits.
+     *
+     * @param questionIds The ids of the deleted questions
+     * @param answerIds   The ids of the deleted answers, including the ones deleted along with their question
+     */
+    public void remove(final Collection<Long> questionIds, final Collection<Long> answerIds) {
+        afterCommit(() -> {
+            questionIds.forEach(questions::remove);
+            answerIds.forEach(answers::remove);
+        });
+    }
+
+    /**
+     * @return InvertedIndex The index of the question contents
+     */
+    public InvertedIndex getQuestions() {
+        return questions;
+    }
+
+    /**
+     * @return InvertedIndex The index of the answers
+     */
+    public InvertedIndex getAnswers() {
+        return answers;
+    }
+
+    private void afterCommit(final Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            change.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                change.run();
+            }
+        });
+    }
+}
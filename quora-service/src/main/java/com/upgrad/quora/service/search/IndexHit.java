@@ -0,0 +1,36 @@
+package com.upgrad.quora.service.search;
+
+/**
+ * A document of an {@link InvertedIndex} matching a query: the id of the indexed entity and its BM25 score.
+ */
+public final class IndexHit {
+
+    private final long id;
+
+    private final float score;
+
+    public IndexHit(final long id, final float score) {
+        this.id = id;
+        this.score = score;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public float getScore() {
+        return score;
+    }
+
+    /**
+     * This method tells whether a document with the given score and id ranks below this hit. Hits are ordered by
+     * descending score, then by descending id, so no two documents rank the same.
+     *
+     * @param otherScore The score of the other document
+     * @param otherId    The id of the other document
+     * @return boolean true if the other document comes after this hit
+     */
+    boolean ranksAbove(final float otherScore, final long otherId) {
+        return score > otherScore || (score == otherScore && id > otherId);
+    }
+}
@@ -0,0 +1,394 @@
+package com.upgrad.quora.service.search;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An in-process full-text index over the text of entities identified by a long id, ranking matches with BM25.
+ * <p>
+ * Searches never lock: they read the current {@link Snapshot}, an immutable list of segments with their deleted
+ * documents, from a volatile field. Changes are made by one writer at a time under a lock and become visible by
+ * publishing a new snapshot. New documents go to a small tail segment that is rebuilt on every change; once the tail is
+ * full it is sealed, and sealed segments of similar size are merged so that their number stays logarithmic in the size
+ * of the index. Deleting a document copies the deleted set of its segment instead of touching the segment.
+ */
+public class InvertedIndex {
+
+    private static final float K1 = 1.2f;
+
+    private static final float B = 0.75f;
+
+    //A newer segment is merged into the older one once it holds at least half as many live documents
+    private static final int MERGE_FACTOR = 2;
+
+    private static final Comparator<IndexHit> WORST_FIRST =
+            Comparator.comparingDouble(IndexHit::getScore).thenComparingLong(IndexHit::getId);
+
+    private final int maxTailDocs;
+
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private volatile Snapshot snapshot = new Snapshot(new Segment[0], new BitSet[0], 0, 0);
+
+    //Writer state, guarded by writeLock
+    private final List<Segment> sealed = new ArrayList<>();
+
+    private final Map<Segment, BitSet> deleted = new HashMap<>();
+
+    private final List<Long> tailIds = new ArrayList<>();
+
+    private final List<String[]> tailTerms = new ArrayList<>();
+
+    private int liveDocs;
+
+    private long liveLength;
+
+    //Changes made while a rebuild is loading, replayed on top of the rebuilt index
+    private List<Runnable> rebuildLog;
+
+    /**
+     * @param maxTailDocs The number of documents after which the tail segment is sealed
+     */
+    public InvertedIndex(final int maxTailDocs) {
+        if (maxTailDocs < 1) {
+            throw new IllegalArgumentException("maxTailDocs must be positive");
+        }
+        this.maxTailDocs = maxTailDocs;
+    }
+
+    /**
+     * This method adds the text of an entity to the index, replacing the text indexed for it before.
+     *
+     * @param id   The entity id
+     * @param text The text to index
+     */
+    public void index(final long id, final String text) {
+        final String[] terms = Tokenizer.tokenize(text);
+        writeLock.lock();
+        try {
+            if (rebuildLog != null) {
+                rebuildLog.add(() -> add(id, terms));
+            }
+            add(id, terms);
+            publish();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * This method removes an entity from the index. Removing an entity that is not indexed does nothing.
+     *
+     * @param id The entity id
+     */
+    public void remove(final long id) {
+        writeLock.lock();
+        try {
+            if (rebuildLog != null) {
+                rebuildLog.add(() -> delete(id));
+            }
+            if (delete(id)) {
+                publish();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * This method replaces the whole content of the index with the documents of the given source. The index keeps
+     * serving searches and accepting changes while the source loads; changes made meanwhile are applied again on top
+     * of the loaded documents, so they win over whatever the source read before or after them.
+     *
+     * @param source The source of all the documents
+     */
+    public void rebuild(final DocumentSource source) {
+        writeLock.lock();
+        try {
+            if (rebuildLog != null) {
+                throw new IllegalStateException("The index is already being rebuilt");
+            }
+            rebuildLog = new ArrayList<>();
+        } finally {
+            writeLock.unlock();
+        }
+
+        Segment loaded = null;
+        try {
+            final Segment.Builder builder = new Segment.Builder();
+            source.load((id, text) -> builder.add(id, Tokenizer.tokenize(text)));
+            loaded = builder.build();
+        } finally {
+            writeLock.lock();
+            try {
+                final List<Runnable> log = rebuildLog;
+                rebuildLog = null;
+                if (loaded != null) {
+                    sealed.clear();
+                    deleted.clear();
+                    tailIds.clear();
+                    tailTerms.clear();
+                    if (loaded.size() > 0) {
+                        sealed.add(loaded);
+                    }
+                    liveDocs = loaded.size();
+                    liveLength = loaded.totalLength();
+                    for (Runnable change : log) {
+                        change.run();
+                    }
+                    publish();
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * This method finds the documents matching any term of the query, best match first.
+     *
+     * @param query The words to search for
+     * @param limit The maximum number of hits to return
+     * @param after The last hit of the previous page, or null for the first page
+     * @return List<IndexHit> The matching documents ranking after the given hit, ordered by descending score and id
+     */
+    public List<IndexHit> search(final String query, final int limit, final IndexHit after) {
+        final Snapshot current = snapshot;
+        final Set<String> terms = new LinkedHashSet<>();
+        Collections.addAll(terms, Tokenizer.tokenize(query));
+        if (terms.isEmpty() || current.liveDocs == 0 || limit < 1) {
+            return Collections.emptyList();
+        }
+
+        final String[] queryTerms = terms.toArray(new String[0]);
+        final float[] idfs = new float[queryTerms.length];
+        for (int t = 0; t < queryTerms.length; t++) {
+            int docFreq = 0;
+            for (Segment segment : current.segments) {
+                final PostingList postings = segment.postings(queryTerms[t]);
+                docFreq += postings == null ? 0 : postings.docFreq();
+            }
+            //Deleted documents still count in the postings, so the document frequency may exceed the live documents
+            docFreq = Math.min(docFreq, current.liveDocs);
+            idfs[t] = (float) Math.log(1 + (current.liveDocs - docFreq + 0.5) / (docFreq + 0.5));
+        }
+        final float averageLength = Math.max(1f, (float) current.liveLength / current.liveDocs);
+
+        //Min-heap holding the best hits so far, the worst of them on top
+        final PriorityQueue<IndexHit> top = new PriorityQueue<>(limit + 1, WORST_FIRST);
+        for (int s = 0; s < current.segments.length; s++) {
+            collect(current.segments[s], current.deleted[s], queryTerms, idfs, averageLength, limit, after, top);
+        }
+
+        final List<IndexHit> hits = new ArrayList<>(top);
+        hits.sort(WORST_FIRST.reversed());
+        return hits;
+    }
+
+    /**
+     * @return int The number of live documents in the index
+     */
+    public int size() {
+        return snapshot.liveDocs;
+    }
+
+    /**
+     * @return int The number of segments searches go through
+     */
+    public int segmentCount() {
+        return snapshot.segments.length;
+    }
+
+    /**
+     * This method scores the documents of one segment matching at least one query term, one document at a time.
+     */
+    private static void collect(final Segment segment, final BitSet segmentDeleted, final String[] queryTerms,
+                                final float[] idfs, final float averageLength, final int limit, final IndexHit after,
+                                final PriorityQueue<IndexHit> top) {
+        final PostingList.Cursor[] cursors = new PostingList.Cursor[queryTerms.length];
+        final float[] weights = new float[queryTerms.length];
+        int count = 0;
+        for (int t = 0; t < queryTerms.length; t++) {
+            final PostingList postings = segment.postings(queryTerms[t]);
+            if (postings != null) {
+                cursors[count] = postings.cursor();
+                cursors[count].nextDoc();
+                weights[count] = idfs[t] * (K1 + 1);
+                count++;
+            }
+        }
+
+        while (true) {
+            int doc = PostingList.NO_MORE_DOCS;
+            for (int c = 0; c < count; c++) {
+                doc = Math.min(doc, cursors[c].doc());
+            }
+            if (doc == PostingList.NO_MORE_DOCS) {
+                return;
+            }
+
+            final float norm = K1 * (1 - B + B * segment.length(doc) / averageLength);
+            float score = 0;
+            for (int c = 0; c < count; c++) {
+                if (cursors[c].doc() == doc) {
+                    final int freq = cursors[c].freq();
+                    score += weights[c] * freq / (freq + norm);
+                    cursors[c].nextDoc();
+                }
+            }
+
+            if (segmentDeleted != null && segmentDeleted.get(doc)) {
+                continue;
+            }
+            final long id = segment.id(doc);
+            if (after != null && !after.ranksAbove(score, id)) {
+                continue;
+            }
+            if (top.size() < limit) {
+                top.add(new IndexHit(id, score));
+            } else if (!top.peek().ranksAbove(score, id)) {
+                top.poll();
+                top.add(new IndexHit(id, score));
+            }
+        }
+    }
+
+    private void add(final long id, final String[] terms) {
+        delete(id);
+        tailIds.add(id);
+        tailTerms.add(terms);
+        liveDocs++;
+        liveLength += terms.length;
+        if (tailIds.size() >= maxTailDocs) {
+            sealed.add(buildTail());
+            tailIds.clear();
+            tailTerms.clear();
+            mergeSealed();
+        }
+    }
+
+    private boolean delete(final long id) {
+        final int tailIndex = tailIds.indexOf(id);
+        if (tailIndex >= 0) {
+            tailIds.remove(tailIndex);
+            liveLength -= tailTerms.remove(tailIndex).length;
+            liveDocs--;
+            return true;
+        }
+        for (int s = sealed.size() - 1; s >= 0; s--) {
+            final Segment segment = sealed.get(s);
+            final BitSet segmentDeleted = deleted.get(segment);
+            for (int doc : segment.docs(id)) {
+                if (segmentDeleted == null || !segmentDeleted.get(doc)) {
+                    //Published snapshots may share the old set, so it is copied rather than changed
+                    final BitSet copy = segmentDeleted == null ? new BitSet(segment.size()) : (BitSet) segmentDeleted.clone();
+                    copy.set(doc);
+                    deleted.put(segment, copy);
+                    liveLength -= segment.length(doc);
+                    liveDocs--;
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void mergeSealed() {
+        while (sealed.size() >= 2) {
+            final Segment older = sealed.get(sealed.size() - 2);
+            final Segment newer = sealed.get(sealed.size() - 1);
+            if (liveDocs(newer) * MERGE_FACTOR < liveDocs(older)) {
+                return;
+            }
+            final List<Segment> pair = new ArrayList<>(2);
+            pair.add(older);
+            pair.add(newer);
+            final List<BitSet> pairDeleted = new ArrayList<>(2);
+            pairDeleted.add(deleted.remove(older));
+            pairDeleted.add(deleted.remove(newer));
+            final Segment merged = Segment.merge(pair, pairDeleted);
+            sealed.remove(sealed.size() - 1);
+            sealed.set(sealed.size() - 1, merged);
+        }
+    }
+
+    private int liveDocs(final Segment segment) {
+        final BitSet segmentDeleted = deleted.get(segment);
+        return segment.size() - (segmentDeleted == null ? 0 : segmentDeleted.cardinality());
+    }
+
+    private Segment buildTail() {
+        final Segment.Builder builder = new Segment.Builder();
+        for (int i = 0; i < tailIds.size(); i++) {
+            builder.add(tailIds.get(i), tailTerms.get(i));
+        }
+        return builder.build();
+    }
+
+    private void publish() {
+        final int segmentCount = sealed.size() + (tailIds.isEmpty() ? 0 : 1);
+        final Segment[] segments = new Segment[segmentCount];
+        final BitSet[] segmentsDeleted = new BitSet[segmentCount];
+        for (int s = 0; s < sealed.size(); s++) {
+            segments[s] = sealed.get(s);
+            segmentsDeleted[s] = deleted.get(segments[s]);
+        }
+        if (!tailIds.isEmpty()) {
+            segments[segmentCount - 1] = buildTail();
+        }
+        snapshot = new Snapshot(segments, segmentsDeleted, liveDocs, liveLength);
+    }
+
+    /**
+     * Supplies every document of the index to a rebuild.
+     */
+    @FunctionalInterface
+    public interface DocumentSource {
+
+        /**
+         * This method passes every document to the given sink.
+         *
+         * @param sink The sink accepting the documents
+         */
+        void load(DocumentSink sink);
+    }
+
+    /**
+     * Accepts the documents of a {@link DocumentSource}.
+     */
+    @FunctionalInterface
+    public interface DocumentSink {
+
+        void add(long id, String text);
+    }
+
+    /**
+     * The state searches read: the segments with their deleted documents, and the statistics BM25 needs.
+     */
+    private static final class Snapshot {
+
+        private final Segment[] segments;
+
+        private final BitSet[] deleted;
+
+        private final int liveDocs;
+
+        private final long liveLength;
+
+        private Snapshot(final Segment[] segments, final BitSet[] deleted, final int liveDocs, final long liveLength) {
+            this.segments = segments;
+            this.deleted = deleted;
+            this.liveDocs = liveDocs;
+            this.liveLength = liveLength;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.upgrad.quora.service.search;
+
+import java.util.Arrays;
+
+/**
+ * The documents of a segment containing one term, with the number of times the term occurs in each of them.
+ * <p>
+ * Postings are stored as variable length integers in a single byte array: the gap to the previous document, shifted
+ * left by one, with the low bit set when the term occurs exactly once. Only other frequencies are written out, so a
+ * typical posting of a short text takes a single byte.
+ */
+final class PostingList {
+
+    static final int NO_MORE_DOCS = Integer.MAX_VALUE;
+
+    private final byte[] data;
+
+    private final int docFreq;
+
+    private PostingList(final byte[] data, final int docFreq) {
+        this.data = data;
+        this.docFreq = docFreq;
+    }
+
+    /**
+     * @return int The number of documents containing the term, deleted documents included
+     */
+    int docFreq() {
+        return docFreq;
+    }
+
+    /**
+     * @return int The size of the encoded postings in bytes
+     */
+    int sizeInBytes() {
+        return data.length;
+    }
+
+    /**
+     * This method returns a new cursor positioned before the first document.
+     *
+     * @return Cursor The cursor over the postings
+     */
+    Cursor cursor() {
+        return new Cursor(data);
+    }
+
+    /**
+     * Iterates over the postings in increasing document order. Cursors are cheap, single threaded and not reusable.
+     */
+    static final class Cursor {
+
+        private final byte[] data;
+
+        private int position;
+
+        private int doc = -1;
+
+        private int freq;
+
+        private Cursor(final byte[] data) {
+            this.data = data;
+        }
+
+        /**
+         * This method moves to the next document.
+         *
+         * @return int The next document, or NO_MORE_DOCS once the postings are exhausted
+         */
+        int nextDoc() {
+            if (position >= data.length) {
+                doc = NO_MORE_DOCS;
+                return doc;
+            }
+            final int code = readVInt();
+            doc += code >>> 1;
+            freq = (code & 1) != 0 ? 1 : readVInt();
+            return doc;
+        }
+
+        int doc() {
+            return doc;
+        }
+
+        int freq() {
+            return freq;
+        }
+
+        private int readVInt() {
+            byte b = data[position++];
+            int value = b & 0x7F;
+            for (int shift = 7; b < 0; shift += 7) {
+                b = data[position++];
+                value |= (b & 0x7F) << shift;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Encodes postings added in increasing document order.
+     */
+    static final class Builder {
+
+        private byte[] data = new byte[8];
+
+        private int size;
+
+        private int lastDoc = -1;
+
+        private int docFreq;
+
+        /**
+         * This method appends a posting.
+         *
+         * @param doc  The document, greater than every document added before
+         * @param freq The number of occurrences of the term in the document, at least 1
+         */
+        void add(final int doc, final int freq) {
+            final int gap = doc - lastDoc;
+            if (freq == 1) {
+                writeVInt(gap << 1 | 1);
+            } else {
+                writeVInt(gap << 1);
+                writeVInt(freq);
+            }
+            lastDoc = doc;
+            docFreq++;
+        }
+
+        boolean isEmpty() {
+            return docFreq == 0;
+        }
+
+        PostingList build() {
+            return new PostingList(Arrays.copyOf(data, size), docFreq);
+        }
+
+        private void writeVInt(int value) {
+            if (size + 5 > data.length) {
+                data = Arrays.copyOf(data, data.length << 1);
+            }
+            while ((value & ~0x7F) != 0) {
+                data[size++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            data[size++] = (byte) value;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.upgrad.quora.service.search;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Position of the last hit of a search result page. Pages are ordered by (rank desc, id desc), so the next page starts
+ * right after this key instead of skipping an offset. Clients only ever see the opaque encoded form.
+ */
+public final class SearchCursor {
+
+    private static final int ENCODED_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final float rank;
+
+    private final long id;
+
+    public SearchCursor(final float rank, final long id) {
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * This method encodes the cursor into a url safe string. The rank is kept bit for bit, so the next page compares
+     * against exactly the rank the database computed.
+     *
+     * @return String The opaque cursor
+     */
+    public String encode() {
+        final ByteBuffer buffer = ByteBuffer.allocate(ENCODED_BYTES);
+        buffer.putInt(Float.floatToIntBits(rank)).putLong(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * This method decodes a cursor produced by {@link #encode()}.
+     *
+     * @param cursor The opaque cursor sent back by the client
+     * @return SearchCursor The decoded cursor
+     * @throws IllegalArgumentException This exception is thrown if the cursor was not produced by {@link #encode()}
+     */
+    public static SearchCursor decode(final String cursor) {
+        final byte[] bytes = Base64.getUrlDecoder().decode(cursor);
+        if (bytes.length != ENCODED_BYTES) {
+            throw new IllegalArgumentException("Cursor has " + bytes.length + " bytes");
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        final float rank = Float.intBitsToFloat(buffer.getInt());
+        if (Float.isNaN(rank)) {
+            throw new IllegalArgumentException("Cursor rank is not a number");
+        }
+        return new SearchCursor(rank, buffer.getLong());
+    }
+}
@@ -0,0 +1,26 @@
+package com.upgrad.quora.service.search;
+
+/**
+ * An entity matching a search query, together with its relevance to the query.
+ *
+ * @param <E> The type of the matching entity
+ */
+public class SearchHit<E> {
+
+    private final E entity;
+
+    private final float rank;
+
+    public SearchHit(final E entity, final float rank) {
+        this.entity = entity;
+        this.rank = rank;
+    }
+
+    public E getEntity() {
+        return entity;
+    }
+
+    public float getRank() {
+        return rank;
+    }
+}
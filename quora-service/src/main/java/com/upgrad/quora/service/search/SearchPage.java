@@ -0,0 +1,115 @@
+package com.upgrad.quora.service.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of search results, ordered by descending relevance.
+ *
+ * @param <E> The type of the matching entities
+ */
+public class SearchPage<E> {
+
+    /**
+     * Number of hits returned when the client does not ask for a page size.
+     */
+    public static final int DEFAULT_SIZE = 20;
+
+    /**
+     * Largest number of hits returned in one page.
+     */
+    public static final int MAX_SIZE = 100;
+
+    private final List<SearchHit<E>> hits;
+
+    private final String nextCursor;
+
+    public SearchPage(final List<SearchHit<E>> hits, final String nextCursor) {
+        this.hits = hits;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<SearchHit<E>> getHits() {
+        return hits;
+    }
+
+    /**
+     * @return String The cursor of the page following this one, or null if this is the last page
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    /**
+     * This method returns the page size to use for the size the client asked for.
+     *
+     * @param limit The page size asked for, or null
+     * @return int The default size if none was asked for, else the asked size brought within 1 and MAX_SIZE
+     */
+    public static int size(final Integer limit) {
+        return limit == null ? DEFAULT_SIZE : Math.max(1, Math.min(limit, MAX_SIZE));
+    }
+
+    /**
+     * This method builds a page out of hits fetched with one extra hit beyond the page size, the extra hit telling
+     * whether another page follows.
+     *
+     * @param hits     Up to pageSize + 1 hits, best first
+     * @param pageSize The page size
+     * @param idOf     The id of a hit's entity, ordering hits of equal rank
+     * @param <E>      The type of the matching entities
+     * @return SearchPage The page
+     */
+    public static <E> SearchPage<E> of(final List<SearchHit<E>> hits, final int pageSize, final ToLongFunction<E> idOf) {
+        if (hits.size() <= pageSize) {
+            return new SearchPage<>(hits, null);
+        }
+        final SearchHit<E> last = hits.get(pageSize - 1);
+        final String nextCursor = new SearchCursor(last.getRank(), idOf.applyAsLong(last.getEntity())).encode();
+        return new SearchPage<>(new ArrayList<>(hits.subList(0, pageSize)), nextCursor);
+    }
+
+    /**
+     * This method builds a page out of index hits fetched with one extra hit beyond the page size, loading the
+     * entities of the hits. Entities deleted since they were indexed are left out.
+     *
+     * @param indexHits Up to pageSize + 1 index hits, best first
+     * @param pageSize  The page size
+     * @param loader    Loads the entities with the given ids, in any order
+     * @param idOf      The id of an entity
+     * @param <E>       The type of the matching entities
+     * @return SearchPage The page
+     */
+    public static <E> SearchPage<E> fromIndex(final List<IndexHit> indexHits, final int pageSize,
+                                              final Function<Collection<Long>, List<E>> loader, final ToLongFunction<E> idOf) {
+        final List<IndexHit> pageHits = indexHits.size() > pageSize ? indexHits.subList(0, pageSize) : indexHits;
+        final List<Long> ids = new ArrayList<>(pageHits.size());
+        for (IndexHit indexHit : pageHits) {
+            ids.add(indexHit.getId());
+        }
+        final Map<Long, E> entities = new HashMap<>();
+        for (E entity : loader.apply(ids)) {
+            entities.put(idOf.applyAsLong(entity), entity);
+        }
+
+        final List<SearchHit<E>> hits = new ArrayList<>(pageHits.size());
+        for (IndexHit indexHit : pageHits) {
+            final E entity = entities.get(indexHit.getId());
+            if (entity != null) {
+                hits.add(new SearchHit<>(entity, indexHit.getScore()));
+            }
+        }
+        //The cursor follows the index, so a page emptied by deletions does not end the search
+        String nextCursor = null;
+        if (indexHits.size() > pageSize) {
+            final IndexHit last = pageHits.get(pageSize - 1);
+            nextCursor = new SearchCursor(last.getScore(), last.getId()).encode();
+        }
+        return new SearchPage<>(hits, nextCursor);
+    }
+}
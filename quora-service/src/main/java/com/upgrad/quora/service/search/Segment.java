@@ -0,0 +1,218 @@
+package com.upgrad.quora.service.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable slice of an {@link InvertedIndex}. Documents are numbered from 0 in the order they were added; each
+ * keeps its entity id and its length in terms, and every term maps to the postings of the documents containing it.
+ * Segments are never changed once built: deleting a document is recorded outside the segment, and merging segments
+ * builds a new one.
+ */
+final class Segment {
+
+    private final long[] ids;
+
+    private final int[] lengths;
+
+    private final Map<String, PostingList> postings;
+
+    private final long totalLength;
+
+    //ids in increasing order and the matching documents, to find the document of an id without a map per document
+    private final long[] sortedIds;
+
+    private final int[] sortedDocs;
+
+    private Segment(final long[] ids, final int[] lengths, final Map<String, PostingList> postings) {
+        this.ids = ids;
+        this.lengths = lengths;
+        this.postings = postings;
+
+        long total = 0;
+        for (int length : lengths) {
+            total += length;
+        }
+        this.totalLength = total;
+
+        final Integer[] order = new Integer[ids.length];
+        for (int doc = 0; doc < order.length; doc++) {
+            order[doc] = doc;
+        }
+        Arrays.sort(order, (first, second) -> Long.compare(ids[first], ids[second]));
+        this.sortedIds = new long[ids.length];
+        this.sortedDocs = new int[ids.length];
+        for (int i = 0; i < order.length; i++) {
+            sortedIds[i] = ids[order[i]];
+            sortedDocs[i] = order[i];
+        }
+    }
+
+    int size() {
+        return ids.length;
+    }
+
+    long id(final int doc) {
+        return ids[doc];
+    }
+
+    int length(final int doc) {
+        return lengths[doc];
+    }
+
+    long totalLength() {
+        return totalLength;
+    }
+
+    int termCount() {
+        return postings.size();
+    }
+
+    /**
+     * @param term The term
+     * @return PostingList The postings of the term, or null if no document of the segment contains it
+     */
+    PostingList postings(final String term) {
+        return postings.get(term);
+    }
+
+    /**
+     * This method finds the documents holding the given id, newest first. An id shows up more than once when the
+     * entity was indexed again after its older document had been deleted.
+     *
+     * @param id The entity id
+     * @return int[] The documents with that id, empty if there is none
+     */
+    int[] docs(final long id) {
+        int index = Arrays.binarySearch(sortedIds, id);
+        if (index < 0) {
+            return new int[0];
+        }
+        while (index > 0 && sortedIds[index - 1] == id) {
+            index--;
+        }
+        int end = index;
+        while (end < sortedIds.length && sortedIds[end] == id) {
+            end++;
+        }
+        final int[] docs = new int[end - index];
+        for (int i = 0; i < docs.length; i++) {
+            docs[i] = sortedDocs[end - 1 - i];
+        }
+        return docs;
+    }
+
+    /**
+     * This method builds a segment out of the live documents of the given segments, keeping their order.
+     *
+     * @param segments The segments to merge, oldest first
+     * @param deleted  The deleted documents of every segment, null entries for segments without deletions
+     * @return Segment The merged segment
+     */
+    static Segment merge(final List<Segment> segments, final List<BitSet> deleted) {
+        int liveDocs = 0;
+        final int[][] docMaps = new int[segments.size()][];
+        for (int s = 0; s < segments.size(); s++) {
+            final Segment segment = segments.get(s);
+            final BitSet segmentDeleted = deleted.get(s);
+            docMaps[s] = new int[segment.size()];
+            for (int doc = 0; doc < segment.size(); doc++) {
+                docMaps[s][doc] = segmentDeleted != null && segmentDeleted.get(doc) ? -1 : liveDocs++;
+            }
+        }
+
+        final long[] ids = new long[liveDocs];
+        final int[] lengths = new int[liveDocs];
+        for (int s = 0; s < segments.size(); s++) {
+            final Segment segment = segments.get(s);
+            for (int doc = 0; doc < segment.size(); doc++) {
+                final int newDoc = docMaps[s][doc];
+                if (newDoc >= 0) {
+                    ids[newDoc] = segment.ids[doc];
+                    lengths[newDoc] = segment.lengths[doc];
+                }
+            }
+        }
+
+        final Map<String, PostingList.Builder> builders = new HashMap<>();
+        for (int s = 0; s < segments.size(); s++) {
+            for (Map.Entry<String, PostingList> term : segments.get(s).postings.entrySet()) {
+                final PostingList.Builder builder = builders.computeIfAbsent(term.getKey(), t -> new PostingList.Builder());
+                final PostingList.Cursor cursor = term.getValue().cursor();
+                for (int doc = cursor.nextDoc(); doc != PostingList.NO_MORE_DOCS; doc = cursor.nextDoc()) {
+                    final int newDoc = docMaps[s][doc];
+                    if (newDoc >= 0) {
+                        builder.add(newDoc, cursor.freq());
+                    }
+                }
+            }
+        }
+        final Map<String, PostingList> postings = new HashMap<>(builders.size() * 4 / 3 + 1);
+        for (Map.Entry<String, PostingList.Builder> term : builders.entrySet()) {
+            if (!term.getValue().isEmpty()) {
+                postings.put(term.getKey(), term.getValue().build());
+            }
+        }
+        return new Segment(ids, lengths, postings);
+    }
+
+    /**
+     * Builds a segment out of documents added one at a time.
+     */
+    static final class Builder {
+
+        private long[] ids = new long[16];
+
+        private int[] lengths = new int[16];
+
+        private int size;
+
+        private final Map<String, PostingList.Builder> builders = new HashMap<>();
+
+        //Reused between documents to count the occurrences of each term
+        private final Map<String, int[]> termFreqs = new HashMap<>();
+
+        /**
+         * This method adds a document to the segment.
+         *
+         * @param id    The entity id of the document
+         * @param terms The terms of the document, as returned by the tokenizer
+         */
+        void add(final long id, final String[] terms) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size << 1);
+                lengths = Arrays.copyOf(lengths, size << 1);
+            }
+            final int doc = size++;
+            ids[doc] = id;
+            lengths[doc] = terms.length;
+
+            termFreqs.clear();
+            for (String term : terms) {
+                termFreqs.computeIfAbsent(term, t -> new int[1])[0]++;
+            }
+            for (Map.Entry<String, int[]> term : termFreqs.entrySet()) {
+                builders.computeIfAbsent(term.getKey(), t -> new PostingList.Builder()).add(doc, term.getValue()[0]);
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        Segment build() {
+            if (size == 0) {
+                return new Segment(new long[0], new int[0], Collections.emptyMap());
+            }
+            final Map<String, PostingList> postings = new HashMap<>(builders.size() * 4 / 3 + 1);
+            for (Map.Entry<String, PostingList.Builder> term : builders.entrySet()) {
+                postings.put(term.getKey(), term.getValue().build());
+            }
+            return new Segment(Arrays.copyOf(ids, size), Arrays.copyOf(lengths, size), postings);
+        }
+    }
+}
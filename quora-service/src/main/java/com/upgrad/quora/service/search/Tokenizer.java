@@ -0,0 +1,57 @@
+package com.upgrad.quora.service.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into index terms: runs of letters and digits, lower cased, without the most common english words.
+ * Anything else, underscores included, separates terms the way the Postgres default parser does.
+ */
+final class Tokenizer {
+
+    private static final Set<String> STOP_WORDS = new HashSet<>(Arrays.asList(
+            "a", "an", "and", "are", "as", "at", "be", "but", "by", "for", "if", "in", "into", "is", "it", "no", "not",
+            "of", "on", "or", "such", "that", "the", "their", "then", "there", "these", "they", "this", "to", "was",
+            "will", "with"));
+
+    //Longer runs are not words but pasted hashes, urls and the like
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private static final String[] NO_TERMS = new String[0];
+
+    private Tokenizer() {
+    }
+
+    /**
+     * This method splits the given text into terms, keeping repeated terms.
+     *
+     * @param text The text to split
+     * @return String[] The terms of the text in order of appearance
+     */
+    static String[] tokenize(final String text) {
+        if (text == null || text.isEmpty()) {
+            return NO_TERMS;
+        }
+        final List<String> terms = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            final boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                if (i - start <= MAX_TERM_LENGTH) {
+                    final String term = text.substring(start, i).toLowerCase(Locale.ROOT);
+                    if (!STOP_WORDS.contains(term)) {
+                        terms.add(term);
+                    }
+                }
+                start = -1;
+            }
+        }
+        return terms.toArray(NO_TERMS);
+    }
+}
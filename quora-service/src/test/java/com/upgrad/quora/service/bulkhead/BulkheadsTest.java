@@ -0,0 +1,115 @@
+package com.upgrad.quora.service.bulkhead;
+
+import com.upgrad.quora.service.common.GenericErrorCode;
+import com.upgrad.quora.service.common.UnexpectedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class BulkheadsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private Bulkheads bulkheads;
+
+    @After
+    public void close() {
+        if (bulkheads != null) {
+            bulkheads.close();
+        }
+    }
+
+    //This test case passes when a request that waited in the queue past the request timeout is completed with GEN-002
+    //and counted as expired without being executed, while the request that held the thread finishes normally.
+    @Test
+    public void requestQueuedPastTheTimeoutIsDropped() throws Exception {
+        bulkheads = bulkheads(50);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> running = bulkheads.submit(Workload.ADMIN, () -> {
+            release.await();
+            return "done";
+        });
+        final AtomicBoolean executed = new AtomicBoolean();
+        final CompletableFuture<String> queued = bulkheads.submit(Workload.ADMIN, () -> {
+            executed.set(true);
+            return "late";
+        });
+
+        Thread.sleep(200);
+        release.countDown();
+
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        try {
+            queued.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof UnexpectedException);
+            assertEquals(GenericErrorCode.GEN_002, ((UnexpectedException) e.getCause()).getErrorCode());
+        }
+        assertFalse(executed.get());
+        assertEquals(1.0, expiredCount(), 0.0);
+    }
+
+    //This test case passes when a request that waited in the queue for less than the request timeout is executed.
+    @Test
+    public void requestQueuedWithinTheTimeoutIsExecuted() throws Exception {
+        bulkheads = bulkheads(60000);
+        final CountDownLatch release = new CountDownLatch(1);
+        bulkheads.submit(Workload.ADMIN, () -> {
+            release.await();
+            return "done";
+        });
+        final CompletableFuture<String> queued = bulkheads.submit(Workload.ADMIN, () -> "queued");
+
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+        assertEquals(0.0, expiredCount(), 0.0);
+    }
+
+    //This test case passes when a request whose future was cancelled while it waited in the queue is not executed.
+    @Test
+    public void cancelledRequestIsNotExecuted() throws Exception {
+        bulkheads = bulkheads(0);
+        final CountDownLatch release = new CountDownLatch(1);
+        final CompletableFuture<String> running = bulkheads.submit(Workload.ADMIN, () -> {
+            release.await();
+            return "done";
+        });
+        final AtomicBoolean executed = new AtomicBoolean();
+        final CompletableFuture<String> queued = bulkheads.submit(Workload.ADMIN, () -> {
+            executed.set(true);
+            return "cancelled";
+        });
+
+        queued.cancel(false);
+        release.countDown();
+
+        assertEquals("done", running.get(5, TimeUnit.SECONDS));
+        //A task submitted after the cancelled one runs once the cancelled one has been taken off the queue
+        assertEquals("after", bulkheads.submit(Workload.ADMIN, () -> "after").get(5, TimeUnit.SECONDS));
+        assertFalse(executed.get());
+    }
+
+    private Bulkheads bulkheads(final long requestTimeoutMillis) {
+        final BulkheadProperties properties = new BulkheadProperties();
+        properties.setAdmin(new BulkheadProperties.Pool(1, 8));
+        return new Bulkheads(properties, meterRegistry, false, requestTimeoutMillis);
+    }
+
+    private double expiredCount() {
+        return meterRegistry.get("quora.bulkhead.expired").tag("workload", Workload.ADMIN.getName()).counter().count();
+    }
+}
@@ -0,0 +1,99 @@
+package com.upgrad.quora.service.datasource;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.Collections;
+
+import static org.junit.Assert.assertSame;
+
+public class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = stubConnection();
+
+    private final Connection replicaConnection = stubConnection();
+
+    private ReplicaRoutingDataSource routingDataSource;
+
+    private DataSource dataSource;
+
+    private DataSourceTransactionManager transactionManager;
+
+    @Before
+    public void setUp() {
+        final DataSource primary = stubDataSource(primaryConnection);
+        final DataSource replica = stubDataSource(replicaConnection);
+
+        final ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker();
+        ReflectionTestUtils.setField(readYourWritesTracker, "enabled", true);
+        ReflectionTestUtils.setField(readYourWritesTracker, "windowMillis", 60000L);
+
+        routingDataSource = new ReplicaRoutingDataSource(primary, Collections.singletonList(replica),
+                readYourWritesTracker, 60000, 10000);
+        //The same wrapping as ReplicaRoutingConfiguration, so the read-only flag is set before the routing happens
+        dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+        transactionManager = new DataSourceTransactionManager(dataSource);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        DataSourceRoutingContext.clear();
+        routingDataSource.close();
+    }
+
+    //This test case passes when a read-only transaction is served by the replica.
+    @Test
+    public void readOnlyTransactionUsesReplica() {
+        assertSame(replicaConnection, connectionUsedBy(true));
+    }
+
+    //This test case passes when a transaction that may write is served by the primary.
+    @Test
+    public void writeTransactionUsesPrimary() {
+        assertSame(primaryConnection, connectionUsedBy(false));
+    }
+
+    //This test case passes when a caller keeps reading from the primary right after its own write, while another
+    //caller's reads still go to the replica.
+    @Test
+    public void readAfterWriteIsPinnedToPrimary() {
+        DataSourceRoutingContext.setCallerKey("writing_caller");
+        connectionUsedBy(false);
+        assertSame(primaryConnection, connectionUsedBy(true));
+
+        DataSourceRoutingContext.setCallerKey("other_caller");
+        assertSame(replicaConnection, connectionUsedBy(true));
+    }
+
+    private Connection connectionUsedBy(final boolean readOnly) {
+        final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                ((ConnectionProxy) DataSourceUtils.getConnection(dataSource)).getTargetConnection());
+    }
+
+    private static Connection stubConnection() {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getReturnType() == boolean.class) {
+                        return false;
+                    }
+                    return method.getReturnType() == int.class ? 0 : null;
+                });
+    }
+
+    private static DataSource stubDataSource(final Connection connection) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> method.getName().equals("getConnection") ? connection : null);
+    }
+}
@@ -0,0 +1,144 @@
+package com.upgrad.quora.service.limiter;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TokenBucketRateLimiterTest {
+
+    private static final String ROUTE = "GET /question/all";
+
+    private static final String SLOW_ROUTE = "POST /user/signin";
+
+    //Far from 0, so that the limiter cannot rely on the clock starting anywhere in particular
+    private final AtomicLong clock = new AtomicLong(Long.MAX_VALUE - TimeUnit.HOURS.toNanos(1));
+
+    //This test case passes when a client gets a burst of the capacity of its bucket, is then told how long to wait for
+    //the next token, and is admitted again once that time has passed.
+    @Test
+    public void burstThenRefill() {
+        final TokenBucketRateLimiter rateLimiter = rateLimiter(5, 10, 100, 2);
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(ROUTE, "client"));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), rateLimiter.tryAcquire(ROUTE, "client"));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), rateLimiter.tryAcquire(ROUTE, "client"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertEquals(0, rateLimiter.tryAcquire(ROUTE, "client"));
+        assertTrue(rateLimiter.tryAcquire(ROUTE, "client") > 0);
+        assertEquals(3, rateLimiter.getRejectedCount());
+    }
+
+    //This test case passes when a bucket left alone for long holds no more than its capacity, and other clients and
+    //routes keep buckets of their own.
+    @Test
+    public void idleBucketHoldsOnlyItsCapacity() {
+        final TokenBucketRateLimiter rateLimiter = rateLimiter(3, 10, 100, 2);
+        assertEquals(0, rateLimiter.tryAcquire(ROUTE, "client"));
+        clock.addAndGet(TimeUnit.HOURS.toNanos(1));
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(ROUTE, "client"));
+        }
+        assertTrue(rateLimiter.tryAcquire(ROUTE, "client") > 0);
+
+        assertEquals(0, rateLimiter.tryAcquire(ROUTE, "other_client"));
+        assertEquals(0, rateLimiter.tryAcquire(SLOW_ROUTE, "client"));
+    }
+
+    //This test case passes when many threads take tokens from the same bucket at the same instant and exactly the
+    //capacity of the bucket is admitted, every other request being rejected.
+    @Test
+    public void concurrentRequestsTakeExactlyTheCapacity() throws Exception {
+        final int threads = 8;
+        final int requestsPerThread = 5000;
+        final TokenBucketRateLimiter rateLimiter = rateLimiter(10000, 1, 100, 2);
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Integer>> admitted = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                admitted.add(executor.submit(() -> {
+                    start.await();
+                    int count = 0;
+                    for (int j = 0; j < requestsPerThread; j++) {
+                        if (rateLimiter.tryAcquire(ROUTE, "client") == 0) {
+                            count++;
+                        }
+                    }
+                    return count;
+                }));
+            }
+            start.countDown();
+            int total = 0;
+            for (Future<Integer> count : admitted) {
+                total += count.get(30, TimeUnit.SECONDS);
+            }
+            assertEquals(10000, total);
+            assertEquals(threads * requestsPerThread - 10000, rateLimiter.getRejectedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    //This test case passes when a full stripe drops the buckets that have refilled completely and keeps the one of a
+    //client that is still being limited, so that client cannot get a fresh bucket by making others send requests.
+    @Test
+    public void evictionDropsRefilledBucketsFirst() {
+        //Two stripes of 4 keys; the slow route refills a token every 1000 seconds, the standard one every millisecond
+        final TokenBucketRateLimiter rateLimiter = rateLimiter(2, 1000, 8, 2, limit(SLOW_ROUTE, 2, 0.001));
+        assertEquals(0, rateLimiter.tryAcquire(SLOW_ROUTE, "limited_client"));
+        assertEquals(0, rateLimiter.tryAcquire(SLOW_ROUTE, "limited_client"));
+        assertTrue(rateLimiter.tryAcquire(SLOW_ROUTE, "limited_client") > 0);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(ROUTE, "client" + i));
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+            assertTrue(rateLimiter.getKeyCount() <= 8);
+        }
+        assertTrue(rateLimiter.tryAcquire(SLOW_ROUTE, "limited_client") > 0);
+    }
+
+    //This test case passes when more clients are active at once than buckets may be kept, and the stripes drop buckets
+    //that have not refilled yet rather than growing past the maximum.
+    @Test
+    public void evictionKeepsTheMaximumWhenNoBucketHasRefilled() {
+        final TokenBucketRateLimiter rateLimiter = rateLimiter(2, 1, 8, 2);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, rateLimiter.tryAcquire(ROUTE, "client" + i));
+            assertTrue(rateLimiter.getKeyCount() <= 8);
+        }
+    }
+
+    private TokenBucketRateLimiter rateLimiter(final int capacity, final double refillPerSecond, final int maxKeys,
+                                               final int stripes, final RateLimitProperties.RouteLimit... routes) {
+        final RateLimitProperties properties = new RateLimitProperties();
+        properties.setStandard(new RateLimitProperties.Limit(capacity, refillPerSecond));
+        final List<RateLimitProperties.RouteLimit> routeLimits = new ArrayList<>();
+        Collections.addAll(routeLimits, routes);
+        properties.setRoutes(routeLimits);
+        properties.setMaxKeys(maxKeys);
+        properties.setStripes(stripes);
+        return new TokenBucketRateLimiter(properties, clock::get);
+    }
+
+    private static RateLimitProperties.RouteLimit limit(final String route, final int capacity, final double refillPerSecond) {
+        final RateLimitProperties.RouteLimit limit = new RateLimitProperties.RouteLimit();
+        limit.setRoute(route);
+        limit.setCapacity(capacity);
+        limit.setRefillPerSecond(refillPerSecond);
+        return limit;
+    }
+}
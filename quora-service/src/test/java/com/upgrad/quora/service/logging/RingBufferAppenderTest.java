@@ -0,0 +1,150 @@
+package com.upgrad.quora.service.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RingBufferAppenderTest {
+
+    private static final int CAPACITY = 64;
+
+    private final LoggerContext context = new LoggerContext();
+
+    private final RecordingAppender recorded = new RecordingAppender();
+
+    private final RingBufferAppender appender = new RingBufferAppender();
+
+    @Before
+    public void start() {
+        recorded.setContext(context);
+        recorded.setName("RECORDED");
+        recorded.start();
+        appender.setContext(context);
+        appender.setName("RING");
+        appender.setCapacity(CAPACITY);
+        appender.setMaxFlushTimeMs(10000);
+        appender.addAppender(recorded);
+        appender.start();
+    }
+
+    @After
+    public void stop() {
+        recorded.release.countDown();
+        appender.stop();
+    }
+
+    //This test case passes when producers logging at once into a full ring have exactly the events beyond its capacity
+    //dropped and counted, and stop() writes every event still in the ring, in the order each producer logged them,
+    //followed by the number of dropped events.
+    @Test
+    public void concurrentProducersOnAFullRing() throws Exception {
+        //The first event holds the worker in the attached appender, so the ring stays full from then on
+        appender.doAppend(event("first"));
+        assertTrue(recorded.entered.await(5, TimeUnit.SECONDS));
+
+        final int producers = 8;
+        final int eventsPerProducer = 1000;
+        final CountDownLatch go = new CountDownLatch(1);
+        final List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int producer = p;
+            final Thread thread = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < eventsPerProducer; i++) {
+                    appender.doAppend(event(producer + ":" + i));
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        go.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+        }
+        assertEquals(producers * eventsPerProducer - CAPACITY, appender.getDroppedCount());
+
+        recorded.release.countDown();
+        appender.stop();
+
+        final List<ILoggingEvent> events = recorded.events;
+        assertEquals("first", events.get(0).getMessage());
+        final Map<Integer, Integer> lastIndex = new HashMap<>();
+        long reportedDropped = 0;
+        int logged = 0;
+        for (ILoggingEvent event : events.subList(1, events.size())) {
+            if (event.getLevel() == Level.WARN) {
+                reportedDropped += Long.parseLong(event.getMessage().split(" ")[1]);
+                continue;
+            }
+            final String[] parts = event.getMessage().split(":");
+            final int producer = Integer.parseInt(parts[0]);
+            final int index = Integer.parseInt(parts[1]);
+            assertTrue(index > lastIndex.getOrDefault(producer, -1));
+            lastIndex.put(producer, index);
+            logged++;
+        }
+        assertEquals(CAPACITY, logged);
+        assertEquals(appender.getDroppedCount(), reportedDropped);
+    }
+
+    //This test case passes when the worker, parked after the ring has stayed empty, is woken by the next event rather
+    //than by the end of its park.
+    @Test
+    public void parkedWorkerIsWokenByAnEvent() throws Exception {
+        recorded.release.countDown();
+        //Long enough for the worker to have gone through its yields and parked
+        Thread.sleep(200);
+
+        final long offered = System.nanoTime();
+        appender.doAppend(event("late"));
+        assertTrue(recorded.entered.await(5, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - offered < TimeUnit.MILLISECONDS.toNanos(500));
+    }
+
+    private LoggingEvent event(final String message) {
+        return new LoggingEvent(RingBufferAppenderTest.class.getName(), context.getLogger("test"), Level.INFO, message,
+                null, null);
+    }
+
+    /**
+     * Records the events it is given, and holds the first one until it is released.
+     */
+    private static class RecordingAppender extends AppenderBase<ILoggingEvent> {
+
+        private final List<ILoggingEvent> events = new ArrayList<>();
+
+        private final CountDownLatch entered = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        protected void append(final ILoggingEvent event) {
+            events.add(event);
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}